@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.logging;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+/**
+ * Microbenchmarks of constructing and completing a {@link RequestLog} with the listeners waiting for
+ * its completion.
+ */
+@State(Scope.Benchmark)
+public class RequestLogBenchmark {
+
+    private static final ResponseHeaders RESPONSE_HEADERS = ResponseHeaders.of(200);
+
+    @Param({ "0", "1", "4", "16" })
+    private int numListeners;
+
+    private ServiceRequestContext ctx;
+
+    @Setup
+    public void setUp() {
+        ctx = ServiceRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+    }
+
+    @Benchmark
+    public void buildAndComplete(Blackhole bh) {
+        final RequestLogBuilder logBuilder = RequestLog.builder(ctx);
+        for (int i = 0; i < numListeners; i++) {
+            if ((i & 1) == 0) {
+                logBuilder.whenComplete().thenAccept(bh::consume);
+            } else {
+                logBuilder.whenRequestComplete().thenAccept(bh::consume);
+            }
+        }
+
+        logBuilder.startRequest();
+        logBuilder.requestHeaders(ctx.request().headers());
+        logBuilder.endRequest();
+        logBuilder.responseHeaders(RESPONSE_HEADERS);
+        logBuilder.endResponse();
+        bh.consume(logBuilder.ensureComplete());
+    }
+}
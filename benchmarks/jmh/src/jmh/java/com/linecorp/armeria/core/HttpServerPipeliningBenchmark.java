@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.core;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.linecorp.armeria.client.ClientFactory;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.metric.NoopMeterRegistry;
+import com.linecorp.armeria.server.Server;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.server.ServerPort;
+
+/**
+ * Microbenchmarks of a {@link Server} which receives pipelined HTTP/1 requests.
+ *
+ * @see ServerBuilder#http1PipelinedResponseBatching(boolean)
+ */
+@State(Scope.Benchmark)
+public class HttpServerPipeliningBenchmark {
+
+    private Server server;
+    private ClientFactory clientFactory;
+    private WebClient webClient;
+
+    @Param({ "false", "true" })
+    private boolean batchResponses;
+
+    @Param({ "1", "16" })
+    private int burstSize;
+
+    @Setup
+    public void startServer() throws Exception {
+        final byte[] PLAINTEXT = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+        server = Server.builder()
+                       .service("/plaintext", (ctx, req) -> HttpResponse
+                               .of(HttpStatus.OK, MediaType.PLAIN_TEXT_UTF_8, PLAINTEXT))
+                       .http1PipelinedResponseBatching(batchResponses)
+                       .requestTimeout(Duration.ZERO)
+                       .meterRegistry(NoopMeterRegistry.get())
+                       .build();
+        server.start().join();
+        final ServerPort httpPort = server.activePorts().values().stream()
+                                          .filter(ServerPort::hasHttp).findAny()
+                                          .get();
+        clientFactory = ClientFactory.builder()
+                                     .useHttp1Pipelining(true)
+                                     .build();
+        webClient = WebClient.builder("h1c://127.0.0.1:" + httpPort.localAddress().getPort())
+                             .factory(clientFactory)
+                             .build();
+    }
+
+    @TearDown
+    public void stopServer() throws Exception {
+        clientFactory.close();
+        server.stop().join();
+    }
+
+    /**
+     * Sends a burst of {@link #burstSize} requests at once so that they are pipelined over the same
+     * connection, and waits for all responses.
+     */
+    @Benchmark
+    public AggregatedHttpResponse pipelinedPlainText() {
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<AggregatedHttpResponse>[] futures = new CompletableFuture[burstSize];
+        for (int i = 0; i < burstSize; i++) {
+            futures[i] = webClient.get("/plaintext").aggregate();
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures[burstSize - 1].join();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.core.client.circuitbreaker;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.linecorp.armeria.client.circuitbreaker.CircuitBreaker;
+import com.linecorp.armeria.client.circuitbreaker.CircuitBreakerBuilder;
+
+/**
+ * Microbenchmarks of the event counters of {@link CircuitBreaker}, with and without
+ * {@link CircuitBreakerBuilder#useRingBufferCounter(boolean)}.
+ *
+ * <p>Run with {@code -Pjmh.profilers=gc} to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+public class CircuitBreakerCounterBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean useRingBufferCounter;
+
+    @Param({ "1", "100" })
+    private long updateIntervalMillis;
+
+    private CircuitBreaker circuitBreaker;
+
+    @Setup
+    public void setUp() {
+        circuitBreaker = CircuitBreaker.builder()
+                                       // Never open the circuit.
+                                       .minimumRequestThreshold(Long.MAX_VALUE)
+                                       .counterSlidingWindow(Duration.ofSeconds(10))
+                                       .counterUpdateInterval(Duration.ofMillis(updateIntervalMillis))
+                                       .useRingBufferCounter(useRingBufferCounter)
+                                       .build();
+    }
+
+    @Benchmark
+    public void uncontended() {
+        onEvent();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void contended() {
+        onEvent();
+    }
+
+    private void onEvent() {
+        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+}
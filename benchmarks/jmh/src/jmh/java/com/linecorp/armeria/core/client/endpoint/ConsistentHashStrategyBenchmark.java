@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.core.client.endpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToLongFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.DynamicEndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * Microbenchmarks of the consistent hashing {@link EndpointSelectionStrategy}s.
+ */
+@State(Scope.Thread)
+public class ConsistentHashStrategyBenchmark {
+
+    // Hashes a random key because the benchmarks do not create a ClientRequestContext.
+    private static final ToLongFunction<ClientRequestContext> hasher =
+            ctx -> ThreadLocalRandom.current().nextLong();
+
+    @Param({ "10", "500" })
+    private int numEndpoints;
+
+    private EndpointGroup groupSticky;
+    private EndpointGroup groupRingHash;
+    private EndpointGroup groupMaglev;
+
+    private UpdatableEndpointGroup dynamicGroupRingHash;
+    private UpdatableEndpointGroup dynamicGroupMaglev;
+
+    private List<Endpoint> endpoints;
+    private List<Endpoint> endpointsWithoutLast;
+    private boolean removed;
+
+    @Setup
+    public void setupCases() {
+        endpoints = new ArrayList<>();
+        for (int i = 0; i < numEndpoints; i++) {
+            endpoints.add(Endpoint.of("127.0.0.1", i + 1));
+        }
+        endpointsWithoutLast = endpoints.subList(0, numEndpoints - 1);
+
+        groupSticky = EndpointGroup.of(EndpointSelectionStrategy.sticky(hasher), endpoints);
+        groupRingHash = EndpointGroup.of(EndpointSelectionStrategy.ringHash(hasher), endpoints);
+        groupMaglev = EndpointGroup.of(EndpointSelectionStrategy.maglev(hasher), endpoints);
+
+        dynamicGroupRingHash = new UpdatableEndpointGroup(EndpointSelectionStrategy.ringHash(hasher));
+        dynamicGroupRingHash.update(endpoints);
+        dynamicGroupMaglev = new UpdatableEndpointGroup(EndpointSelectionStrategy.maglev(hasher));
+        dynamicGroupMaglev.update(endpoints);
+    }
+
+    @Nullable
+    @Benchmark
+    public Endpoint sticky() throws Exception {
+        return groupSticky.selectNow(null);
+    }
+
+    @Nullable
+    @Benchmark
+    public Endpoint ringHash() throws Exception {
+        return groupRingHash.selectNow(null);
+    }
+
+    @Nullable
+    @Benchmark
+    public Endpoint maglev() throws Exception {
+        return groupMaglev.selectNow(null);
+    }
+
+    /**
+     * Measures the time taken to rebuild the hash ring when an {@link Endpoint} is added or removed.
+     */
+    @Benchmark
+    public void ringHashUpdate() {
+        update(dynamicGroupRingHash);
+    }
+
+    /**
+     * Measures the time taken to rebuild the Maglev table when an {@link Endpoint} is added or removed.
+     */
+    @Benchmark
+    public void maglevUpdate() {
+        update(dynamicGroupMaglev);
+    }
+
+    private void update(UpdatableEndpointGroup group) {
+        removed = !removed;
+        group.update(removed ? endpointsWithoutLast : endpoints);
+    }
+
+    private static final class UpdatableEndpointGroup extends DynamicEndpointGroup {
+        UpdatableEndpointGroup(EndpointSelectionStrategy selectionStrategy) {
+            super(selectionStrategy);
+        }
+
+        void update(List<Endpoint> endpoints) {
+            setEndpoints(endpoints);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.thrift;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.thrift.async.AsyncMethodCallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.linecorp.armeria.client.Clients;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.server.Server;
+import com.linecorp.armeria.server.thrift.THttpService;
+import com.linecorp.armeria.thrift.services.BulkService;
+
+/**
+ * Measures the performance of serializing a large list or map reply of a {@link THttpService},
+ * which is written into a buffer whose size is learned from the previous replies of the same method.
+ */
+@State(Scope.Benchmark)
+public class LargeReplyBenchmark {
+
+    @Param({ "100", "10000", "100000" })
+    private int count;
+
+    private Server server;
+    private BulkService.Iface client;
+
+    @Setup
+    public void startServer() throws Exception {
+        final List<String> list = new ArrayList<>(count);
+        final Map<String, Long> map = new LinkedHashMap<>(count);
+        for (int i = 0; i < count; i++) {
+            final String value = "value-" + i;
+            list.add(value);
+            map.put(value, (long) i);
+        }
+
+        server = Server.builder()
+                       .service("/bulk", THttpService.of(new BulkService.AsyncIface() {
+                           @Override
+                           public void listOf(int requested, AsyncMethodCallback<List<String>> cb) {
+                               cb.onComplete(list);
+                           }
+
+                           @Override
+                           public void mapOf(int requested, AsyncMethodCallback<Map<String, Long>> cb) {
+                               cb.onComplete(map);
+                           }
+                       }))
+                       .build();
+        server.start().join();
+
+        final int httpPort = server.activeLocalPort(SessionProtocol.HTTP);
+        client = Clients.newClient("tbinary+http://127.0.0.1:" + httpPort + "/bulk",
+                                   BulkService.Iface.class);
+    }
+
+    @TearDown
+    public void stopServer() throws Exception {
+        server.stop().join();
+    }
+
+    @Benchmark
+    public void list(Blackhole bh) throws Exception {
+        bh.consume(client.listOf(count));
+    }
+
+    @Benchmark
+    public void map(Blackhole bh) throws Exception {
+        bh.consume(client.mapOf(count));
+    }
+}
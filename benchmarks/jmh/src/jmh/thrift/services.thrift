@@ -4,3 +4,9 @@ namespace java com.linecorp.armeria.thrift.services
 service HelloService {
     string hello(1:string name)
 }
+
+// Tests the methods which return a large collection.
+service BulkService {
+    list<string> listOf(1:i32 count)
+    map<string, i64> mapOf(1:i32 count)
+}
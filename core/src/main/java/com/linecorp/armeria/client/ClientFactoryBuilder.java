@@ -48,13 +48,16 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.primitives.Ints;
 
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
 import com.linecorp.armeria.client.proxy.ProxyConfig;
 import com.linecorp.armeria.client.proxy.ProxyConfigSelector;
 import com.linecorp.armeria.common.CommonPools;
 import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.Http1HeaderNaming;
 import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.SessionProtocol;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.util.EventLoopGroups;
 import com.linecorp.armeria.internal.common.RequestContextUtil;
 import com.linecorp.armeria.internal.common.util.ChannelUtil;
@@ -611,6 +614,44 @@ public final class ClientFactoryBuilder {
         return this;
     }
 
+    /**
+     * Sets whether to share the HTTP/2 connections of an event loop with the requests which would otherwise
+     * be assigned to the other event loops. A connection is pooled per event loop, so a burst of requests
+     * on an event loop opens new connections by default even if the connections of the other event loops
+     * have spare stream capacity. If enabled, a request is assigned to the event loop which owns
+     * the HTTP/2 connection to the same endpoint with the least active streams among the ones whose number
+     * of active streams is less than {@code MAX_CONCURRENT_STREAMS}, instead of the event loop chosen by
+     * the usual event loop scheduling. A new connection is created only when there is no such connection.
+     * This does not affect HTTP/1 connections. This option is disabled by default.
+     */
+    @UnstableApi
+    public ClientFactoryBuilder shareHttp2ConnectionsAcrossEventLoops(boolean shareHttp2Connections) {
+        option(ClientFactoryOptions.SHARE_HTTP2_CONNECTIONS_ACROSS_EVENT_LOOPS, shareHttp2Connections);
+        return this;
+    }
+
+    /**
+     * Sets the minimum number of connections to keep in the connection pool for each {@link Endpoint} of
+     * the {@link EndpointGroup}s the clients created by the {@link ClientFactory} send requests to.
+     * If greater than {@code 0}, the connections are established as soon as a client is created and whenever
+     * an {@link Endpoint} is added to its {@link EndpointGroup}, so that the first requests do not pay
+     * the cost of DNS resolution, TCP and TLS handshakes and HTTP/2 connection preface. A connection which
+     * is closed by the peer or by an error is re-established with an exponential backoff while its
+     * {@link Endpoint} remains in the {@link EndpointGroup} and the {@link EndpointGroup} is not closed.
+     * A connection closed due to {@link #idleTimeout(Duration)} is not re-established until the next
+     * connection is made for a request. An HTTP/2 connection is counted as long as it is open while
+     * an HTTP/1 connection is counted only while it is idle. The progress is reported to
+     * {@link ConnectionPoolListener#connectionPrewarmed(SessionProtocol, InetSocketAddress, int, int,
+     * Throwable)}. This option is disabled ({@code 0}) by default.
+     */
+    @UnstableApi
+    public ClientFactoryBuilder minConnectionsPerEndpoint(int minConnectionsPerEndpoint) {
+        checkArgument(minConnectionsPerEndpoint >= 0,
+                      "minConnectionsPerEndpoint: %s (expected: >= 0)", minConnectionsPerEndpoint);
+        option(ClientFactoryOptions.MIN_CONNECTIONS_PER_ENDPOINT, minConnectionsPerEndpoint);
+        return this;
+    }
+
     /**
      * Sets the listener which is notified on a connection pool event.
      */
@@ -33,6 +33,7 @@ import com.linecorp.armeria.client.proxy.ProxyConfigSelector;
 import com.linecorp.armeria.common.CommonPools;
 import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.Http1HeaderNaming;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.util.AbstractOptions;
 import com.linecorp.armeria.internal.common.util.ChannelUtil;
 
@@ -208,6 +209,22 @@ public final class ClientFactoryOptions
     public static final ClientFactoryOption<Boolean> USE_HTTP1_PIPELINING =
             ClientFactoryOption.define("USE_HTTP1_PIPELINING", Flags.defaultUseHttp1Pipelining());
 
+    /**
+     * Whether to share the HTTP/2 connections of an event loop with the requests which would otherwise be
+     * assigned to the other event loops when the connections have spare stream capacity.
+     */
+    @UnstableApi
+    public static final ClientFactoryOption<Boolean> SHARE_HTTP2_CONNECTIONS_ACROSS_EVENT_LOOPS =
+            ClientFactoryOption.define("SHARE_HTTP2_CONNECTIONS_ACROSS_EVENT_LOOPS", false);
+
+    /**
+     * The minimum number of connections to keep in the connection pool for each {@link Endpoint} of
+     * the clients created by the {@link ClientFactory}. {@code 0} disables connection pre-warming.
+     */
+    @UnstableApi
+    public static final ClientFactoryOption<Integer> MIN_CONNECTIONS_PER_ENDPOINT =
+            ClientFactoryOption.define("MIN_CONNECTIONS_PER_ENDPOINT", 0);
+
     /**
      * The listener which is notified on a connection pool event.
      */
@@ -483,6 +500,23 @@ public final class ClientFactoryOptions
         return get(USE_HTTP1_PIPELINING);
     }
 
+    /**
+     * Returns whether to share the HTTP/2 connections of an event loop with the requests which would otherwise
+     * be assigned to the other event loops when the connections have spare stream capacity.
+     */
+    @UnstableApi
+    public boolean shareHttp2ConnectionsAcrossEventLoops() {
+        return get(SHARE_HTTP2_CONNECTIONS_ACROSS_EVENT_LOOPS);
+    }
+
+    /**
+     * Returns the minimum number of connections to keep in the connection pool for each {@link Endpoint}.
+     */
+    @UnstableApi
+    public int minConnectionsPerEndpoint() {
+        return get(MIN_CONNECTIONS_PER_ENDPOINT);
+    }
+
     /**
      * Returns the listener which is notified on a connection pool event.
      */
@@ -18,6 +18,8 @@ package com.linecorp.armeria.client;
 import java.net.InetSocketAddress;
 
 import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.util.Ticker;
 import com.linecorp.armeria.common.util.Unwrappable;
 
@@ -66,6 +68,26 @@ public interface ConnectionPoolListener extends Unwrappable {
                           InetSocketAddress localAddr,
                           AttributeMap attrs) throws Exception;
 
+    /**
+     * Invoked when an attempt to establish a connection eagerly has been finished, so that the connection
+     * pool keeps the minimum number of connections specified with
+     * {@link ClientFactoryBuilder#minConnectionsPerEndpoint(int)}. {@link #connectionOpen(SessionProtocol,
+     * InetSocketAddress, InetSocketAddress, AttributeMap)} is also invoked for the newly established
+     * connection.
+     *
+     * @param desiredProtocol the {@link SessionProtocol} the connection was established for
+     * @param remoteAddr the address of the remote peer
+     * @param numConnections the number of the connections in the pool after the attempt
+     * @param minConnections the minimum number of the connections to keep in the pool
+     * @param cause the cause of the failure, or {@code null} if the connection has been established
+     */
+    @UnstableApi
+    default void connectionPrewarmed(SessionProtocol desiredProtocol,
+                                     InetSocketAddress remoteAddr,
+                                     int numConnections,
+                                     int minConnections,
+                                     @Nullable Throwable cause) throws Exception {}
+
     @Override
     default ConnectionPoolListener unwrap() {
         return this;
@@ -18,6 +18,7 @@ package com.linecorp.armeria.client;
 import java.net.InetSocketAddress;
 
 import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.AbstractUnwrappable;
 
 import io.netty.util.AttributeMap;
@@ -51,4 +52,13 @@ public class ConnectionPoolListenerWrapper
                                  AttributeMap attrs) throws Exception {
         unwrap().connectionClosed(protocol, remoteAddr, localAddr, attrs);
     }
+
+    @Override
+    public void connectionPrewarmed(SessionProtocol desiredProtocol,
+                                    InetSocketAddress remoteAddr,
+                                    int numConnections,
+                                    int minConnections,
+                                    @Nullable Throwable cause) throws Exception {
+        unwrap().connectionPrewarmed(desiredProtocol, remoteAddr, numConnections, minConnections, cause);
+    }
 }
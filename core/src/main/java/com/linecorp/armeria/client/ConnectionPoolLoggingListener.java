@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.TextFormatter;
 import com.linecorp.armeria.common.util.Ticker;
 
@@ -85,4 +86,23 @@ final class ConnectionPoolLoggingListener implements ConnectionPoolListener {
                         TextFormatter.elapsed(elapsedNanos), activeChannels);
         }
     }
+
+    @Override
+    public void connectionPrewarmed(SessionProtocol desiredProtocol,
+                                    InetSocketAddress remoteAddr,
+                                    int numConnections,
+                                    int minConnections,
+                                    @Nullable Throwable cause) throws Exception {
+        if (cause == null) {
+            if (logger.isInfoEnabled()) {
+                logger.info("[R:{}][{}] PREWARMED (pooled connections: {}/{})",
+                            remoteAddr, desiredProtocol.uriText(), numConnections, minConnections);
+            }
+        } else {
+            if (logger.isWarnEnabled()) {
+                logger.warn("[R:{}][{}] PREWARM FAILED (pooled connections: {}/{})",
+                            remoteAddr, desiredProtocol.uriText(), numConnections, minConnections, cause);
+            }
+        }
+    }
 }
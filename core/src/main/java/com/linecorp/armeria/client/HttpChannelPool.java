@@ -47,9 +47,11 @@ import com.linecorp.armeria.client.proxy.ProxyConfigSelector;
 import com.linecorp.armeria.client.proxy.ProxyType;
 import com.linecorp.armeria.client.proxy.Socks4ProxyConfig;
 import com.linecorp.armeria.client.proxy.Socks5ProxyConfig;
+import com.linecorp.armeria.client.retry.Backoff;
 import com.linecorp.armeria.common.ClosedSessionException;
 import com.linecorp.armeria.common.SessionProtocol;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.logging.ClientConnectionTimings;
 import com.linecorp.armeria.common.logging.ClientConnectionTimingsBuilder;
 import com.linecorp.armeria.common.util.AsyncCloseable;
 import com.linecorp.armeria.common.util.AsyncCloseableSupport;
@@ -87,6 +89,24 @@ final class HttpChannelPool implements AsyncCloseable {
     private final Map<Channel, Boolean> allChannels;
     private final ConnectionPoolListener listener;
 
+    // The HTTP/2 connections which the requests of the other event loops can be steered to:
+    @Nullable
+    private final SharedHttp2Channels sharedHttp2Channels;
+
+    // Fields for keeping the minimum number of connections in the pool:
+    /**
+     * The {@link Backoff} of the connection attempts made to keep the minimum number of connections after
+     * a connection attempt fails or a connection is closed shortly after it is established.
+     */
+    static final Backoff PREWARM_BACKOFF = Backoff.exponential(200, 10_000).withJitter(0.2);
+    /**
+     * The lifetime of a connection after which its closure does not count as a failure.
+     */
+    private static final long PREWARM_HEALTHY_LIFETIME_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Map<PoolKey, PrewarmState>[] prewarmStates;
+    private int numPrewarmStates;
+
     // Fields for creating a new connection:
     private final Bootstrap[] bootstraps;
     private final int connectTimeoutMillis;
@@ -112,6 +132,13 @@ final class HttpChannelPool implements AsyncCloseable {
                 SessionProtocol.H2, SessionProtocol.H2C);
         allChannels = new IdentityHashMap<>();
         this.listener = listener;
+        sharedHttp2Channels = clientFactory.sharedHttp2Channels();
+        prewarmStates = newEnumMap(
+                Map.class,
+                unused -> new HashMap<>(),
+                SessionProtocol.HTTP, SessionProtocol.HTTPS,
+                SessionProtocol.H1, SessionProtocol.H1C,
+                SessionProtocol.H2, SessionProtocol.H2C);
         this.sslCtxHttp1Only = sslCtxHttp1Only;
         this.sslCtxHttp1Or2 = sslCtxHttp1Or2;
 
@@ -253,6 +280,11 @@ final class HttpChannelPool implements AsyncCloseable {
             default:
                 ch = acquireNowExact(key, desiredProtocol);
         }
+
+        if (numPrewarmStates > 0 && ch != null && !ch.protocol().isMultiplex()) {
+            // An idle HTTP/1 connection has been taken out of the pool. Replenish it.
+            prewarm(desiredProtocol, key);
+        }
         return ch;
     }
 
@@ -424,6 +456,165 @@ final class HttpChannelPool implements AsyncCloseable {
         return allChannels.size();
     }
 
+    /**
+     * Makes this pool keep at least the specified number of connections to the specified {@link PoolKey}
+     * by establishing new connections eagerly. An HTTP/2 connection is counted as long as it is open while
+     * an HTTP/1 connection is counted only while it is idle.
+     *
+     * @param minConnections the minimum number of connections, or {@code 0} to stop maintaining them
+     * @param callback the {@link PrewarmCallback} notified about the maintained connections,
+     *                 or {@code null} if {@code minConnections} is {@code 0}
+     */
+    void setMinConnections(SessionProtocol desiredProtocol, PoolKey key, int minConnections,
+                           @Nullable PrewarmCallback callback) {
+        if (!eventLoop.inEventLoop()) {
+            eventLoop.execute(() -> setMinConnections(desiredProtocol, key, minConnections, callback));
+            return;
+        }
+
+        final Map<PoolKey, PrewarmState> states = prewarmStates[desiredProtocol.ordinal()];
+        if (minConnections == 0) {
+            final PrewarmState state = states.remove(key);
+            if (state != null) {
+                numPrewarmStates--;
+                state.cancelRetry();
+            }
+            return;
+        }
+
+        assert callback != null;
+        final PrewarmState state = states.get(key);
+        if (state == null) {
+            states.put(key, new PrewarmState(minConnections, callback));
+            numPrewarmStates++;
+        } else {
+            state.minConnections = minConnections;
+            state.callback = callback;
+        }
+        prewarm(desiredProtocol, key);
+    }
+
+    /**
+     * Establishes a new connection if the number of the pooled connections to the specified {@link PoolKey}
+     * is less than the minimum. Connections are established one at a time, i.e. the next connection
+     * attempt is made only after the current one succeeds. A failed attempt is retried with
+     * {@link #PREWARM_BACKOFF}.
+     */
+    private void prewarm(SessionProtocol desiredProtocol, PoolKey key) {
+        final PrewarmState state = prewarmStates[desiredProtocol.ordinal()].get(key);
+        if (state == null || state.connecting || state.retryFuture != null || closeable.isClosing()) {
+            return;
+        }
+
+        if (getPendingAcquisition(desiredProtocol, key) != null ||
+            numPooledConnections(desiredProtocol, key) >= state.minConnections) {
+            return;
+        }
+
+        state.connecting = true;
+        final ChannelAcquisitionFuture promise = new ChannelAcquisitionFuture(true);
+        connect(desiredProtocol, key, promise, ClientConnectionTimings.builder());
+        promise.handle((unused, cause) -> {
+            state.connecting = false;
+            notifyPrewarmed(desiredProtocol, key, state.minConnections, cause);
+            if (cause == null) {
+                prewarm(desiredProtocol, key);
+            } else {
+                state.numFailures++;
+                schedulePrewarm(desiredProtocol, key, state);
+                state.callback.connectFailed();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Invoked when a connection to the specified {@link PoolKey} is closed, to replenish the pool if
+     * the number of the pooled connections dropped below the minimum. A connection closed by the idle timeout
+     * is not replenished so that the idle timeout is respected, and {@link PrewarmCallback#idle()} is
+     * invoked once the last pooled connection is closed by the idle timeout. A connection closed shortly
+     * after it was established counts as a failure so that a peer which keeps closing connections is not
+     * reconnected to in a tight loop.
+     */
+    private void prewarmOnClose(SessionProtocol desiredProtocol, PoolKey key, long connectedNanos,
+                                boolean closedByIdleTimeout) {
+        final PrewarmState state = prewarmStates[desiredProtocol.ordinal()].get(key);
+        if (state == null) {
+            return;
+        }
+
+        if (closedByIdleTimeout) {
+            if (numPooledConnections(desiredProtocol, key) == 0) {
+                state.callback.idle();
+            }
+            return;
+        }
+
+        if (System.nanoTime() - connectedNanos >= PREWARM_HEALTHY_LIFETIME_NANOS) {
+            state.numFailures = 0;
+            prewarm(desiredProtocol, key);
+        } else {
+            state.numFailures++;
+            schedulePrewarm(desiredProtocol, key, state);
+        }
+    }
+
+    private void schedulePrewarm(SessionProtocol desiredProtocol, PoolKey key, PrewarmState state) {
+        if (state.retryFuture != null || closeable.isClosing()) {
+            return;
+        }
+        final long delayMillis = PREWARM_BACKOFF.nextDelayMillis(state.numFailures);
+        state.retryFuture = eventLoop.schedule(() -> {
+            state.retryFuture = null;
+            prewarm(desiredProtocol, key);
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private int numPooledConnections(SessionProtocol desiredProtocol, PoolKey key) {
+        switch (desiredProtocol) {
+            case HTTP:
+                return numPooledConnectionsExact(SessionProtocol.H2C, key) +
+                       numPooledConnectionsExact(SessionProtocol.H1C, key);
+            case HTTPS:
+                return numPooledConnectionsExact(SessionProtocol.H2, key) +
+                       numPooledConnectionsExact(SessionProtocol.H1, key);
+            default:
+                return numPooledConnectionsExact(desiredProtocol, key);
+        }
+    }
+
+    private int numPooledConnectionsExact(SessionProtocol protocol, PoolKey key) {
+        final Deque<PooledChannel> queue = getPool(protocol, key);
+        if (queue == null) {
+            return 0;
+        }
+
+        int numConnections = 0;
+        for (PooledChannel pooledChannel : queue) {
+            if (isHealthy(pooledChannel)) {
+                numConnections++;
+            }
+        }
+        return numConnections;
+    }
+
+    private void notifyPrewarmed(SessionProtocol desiredProtocol, PoolKey key, int minConnections,
+                                 @Nullable Throwable cause) {
+        if (cause instanceof UnprocessedRequestException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        try {
+            listener.connectionPrewarmed(desiredProtocol, toRemoteAddress(key),
+                                         numPooledConnections(desiredProtocol, key), minConnections, cause);
+        } catch (Exception e) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Exception handling {}.connectionPrewarmed() for {}",
+                            listener.getClass().getName(), key, e);
+            }
+        }
+    }
+
     void invokeProxyConnectFailed(SessionProtocol protocol, PoolKey poolKey, Throwable cause) {
         try {
             final ProxyConfig proxyConfig = poolKey.proxyConfig;
@@ -500,10 +691,25 @@ final class HttpChannelPool implements AsyncCloseable {
                 }
 
                 final HttpSession session = HttpSession.get(channel);
-                if (session.incrementNumUnfinishedResponses()) {
+                final long connectedNanos = System.nanoTime();
+                if (promise.prewarm) {
+                    // Keep the connection in the pool without reserving a stream or taking it out.
+                    final PooledChannel pooledChannel;
+                    if (protocol.isMultiplex()) {
+                        final Http2PooledChannel http2PooledChannel =
+                                new Http2PooledChannel(channel, protocol);
+                        addToSharedHttp2Channels(protocol, key, http2PooledChannel);
+                        pooledChannel = http2PooledChannel;
+                    } else {
+                        pooledChannel = new Http1PooledChannel(channel, protocol, key);
+                    }
+                    addToPool(protocol, key, pooledChannel);
+                    promise.complete(pooledChannel);
+                } else if (session.incrementNumUnfinishedResponses()) {
                     if (protocol.isMultiplex()) {
                         final Http2PooledChannel pooledChannel = new Http2PooledChannel(channel, protocol);
                         addToPool(protocol, key, pooledChannel);
+                        addToSharedHttp2Channels(protocol, key, pooledChannel);
                         promise.complete(pooledChannel);
                     } else {
                         promise.complete(new Http1PooledChannel(channel, protocol, key));
@@ -517,6 +723,7 @@ final class HttpChannelPool implements AsyncCloseable {
 
                 channel.closeFuture().addListener(f -> {
                     allChannels.remove(channel);
+                    removeFromSharedHttp2Channels(protocol, key, channel);
 
                     // Clean up old unhealthy channels by iterating from the beginning of the queue.
                     final Deque<PooledChannel> queue = getPool(protocol, key);
@@ -541,6 +748,10 @@ final class HttpChannelPool implements AsyncCloseable {
                                         channel, listener.getClass().getName(), e);
                         }
                     }
+
+                    if (numPrewarmStates > 0) {
+                        prewarmOnClose(desiredProtocol, key, connectedNanos, session.isClosedByIdleTimeout());
+                    }
                 });
             } else {
                 final Throwable throwable = future.cause();
@@ -552,6 +763,11 @@ final class HttpChannelPool implements AsyncCloseable {
         } catch (Exception e) {
             promise.completeExceptionally(UnprocessedRequestException.of(e));
         }
+
+        if (numPrewarmStates > 0 && !promise.prewarm) {
+            // prewarm() skips the connection attempt while there is a pending acquisition.
+            prewarm(desiredProtocol, key);
+        }
     }
 
     /**
@@ -562,6 +778,19 @@ final class HttpChannelPool implements AsyncCloseable {
         getOrCreatePool(actualProtocol, key).addLast(pooledChannel);
     }
 
+    private void addToSharedHttp2Channels(SessionProtocol actualProtocol, PoolKey key,
+                                          Http2PooledChannel pooledChannel) {
+        if (sharedHttp2Channels != null) {
+            sharedHttp2Channels.add(actualProtocol, key.host, key.port, pooledChannel.get());
+        }
+    }
+
+    private void removeFromSharedHttp2Channels(SessionProtocol actualProtocol, PoolKey key, Channel channel) {
+        if (sharedHttp2Channels != null && actualProtocol.isMultiplex()) {
+            sharedHttp2Channels.remove(actualProtocol, key.host, key.port, channel);
+        }
+    }
+
     @Override
     public CompletableFuture<?> closeAsync() {
         return closeable.closeAsync();
@@ -573,6 +802,12 @@ final class HttpChannelPool implements AsyncCloseable {
             return;
         }
 
+        for (Map<PoolKey, PrewarmState> states : prewarmStates) {
+            if (states != null) {
+                states.values().forEach(PrewarmState::cancelRetry);
+            }
+        }
+
         // NB: Make a copy first, because close() will trigger the closeFuture listener
         //     which mutates allChannels back, causing ConcurrentModificationException.
         final Channel[] allChannels = this.allChannels.keySet().toArray(EMPTY_CHANNELS);
@@ -701,6 +936,50 @@ final class HttpChannelPool implements AsyncCloseable {
         }
     }
 
+    /**
+     * Notified by an {@link HttpChannelPool} about the connections which are kept for a {@link PoolKey}
+     * by {@link #setMinConnections(SessionProtocol, PoolKey, int, PrewarmCallback)}.
+     * The methods are invoked by the event loop of the {@link HttpChannelPool}.
+     */
+    interface PrewarmCallback {
+
+        /**
+         * Invoked when a connection attempt failed. The attempt is retried with a backoff.
+         */
+        void connectFailed();
+
+        /**
+         * Invoked when the idle timeout closed the last pooled connection. The closed connections are not
+         * replenished until a new connection is established for a request.
+         */
+        void idle();
+    }
+
+    private static final class PrewarmState {
+        int minConnections;
+        PrewarmCallback callback;
+        boolean connecting;
+        /**
+         * The number of the consecutive connection attempts which failed or whose connection was closed
+         * shortly after it was established.
+         */
+        int numFailures;
+        @Nullable
+        ScheduledFuture<?> retryFuture;
+
+        PrewarmState(int minConnections, PrewarmCallback callback) {
+            this.minConnections = minConnections;
+            this.callback = callback;
+        }
+
+        void cancelRetry() {
+            if (retryFuture != null) {
+                retryFuture.cancel(false);
+                retryFuture = null;
+            }
+        }
+    }
+
     /**
      * The result of piggybacked channel acquisition attempt.
      */
@@ -728,6 +1007,12 @@ final class HttpChannelPool implements AsyncCloseable {
      */
     private final class ChannelAcquisitionFuture extends CompletableFuture<PooledChannel> {
 
+        /**
+         * Whether this acquisition was made by {@link #prewarm(SessionProtocol, PoolKey)} rather than
+         * a request, i.e. the acquired connection should be put into the pool as an idle connection.
+         */
+        final boolean prewarm;
+
         /**
          * A {@code Consumer<PooledChannel>} if only 1 handler.
          * A {@code List<Consumer<PooledChannel>>} if there are 2+ handlers.
@@ -735,6 +1020,14 @@ final class HttpChannelPool implements AsyncCloseable {
         @Nullable
         private Object pendingPiggybackHandlers;
 
+        ChannelAcquisitionFuture() {
+            this(false);
+        }
+
+        ChannelAcquisitionFuture(boolean prewarm) {
+            this.prewarm = prewarm;
+        }
+
         void piggyback(SessionProtocol desiredProtocol, PoolKey key,
                        ChannelAcquisitionFuture childPromise,
                        ClientConnectionTimingsBuilder timingsBuilder) {
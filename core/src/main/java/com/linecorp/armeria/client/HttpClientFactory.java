@@ -24,8 +24,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -36,6 +38,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
 
 import com.linecorp.armeria.client.endpoint.EndpointGroup;
 import com.linecorp.armeria.client.proxy.ProxyConfigSelector;
@@ -47,6 +50,7 @@ import com.linecorp.armeria.common.SerializationFormat;
 import com.linecorp.armeria.common.SessionProtocol;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.AsyncCloseableSupport;
+import com.linecorp.armeria.common.util.ListenableAsyncCloseable;
 import com.linecorp.armeria.common.util.ReleasableHolder;
 import com.linecorp.armeria.common.util.TransportType;
 import com.linecorp.armeria.internal.common.util.SslContextUtil;
@@ -96,6 +100,9 @@ final class HttpClientFactory implements ClientFactory {
     private final int maxNumRequestsPerConnection;
     private final boolean useHttp2Preface;
     private final boolean useHttp1Pipelining;
+    @Nullable
+    private final SharedHttp2Channels sharedHttp2Channels;
+    private final int minConnectionsPerEndpoint;
     private final ConnectionPoolListener connectionPoolListener;
     private MeterRegistry meterRegistry;
     private final ProxyConfigSelector proxyConfigSelector;
@@ -103,6 +110,8 @@ final class HttpClientFactory implements ClientFactory {
 
     private final ConcurrentMap<EventLoop, HttpChannelPool> pools = new MapMaker().weakKeys().makeMap();
     private final HttpClientDelegate clientDelegate;
+    private final ConcurrentMap<Entry<EndpointGroup, SessionProtocol>, HttpConnectionPrewarmer> prewarmers =
+            new ConcurrentHashMap<>();
 
     private final EventLoopScheduler eventLoopScheduler;
     private final Supplier<EventLoop> eventLoopSupplier =
@@ -152,6 +161,12 @@ final class HttpClientFactory implements ClientFactory {
         idleTimeoutMillis = options.idleTimeoutMillis();
         useHttp2Preface = options.useHttp2Preface();
         useHttp1Pipelining = options.useHttp1Pipelining();
+        if (options.shareHttp2ConnectionsAcrossEventLoops()) {
+            sharedHttp2Channels = new SharedHttp2Channels();
+        } else {
+            sharedHttp2Channels = null;
+        }
+        minConnectionsPerEndpoint = options.minConnectionsPerEndpoint();
         connectionPoolListener = options.connectionPoolListener();
         meterRegistry = options.meterRegistry();
         proxyConfigSelector = options.proxyConfigSelector();
@@ -224,6 +239,11 @@ final class HttpClientFactory implements ClientFactory {
         return useHttp1Pipelining;
     }
 
+    @Nullable
+    SharedHttp2Channels sharedHttp2Channels() {
+        return sharedHttp2Channels;
+    }
+
     ConnectionPoolListener connectionPoolListener() {
         return connectionPoolListener;
     }
@@ -260,7 +280,61 @@ final class HttpClientFactory implements ClientFactory {
     public ReleasableHolder<EventLoop> acquireEventLoop(SessionProtocol sessionProtocol,
                                                         EndpointGroup endpointGroup,
                                                         @Nullable Endpoint endpoint) {
-        return eventLoopScheduler.acquire(sessionProtocol, endpointGroup, endpoint);
+        final ReleasableHolder<EventLoop> acquired =
+                eventLoopScheduler.acquire(sessionProtocol, endpointGroup, endpoint);
+        if (sharedHttp2Channels == null || endpoint == null) {
+            return acquired;
+        }
+
+        final EventLoop acquiredEventLoop = acquired.get();
+        final EventLoop eventLoop =
+                findEventLoopWithSpareHttp2Stream(sessionProtocol, endpoint, acquiredEventLoop);
+        if (eventLoop == null || eventLoop == acquiredEventLoop) {
+            return acquired;
+        }
+
+        // Steer the request to the event loop of the connection, while the EventLoopScheduler still
+        // accounts for the request with the event loop it acquired.
+        return new ReleasableHolder<EventLoop>() {
+            @Override
+            public EventLoop get() {
+                return eventLoop;
+            }
+
+            @Override
+            public void release() {
+                acquired.release();
+            }
+        };
+    }
+
+    /**
+     * Finds the event loop which owns the least busy HTTP/2 connection to the specified {@link Endpoint}
+     * that can accept a new stream, so that a request is sent over the existing connection of the other
+     * event loop rather than a new connection. The request is then bound to the event loop of
+     * the connection from the beginning, so the event loop of its {@link ClientRequestContext} is always
+     * the event loop of the {@link io.netty.channel.Channel} it is sent over.
+     */
+    @Nullable
+    private EventLoop findEventLoopWithSpareHttp2Stream(SessionProtocol sessionProtocol, Endpoint endpoint,
+                                                        EventLoop preferredEventLoop) {
+        assert sharedHttp2Channels != null;
+        final SessionProtocol protocol;
+        switch (sessionProtocol) {
+            case HTTP:
+            case H2C:
+                protocol = SessionProtocol.H2C;
+                break;
+            case HTTPS:
+            case H2:
+                protocol = SessionProtocol.H2;
+                break;
+            default:
+                return null;
+        }
+
+        return sharedHttp2Channels.find(protocol, endpoint.host(), endpoint.port(sessionProtocol.defaultPort()),
+                                        preferredEventLoop);
     }
 
     @Override
@@ -287,6 +361,9 @@ final class HttpClientFactory implements ClientFactory {
 
         final ClientOptions options = params.options();
         final HttpClient delegate = options.decoration().decorate(clientDelegate);
+        if (minConnectionsPerEndpoint > 0) {
+            prewarm(params.endpointGroup(), params.scheme().sessionProtocol());
+        }
 
         if (clientType == HttpClient.class) {
             return delegate;
@@ -306,6 +383,36 @@ final class HttpClientFactory implements ClientFactory {
         }
     }
 
+    private void prewarm(EndpointGroup endpointGroup, SessionProtocol sessionProtocol) {
+        final Entry<EndpointGroup, SessionProtocol> key = Maps.immutableEntry(endpointGroup, sessionProtocol);
+        if (prewarmers.containsKey(key)) {
+            return;
+        }
+
+        final HttpConnectionPrewarmer prewarmer =
+                new HttpConnectionPrewarmer(this, endpointGroup, sessionProtocol, minConnectionsPerEndpoint);
+        if (prewarmers.putIfAbsent(key, prewarmer) != null) {
+            return;
+        }
+
+        endpointGroup.addListener(prewarmer);
+        endpointGroup.whenReady().thenRun(() -> prewarmer.accept(endpointGroup.endpoints()));
+        if (endpointGroup instanceof ListenableAsyncCloseable) {
+            // Stop keeping the connections once the EndpointGroup is closed. The prewarmer of a static
+            // EndpointGroup removes itself once the idle timeout closes all its connections.
+            ((ListenableAsyncCloseable) endpointGroup).whenClosed().thenRun(() -> {
+                if (prewarmers.remove(key, prewarmer)) {
+                    prewarmer.close();
+                }
+            });
+        }
+    }
+
+    void removePrewarmer(EndpointGroup endpointGroup, SessionProtocol sessionProtocol,
+                         HttpConnectionPrewarmer prewarmer) {
+        prewarmers.remove(Maps.immutableEntry(endpointGroup, sessionProtocol), prewarmer);
+    }
+
     private static Class<?> validateClientType(Class<?> clientType) {
         if (clientType != WebClient.class && clientType != HttpClient.class) {
             throw new IllegalArgumentException(
@@ -338,6 +445,11 @@ final class HttpClientFactory implements ClientFactory {
     }
 
     private void closeAsync(CompletableFuture<?> future) {
+        for (final Iterator<HttpConnectionPrewarmer> i = prewarmers.values().iterator(); i.hasNext();) {
+            i.next().close();
+            i.remove();
+        }
+
         final List<CompletableFuture<?>> dependencies = new ArrayList<>(pools.size());
         for (final Iterator<HttpChannelPool> i = pools.values().iterator(); i.hasNext();) {
             dependencies.add(i.next().closeAsync());
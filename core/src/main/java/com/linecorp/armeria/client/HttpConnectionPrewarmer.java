@@ -0,0 +1,319 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client;
+
+import static java.util.Objects.requireNonNull;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.linecorp.armeria.client.HttpChannelPool.PoolKey;
+import com.linecorp.armeria.client.HttpChannelPool.PrewarmCallback;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.proxy.ProxyConfig;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.util.ListenableAsyncCloseable;
+import com.linecorp.armeria.common.util.ReleasableHolder;
+import com.linecorp.armeria.common.util.SafeCloseable;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.Future;
+
+/**
+ * Keeps the minimum number of connections in the {@link HttpChannelPool}s for each {@link Endpoint} of
+ * an {@link EndpointGroup}, as the {@link EndpointGroup} changes. The connections to a static
+ * {@link EndpointGroup} are kept until the idle timeout closes them all.
+ *
+ * @see ClientFactoryBuilder#minConnectionsPerEndpoint(int)
+ */
+final class HttpConnectionPrewarmer implements Consumer<List<Endpoint>>, SafeCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpConnectionPrewarmer.class);
+
+    private final HttpClientFactory factory;
+    private final EndpointGroup endpointGroup;
+    private final SessionProtocol sessionProtocol;
+    private final int minConnections;
+
+    private final Map<Endpoint, PrewarmTarget> targets = new HashMap<>();
+    private boolean closed;
+
+    HttpConnectionPrewarmer(HttpClientFactory factory, EndpointGroup endpointGroup,
+                            SessionProtocol sessionProtocol, int minConnections) {
+        this.factory = factory;
+        this.endpointGroup = endpointGroup;
+        this.sessionProtocol = sessionProtocol;
+        this.minConnections = minConnections;
+    }
+
+    @Override
+    public void accept(List<Endpoint> endpoints) {
+        final List<PrewarmTarget> removedTargets = new ArrayList<>();
+        final List<PrewarmTarget> addedTargets = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            final Set<Endpoint> newEndpoints = ImmutableSet.copyOf(endpoints);
+            for (final Iterator<Entry<Endpoint, PrewarmTarget>> i = targets.entrySet().iterator();
+                 i.hasNext();) {
+                final Entry<Endpoint, PrewarmTarget> e = i.next();
+                if (!newEndpoints.contains(e.getKey())) {
+                    removedTargets.add(e.getValue());
+                    i.remove();
+                }
+            }
+
+            for (Endpoint endpoint : newEndpoints) {
+                if (!targets.containsKey(endpoint)) {
+                    final PrewarmTarget target = new PrewarmTarget(endpoint);
+                    targets.put(endpoint, target);
+                    addedTargets.add(target);
+                }
+            }
+        }
+
+        removedTargets.forEach(PrewarmTarget::stop);
+        addedTargets.forEach(PrewarmTarget::start);
+    }
+
+    @Override
+    public void close() {
+        final List<PrewarmTarget> removedTargets;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            removedTargets = new ArrayList<>(targets.values());
+            targets.clear();
+        }
+
+        endpointGroup.removeListener(this);
+        removedTargets.forEach(PrewarmTarget::stop);
+    }
+
+    /**
+     * Invoked when the idle timeout closed all connections to the specified {@link PrewarmTarget}.
+     * The connections to a static {@link EndpointGroup}, which is never closed, are not kept anymore
+     * so that this {@link HttpConnectionPrewarmer} does not live as long as the {@link ClientFactory}.
+     */
+    private void onIdle(PrewarmTarget target) {
+        if (endpointGroup instanceof ListenableAsyncCloseable) {
+            // Released when the EndpointGroup is closed.
+            return;
+        }
+
+        final boolean expired;
+        synchronized (this) {
+            if (closed || targets.get(target.endpoint) != target) {
+                return;
+            }
+            targets.remove(target.endpoint);
+            expired = targets.isEmpty();
+        }
+
+        target.stop();
+        if (expired) {
+            factory.removePrewarmer(endpointGroup, sessionProtocol, this);
+            close();
+        }
+    }
+
+    private final class PrewarmTarget implements PrewarmCallback {
+
+        private final Endpoint endpoint;
+
+        @Nullable
+        private ReleasableHolder<EventLoop> eventLoopHolder;
+        @Nullable
+        private Endpoint endpointWithPort;
+        @Nullable
+        private HttpChannelPool pool;
+        @Nullable
+        private PoolKey key;
+        /**
+         * The number of the consecutive failures to resolve the host name of the {@link Endpoint}.
+         */
+        private int numResolveFailures;
+        private boolean resolving;
+        @Nullable
+        private ScheduledFuture<?> resolveRetryFuture;
+        private boolean stopped;
+
+        PrewarmTarget(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void start() {
+            // Keep the event loop acquired while the connections are maintained, so that the event loop
+            // scheduler accounts for the connections just like it does for the requests to the endpoint.
+            final ReleasableHolder<EventLoop> eventLoopHolder =
+                    factory.acquireEventLoop(sessionProtocol, endpointGroup, endpoint);
+            final Endpoint endpointWithPort = endpoint.withDefaultPort(sessionProtocol.defaultPort());
+            synchronized (this) {
+                if (stopped) {
+                    eventLoopHolder.release();
+                    return;
+                }
+                this.eventLoopHolder = eventLoopHolder;
+                this.endpointWithPort = endpointWithPort;
+            }
+
+            if (endpointWithPort.hasIpAddr()) {
+                start(endpointWithPort);
+            } else {
+                resolve();
+            }
+        }
+
+        /**
+         * Resolves the host name of the {@link Endpoint} and keeps the connections to the resolved address.
+         * A failed resolution is retried with {@link HttpChannelPool#PREWARM_BACKOFF}.
+         */
+        private void resolve() {
+            final EventLoop eventLoop;
+            final Endpoint endpointWithPort;
+            synchronized (this) {
+                if (stopped || resolving || resolveRetryFuture != null) {
+                    return;
+                }
+                assert eventLoopHolder != null;
+                assert this.endpointWithPort != null;
+                eventLoop = eventLoopHolder.get();
+                endpointWithPort = this.endpointWithPort;
+                resolving = true;
+            }
+
+            final Future<InetSocketAddress> resolveFuture =
+                    factory.addressResolverGroup()
+                           .getResolver(eventLoop)
+                           .resolve(InetSocketAddress.createUnresolved(endpointWithPort.host(),
+                                                                       endpointWithPort.port()));
+            resolveFuture.addListener(future -> {
+                if (future.isSuccess()) {
+                    synchronized (this) {
+                        resolving = false;
+                        numResolveFailures = 0;
+                    }
+                    final InetSocketAddress resolved = resolveFuture.getNow();
+                    start(endpointWithPort.withInetAddress(resolved.getAddress()));
+                    return;
+                }
+
+                synchronized (this) {
+                    resolving = false;
+                    if (stopped || factory.isClosing()) {
+                        return;
+                    }
+                    if (numResolveFailures++ == 0) {
+                        logger.warn("Failed to resolve {} to pre-warm connections:", endpointWithPort,
+                                    future.cause());
+                    }
+                    final long delayMillis = HttpChannelPool.PREWARM_BACKOFF.nextDelayMillis(
+                            numResolveFailures);
+                    resolveRetryFuture = eventLoop.schedule(() -> {
+                        synchronized (this) {
+                            resolveRetryFuture = null;
+                        }
+                        resolve();
+                    }, delayMillis, TimeUnit.MILLISECONDS);
+                }
+            });
+        }
+
+        private void start(Endpoint endpoint) {
+            if (factory.isClosing()) {
+                return;
+            }
+
+            final ProxyConfig proxyConfig;
+            try {
+                proxyConfig = factory.proxyConfigSelector().select(sessionProtocol, endpoint);
+                requireNonNull(proxyConfig, "proxyConfig");
+            } catch (Throwable t) {
+                logger.warn("Failed to select a {} to pre-warm connections to {}:",
+                            ProxyConfig.class.getSimpleName(), endpoint, t);
+                return;
+            }
+
+            final PoolKey key = new PoolKey(endpoint.host(), endpoint.ipAddr(), endpoint.port(), proxyConfig);
+            synchronized (this) {
+                if (stopped || key.equals(this.key)) {
+                    return;
+                }
+                assert eventLoopHolder != null;
+                final HttpChannelPool pool = factory.pool(eventLoopHolder.get());
+                if (this.pool != null) {
+                    // The host name has been resolved to a new address.
+                    assert this.key != null;
+                    this.pool.setMinConnections(sessionProtocol, this.key, 0, null);
+                }
+                this.pool = pool;
+                this.key = key;
+                pool.setMinConnections(sessionProtocol, key, minConnections, this);
+            }
+        }
+
+        @Override
+        public void connectFailed() {
+            if (!endpoint.hasIpAddr()) {
+                // The address of the host may have been changed.
+                resolve();
+            }
+        }
+
+        @Override
+        public void idle() {
+            onIdle(this);
+        }
+
+        synchronized void stop() {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            if (resolveRetryFuture != null) {
+                resolveRetryFuture.cancel(false);
+                resolveRetryFuture = null;
+            }
+            if (pool != null) {
+                assert key != null;
+                pool.setMinConnections(sessionProtocol, key, 0, null);
+            }
+            if (eventLoopHolder != null) {
+                eventLoopHolder.release();
+                eventLoopHolder = null;
+            }
+        }
+    }
+}
@@ -55,7 +55,11 @@ abstract class HttpResponseDecoder {
     private final Channel channel;
     private final InboundTrafficController inboundTrafficController;
 
-    private int unfinishedResponses;
+    /**
+     * Updated only by the event loop of {@link #channel}, but volatile because it is read by the other
+     * event loops when {@link ClientFactoryOptions#SHARE_HTTP2_CONNECTIONS_ACROSS_EVENT_LOOPS} is enabled.
+     */
+    private volatile int unfinishedResponses;
     private boolean disconnectWhenFinished;
     private boolean closing;
 
@@ -112,6 +116,10 @@ abstract class HttpResponseDecoder {
         return unfinishedResponses != 0;
     }
 
+    final int numUnfinishedResponses() {
+        return unfinishedResponses;
+    }
+
     final boolean reserveUnfinishedResponse(int maxUnfinishedResponses) {
         if (unfinishedResponses >= maxUnfinishedResponses) {
             return false;
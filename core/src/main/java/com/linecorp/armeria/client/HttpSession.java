@@ -54,6 +54,16 @@ interface HttpSession {
             return false;
         }
 
+        @Override
+        public int numUnfinishedResponses() {
+            return 0;
+        }
+
+        @Override
+        public int maxUnfinishedResponses() {
+            return 0;
+        }
+
         @Override
         public boolean incrementNumUnfinishedResponses() {
             return false;
@@ -78,6 +88,11 @@ interface HttpSession {
         @Override
         public void deactivate() {}
 
+        @Override
+        public boolean isClosedByIdleTimeout() {
+            return false;
+        }
+
         @Override
         public int incrementAndGetNumRequestsSent() {
             return MAX_NUM_REQUESTS_SENT;
@@ -101,6 +116,19 @@ interface HttpSession {
 
     boolean hasUnfinishedResponses();
 
+    /**
+     * Returns the number of the responses which are not finished yet. Note that the returned value may be
+     * stale when this method is called from outside of the event loop of the session.
+     */
+    int numUnfinishedResponses();
+
+    /**
+     * Returns the maximum number of the unfinished responses, i.e. MAX_CONCURRENT_STREAMS in HTTP/2.
+     * Note that the returned value may be stale when this method is called from outside of the event loop
+     * of the session.
+     */
+    int maxUnfinishedResponses();
+
     boolean incrementNumUnfinishedResponses();
 
     void invoke(PooledChannel pooledChannel, ClientRequestContext ctx,
@@ -112,5 +140,11 @@ interface HttpSession {
 
     void deactivate();
 
+    /**
+     * Returns whether the connection of this session has been closed because it was idle for longer than
+     * the idle timeout.
+     */
+    boolean isClosedByIdleTimeout();
+
     int incrementAndGetNumRequestsSent();
 }
@@ -100,9 +100,10 @@ final class HttpSessionHandler extends ChannelDuplexHandler implements HttpSessi
 
     /**
      * The maximum number of unfinished requests. In HTTP/2, this value is identical to MAX_CONCURRENT_STREAMS.
-     * In HTTP/1, this value stays at {@link Integer#MAX_VALUE}.
+     * In HTTP/1, this value stays at {@link Integer#MAX_VALUE}. Volatile because it is read by the other
+     * event loops when {@link ClientFactoryOptions#SHARE_HTTP2_CONNECTIONS_ACROSS_EVENT_LOOPS} is enabled.
      */
-    private int maxUnfinishedResponses = Integer.MAX_VALUE;
+    private volatile int maxUnfinishedResponses = Integer.MAX_VALUE;
 
     /**
      * The number of requests sent. Disconnects when it reaches at {@link #MAX_NUM_REQUESTS_SENT}.
@@ -151,6 +152,17 @@ final class HttpSessionHandler extends ChannelDuplexHandler implements HttpSessi
         return responseDecoder.hasUnfinishedResponses();
     }
 
+    @Override
+    public int numUnfinishedResponses() {
+        final HttpResponseDecoder responseDecoder = this.responseDecoder;
+        return responseDecoder != null ? responseDecoder.numUnfinishedResponses() : 0;
+    }
+
+    @Override
+    public int maxUnfinishedResponses() {
+        return maxUnfinishedResponses;
+    }
+
     @Override
     public boolean incrementNumUnfinishedResponses() {
         assert responseDecoder != null;
@@ -259,6 +271,12 @@ final class HttpSessionHandler extends ChannelDuplexHandler implements HttpSessi
         active = false;
     }
 
+    @Override
+    public boolean isClosedByIdleTimeout() {
+        final HttpResponseDecoder responseDecoder = this.responseDecoder;
+        return responseDecoder != null && responseDecoder.keepAliveHandler().isClosedByIdleTimeout();
+    }
+
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
         active = channel.isActive();
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+
+/**
+ * The HTTP/2 connections of all {@link HttpChannelPool}s of an {@link HttpClientFactory}, indexed by
+ * the protocol, the host and the port, so that a request can be steered to the event loop of an existing
+ * connection without scanning the pools of all event loops.
+ *
+ * @see ClientFactoryBuilder#shareHttp2ConnectionsAcrossEventLoops(boolean)
+ */
+final class SharedHttp2Channels {
+
+    private final Map<Key, List<Channel>> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the specified HTTP/2 {@link Channel}. Invoked by the event loop of the {@link Channel}.
+     */
+    void add(SessionProtocol protocol, String host, int port, Channel channel) {
+        channels.computeIfAbsent(new Key(protocol, host, port), unused -> new CopyOnWriteArrayList<>())
+                .add(channel);
+    }
+
+    /**
+     * Removes the specified HTTP/2 {@link Channel}. Invoked by the event loop of the {@link Channel}.
+     */
+    void remove(SessionProtocol protocol, String host, int port, Channel channel) {
+        channels.computeIfPresent(new Key(protocol, host, port), (unused, list) -> {
+            list.remove(channel);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Returns the event loop of the least busy HTTP/2 connection to the specified host and port which can
+     * accept a new stream. The specified {@code preferredEventLoop} is returned if it has such a connection,
+     * so that a request is not steered to another event loop unnecessarily. The state of a connection owned
+     * by another event loop is read without synchronization, so the result is only a hint.
+     *
+     * @return the event loop, or {@code null} if there is no such connection.
+     */
+    @Nullable
+    EventLoop find(SessionProtocol protocol, String host, int port, EventLoop preferredEventLoop) {
+        final List<Channel> list = channels.get(new Key(protocol, host, port));
+        if (list == null) {
+            return null;
+        }
+
+        EventLoop eventLoop = null;
+        int minActiveStreams = Integer.MAX_VALUE;
+        for (Channel ch : list) {
+            if (!ch.isActive()) {
+                continue;
+            }
+            final HttpSession session = HttpSession.get(ch);
+            if (!session.canSendRequest()) {
+                continue;
+            }
+            final int numActiveStreams = session.numUnfinishedResponses();
+            if (numActiveStreams >= session.maxUnfinishedResponses()) {
+                continue;
+            }
+            if (ch.eventLoop() == preferredEventLoop) {
+                return preferredEventLoop;
+            }
+            if (numActiveStreams < minActiveStreams) {
+                eventLoop = ch.eventLoop();
+                minActiveStreams = numActiveStreams;
+            }
+        }
+        return eventLoop;
+    }
+
+    private static final class Key {
+
+        private final SessionProtocol protocol;
+        private final String host;
+        private final int port;
+        private final int hashCode;
+
+        Key(SessionProtocol protocol, String host, int port) {
+            this.protocol = protocol;
+            this.host = host;
+            this.port = port;
+            hashCode = (protocol.hashCode() * 31 + host.hashCode()) * 31 + port;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key that = (Key) o;
+            return protocol == that.protocol && port == that.port && host.equals(that.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return protocol.uriText() + "://" + host + ':' + port;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.google.common.collect.MapMaker;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.client.SimpleDecoratingHttpClient;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.ClientCacheControl;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.ServerCacheControl;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.logging.RequestLogBuilder;
+
+/**
+ * Decorates an {@link HttpClient} to cache the responses of {@code GET} requests in
+ * a {@link ResponseCacheStore}, following the {@code "cache-control"} directives of the requests and
+ * the responses.
+ *
+ * <ul>
+ *   <li>A fresh cached response is returned without sending a request.</li>
+ *   <li>A stale cached response with an {@code "etag"} or {@code "last-modified"} header is revalidated
+ *       with a conditional request, and is returned again if the server responds with
+ *       {@code "304 Not Modified"}.</li>
+ *   <li>A stale cached response within the {@code "stale-while-revalidate"} window is returned
+ *       immediately while it is revalidated in the background.</li>
+ *   <li>A cached response is used only for the requests which have the same values for the headers
+ *       nominated by the {@code "vary"} response header.</li>
+ *   <li>A successful unsafe request, such as {@code POST}, invalidates the cached response of its URI.</li>
+ * </ul>
+ *
+ * <p>The responses are cached by the scheme, the path and the query of a request and its
+ * {@link EndpointGroup} rather than the {@link Endpoint} the request was sent to, so that
+ * the {@link Endpoint}s of the same {@link EndpointGroup} share the cached responses.
+ *
+ * <p>Note that the response of a {@code GET} request is aggregated before it is returned, so this
+ * decorator is not suitable for streaming responses.
+ */
+public final class CachingClient extends SimpleDecoratingHttpClient {
+
+    /**
+     * The unique IDs of the {@link EndpointGroup}s, which are compared by identity and weakly referenced
+     * so that the IDs of the closed {@link EndpointGroup}s are garbage-collected.
+     */
+    private static final ConcurrentMap<EndpointGroup, Long> endpointGroupIds =
+            new MapMaker().weakKeys().makeMap();
+
+    private static final AtomicLong nextEndpointGroupId = new AtomicLong();
+
+    /**
+     * Creates a new {@link CachingClient} decorator which stores responses in memory, up to 32 MiB.
+     */
+    public static Function<? super HttpClient, CachingClient> newDecorator() {
+        return newDecorator(ResponseCacheStore.of());
+    }
+
+    /**
+     * Creates a new {@link CachingClient} decorator with the specified {@link ResponseCacheStore}.
+     */
+    public static Function<? super HttpClient, CachingClient> newDecorator(ResponseCacheStore store) {
+        requireNonNull(store, "store");
+        return client -> new CachingClient(client, store);
+    }
+
+    private final ResponseCacheStore store;
+    private final Set<String> revalidatingKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new instance that decorates the specified {@link HttpClient}.
+     */
+    private CachingClient(HttpClient delegate, ResponseCacheStore store) {
+        super(delegate);
+        this.store = store;
+    }
+
+    @Override
+    public HttpResponse execute(ClientRequestContext ctx, HttpRequest req) throws Exception {
+        final HttpMethod method = req.method();
+        if (method != HttpMethod.GET) {
+            if (method == HttpMethod.HEAD || method == HttpMethod.OPTIONS || method == HttpMethod.TRACE) {
+                return unwrap().execute(ctx, req);
+            }
+            // Invalidate the cached response after a successful unsafe request.
+            // See https://datatracker.ietf.org/doc/html/rfc9111#section-4.4
+            final String key = cacheKey(ctx, req);
+            return unwrap().execute(ctx, req).peekHeaders(headers -> {
+                final int code = headers.status().code();
+                if (code >= 200 && code < 400) {
+                    store.remove(key);
+                }
+            });
+        }
+
+        final ClientCacheControl requestCacheControl =
+                ClientCacheControl.parse(req.headers().getAll(HttpHeaderNames.CACHE_CONTROL));
+        if (requestCacheControl.noStore()) {
+            return unwrap().execute(ctx, req);
+        }
+
+        final String key = cacheKey(ctx, req);
+        ResponseCacheEntry entry = store.get(key);
+        if (entry != null && !entry.matches(req.headers())) {
+            entry = null;
+        }
+
+        if (entry == null) {
+            if (requestCacheControl.onlyIfCached()) {
+                return respond(ctx, req, AggregatedHttpResponse.of(HttpStatus.GATEWAY_TIMEOUT));
+            }
+            return HttpResponse.from(fetch(ctx, req, key, null)
+                                             .thenApply(AggregatedHttpResponse::toHttpResponse));
+        }
+
+        final long currentTimeMillis = System.currentTimeMillis();
+        final long ageMillis = entry.ageMillis(currentTimeMillis);
+        final ServerCacheControl responseCacheControl = entry.cacheControl();
+        final boolean revalidationRequired = requestCacheControl.noCache() || responseCacheControl.noCache();
+        if (!revalidationRequired && isFresh(requestCacheControl, entry, ageMillis)) {
+            return respond(ctx, req, withAge(entry.response(), ageMillis));
+        }
+
+        if (requestCacheControl.onlyIfCached()) {
+            return respond(ctx, req, AggregatedHttpResponse.of(HttpStatus.GATEWAY_TIMEOUT));
+        }
+
+        final HttpRequest conditionalReq = entry.hasValidator() ? newConditionalRequest(req, entry) : req;
+        final long staleWhileRevalidateSeconds = responseCacheControl.staleWhileRevalidateSeconds();
+        if (!revalidationRequired && !responseCacheControl.mustRevalidate() &&
+            staleWhileRevalidateSeconds >= 0 &&
+            ageMillis < entry.freshnessLifetimeMillis() + staleWhileRevalidateSeconds * 1000 &&
+            revalidatingKeys.add(key)) {
+            // Send the request with the current context in the background so that the request is
+            // recorded in its log, and respond with the stale response immediately.
+            ctx.updateRequest(conditionalReq);
+            try {
+                fetch(ctx, conditionalReq, key, entry).handle((unused1, unused2) -> {
+                    revalidatingKeys.remove(key);
+                    return null;
+                });
+            } catch (Throwable t) {
+                revalidatingKeys.remove(key);
+                throw t;
+            }
+            return withAge(entry.response(), ageMillis).toHttpResponse();
+        }
+
+        if (conditionalReq != req) {
+            ctx.updateRequest(conditionalReq);
+        }
+        return HttpResponse.from(fetch(ctx, conditionalReq, key, entry)
+                                         .thenApply(AggregatedHttpResponse::toHttpResponse));
+    }
+
+    /**
+     * Returns the key of the cached response for the specified request. The key is made of the logical
+     * target of the request instead of {@link HttpRequest#uri()}, which contains the authority of
+     * the {@link Endpoint} selected from the {@link EndpointGroup}.
+     */
+    private static String cacheKey(ClientRequestContext ctx, HttpRequest req) {
+        final EndpointGroup endpointGroup = ctx.endpointGroup();
+        final String authority;
+        if (endpointGroup == null || endpointGroup instanceof Endpoint) {
+            final Endpoint endpoint = endpointGroup != null ? (Endpoint) endpointGroup : ctx.endpoint();
+            authority = endpoint != null ? endpoint.authority() : "UNKNOWN";
+        } else {
+            final long id = endpointGroupIds.computeIfAbsent(endpointGroup,
+                                                             unused -> nextEndpointGroupId.getAndIncrement());
+            authority = "armeria-group-" + id;
+        }
+        final String scheme = ctx.sessionProtocol().isTls() ? "https" : "http";
+        return scheme + "://" + authority + req.path();
+    }
+
+    private static boolean isFresh(ClientCacheControl requestCacheControl, ResponseCacheEntry entry,
+                                   long ageMillis) {
+        final long maxAgeSeconds = requestCacheControl.maxAgeSeconds();
+        if (maxAgeSeconds >= 0 && ageMillis > maxAgeSeconds * 1000) {
+            return false;
+        }
+
+        final long freshnessLifetimeMillis = entry.freshnessLifetimeMillis();
+        final long minFreshSeconds = requestCacheControl.minFreshSeconds();
+        if (minFreshSeconds >= 0) {
+            return freshnessLifetimeMillis - ageMillis >= minFreshSeconds * 1000;
+        }
+        if (ageMillis < freshnessLifetimeMillis) {
+            return true;
+        }
+
+        // A stale response may be used if the client accepts it and the server does not forbid it.
+        if (!requestCacheControl.hasMaxStale() || entry.cacheControl().mustRevalidate()) {
+            return false;
+        }
+        final long maxStaleSeconds = requestCacheControl.maxStaleSeconds();
+        return maxStaleSeconds < 0 || ageMillis - freshnessLifetimeMillis <= maxStaleSeconds * 1000;
+    }
+
+    private static HttpRequest newConditionalRequest(HttpRequest req, ResponseCacheEntry entry) {
+        final ResponseHeaders cachedHeaders = entry.response().headers();
+        final RequestHeadersBuilder headers = req.headers().toBuilder();
+        final String etag = cachedHeaders.get(HttpHeaderNames.ETAG);
+        if (etag != null) {
+            headers.set(HttpHeaderNames.IF_NONE_MATCH, etag);
+        }
+        final String lastModified = cachedHeaders.get(HttpHeaderNames.LAST_MODIFIED);
+        if (lastModified != null) {
+            headers.set(HttpHeaderNames.IF_MODIFIED_SINCE, lastModified);
+        }
+        return req.withHeaders(headers);
+    }
+
+    /**
+     * Sends the specified request and stores the response if cacheable. If the specified
+     * {@link ResponseCacheEntry} is revalidated, the cached response is returned instead.
+     */
+    private CompletableFuture<AggregatedHttpResponse> fetch(
+            ClientRequestContext ctx, HttpRequest req, String key,
+            @Nullable ResponseCacheEntry entry) throws Exception {
+        final HttpResponse res = unwrap().execute(ctx, req);
+        return res.aggregate().thenApply(aggregated -> {
+            final long receivedTimeMillis = System.currentTimeMillis();
+            if (entry != null && aggregated.status() == HttpStatus.NOT_MODIFIED) {
+                final ResponseCacheEntry revalidated = entry.revalidate(aggregated.headers(),
+                                                                        receivedTimeMillis);
+                store.put(key, revalidated);
+                return revalidated.response();
+            }
+            if (isCacheable(aggregated)) {
+                final ResponseCacheEntry newEntry =
+                        ResponseCacheEntry.of(req.headers(), aggregated, receivedTimeMillis);
+                if (newEntry != null) {
+                    store.put(key, newEntry);
+                }
+            }
+            return aggregated;
+        });
+    }
+
+    /**
+     * Returns whether the specified response can be stored, which means it has a status code which is
+     * cacheable by default and it has an explicit expiration time or a validator.
+     *
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc9111#section-3">Storing Responses in
+     *      Caches</a>
+     */
+    private static boolean isCacheable(AggregatedHttpResponse res) {
+        switch (res.status().code()) {
+            case 200:
+            case 203:
+            case 204:
+            case 300:
+            case 301:
+            case 308:
+            case 404:
+            case 405:
+            case 410:
+            case 414:
+            case 501:
+                break;
+            default:
+                return false;
+        }
+
+        final ResponseHeaders headers = res.headers();
+        final ServerCacheControl cacheControl =
+                ServerCacheControl.parse(headers.getAll(HttpHeaderNames.CACHE_CONTROL));
+        if (cacheControl.noStore()) {
+            return false;
+        }
+        return cacheControl.maxAgeSeconds() >= 0 ||
+               headers.contains(HttpHeaderNames.EXPIRES) ||
+               headers.contains(HttpHeaderNames.ETAG) ||
+               headers.contains(HttpHeaderNames.LAST_MODIFIED);
+    }
+
+    private static AggregatedHttpResponse withAge(AggregatedHttpResponse res, long ageMillis) {
+        final ResponseHeaders headers = res.headers().toBuilder()
+                                           .setLong(HttpHeaderNames.AGE, ageMillis / 1000)
+                                           .build();
+        return AggregatedHttpResponse.of(headers, res.content(), res.trailers());
+    }
+
+    /**
+     * Responds without sending the request to the server.
+     */
+    private static HttpResponse respond(ClientRequestContext ctx, HttpRequest req,
+                                        AggregatedHttpResponse res) {
+        req.abort();
+        final RequestLogBuilder logBuilder = ctx.logBuilder();
+        logBuilder.endRequest();
+        logBuilder.responseHeaders(res.headers());
+        logBuilder.endResponse();
+        return res.toHttpResponse();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.cache;
+
+import java.util.Map.Entry;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.MoreObjects;
+import com.google.common.primitives.Ints;
+
+import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.util.AsciiString;
+
+/**
+ * A {@link ResponseCacheStore} backed by a Caffeine {@link Cache} whose maximum weight is the number of
+ * bytes.
+ */
+final class CaffeineResponseCacheStore implements ResponseCacheStore {
+
+    static final long DEFAULT_MAX_SIZE_IN_BYTES = 32 * 1024 * 1024;
+
+    private final Cache<String, ResponseCacheEntry> cache;
+    private final long maxSizeInBytes;
+
+    CaffeineResponseCacheStore(long maxSizeInBytes) {
+        this.maxSizeInBytes = maxSizeInBytes;
+        cache = Caffeine.newBuilder()
+                        .maximumWeight(maxSizeInBytes)
+                        .<String, ResponseCacheEntry>weigher(
+                                (key, entry) -> Ints.saturatedCast(key.length() + estimateSize(entry)))
+                        .build();
+    }
+
+    @Nullable
+    @Override
+    public ResponseCacheEntry get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, ResponseCacheEntry entry) {
+        cache.put(key, entry);
+    }
+
+    @Override
+    public void remove(String key) {
+        cache.invalidate(key);
+    }
+
+    private static long estimateSize(ResponseCacheEntry entry) {
+        return entry.response().content().length() +
+               estimateSize(entry.response().headers()) +
+               estimateSize(entry.response().trailers()) +
+               estimateSize(entry.varyingRequestHeaders());
+    }
+
+    private static long estimateSize(HttpHeaders headers) {
+        long size = 0;
+        for (Entry<AsciiString, String> header : headers) {
+            size += header.getKey().length() + header.getValue().length();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("maxSizeInBytes", maxSizeInBytes)
+                          .add("estimatedSize", cache.estimatedSize())
+                          .toString();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.HttpHeadersBuilder;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.ResponseHeadersBuilder;
+import com.linecorp.armeria.common.ServerCacheControl;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.util.AsciiString;
+
+/**
+ * An {@link AggregatedHttpResponse} stored in a {@link ResponseCacheStore}, with the request headers
+ * nominated by the {@code "vary"} response header and the time when the response was received.
+ */
+public final class ResponseCacheEntry {
+
+    private static final Splitter VARY_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    /**
+     * Returns a new {@link ResponseCacheEntry} for the specified {@link AggregatedHttpResponse} which was
+     * received at the specified time.
+     *
+     * @param response the {@link AggregatedHttpResponse} to cache
+     * @param varyingRequestHeaders the request headers nominated by the {@code "vary"} response header
+     * @param receivedTimeMillis the time when the response was received, in milliseconds since the epoch
+     */
+    public static ResponseCacheEntry of(AggregatedHttpResponse response, HttpHeaders varyingRequestHeaders,
+                                        long receivedTimeMillis) {
+        return new ResponseCacheEntry(requireNonNull(response, "response"),
+                                      requireNonNull(varyingRequestHeaders, "varyingRequestHeaders"),
+                                      receivedTimeMillis);
+    }
+
+    /**
+     * Returns a new {@link ResponseCacheEntry} for the specified {@link AggregatedHttpResponse} which was
+     * received for the specified {@link RequestHeaders} at the specified time, or {@code null} if
+     * the response has {@code "vary: *"}, which never matches other requests.
+     */
+    @Nullable
+    static ResponseCacheEntry of(RequestHeaders requestHeaders, AggregatedHttpResponse response,
+                                 long receivedTimeMillis) {
+        final List<String> varyingHeaderNames = varyingHeaderNames(response.headers());
+        final HttpHeadersBuilder varyingRequestHeaders = HttpHeaders.builder();
+        for (String name : varyingHeaderNames) {
+            if ("*".equals(name)) {
+                return null;
+            }
+            varyingRequestHeaders.add(name, requestHeaders.getAll(name));
+        }
+        return new ResponseCacheEntry(response, varyingRequestHeaders.build(), receivedTimeMillis);
+    }
+
+    private static List<String> varyingHeaderNames(ResponseHeaders headers) {
+        final List<String> varies = headers.getAll(HttpHeaderNames.VARY);
+        if (varies.isEmpty()) {
+            return ImmutableList.of();
+        }
+        final ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (String vary : varies) {
+            builder.addAll(VARY_SPLITTER.split(vary));
+        }
+        return builder.build();
+    }
+
+    private final AggregatedHttpResponse response;
+    private final HttpHeaders varyingRequestHeaders;
+    private final long receivedTimeMillis;
+    private final ServerCacheControl cacheControl;
+    private final long initialAgeMillis;
+    private final long freshnessLifetimeMillis;
+
+    private ResponseCacheEntry(AggregatedHttpResponse response, HttpHeaders varyingRequestHeaders,
+                               long receivedTimeMillis) {
+        this.response = response;
+        this.varyingRequestHeaders = varyingRequestHeaders;
+        this.receivedTimeMillis = receivedTimeMillis;
+
+        final ResponseHeaders headers = response.headers();
+        cacheControl = ServerCacheControl.parse(headers.getAll(HttpHeaderNames.CACHE_CONTROL));
+
+        // See https://datatracker.ietf.org/doc/html/rfc9111#section-4.2.3
+        final long dateMillis = headers.getTimeMillis(HttpHeaderNames.DATE, receivedTimeMillis);
+        final Long ageSeconds = headers.getLong(HttpHeaderNames.AGE);
+        initialAgeMillis = Math.max(Math.max(0, receivedTimeMillis - dateMillis),
+                                    ageSeconds != null ? Math.max(0, ageSeconds) * 1000 : 0);
+
+        // See https://datatracker.ietf.org/doc/html/rfc9111#section-4.2.1
+        final Long expiresMillis = headers.getTimeMillis(HttpHeaderNames.EXPIRES);
+        final Long lastModifiedMillis = headers.getTimeMillis(HttpHeaderNames.LAST_MODIFIED);
+        if (cacheControl.maxAgeSeconds() >= 0) {
+            freshnessLifetimeMillis = cacheControl.maxAgeSeconds() * 1000;
+        } else if (expiresMillis != null) {
+            freshnessLifetimeMillis = Math.max(0, expiresMillis - dateMillis);
+        } else if (lastModifiedMillis != null) {
+            // Use 10% of the time since the last modification as a heuristic freshness lifetime.
+            freshnessLifetimeMillis = Math.max(0, dateMillis - lastModifiedMillis) / 10;
+        } else {
+            freshnessLifetimeMillis = 0;
+        }
+    }
+
+    /**
+     * Returns the cached {@link AggregatedHttpResponse}.
+     */
+    public AggregatedHttpResponse response() {
+        return response;
+    }
+
+    /**
+     * Returns the request headers nominated by the {@code "vary"} response header. A cached response is
+     * used only for the requests which have the same values for these headers.
+     */
+    public HttpHeaders varyingRequestHeaders() {
+        return varyingRequestHeaders;
+    }
+
+    /**
+     * Returns the time when the response was received or revalidated, in milliseconds since the epoch.
+     */
+    public long receivedTimeMillis() {
+        return receivedTimeMillis;
+    }
+
+    /**
+     * Returns the {@link ServerCacheControl} of the cached response.
+     */
+    ServerCacheControl cacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Returns the current age of the cached response.
+     */
+    long ageMillis(long currentTimeMillis) {
+        return initialAgeMillis + Math.max(0, currentTimeMillis - receivedTimeMillis);
+    }
+
+    /**
+     * Returns how long the cached response stays fresh since it was generated by the origin server.
+     */
+    long freshnessLifetimeMillis() {
+        return freshnessLifetimeMillis;
+    }
+
+    /**
+     * Returns whether this cached response can be used for the specified {@link RequestHeaders}.
+     */
+    boolean matches(RequestHeaders requestHeaders) {
+        for (String name : varyingHeaderNames(response.headers())) {
+            if (!requestHeaders.getAll(name).equals(varyingRequestHeaders.getAll(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether this cached response has {@code "etag"} or {@code "last-modified"} header which can be
+     * used for a conditional request.
+     */
+    boolean hasValidator() {
+        final ResponseHeaders headers = response.headers();
+        return headers.contains(HttpHeaderNames.ETAG) || headers.contains(HttpHeaderNames.LAST_MODIFIED);
+    }
+
+    /**
+     * Returns a new {@link ResponseCacheEntry} whose headers are updated with the specified
+     * {@code "304 Not Modified"} response headers.
+     *
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc9111#section-3.2">Updating Stored Header
+     *      Fields</a>
+     */
+    ResponseCacheEntry revalidate(ResponseHeaders notModifiedHeaders, long receivedTimeMillis) {
+        final ResponseHeadersBuilder headers = response.headers().toBuilder();
+        for (AsciiString name : notModifiedHeaders.names()) {
+            if (name.equals(HttpHeaderNames.STATUS) || name.equals(HttpHeaderNames.CONTENT_LENGTH)) {
+                continue;
+            }
+            headers.set(name, notModifiedHeaders.getAll(name));
+        }
+        if (!notModifiedHeaders.contains(HttpHeaderNames.AGE)) {
+            headers.remove(HttpHeaderNames.AGE);
+        }
+        final AggregatedHttpResponse revalidated =
+                AggregatedHttpResponse.of(headers.build(), response.content(), response.trailers());
+        return new ResponseCacheEntry(revalidated, varyingRequestHeaders, receivedTimeMillis);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("response", response)
+                          .add("varyingRequestHeaders", varyingRequestHeaders)
+                          .add("receivedTimeMillis", receivedTimeMillis)
+                          .toString();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * A storage of {@link ResponseCacheEntry}s for {@link CachingClient}.
+ * An implementation is called from an event loop, so it must not block.
+ */
+public interface ResponseCacheStore {
+
+    /**
+     * Returns a new in-memory {@link ResponseCacheStore} which keeps up to 32 MiB of responses.
+     */
+    static ResponseCacheStore of() {
+        return of(CaffeineResponseCacheStore.DEFAULT_MAX_SIZE_IN_BYTES);
+    }
+
+    /**
+     * Returns a new in-memory {@link ResponseCacheStore} which keeps up to the specified number of bytes
+     * of responses. The size of a {@link ResponseCacheEntry} is estimated from the length of its content
+     * and headers. The least recently and frequently used entries are evicted first.
+     */
+    static ResponseCacheStore of(long maxSizeInBytes) {
+        checkArgument(maxSizeInBytes > 0, "maxSizeInBytes: %s (expected: > 0)", maxSizeInBytes);
+        return new CaffeineResponseCacheStore(maxSizeInBytes);
+    }
+
+    /**
+     * Returns the {@link ResponseCacheEntry} stored with the specified key, or {@code null} if there's
+     * no such entry.
+     */
+    @Nullable
+    ResponseCacheEntry get(String key);
+
+    /**
+     * Stores the specified {@link ResponseCacheEntry} with the specified key, replacing the old entry if
+     * exists.
+     */
+    void put(String key, ResponseCacheEntry entry);
+
+    /**
+     * Removes the {@link ResponseCacheEntry} stored with the specified key.
+     */
+    void remove(String key);
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import com.google.common.annotations.VisibleForTesting;
 
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.util.Ticker;
 
 /**
@@ -56,6 +57,8 @@ public final class CircuitBreakerBuilder {
 
     private Duration counterUpdateInterval = Duration.ofSeconds(DEFAULT_COUNTER_UPDATE_INTERVAL_SECONDS);
 
+    private boolean useRingBufferCounter;
+
     private Ticker ticker = DEFAULT_TICKER;
 
     private List<CircuitBreakerListener> listeners = Collections.emptyList();
@@ -192,6 +195,19 @@ public final class CircuitBreakerBuilder {
         return this;
     }
 
+    /**
+     * Sets whether to count events with a fixed-size ring of buckets which are preallocated for
+     * {@code counterSlidingWindow / counterUpdateInterval} time slots and reused, instead of allocating
+     * a new bucket every {@code counterUpdateInterval}. This reduces the garbage produced by a large number
+     * of {@link CircuitBreaker}s, at the cost of the memory for the preallocated buckets.
+     * Defaults to {@code false} if unspecified.
+     */
+    @UnstableApi
+    public CircuitBreakerBuilder useRingBufferCounter(boolean useRingBufferCounter) {
+        this.useRingBufferCounter = useRingBufferCounter;
+        return this;
+    }
+
     /**
      * Adds a {@link CircuitBreakerListener}.
      */
@@ -223,6 +239,6 @@ public final class CircuitBreakerBuilder {
                 new CircuitBreakerConfig(name, failureRateThreshold, minimumRequestThreshold,
                                          circuitOpenWindow, trialRequestInterval,
                                          counterSlidingWindow, counterUpdateInterval,
-                                         Collections.unmodifiableList(listeners)));
+                                         useRingBufferCounter, Collections.unmodifiableList(listeners)));
     }
 }
@@ -43,13 +43,15 @@ final class CircuitBreakerConfig {
 
     private final Duration counterUpdateInterval;
 
+    private final boolean useRingBufferCounter;
+
     private final List<CircuitBreakerListener> listeners;
 
     CircuitBreakerConfig(@Nullable String name,
                          double failureRateThreshold, long minimumRequestThreshold,
                          Duration circuitOpenWindow, Duration trialRequestInterval,
                          Duration counterSlidingWindow, Duration counterUpdateInterval,
-                         List<CircuitBreakerListener> listeners) {
+                         boolean useRingBufferCounter, List<CircuitBreakerListener> listeners) {
         this.name = name;
         this.failureRateThreshold = failureRateThreshold;
         this.minimumRequestThreshold = minimumRequestThreshold;
@@ -57,6 +59,7 @@ final class CircuitBreakerConfig {
         this.trialRequestInterval = trialRequestInterval;
         this.counterSlidingWindow = counterSlidingWindow;
         this.counterUpdateInterval = counterUpdateInterval;
+        this.useRingBufferCounter = useRingBufferCounter;
         this.listeners = listeners;
     }
 
@@ -89,6 +92,10 @@ final class CircuitBreakerConfig {
         return counterUpdateInterval;
     }
 
+    boolean useRingBufferCounter() {
+        return useRingBufferCounter;
+    }
+
     List<CircuitBreakerListener> listeners() {
         return listeners;
     }
@@ -104,6 +111,7 @@ final class CircuitBreakerConfig {
                 .add("trialRequestInterval", trialRequestInterval)
                 .add("counterSlidingWindow", counterSlidingWindow)
                 .add("counterUpdateInterval", counterUpdateInterval)
+                .add("useRingBufferCounter", useRingBufferCounter)
                 .toString();
     }
 }
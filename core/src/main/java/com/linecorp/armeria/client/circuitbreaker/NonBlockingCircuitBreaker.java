@@ -177,11 +177,15 @@ final class NonBlockingCircuitBreaker implements CircuitBreaker {
     }
 
     private State newClosedState() {
-        return new State(
-                CircuitState.CLOSED,
-                Duration.ZERO,
-                new SlidingWindowCounter(ticker, config.counterSlidingWindow(),
-                                         config.counterUpdateInterval()));
+        final EventCounter counter;
+        if (config.useRingBufferCounter()) {
+            counter = new RingBufferSlidingWindowCounter(ticker, config.counterSlidingWindow(),
+                                                         config.counterUpdateInterval());
+        } else {
+            counter = new SlidingWindowCounter(ticker, config.counterSlidingWindow(),
+                                               config.counterUpdateInterval());
+        }
+        return new State(CircuitState.CLOSED, Duration.ZERO, counter);
     }
 
     private State newForcedOpenState() {
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.client.circuitbreaker;
+
+import static java.util.Objects.requireNonNull;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.math.LongMath;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.util.Ticker;
+
+/**
+ * An {@link EventCounter} that accumulates the count of events within a time window using a fixed-size ring
+ * of preallocated {@link Bucket}s. Unlike {@link SlidingWindowCounter}, a {@link Bucket} is not allocated
+ * every {@code updateInterval} but reused when its time slot comes around again.
+ */
+final class RingBufferSlidingWindowCounter implements EventCounter {
+
+    /**
+     * The slot of a {@link Bucket} which has never been used.
+     */
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    /**
+     * The slot of a {@link Bucket} which is being reset for a new slot.
+     */
+    private static final long RESETTING = Long.MIN_VALUE + 1;
+
+    private final Ticker ticker;
+
+    private final long updateIntervalNanos;
+
+    /**
+     * The number of the {@link Bucket}s within the time window.
+     */
+    private final int numWindowBuckets;
+
+    /**
+     * The {@link Bucket}s within the time window and the {@link Bucket} being updated currently.
+     */
+    private final Bucket[] buckets;
+
+    /**
+     * The slot when the latest {@link EventCount} was accumulated.
+     */
+    private final AtomicLong lastAccumulatedSlot;
+
+    /**
+     * The reference to the latest accumulated {@link EventCount}.
+     */
+    private final AtomicReference<EventCount> snapshot = new AtomicReference<>(EventCount.ZERO);
+
+    RingBufferSlidingWindowCounter(Ticker ticker, Duration slidingWindow, Duration updateInterval) {
+        this.ticker = requireNonNull(ticker, "ticker");
+        final long slidingWindowNanos = requireNonNull(slidingWindow, "slidingWindow").toNanos();
+        updateIntervalNanos = requireNonNull(updateInterval, "updateInterval").toNanos();
+        numWindowBuckets = Math.toIntExact(
+                LongMath.divide(slidingWindowNanos, updateIntervalNanos, RoundingMode.CEILING));
+        buckets = new Bucket[numWindowBuckets + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+        lastAccumulatedSlot = new AtomicLong(slot(ticker.read()));
+    }
+
+    @Override
+    public EventCount count() {
+        return snapshot.get();
+    }
+
+    @Override
+    public EventCount onSuccess() {
+        return onEvent(true);
+    }
+
+    @Override
+    public EventCount onFailure() {
+        return onEvent(false);
+    }
+
+    @Nullable
+    private EventCount onEvent(boolean success) {
+        final long slot = slot(ticker.read());
+        final Bucket bucket = bucket(slot);
+        if (success) {
+            bucket.success.increment();
+        } else {
+            bucket.failure.increment();
+        }
+
+        final long lastSlot = lastAccumulatedSlot.get();
+        if (slot <= lastSlot || !lastAccumulatedSlot.compareAndSet(lastSlot, slot)) {
+            // The current slot has been accumulated already.
+            return null;
+        }
+
+        // Accumulate the buckets before the current slot.
+        final EventCount eventCount = sum(slot);
+        snapshot.set(eventCount);
+        return eventCount;
+    }
+
+    private long slot(long tickerNanos) {
+        return Math.floorDiv(tickerNanos, updateIntervalNanos);
+    }
+
+    /**
+     * Returns the {@link Bucket} of the specified slot, resetting it if it was used for an old slot.
+     */
+    private Bucket bucket(long slot) {
+        final Bucket bucket = buckets[(int) Math.floorMod(slot, (long) buckets.length)];
+        for (;;) {
+            final long bucketSlot = bucket.slot.get();
+            if (bucketSlot >= slot) {
+                // Up-to-date, or a late event whose slot has gone already which is counted as a newer one.
+                return bucket;
+            }
+            if (bucketSlot == RESETTING) {
+                // Another thread is resetting the bucket; it will be done very soon.
+                continue;
+            }
+            if (bucket.slot.compareAndSet(bucketSlot, RESETTING)) {
+                bucket.success.reset();
+                bucket.failure.reset();
+                bucket.slot.set(slot);
+                return bucket;
+            }
+        }
+    }
+
+    /**
+     * Sums up the buckets within the time window before the specified slot.
+     */
+    private EventCount sum(long currentSlot) {
+        final long oldestSlot = currentSlot - numWindowBuckets;
+        long success = 0;
+        long failure = 0;
+        for (Bucket bucket : buckets) {
+            final long bucketSlot = bucket.slot.get();
+            if (bucketSlot >= oldestSlot && bucketSlot < currentSlot) {
+                success += bucket.success.sum();
+                failure += bucket.failure.sum();
+            }
+        }
+        return EventCount.of(success, failure);
+    }
+
+    /**
+     * Holds the count of events within {@code updateInterval}.
+     */
+    private static final class Bucket {
+
+        private final AtomicLong slot = new AtomicLong(UNUSED);
+
+        private final LongAdder success = new LongAdder();
+
+        private final LongAdder failure = new LongAdder();
+
+        @Override
+        public String toString() {
+            return "Bucket{" +
+                   "slot=" + slot +
+                   ", success=" + success +
+                   ", failure=" + failure +
+                   '}';
+        }
+    }
+}
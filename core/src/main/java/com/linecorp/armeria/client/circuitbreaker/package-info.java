@@ -119,6 +119,10 @@
  * <h2>{@code counterUpdateInterval}</h2>
  * The interval that a circuit breaker can see the latest count of events.
  *
+ * <h2>{@code useRingBufferCounter}</h2>
+ * Whether to count events with a preallocated ring of buckets which are reused for every
+ * {@code counterUpdateInterval}, instead of allocating a new bucket.
+ *
  * <h2>{@code exceptionFilter}</h2>
  * A filter that decides whether a circuit breaker should deal with a given error.
  */
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * An {@link EndpointSelector} which maps a hash of a {@link ClientRequestContext} to an {@link Endpoint}
+ * using a {@link ConsistentHashTable}, so that only the keys mapped to the added or removed
+ * {@link Endpoint}s are remapped when the {@link EndpointGroup} is updated.
+ *
+ * <p>If a bounded load factor is specified, the number of in-flight requests of an {@link Endpoint}
+ * is limited to {@code loadFactor * (totalInflightRequests + 1) * weight / totalWeight}, as described in
+ * <a href="https://arxiv.org/abs/1608.01350">Consistent Hashing with Bounded Loads</a>.
+ * The next {@link Endpoint}s in the table are probed when the {@link Endpoint} is at its capacity.
+ */
+final class ConsistentHashEndpointSelector extends AbstractEndpointSelector {
+
+    private final ToLongFunction<? super ClientRequestContext> requestContextHasher;
+    private final ConsistentHashTable.Factory tableFactory;
+    private final double loadFactor;
+    private final LongAdder totalInflight = new LongAdder();
+
+    @Nullable
+    private volatile State state;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param loadFactor the bounded load factor, or {@code 0} to disable the bounded loads.
+     */
+    ConsistentHashEndpointSelector(EndpointGroup endpointGroup,
+                                   ToLongFunction<? super ClientRequestContext> requestContextHasher,
+                                   ConsistentHashTable.Factory tableFactory, double loadFactor) {
+        super(endpointGroup);
+        this.requestContextHasher = requestContextHasher;
+        this.tableFactory = tableFactory;
+        this.loadFactor = loadFactor;
+        endpointGroup.addListener(this::updateEndpoints, true);
+    }
+
+    private void updateEndpoints(List<Endpoint> endpoints) {
+        // Build the table in the listener so that the selection only reads the current state.
+        state = new State(endpoints, state, tableFactory);
+    }
+
+    @Nullable
+    @Override
+    public Endpoint selectNow(ClientRequestContext ctx) {
+        final State state = this.state;
+        if (state == null || state.endpoints.length == 0) {
+            return null;
+        }
+
+        final ConsistentHashTable table = state.table;
+        final long hash = ConsistentHashTable.mix(requestContextHasher.applyAsLong(ctx));
+        final int position = table.position(hash);
+        if (loadFactor == 0) {
+            return state.endpoints[table.endpointIndex(position)];
+        }
+
+        final int index = state.leastOverloaded(table, position, totalInflight.sum(), loadFactor);
+        final LongAdder inflight = state.inflights[index];
+        inflight.increment();
+        totalInflight.increment();
+        ctx.log().whenComplete().thenAccept(unused -> {
+            inflight.decrement();
+            totalInflight.decrement();
+        });
+        return state.endpoints[index];
+    }
+
+    private static final class State {
+
+        final Endpoint[] endpoints;
+        final LongAdder[] inflights;
+        final long totalWeight;
+        final ConsistentHashTable table;
+
+        State(List<Endpoint> endpoints, @Nullable State oldState, ConsistentHashTable.Factory tableFactory) {
+            final Map<Endpoint, LongAdder> oldInflights = new HashMap<>();
+            if (oldState != null) {
+                for (int i = 0; i < oldState.endpoints.length; i++) {
+                    oldInflights.put(oldState.endpoints[i], oldState.inflights[i]);
+                }
+            }
+
+            this.endpoints = endpoints.stream()
+                                      .filter(e -> e.weight() > 0)
+                                      .distinct()
+                                      .toArray(Endpoint[]::new);
+            inflights = new LongAdder[this.endpoints.length];
+            long totalWeight = 0;
+            for (int i = 0; i < this.endpoints.length; i++) {
+                final LongAdder inflight = oldInflights.get(this.endpoints[i]);
+                inflights[i] = inflight != null ? inflight : new LongAdder();
+                totalWeight += this.endpoints[i].weight();
+            }
+            this.totalWeight = totalWeight;
+            table = tableFactory.newTable(this.endpoints);
+        }
+
+        /**
+         * Returns the index of the first {@link Endpoint} which is not at its capacity, probing from
+         * the specified position. The {@link Endpoint} at the specified position is returned if all
+         * {@link Endpoint}s are at their capacities, which may happen only when the loads are updated
+         * concurrently.
+         */
+        int leastOverloaded(ConsistentHashTable table, int position, long totalInflight, double loadFactor) {
+            final double capacityPerWeight = loadFactor * (totalInflight + 1) / totalWeight;
+            final int size = table.size();
+            for (int i = 0; i < size; i++) {
+                final int index = table.endpointIndex((position + i) % size);
+                final double capacity = Math.ceil(capacityPerWeight * endpoints[index].weight());
+                if (inflights[index].sum() < capacity) {
+                    return index;
+                }
+            }
+            return table.endpointIndex(position);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import java.util.function.ToLongFunction;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+
+/**
+ * An {@link EndpointSelectionStrategy} which uses a ring hash or a Maglev lookup table for
+ * consistent hashing.
+ */
+final class ConsistentHashStrategy implements EndpointSelectionStrategy {
+
+    private final ToLongFunction<? super ClientRequestContext> requestContextHasher;
+    private final boolean maglev;
+    private final int tableSize;
+    private final double loadFactor;
+
+    ConsistentHashStrategy(ToLongFunction<? super ClientRequestContext> requestContextHasher,
+                           boolean maglev, int tableSize, double loadFactor) {
+        this.requestContextHasher = requestContextHasher;
+        this.maglev = maglev;
+        this.tableSize = tableSize;
+        this.loadFactor = loadFactor;
+    }
+
+    @Override
+    public EndpointSelector newSelector(EndpointGroup endpointGroup) {
+        final ConsistentHashTable.Factory tableFactory;
+        if (maglev) {
+            tableFactory = new MaglevTable.Factory(tableSize);
+        } else {
+            tableFactory = new RingHashTable.Factory(tableSize);
+        }
+        return new ConsistentHashEndpointSelector(endpointGroup, requestContextHasher,
+                                                  tableFactory, loadFactor);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("algorithm", maglev ? "maglev" : "ringHash")
+                          .add("tableSize", tableSize)
+                          .add("loadFactor", loadFactor)
+                          .toString();
+    }
+}
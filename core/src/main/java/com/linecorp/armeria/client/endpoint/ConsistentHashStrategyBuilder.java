@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.ToLongFunction;
+
+import com.google.common.math.IntMath;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * Builds a consistent hashing {@link EndpointSelectionStrategy} which maps the hash of
+ * a {@link ClientRequestContext} to an {@link Endpoint} using a ring hash or a Maglev lookup table.
+ *
+ * @see EndpointSelectionStrategy#builderForRingHash(ToLongFunction)
+ * @see EndpointSelectionStrategy#builderForMaglev(ToLongFunction)
+ */
+@UnstableApi
+public final class ConsistentHashStrategyBuilder {
+
+    static final int DEFAULT_RING_SIZE = 8192;
+    static final int DEFAULT_MAGLEV_TABLE_SIZE = 65537;
+
+    private final ToLongFunction<? super ClientRequestContext> requestContextHasher;
+    private final boolean maglev;
+    private int tableSize;
+    private double loadFactor;
+
+    ConsistentHashStrategyBuilder(ToLongFunction<? super ClientRequestContext> requestContextHasher,
+                                  boolean maglev) {
+        this.requestContextHasher = requireNonNull(requestContextHasher, "requestContextHasher");
+        this.maglev = maglev;
+        tableSize = maglev ? DEFAULT_MAGLEV_TABLE_SIZE : DEFAULT_RING_SIZE;
+    }
+
+    /**
+     * Sets the size of the lookup table. The larger, the more evenly the keys are distributed across
+     * {@link Endpoint}s, at the cost of memory and the time taken to rebuild the table when
+     * the {@link Endpoint}s are updated.
+     *
+     * <p>For a ring hash, this is the approximate total number of the virtual nodes on the ring,
+     * {@value DEFAULT_RING_SIZE} by default. Each {@link Endpoint} has at least one virtual node.
+     * For a Maglev table, this must be a prime number which is much larger than the number of
+     * {@link Endpoint}s, {@value DEFAULT_MAGLEV_TABLE_SIZE} by default.
+     */
+    public ConsistentHashStrategyBuilder tableSize(int tableSize) {
+        checkArgument(tableSize > 0, "tableSize: %s (expected: > 0)", tableSize);
+        if (maglev) {
+            checkArgument(IntMath.isPrime(tableSize), "tableSize: %s (expected: a prime number)", tableSize);
+        }
+        this.tableSize = tableSize;
+        return this;
+    }
+
+    /**
+     * Enables consistent hashing with bounded loads, which limits the number of in-flight requests of
+     * an {@link Endpoint} to {@code ceil(loadFactor * (totalInflightRequests + 1) * weight / totalWeight)}.
+     * If the {@link Endpoint} selected by the hash is at its capacity, the next {@link Endpoint} in
+     * the lookup table is selected instead. The smaller the {@code loadFactor} is, the more evenly
+     * the requests are distributed, but the more keys are moved to other {@link Endpoint}s.
+     * Bounded loads are disabled by default.
+     *
+     * @param loadFactor the factor of the capacity to the average load, which must be greater than
+     *                   {@code 1.0}. e.g. {@code 1.25}
+     *
+     * @see <a href="https://arxiv.org/abs/1608.01350">Consistent Hashing with Bounded Loads</a>
+     */
+    public ConsistentHashStrategyBuilder boundedLoad(double loadFactor) {
+        checkArgument(loadFactor > 1.0, "loadFactor: %s (expected: > 1.0)", loadFactor);
+        this.loadFactor = loadFactor;
+        return this;
+    }
+
+    /**
+     * Returns a newly-created consistent hashing {@link EndpointSelectionStrategy} based on
+     * the properties set so far.
+     */
+    public EndpointSelectionStrategy build() {
+        return new ConsistentHashStrategy(requestContextHasher, maglev, tableSize, loadFactor);
+    }
+}
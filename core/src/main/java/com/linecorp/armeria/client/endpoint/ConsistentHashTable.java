@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * A lookup table of a consistent hashing algorithm which maps a hash of a request to an {@link Endpoint}.
+ * Consecutive positions of the table are probed when the {@link Endpoint} at the hashed position is
+ * overloaded.
+ */
+abstract class ConsistentHashTable {
+
+    private static final HashFunction endpointHashFunction = Hashing.murmur3_128();
+
+    /**
+     * Returns the number of the positions in this table.
+     */
+    abstract int size();
+
+    /**
+     * Returns the position which the specified hash is mapped to.
+     */
+    abstract int position(long hash);
+
+    /**
+     * Returns the index of the {@link Endpoint} at the specified position.
+     */
+    abstract int endpointIndex(int position);
+
+    /**
+     * Returns a stable hash of the specified {@link Endpoint} which does not depend on its weight.
+     */
+    static long hash(Endpoint endpoint, int seed) {
+        @Nullable
+        final String ipAddr = endpoint.ipAddr();
+        return endpointHashFunction.newHasher()
+                                   .putString(endpoint.host(), UTF_8)
+                                   .putString(ipAddr != null ? ipAddr : "", UTF_8)
+                                   .putInt(endpoint.port(0))
+                                   .putInt(seed)
+                                   .hash().asLong();
+    }
+
+    /**
+     * Scrambles the bits of the specified key so that the keys with a small difference, such as
+     * {@link Object#hashCode()}s, are spread across the table. This is the finalizer of MurmurHash3.
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Creates a new {@link ConsistentHashTable} whenever the {@link Endpoint}s are updated.
+     * A {@link Factory} is used by only one {@link EndpointSelector}, so it may cache the states computed
+     * for the previous {@link Endpoint}s.
+     */
+    @FunctionalInterface
+    interface Factory {
+        /**
+         * Returns a new {@link ConsistentHashTable} for the specified {@link Endpoint}s, whose
+         * weights are all positive.
+         */
+        ConsistentHashTable newTable(Endpoint[] endpoints);
+    }
+}
@@ -16,6 +16,10 @@
 
 package com.linecorp.armeria.client.endpoint;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
 import java.util.function.ToLongFunction;
 
 import com.linecorp.armeria.client.ClientRequestContext;
@@ -73,6 +77,54 @@ public interface EndpointSelectionStrategy {
         return new WeightRampingUpStrategyBuilder();
     }
 
+    /**
+     * Returns a least-request strategy which picks two {@link Endpoint}s at random and selects the one
+     * with fewer in-flight requests, a.k.a. "the power of two choices". The number of in-flight requests is
+     * normalized by {@link Endpoint#weight()}. A request is considered in-flight from the moment an
+     * {@link Endpoint} is selected for it until its {@link ClientRequestContext#log()} is complete.
+     *
+     * <p>Unlike {@link #roundRobin()}, this strategy sends fewer requests to the {@link Endpoint}s which are
+     * slower than the others, which is useful when the backends are heterogeneous.
+     *
+     * @see #peakEwma()
+     */
+    @UnstableApi
+    static EndpointSelectionStrategy leastRequest() {
+        return LeastRequestStrategy.INSTANCE;
+    }
+
+    /**
+     * Returns a peak EWMA strategy which picks two {@link Endpoint}s at random and selects the one with
+     * the lower cost, which is the peak exponentially weighted moving average (EWMA) of the response latency
+     * multiplied by the number of in-flight requests. The EWMA reacts to a latency spike immediately and
+     * decays with the time constant of 10 seconds.
+     *
+     * @see #leastRequest()
+     * @see #peakEwma(Duration)
+     */
+    @UnstableApi
+    static EndpointSelectionStrategy peakEwma() {
+        return PeakEwmaStrategy.INSTANCE;
+    }
+
+    /**
+     * Returns a peak EWMA strategy which picks two {@link Endpoint}s at random and selects the one with
+     * the lower cost, which is the peak exponentially weighted moving average (EWMA) of the response latency
+     * multiplied by the number of in-flight requests.
+     *
+     * @param decayTime the time constant of the EWMA. The longer, the slower the latency of an
+     *                  {@link Endpoint} is forgotten.
+     *
+     * @see #leastRequest()
+     */
+    @UnstableApi
+    static EndpointSelectionStrategy peakEwma(Duration decayTime) {
+        requireNonNull(decayTime, "decayTime");
+        checkArgument(!decayTime.isNegative() && !decayTime.isZero(),
+                      "decayTime: %s (expected: > 0)", decayTime);
+        return new PeakEwmaStrategy(decayTime.toNanos());
+    }
+
     /**
      * Returns a sticky strategy which uses a user passed {@link ToLongFunction} to compute hashes for
      * consistent hashing.
@@ -98,6 +150,67 @@ public interface EndpointSelectionStrategy {
         return new StickyEndpointSelectionStrategy(requestContextHasher);
     }
 
+    /**
+     * Returns a consistent hashing strategy which places the virtual nodes of {@link Endpoint}s on
+     * a hash ring and maps the hash computed by the specified {@link ToLongFunction} to the nearest
+     * virtual node. The number of the virtual nodes of an {@link Endpoint} is proportional to its weight.
+     *
+     * <p>Unlike {@link #sticky(ToLongFunction)}, only the keys mapped to the added or removed
+     * {@link Endpoint}s are remapped when the {@link EndpointGroup} is updated, which keeps the local
+     * caches of the other backends warm.
+     *
+     * @see #builderForRingHash(ToLongFunction)
+     * @see #maglev(ToLongFunction)
+     */
+    @UnstableApi
+    static EndpointSelectionStrategy ringHash(
+            ToLongFunction<? super ClientRequestContext> requestContextHasher) {
+        return builderForRingHash(requestContextHasher).build();
+    }
+
+    /**
+     * Returns a new {@link ConsistentHashStrategyBuilder} that builds a consistent hashing
+     * {@link EndpointSelectionStrategy} which uses a hash ring.
+     *
+     * @see #ringHash(ToLongFunction)
+     */
+    @UnstableApi
+    static ConsistentHashStrategyBuilder builderForRingHash(
+            ToLongFunction<? super ClientRequestContext> requestContextHasher) {
+        return new ConsistentHashStrategyBuilder(requestContextHasher, false);
+    }
+
+    /**
+     * Returns a consistent hashing strategy which maps the hash computed by the specified
+     * {@link ToLongFunction} to an {@link Endpoint} using a
+     * <a href="https://research.google/pubs/pub44824/">Maglev</a> lookup table. The number of the entries
+     * of an {@link Endpoint} in the table is proportional to its weight.
+     *
+     * <p>Compared to {@link #ringHash(ToLongFunction)}, the lookup takes constant time and the keys are
+     * distributed more evenly, but slightly more keys are remapped when the {@link EndpointGroup} is
+     * updated.
+     *
+     * @see #builderForMaglev(ToLongFunction)
+     * @see #ringHash(ToLongFunction)
+     */
+    @UnstableApi
+    static EndpointSelectionStrategy maglev(
+            ToLongFunction<? super ClientRequestContext> requestContextHasher) {
+        return builderForMaglev(requestContextHasher).build();
+    }
+
+    /**
+     * Returns a new {@link ConsistentHashStrategyBuilder} that builds a consistent hashing
+     * {@link EndpointSelectionStrategy} which uses a Maglev lookup table.
+     *
+     * @see #maglev(ToLongFunction)
+     */
+    @UnstableApi
+    static ConsistentHashStrategyBuilder builderForMaglev(
+            ToLongFunction<? super ClientRequestContext> requestContextHasher) {
+        return new ConsistentHashStrategyBuilder(requestContextHasher, true);
+    }
+
     /**
      * Creates a new {@link EndpointSelector} that selects an {@link Endpoint} from the specified
      * {@link EndpointGroup}.
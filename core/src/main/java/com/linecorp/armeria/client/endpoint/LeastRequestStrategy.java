@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.PowerOfTwoChoicesSelector.EndpointLoad;
+
+/**
+ * An {@link EndpointSelectionStrategy} which picks two {@link Endpoint}s at random and selects the one with
+ * fewer in-flight requests, normalized by {@link Endpoint#weight()}.
+ */
+final class LeastRequestStrategy implements EndpointSelectionStrategy {
+
+    static final LeastRequestStrategy INSTANCE = new LeastRequestStrategy();
+
+    private LeastRequestStrategy() {}
+
+    @Override
+    public EndpointSelector newSelector(EndpointGroup endpointGroup) {
+        return new PowerOfTwoChoicesSelector(endpointGroup, InflightLoad::new);
+    }
+
+    private static final class InflightLoad extends EndpointLoad {
+        @Override
+        double cost(long nowNanos) {
+            return inflight() + 1;
+        }
+    }
+}
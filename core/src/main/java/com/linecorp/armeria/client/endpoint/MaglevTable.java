@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import java.util.Arrays;
+
+import com.linecorp.armeria.client.Endpoint;
+
+/**
+ * A {@link ConsistentHashTable} which fills a lookup table whose size is a prime number with
+ * the preference lists of {@link Endpoint}s, as described in
+ * <a href="https://research.google/pubs/pub44824/">Maglev: A Fast and Reliable Software Network Load
+ * Balancer</a>. The number of the entries of an {@link Endpoint} is proportional to its weight.
+ */
+final class MaglevTable extends ConsistentHashTable {
+
+    private final int[] endpointIndexes;
+
+    private MaglevTable(int[] endpointIndexes) {
+        this.endpointIndexes = endpointIndexes;
+    }
+
+    @Override
+    int size() {
+        return endpointIndexes.length;
+    }
+
+    @Override
+    int position(long hash) {
+        return (int) Math.floorMod(hash, (long) endpointIndexes.length);
+    }
+
+    @Override
+    int endpointIndex(int position) {
+        return endpointIndexes[position];
+    }
+
+    static final class Factory implements ConsistentHashTable.Factory {
+
+        private final int tableSize;
+
+        Factory(int tableSize) {
+            this.tableSize = tableSize;
+        }
+
+        @Override
+        public ConsistentHashTable newTable(Endpoint[] endpoints) {
+            final int numEndpoints = endpoints.length;
+            final int[] endpointIndexes = new int[tableSize];
+            Arrays.fill(endpointIndexes, -1);
+            if (numEndpoints == 0) {
+                return new MaglevTable(endpointIndexes);
+            }
+
+            // The permutation of an endpoint is (offset + skip * j) % tableSize.
+            final long[] offsets = new long[numEndpoints];
+            final long[] skips = new long[numEndpoints];
+            final long[] nexts = new long[numEndpoints];
+            final long[] numEntries = new long[numEndpoints];
+            int maxWeight = 0;
+            for (int i = 0; i < numEndpoints; i++) {
+                final Endpoint endpoint = endpoints[i];
+                offsets[i] = Math.floorMod(hash(endpoint, 0), (long) tableSize);
+                skips[i] = Math.floorMod(hash(endpoint, 1), (long) tableSize - 1) + 1;
+                maxWeight = Math.max(maxWeight, endpoint.weight());
+            }
+
+            int numFilled = 0;
+            for (long round = 1; numFilled < tableSize; round++) {
+                for (int i = 0; i < numEndpoints && numFilled < tableSize; i++) {
+                    // An endpoint takes an entry in every (maxWeight / weight) rounds.
+                    if (numEntries[i] * maxWeight >= round * endpoints[i].weight()) {
+                        continue;
+                    }
+                    int position;
+                    do {
+                        position = (int) ((offsets[i] + skips[i] * nexts[i]++) % tableSize);
+                    } while (endpointIndexes[position] >= 0);
+                    endpointIndexes[position] = i;
+                    numEntries[i]++;
+                    numFilled++;
+                }
+            }
+            return new MaglevTable(endpointIndexes);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.PowerOfTwoChoicesSelector.EndpointLoad;
+
+/**
+ * An {@link EndpointSelectionStrategy} which picks two {@link Endpoint}s at random and selects the one with
+ * the lower peak exponentially weighted moving average (EWMA) of the response latency multiplied by
+ * the number of in-flight requests. The EWMA reacts to a latency spike immediately and decays slowly,
+ * so that a slow {@link Endpoint} is avoided until it recovers.
+ */
+final class PeakEwmaStrategy implements EndpointSelectionStrategy {
+
+    static final long DEFAULT_DECAY_TIME_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    static final PeakEwmaStrategy INSTANCE = new PeakEwmaStrategy(DEFAULT_DECAY_TIME_NANOS);
+
+    /**
+     * The cost of an {@link Endpoint} which has in-flight requests but no latency samples yet,
+     * so that a new {@link Endpoint} receives only one request until its latency is known.
+     */
+    private static final double PENALTY = Long.MAX_VALUE >> 16;
+
+    private final long decayTimeNanos;
+
+    PeakEwmaStrategy(long decayTimeNanos) {
+        this.decayTimeNanos = decayTimeNanos;
+    }
+
+    @Override
+    public EndpointSelector newSelector(EndpointGroup endpointGroup) {
+        return new PowerOfTwoChoicesSelector(endpointGroup, () -> new PeakEwmaLoad(decayTimeNanos));
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("decayTimeNanos", decayTimeNanos)
+                          .toString();
+    }
+
+    static final class PeakEwmaLoad extends EndpointLoad {
+
+        private final double decayTimeNanos;
+
+        private volatile double ewmaNanos;
+        private volatile long lastUpdateNanos;
+
+        PeakEwmaLoad(long decayTimeNanos) {
+            this.decayTimeNanos = decayTimeNanos;
+        }
+
+        @Override
+        void onComplete(long startNanos, long endNanos) {
+            final long rttNanos = Math.max(0, endNanos - startNanos);
+            synchronized (this) {
+                final double ewmaNanos = this.ewmaNanos;
+                if (rttNanos > ewmaNanos) {
+                    // Jump to the peak immediately.
+                    this.ewmaNanos = rttNanos;
+                } else {
+                    final double weight = decayWeight(endNanos);
+                    this.ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+                }
+                lastUpdateNanos = endNanos;
+            }
+        }
+
+        @Override
+        double cost(long nowNanos) {
+            final long inflight = inflight();
+            final double ewmaNanos = this.ewmaNanos;
+            if (ewmaNanos == 0 && inflight != 0) {
+                return PENALTY + inflight;
+            }
+            // Decay towards zero while there are no new samples so that an idle Endpoint is retried.
+            return ewmaNanos * decayWeight(nowNanos) * (inflight + 1);
+        }
+
+        private double decayWeight(long nowNanos) {
+            final long elapsedNanos = Math.max(0, nowNanos - lastUpdateNanos);
+            return Math.exp(-elapsedNanos / decayTimeNanos);
+        }
+    }
+}
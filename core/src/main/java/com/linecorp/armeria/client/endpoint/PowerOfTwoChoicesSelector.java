@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.logging.RequestLog;
+
+/**
+ * An {@link EndpointSelector} which picks two {@link Endpoint}s at random and selects the one with
+ * the lower {@linkplain EndpointLoad#cost(long) cost}, a.k.a. "the power of two choices".
+ * The load of an {@link Endpoint} is tracked from the moment it is selected until the {@link RequestLog}
+ * of the {@link ClientRequestContext} is complete.
+ */
+final class PowerOfTwoChoicesSelector extends AbstractEndpointSelector {
+
+    private final Supplier<? extends EndpointLoad> loadFactory;
+
+    @Nullable
+    private volatile EndpointsAndLoads endpointsAndLoads;
+
+    PowerOfTwoChoicesSelector(EndpointGroup endpointGroup, Supplier<? extends EndpointLoad> loadFactory) {
+        super(endpointGroup);
+        this.loadFactory = loadFactory;
+        endpointGroup.addListener(this::updateEndpoints, true);
+    }
+
+    private void updateEndpoints(List<Endpoint> endpoints) {
+        final EndpointsAndLoads oldEndpointsAndLoads = endpointsAndLoads;
+        // Keep the loads of the remaining endpoints so that the in-flight requests are not forgotten.
+        endpointsAndLoads = new EndpointsAndLoads(endpoints, oldEndpointsAndLoads, loadFactory);
+    }
+
+    @Nullable
+    @Override
+    public Endpoint selectNow(ClientRequestContext ctx) {
+        final EndpointsAndLoads endpointsAndLoads = this.endpointsAndLoads;
+        if (endpointsAndLoads == null) {
+            // 'endpointGroup' has not been initialized yet.
+            return null;
+        }
+
+        final int size = endpointsAndLoads.endpoints.length;
+        if (size == 0) {
+            return null;
+        }
+
+        final int index;
+        if (size == 1) {
+            index = 0;
+        } else {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+            index = endpointsAndLoads.lessLoaded(first, second, System.nanoTime());
+        }
+
+        final Endpoint endpoint = endpointsAndLoads.endpoints[index];
+        final EndpointLoad load = endpointsAndLoads.loads[index];
+        final long startNanos = load.onStart();
+        ctx.log().whenComplete().thenAccept(unused -> load.onComplete(startNanos));
+        return endpoint;
+    }
+
+    @VisibleForTesting
+    @Nullable
+    EndpointLoad load(Endpoint endpoint) {
+        final EndpointsAndLoads endpointsAndLoads = this.endpointsAndLoads;
+        if (endpointsAndLoads == null) {
+            return null;
+        }
+        for (int i = 0; i < endpointsAndLoads.endpoints.length; i++) {
+            if (endpointsAndLoads.endpoints[i].equals(endpoint)) {
+                return endpointsAndLoads.loads[i];
+            }
+        }
+        return null;
+    }
+
+    private static final class EndpointsAndLoads {
+
+        final Endpoint[] endpoints;
+        final EndpointLoad[] loads;
+
+        EndpointsAndLoads(List<Endpoint> endpoints, @Nullable EndpointsAndLoads oldEndpointsAndLoads,
+                          Supplier<? extends EndpointLoad> loadFactory) {
+            final Map<Endpoint, EndpointLoad> oldLoads = new HashMap<>();
+            if (oldEndpointsAndLoads != null) {
+                for (int i = 0; i < oldEndpointsAndLoads.endpoints.length; i++) {
+                    oldLoads.put(oldEndpointsAndLoads.endpoints[i], oldEndpointsAndLoads.loads[i]);
+                }
+            }
+
+            this.endpoints = endpoints.stream()
+                                      .filter(e -> e.weight() > 0)
+                                      .toArray(Endpoint[]::new);
+            loads = new EndpointLoad[this.endpoints.length];
+            for (int i = 0; i < this.endpoints.length; i++) {
+                final EndpointLoad load = oldLoads.get(this.endpoints[i]);
+                loads[i] = load != null ? load : loadFactory.get();
+            }
+        }
+
+        /**
+         * Returns the index of the {@link Endpoint} whose cost divided by its weight is lower.
+         */
+        int lessLoaded(int first, int second, long nowNanos) {
+            // cost(first) / weight(first) <= cost(second) / weight(second)
+            final double firstCost = loads[first].cost(nowNanos) * endpoints[second].weight();
+            final double secondCost = loads[second].cost(nowNanos) * endpoints[first].weight();
+            return firstCost <= secondCost ? first : second;
+        }
+    }
+
+    /**
+     * The load of an {@link Endpoint}, which tracks the number of in-flight requests with a striped counter.
+     */
+    abstract static class EndpointLoad {
+
+        private final LongAdder inflight = new LongAdder();
+
+        /**
+         * Returns the number of in-flight requests.
+         */
+        final long inflight() {
+            return Math.max(0, inflight.sum());
+        }
+
+        /**
+         * Invoked when a request is about to be sent to the {@link Endpoint}.
+         *
+         * @return the start time of the request in nanoseconds
+         */
+        final long onStart() {
+            inflight.increment();
+            return System.nanoTime();
+        }
+
+        /**
+         * Invoked when the request sent to the {@link Endpoint} is complete.
+         */
+        final void onComplete(long startNanos) {
+            inflight.decrement();
+            onComplete(startNanos, System.nanoTime());
+        }
+
+        /**
+         * Invoked after the in-flight count is decreased. Override this method to record latency.
+         */
+        void onComplete(long startNanos, long endNanos) {}
+
+        /**
+         * Returns the cost of sending a new request to the {@link Endpoint}. The lower, the better.
+         */
+        abstract double cost(long nowNanos);
+    }
+}
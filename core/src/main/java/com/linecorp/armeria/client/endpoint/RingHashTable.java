@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.linecorp.armeria.client.Endpoint;
+
+/**
+ * A {@link ConsistentHashTable} which places the virtual nodes of {@link Endpoint}s on a hash ring,
+ * a.k.a. Ketama. The number of the virtual nodes of an {@link Endpoint} is proportional to its weight.
+ * A hash is mapped to the first virtual node found clockwise on the ring.
+ */
+final class RingHashTable extends ConsistentHashTable {
+
+    private final long[] hashes;
+    private final int[] endpointIndexes;
+
+    private RingHashTable(long[] hashes, int[] endpointIndexes) {
+        this.hashes = hashes;
+        this.endpointIndexes = endpointIndexes;
+    }
+
+    @Override
+    int size() {
+        return hashes.length;
+    }
+
+    @Override
+    int position(long hash) {
+        final int position = Arrays.binarySearch(hashes, hash);
+        if (position >= 0) {
+            return position;
+        }
+        final int insertionPoint = -position - 1;
+        return insertionPoint == hashes.length ? 0 : insertionPoint;
+    }
+
+    @Override
+    int endpointIndex(int position) {
+        return endpointIndexes[position];
+    }
+
+    static final class Factory implements ConsistentHashTable.Factory {
+
+        private final int ringSize;
+
+        /**
+         * The hashes of the virtual nodes of the current {@link Endpoint}s, which are reused when
+         * the {@link Endpoint}s are updated so that only the new {@link Endpoint}s are hashed.
+         */
+        private Map<Endpoint, long[]> nodeHashes = new HashMap<>();
+
+        /**
+         * The number of the virtual nodes per weight, which is kept while the size of the ring is
+         * within the half and the double of {@link #ringSize}, so that adding or removing an {@link Endpoint}
+         * does not move the virtual nodes of the other {@link Endpoint}s.
+         */
+        private double nodesPerWeight;
+
+        Factory(int ringSize) {
+            this.ringSize = ringSize;
+        }
+
+        @Override
+        public synchronized ConsistentHashTable newTable(Endpoint[] endpoints) {
+            if (endpoints.length == 0) {
+                nodeHashes = new HashMap<>();
+                return new RingHashTable(new long[0], new int[0]);
+            }
+
+            long totalWeight = 0;
+            for (Endpoint endpoint : endpoints) {
+                totalWeight += endpoint.weight();
+            }
+
+            final double idealNodesPerWeight = (double) ringSize / totalWeight;
+            final double ratio = nodesPerWeight / idealNodesPerWeight;
+            if (ratio < 0.5 || ratio > 2) {
+                nodesPerWeight = idealNodesPerWeight;
+            }
+
+            final Map<Endpoint, long[]> newNodeHashes = new HashMap<>();
+            final int[] numNodes = new int[endpoints.length];
+            int size = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                final Endpoint endpoint = endpoints[i];
+                numNodes[i] = (int) Math.max(1, Math.round(endpoint.weight() * nodesPerWeight));
+                size += numNodes[i];
+                newNodeHashes.put(endpoint, nodeHashes(endpoint, numNodes[i]));
+            }
+            nodeHashes = newNodeHashes;
+
+            final long[] hashes = new long[size];
+            final int[] endpointIndexes = new int[size];
+            int position = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                final long[] endpointHashes = newNodeHashes.get(endpoints[i]);
+                System.arraycopy(endpointHashes, 0, hashes, position, numNodes[i]);
+                Arrays.fill(endpointIndexes, position, position + numNodes[i], i);
+                position += numNodes[i];
+            }
+
+            it.unimi.dsi.fastutil.Arrays.quickSort(0, size, (a, b) -> {
+                final int res = Long.compare(hashes[a], hashes[b]);
+                // Break the tie with the endpoint index so that the order is deterministic.
+                return res != 0 ? res : Integer.compare(endpointIndexes[a], endpointIndexes[b]);
+            }, (a, b) -> {
+                final long hash = hashes[a];
+                hashes[a] = hashes[b];
+                hashes[b] = hash;
+                final int endpointIndex = endpointIndexes[a];
+                endpointIndexes[a] = endpointIndexes[b];
+                endpointIndexes[b] = endpointIndex;
+            });
+            return new RingHashTable(hashes, endpointIndexes);
+        }
+
+        private long[] nodeHashes(Endpoint endpoint, int numNodes) {
+            final long[] oldHashes = nodeHashes.get(endpoint);
+            final int numOldHashes;
+            if (oldHashes != null) {
+                if (oldHashes.length >= numNodes) {
+                    return oldHashes;
+                }
+                numOldHashes = oldHashes.length;
+            } else {
+                numOldHashes = 0;
+            }
+
+            final long[] hashes = new long[numNodes];
+            if (oldHashes != null) {
+                System.arraycopy(oldHashes, 0, hashes, 0, numOldHashes);
+            }
+            for (int i = numOldHashes; i < numNodes; i++) {
+                hashes[i] = hash(endpoint, i);
+            }
+            return hashes;
+        }
+    }
+}
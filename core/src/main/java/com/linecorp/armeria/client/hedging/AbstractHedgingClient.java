@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+
+import com.linecorp.armeria.client.Client;
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.SimpleDecoratingClient;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.Response;
+import com.linecorp.armeria.common.RpcRequest;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.internal.client.ClientUtil;
+
+import io.netty.util.AsciiString;
+
+/**
+ * A {@link Client} decorator that sends a hedged request to another {@link Endpoint} when the response of
+ * the previous attempt does not arrive within a certain delay. The response which arrives first is returned
+ * and the other attempts are cancelled.
+ *
+ * @param <I> the {@link Request} type
+ * @param <O> the {@link Response} type
+ */
+@UnstableApi
+public abstract class AbstractHedgingClient<I extends Request, O extends Response>
+        extends SimpleDecoratingClient<I, O> {
+
+    /**
+     * The header which indicates the hedge count of a {@link Request}. It is not set for the initial attempt.
+     * The server might use this value to reject excessive hedged requests, etc.
+     */
+    public static final AsciiString ARMERIA_HEDGE_COUNT = HttpHeaderNames.of("armeria-hedge-count");
+
+    private final int maxTotalAttempts;
+    private final HedgingDelay hedgingDelay;
+    private final HedgingBudget budget;
+
+    /**
+     * Creates a new instance that decorates the specified {@link Client}.
+     */
+    AbstractHedgingClient(Client<I, O> delegate, int maxTotalAttempts,
+                          HedgingDelay hedgingDelay, HedgingBudget budget) {
+        super(delegate);
+        this.maxTotalAttempts = maxTotalAttempts;
+        this.hedgingDelay = requireNonNull(hedgingDelay, "hedgingDelay");
+        this.budget = requireNonNull(budget, "budget");
+    }
+
+    @Override
+    public final O execute(ClientRequestContext ctx, I req) throws Exception {
+        budget.deposit();
+        return doExecute(ctx, req);
+    }
+
+    /**
+     * Invoked by {@link #execute(ClientRequestContext, Request)} after a token is deposited into
+     * the {@link HedgingBudget}.
+     */
+    protected abstract O doExecute(ClientRequestContext ctx, I req) throws Exception;
+
+    /**
+     * Returns the maximum number of total attempts including the initial attempt.
+     */
+    protected final int maxTotalAttempts() {
+        return maxTotalAttempts;
+    }
+
+    /**
+     * Returns the {@link HedgingDelay} of this client.
+     */
+    protected final HedgingDelay hedgingDelay() {
+        return hedgingDelay;
+    }
+
+    /**
+     * Returns the {@link HedgingBudget} of this client.
+     */
+    protected final HedgingBudget budget() {
+        return budget;
+    }
+
+    /**
+     * Creates a new derived {@link ClientRequestContext}, replacing the requests.
+     * For a hedged attempt, a new {@link Endpoint} which has not been used by the previous attempts is
+     * selected from {@link ClientRequestContext#endpointGroup()} if possible.
+     */
+    static ClientRequestContext newDerivedContext(ClientRequestContext ctx,
+                                                  @Nullable HttpRequest req,
+                                                  @Nullable RpcRequest rpcReq,
+                                                  List<Endpoint> usedEndpoints) {
+        if (usedEndpoints.isEmpty()) {
+            return ClientUtil.newDerivedContext(ctx, req, rpcReq, true);
+        }
+        return ClientUtil.newDerivedContext(ctx, req, rpcReq, selectEndpoint(ctx, usedEndpoints));
+    }
+
+    @Nullable
+    private static Endpoint selectEndpoint(ClientRequestContext ctx, List<Endpoint> usedEndpoints) {
+        final EndpointGroup endpointGroup = ctx.endpointGroup();
+        if (endpointGroup == null) {
+            return ctx.endpoint();
+        }
+
+        // Give the EndpointSelector a chance to pick every endpoint before giving up.
+        final int maxSelections = Math.max(1, endpointGroup.endpoints().size());
+        Endpoint selected = null;
+        for (int i = 0; i < maxSelections; i++) {
+            selected = endpointGroup.selectNow(ctx);
+            if (selected == null || !usedEndpoints.contains(selected)) {
+                break;
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.MoreObjects.ToStringHelper;
+
+import com.linecorp.armeria.client.Client;
+import com.linecorp.armeria.common.Response;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * Builds a new {@link AbstractHedgingClient} or its decorator function.
+ *
+ * @param <O> the type of incoming {@link Response} of the {@link Client}
+ */
+@UnstableApi
+public abstract class AbstractHedgingClientBuilder<O extends Response> {
+
+    static final int DEFAULT_MAX_TOTAL_ATTEMPTS = 2;
+
+    private final HedgingDelay hedgingDelay;
+    private int maxTotalAttempts = DEFAULT_MAX_TOTAL_ATTEMPTS;
+    private HedgingBudget budget = HedgingBudget.of(0.1, 10);
+
+    /**
+     * Creates a new builder with the specified {@link HedgingDelay}.
+     */
+    AbstractHedgingClientBuilder(HedgingDelay hedgingDelay) {
+        this.hedgingDelay = requireNonNull(hedgingDelay, "hedgingDelay");
+    }
+
+    final HedgingDelay hedgingDelay() {
+        return hedgingDelay;
+    }
+
+    final int maxTotalAttempts() {
+        return maxTotalAttempts;
+    }
+
+    /**
+     * Sets the maximum allowed number of total attempts including the initial attempt.
+     * If unspecified, {@value #DEFAULT_MAX_TOTAL_ATTEMPTS} is used, i.e. at most one hedged request is sent.
+     *
+     * @return {@code this} to support method chaining.
+     */
+    public AbstractHedgingClientBuilder<O> maxTotalAttempts(int maxTotalAttempts) {
+        checkArgument(maxTotalAttempts > 0, "maxTotalAttempts: %s (expected: > 0)", maxTotalAttempts);
+        this.maxTotalAttempts = maxTotalAttempts;
+        return this;
+    }
+
+    final HedgingBudget budget() {
+        return budget;
+    }
+
+    /**
+     * Sets the {@link HedgingBudget} which limits the number of hedged requests.
+     * If unspecified, {@code HedgingBudget.of(0.1, 10)} is used, which allows hedged requests up to 10% of
+     * the original requests with a burst of 10 hedged requests.
+     *
+     * @return {@code this} to support method chaining.
+     */
+    public AbstractHedgingClientBuilder<O> budget(HedgingBudget budget) {
+        this.budget = requireNonNull(budget, "budget");
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper().toString();
+    }
+
+    final ToStringHelper toStringHelper() {
+        return MoreObjects.toStringHelper(this)
+                          .add("hedgingDelay", hedgingDelay)
+                          .add("maxTotalAttempts", maxTotalAttempts)
+                          .add("budget", budget);
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.ResponseCancellationException;
+import com.linecorp.armeria.common.Request;
+import com.linecorp.armeria.common.Response;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.logging.RequestLogBuilder;
+import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.common.util.TimeoutMode;
+
+/**
+ * The state of a hedged request, which consists of one or more attempts.
+ * All state transitions are made by the event loop of the {@link ClientRequestContext}.
+ */
+abstract class HedgedExecution<I extends Request, O extends Response> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedExecution.class);
+
+    private final AbstractHedgingClient<I, O> client;
+    final ClientRequestContext ctx;
+    private final CompletableFuture<O> future = new CompletableFuture<>();
+    private final List<Attempt<O>> pendingAttempts = new ArrayList<>(2);
+    private final List<Endpoint> usedEndpoints = new ArrayList<>(2);
+    private final long deadlineNanos;
+
+    @Nullable
+    private ScheduledFuture<?> hedgeFuture;
+    @Nullable
+    private Attempt<O> lastFailedAttempt;
+    private int numAttempts;
+    private boolean done;
+
+    HedgedExecution(AbstractHedgingClient<I, O> client, ClientRequestContext ctx) {
+        this.client = client;
+        this.ctx = ctx;
+        final long responseTimeoutMillis = ctx.responseTimeoutMillis();
+        if (responseTimeoutMillis > 0 && responseTimeoutMillis != Long.MAX_VALUE) {
+            deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(responseTimeoutMillis);
+        } else {
+            deadlineNanos = 0;
+        }
+    }
+
+    /**
+     * Returns a new {@link Response} which is completed with the specified {@link CompletableFuture}.
+     */
+    abstract O newReturnedResponse(CompletableFuture<O> future);
+
+    /**
+     * Returns a new derived {@link ClientRequestContext} for the attempt.
+     *
+     * @param attemptNo the attempt number which starts from {@code 1}
+     * @param usedEndpoints the {@link Endpoint}s used by the previous attempts
+     */
+    abstract ClientRequestContext newAttemptContext(int attemptNo, List<Endpoint> usedEndpoints);
+
+    /**
+     * Sends the attempt represented by the specified {@link ClientRequestContext}.
+     */
+    abstract O executeAttempt(ClientRequestContext attemptCtx);
+
+    /**
+     * Returns a {@link CompletionStage} which is completed when the attempt has received a response,
+     * or completed exceptionally when the attempt has failed.
+     */
+    abstract CompletionStage<?> whenResponded(ClientRequestContext attemptCtx, O res);
+
+    /**
+     * Aborts the {@link Response} of an attempt which lost the race.
+     */
+    abstract void abortResponse(ClientRequestContext attemptCtx, O res, Throwable cause);
+
+    /**
+     * Invoked when the response of the specified attempt is chosen.
+     */
+    abstract void onComplete(ClientRequestContext winnerCtx);
+
+    /**
+     * Invoked when the hedged request failed before any attempt is chosen.
+     */
+    abstract void onFailure(Throwable cause);
+
+    final O start() {
+        final O returnedRes = newReturnedResponse(future);
+        returnedRes.whenComplete().handle((unused, cause) -> {
+            if (cause != null) {
+                runInEventLoop(() -> onReturnedResponseAborted(Exceptions.peel(cause)));
+            }
+            return null;
+        });
+        runInEventLoop(this::sendAttempt);
+        return returnedRes;
+    }
+
+    private boolean sendAttempt() {
+        final int attemptNo = ++numAttempts;
+        final ClientRequestContext attemptCtx;
+        try {
+            attemptCtx = newAttemptContext(attemptNo, usedEndpoints);
+        } catch (Throwable cause) {
+            if (attemptNo == 1) {
+                fail(cause, true);
+            } else {
+                logger.debug("Failed to create a context for a hedged request: {}", ctx, cause);
+            }
+            return false;
+        }
+
+        final Endpoint endpoint = attemptCtx.endpoint();
+        if (endpoint != null) {
+            usedEndpoints.add(endpoint);
+        }
+
+        final O res = executeAttempt(attemptCtx);
+        final Attempt<O> attempt = new Attempt<>(attemptCtx, res);
+        pendingAttempts.add(attempt);
+
+        final HedgingDelay hedgingDelay = client.hedgingDelay();
+        attemptCtx.log().whenComplete().thenAccept(log -> {
+            try {
+                hedgingDelay.onAttemptComplete(attemptCtx, log);
+            } catch (Throwable t) {
+                logger.warn("Unexpected exception is raised from {}.", hedgingDelay, t);
+            }
+        });
+
+        // Schedule the next hedge before listening to the response so that a failed attempt triggers
+        // the next hedge immediately.
+        scheduleHedge(attemptCtx);
+        whenResponded(attemptCtx, res).handle((unused, cause) -> {
+            runInEventLoop(() -> onResponded(attempt, cause != null ? Exceptions.peel(cause) : null));
+            return null;
+        });
+        return true;
+    }
+
+    private void scheduleHedge(ClientRequestContext attemptCtx) {
+        if (numAttempts >= client.maxTotalAttempts()) {
+            return;
+        }
+
+        final HedgingDelay hedgingDelay = client.hedgingDelay();
+        final long delayMillis;
+        try {
+            delayMillis = hedgingDelay.delayMillis(attemptCtx);
+        } catch (Throwable t) {
+            logger.warn("Unexpected exception is raised from {}.", hedgingDelay, t);
+            return;
+        }
+        if (delayMillis < 0) {
+            return;
+        }
+
+        try {
+            hedgeFuture = ctx.eventLoop().schedule(this::hedge, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (Throwable t) {
+            // The event loop has been shut down. Wait for the pending attempts.
+            logger.debug("Failed to schedule a hedged request: {}", ctx, t);
+        }
+    }
+
+    private void hedge() {
+        hedgeFuture = null;
+        if (done) {
+            return;
+        }
+
+        if (!client.budget().tryWithdraw()) {
+            logger.debug("Not sending a hedged request due to the exhausted budget: {}", ctx);
+        } else if (!updateResponseTimeout()) {
+            logger.debug("Not sending a hedged request due to the response timeout: {}", ctx);
+        } else {
+            sendAttempt();
+        }
+        completeWithLastFailureIfNeeded();
+    }
+
+    private void onResponded(Attempt<O> attempt, @Nullable Throwable cause) {
+        if (done || !pendingAttempts.remove(attempt)) {
+            return;
+        }
+
+        if (cause == null) {
+            complete(attempt);
+            return;
+        }
+
+        lastFailedAttempt = attempt;
+        if (!pendingAttempts.isEmpty()) {
+            // Wait for the other attempts.
+            return;
+        }
+
+        final ScheduledFuture<?> hedgeFuture = this.hedgeFuture;
+        if (hedgeFuture != null) {
+            // Do not wait for the delay because there's no attempt in flight.
+            hedgeFuture.cancel(false);
+            hedge();
+        } else {
+            complete(attempt);
+        }
+    }
+
+    private void completeWithLastFailureIfNeeded() {
+        if (done || !pendingAttempts.isEmpty() || hedgeFuture != null) {
+            return;
+        }
+        final Attempt<O> lastFailedAttempt = this.lastFailedAttempt;
+        assert lastFailedAttempt != null;
+        complete(lastFailedAttempt);
+    }
+
+    private void complete(Attempt<O> winner) {
+        done = true;
+        cancelHedgeAndPendingAttempts(ResponseCancellationException.get());
+        ctx.logBuilder().endResponseWithChild(winner.ctx.log());
+        onComplete(winner.ctx);
+        future.complete(winner.res);
+    }
+
+    private void onReturnedResponseAborted(Throwable cause) {
+        if (done) {
+            return;
+        }
+        cancelHedgeAndPendingAttempts(cause);
+        fail(cause, numAttempts == 0);
+    }
+
+    private void fail(Throwable cause, boolean endRequestLog) {
+        done = true;
+        future.completeExceptionally(cause);
+        onFailure(cause);
+        final RequestLogBuilder logBuilder = ctx.logBuilder();
+        if (endRequestLog) {
+            logBuilder.endRequest(cause);
+        }
+        logBuilder.endResponse(cause);
+    }
+
+    private void cancelHedgeAndPendingAttempts(Throwable cause) {
+        final ScheduledFuture<?> hedgeFuture = this.hedgeFuture;
+        if (hedgeFuture != null) {
+            this.hedgeFuture = null;
+            hedgeFuture.cancel(false);
+        }
+        for (Attempt<O> attempt : pendingAttempts) {
+            // Set response content with null to make sure that the log is complete.
+            final RequestLogBuilder logBuilder = attempt.ctx.logBuilder();
+            logBuilder.responseContent(null, null);
+            logBuilder.responseContentPreview(null);
+            abortResponse(attempt.ctx, attempt.res, cause);
+            attempt.ctx.cancel(cause);
+        }
+        pendingAttempts.clear();
+    }
+
+    /**
+     * Updates the response timeout of the parent {@link ClientRequestContext} with the remaining time
+     * so that the hedged request does not outlive the deadline of the original request.
+     *
+     * @return {@code false} if the deadline has passed already
+     */
+    private boolean updateResponseTimeout() {
+        if (deadlineNanos == 0) {
+            return true;
+        }
+        final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (remainingMillis <= 0) {
+            return false;
+        }
+        ctx.setResponseTimeoutMillis(TimeoutMode.SET_FROM_NOW, remainingMillis);
+        return true;
+    }
+
+    private void runInEventLoop(Runnable task) {
+        if (ctx.eventLoop().inEventLoop()) {
+            task.run();
+        } else {
+            ctx.eventLoop().execute(task);
+        }
+    }
+
+    private static final class Attempt<O> {
+        final ClientRequestContext ctx;
+        final O res;
+
+        Attempt(ClientRequestContext ctx, O res) {
+            this.ctx = ctx;
+            this.res = res;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * A token bucket which limits the number of hedged requests so that hedging does not amplify the load
+ * of the backends during an outage. Every original request deposits {@code hedgeRatio} tokens into
+ * the bucket, up to {@code maxTokens}, and every hedged request withdraws one token. A hedged request is
+ * not sent when there are not enough tokens in the bucket.
+ *
+ * <p>A {@link HedgingBudget} can be shared by multiple clients to limit their hedged requests altogether.
+ */
+@UnstableApi
+public final class HedgingBudget {
+
+    // Tokens are stored in the unit of 1/1000 to avoid floating point arithmetic.
+    private static final long TOKEN_UNIT = 1000;
+
+    private static final HedgingBudget UNLIMITED = new HedgingBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Returns a {@link HedgingBudget} which never limits hedged requests.
+     */
+    public static HedgingBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Returns a new {@link HedgingBudget}.
+     *
+     * @param hedgeRatio the maximum ratio of hedged requests to original requests in the long run,
+     *                   e.g. {@code 0.1} allows one hedged request per ten original requests
+     * @param maxTokens the maximum number of hedged requests that can be sent in a burst
+     */
+    public static HedgingBudget of(double hedgeRatio, int maxTokens) {
+        checkArgument(hedgeRatio > 0, "hedgeRatio: %s (expected: > 0)", hedgeRatio);
+        checkArgument(maxTokens > 0, "maxTokens: %s (expected: > 0)", maxTokens);
+        return new HedgingBudget(Math.max(1, Math.round(hedgeRatio * TOKEN_UNIT)), maxTokens * TOKEN_UNIT);
+    }
+
+    private final long depositTokens;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    private HedgingBudget(long depositTokens, long maxTokens) {
+        this.depositTokens = depositTokens;
+        this.maxTokens = maxTokens;
+        tokens = new AtomicLong(maxTokens);
+    }
+
+    /**
+     * Deposits tokens for an original request.
+     */
+    void deposit() {
+        if (this == UNLIMITED) {
+            return;
+        }
+        for (;;) {
+            final long current = tokens.get();
+            if (current >= maxTokens) {
+                return;
+            }
+            final long next = Math.min(maxTokens, current + depositTokens);
+            if (tokens.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Withdraws a token for a hedged request.
+     *
+     * @return {@code true} if a hedged request can be sent
+     */
+    boolean tryWithdraw() {
+        if (this == UNLIMITED) {
+            return true;
+        }
+        for (;;) {
+            final long current = tokens.get();
+            if (current < TOKEN_UNIT) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN_UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of hedged requests that can be sent at the moment.
+     */
+    public long availableHedges() {
+        return tokens.get() / TOKEN_UNIT;
+    }
+
+    @Override
+    public String toString() {
+        if (this == UNLIMITED) {
+            return "HedgingBudget(unlimited)";
+        }
+        return MoreObjects.toStringHelper(this)
+                          .add("hedgeRatio", (double) depositTokens / TOKEN_UNIT)
+                          .add("maxTokens", maxTokens / TOKEN_UNIT)
+                          .add("availableHedges", availableHedges())
+                          .toString();
+    }
+}
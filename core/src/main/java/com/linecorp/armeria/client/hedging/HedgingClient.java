@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static com.linecorp.armeria.internal.client.ClientUtil.executeWithFallback;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpRequestDuplicator;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.logging.RequestLogProperty;
+
+/**
+ * An {@link HttpClient} decorator that sends hedged HTTP requests to reduce tail latency.
+ * When the response headers of an attempt do not arrive within the {@link HedgingDelay}, another attempt
+ * is sent to a different {@link Endpoint}. The response whose headers arrive first is returned and
+ * the other attempts are cancelled. All attempts are recorded as the children of
+ * {@link ClientRequestContext#log()}.
+ *
+ * <p>Note that hedged requests are sent concurrently, so this decorator must be used only for idempotent
+ * requests.
+ */
+@UnstableApi
+public final class HedgingClient extends AbstractHedgingClient<HttpRequest, HttpResponse>
+        implements HttpClient {
+
+    /**
+     * Creates a new {@link HttpClient} decorator that sends a hedged request when the response does not
+     * arrive within the specified {@code hedgingDelay}.
+     */
+    public static Function<? super HttpClient, HedgingClient> newDecorator(Duration hedgingDelay) {
+        return builder(hedgingDelay).newDecorator();
+    }
+
+    /**
+     * Creates a new {@link HttpClient} decorator that sends a hedged request when the response does not
+     * arrive within the delay determined by the specified {@link HedgingDelay}.
+     */
+    public static Function<? super HttpClient, HedgingClient> newDecorator(HedgingDelay hedgingDelay) {
+        return builder(hedgingDelay).newDecorator();
+    }
+
+    /**
+     * Returns a new {@link HedgingClientBuilder} with the specified {@code hedgingDelay}.
+     */
+    public static HedgingClientBuilder builder(Duration hedgingDelay) {
+        return builder(HedgingDelay.fixed(hedgingDelay));
+    }
+
+    /**
+     * Returns a new {@link HedgingClientBuilder} with the specified {@link HedgingDelay}.
+     */
+    public static HedgingClientBuilder builder(HedgingDelay hedgingDelay) {
+        return new HedgingClientBuilder(hedgingDelay);
+    }
+
+    /**
+     * Creates a new instance that decorates the specified {@link HttpClient}.
+     */
+    HedgingClient(HttpClient delegate, int maxTotalAttempts,
+                  HedgingDelay hedgingDelay, HedgingBudget budget) {
+        super(delegate, maxTotalAttempts, hedgingDelay, budget);
+    }
+
+    @Override
+    protected HttpResponse doExecute(ClientRequestContext ctx, HttpRequest req) throws Exception {
+        final HttpRequestDuplicator reqDuplicator = req.toDuplicator(ctx.eventLoop().withoutContext(), 0);
+        return new HttpHedgedExecution(ctx, req, reqDuplicator).start();
+    }
+
+    private final class HttpHedgedExecution extends HedgedExecution<HttpRequest, HttpResponse> {
+
+        private final HttpRequest originalReq;
+        private final HttpRequestDuplicator reqDuplicator;
+
+        HttpHedgedExecution(ClientRequestContext ctx, HttpRequest originalReq,
+                            HttpRequestDuplicator reqDuplicator) {
+            super(HedgingClient.this, ctx);
+            this.originalReq = originalReq;
+            this.reqDuplicator = reqDuplicator;
+        }
+
+        @Override
+        HttpResponse newReturnedResponse(CompletableFuture<HttpResponse> future) {
+            return HttpResponse.from(future, ctx.eventLoop());
+        }
+
+        @Override
+        ClientRequestContext newAttemptContext(int attemptNo, List<Endpoint> usedEndpoints) {
+            final HttpRequest duplicateReq;
+            if (attemptNo == 1) {
+                duplicateReq = reqDuplicator.duplicate();
+            } else {
+                final RequestHeadersBuilder newHeaders = originalReq.headers().toBuilder();
+                newHeaders.setInt(ARMERIA_HEDGE_COUNT, attemptNo - 1);
+                duplicateReq = reqDuplicator.duplicate(newHeaders.build());
+            }
+            return newDerivedContext(ctx, duplicateReq, ctx.rpcRequest(), usedEndpoints);
+        }
+
+        @Override
+        HttpResponse executeAttempt(ClientRequestContext attemptCtx) {
+            return executeWithFallback(unwrap(), attemptCtx,
+                                       (context, cause) -> HttpResponse.ofFailure(cause));
+        }
+
+        @Override
+        CompletionStage<?> whenResponded(ClientRequestContext attemptCtx, HttpResponse res) {
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            attemptCtx.log().whenAvailable(RequestLogProperty.RESPONSE_HEADERS).thenAccept(log -> {
+                final Throwable responseCause =
+                        log.isAvailable(RequestLogProperty.RESPONSE_CAUSE) ? log.responseCause() : null;
+                if (responseCause != null) {
+                    future.completeExceptionally(responseCause);
+                } else {
+                    future.complete(null);
+                }
+            });
+            return future;
+        }
+
+        @Override
+        void abortResponse(ClientRequestContext attemptCtx, HttpResponse res, Throwable cause) {
+            res.abort(cause);
+        }
+
+        @Override
+        void onComplete(ClientRequestContext winnerCtx) {
+            reqDuplicator.close();
+        }
+
+        @Override
+        void onFailure(Throwable cause) {
+            reqDuplicator.abort(cause);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import java.util.function.Function;
+
+import com.linecorp.armeria.client.HttpClient;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * Builds a new {@link HedgingClient} or its decorator function.
+ */
+@UnstableApi
+public final class HedgingClientBuilder extends AbstractHedgingClientBuilder<HttpResponse> {
+
+    HedgingClientBuilder(HedgingDelay hedgingDelay) {
+        super(hedgingDelay);
+    }
+
+    /**
+     * Returns a newly-created {@link HedgingClient} based on the properties of this builder.
+     */
+    public HedgingClient build(HttpClient delegate) {
+        return new HedgingClient(delegate, maxTotalAttempts(), hedgingDelay(), budget());
+    }
+
+    /**
+     * Returns a newly-created decorator that decorates an {@link HttpClient} with a new
+     * {@link HedgingClient} based on the properties of this builder.
+     */
+    public Function<? super HttpClient, HedgingClient> newDecorator() {
+        return this::build;
+    }
+
+    // Methods that were overridden to change the return type.
+
+    @Override
+    public HedgingClientBuilder maxTotalAttempts(int maxTotalAttempts) {
+        return (HedgingClientBuilder) super.maxTotalAttempts(maxTotalAttempts);
+    }
+
+    @Override
+    public HedgingClientBuilder budget(HedgingBudget budget) {
+        return (HedgingClientBuilder) super.budget(budget);
+    }
+}
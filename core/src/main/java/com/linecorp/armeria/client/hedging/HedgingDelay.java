@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.logging.RequestLog;
+
+/**
+ * Determines how long a hedging client waits for a response before it sends a hedged request.
+ */
+@FunctionalInterface
+@UnstableApi
+public interface HedgingDelay {
+
+    /**
+     * Returns a {@link HedgingDelay} that always waits for the specified {@link Duration}.
+     */
+    static HedgingDelay fixed(Duration delay) {
+        requireNonNull(delay, "delay");
+        checkArgument(!delay.isNegative(), "delay: %s (expected: >= 0)", delay);
+        return fixedMillis(delay.toMillis());
+    }
+
+    /**
+     * Returns a {@link HedgingDelay} that always waits for the specified {@code delayMillis}.
+     */
+    static HedgingDelay fixedMillis(long delayMillis) {
+        checkArgument(delayMillis >= 0, "delayMillis: %s (expected: >= 0)", delayMillis);
+        return new FixedHedgingDelay(delayMillis);
+    }
+
+    /**
+     * Returns a {@link HedgingDelay} that waits for the specified {@code percentile} of the recently
+     * observed response latency of the {@link Endpoint} the previous attempt was sent to. For example,
+     * {@code ofPercentile(0.95, Duration.ofMillis(100))} sends a hedged request when the previous attempt
+     * took longer than the p95 latency of its {@link Endpoint}. The {@code fallbackDelay} is used until
+     * enough samples are collected for the {@link Endpoint}.
+     *
+     * @param percentile the percentile of the latency, which must be greater than {@code 0.0} and
+     *                   less than {@code 1.0}
+     * @param fallbackDelay the delay used while there are not enough latency samples
+     */
+    static HedgingDelay ofPercentile(double percentile, Duration fallbackDelay) {
+        checkArgument(percentile > 0 && percentile < 1,
+                      "percentile: %s (expected: 0.0 < percentile < 1.0)", percentile);
+        requireNonNull(fallbackDelay, "fallbackDelay");
+        checkArgument(!fallbackDelay.isNegative(), "fallbackDelay: %s (expected: >= 0)", fallbackDelay);
+        return new PercentileHedgingDelay(percentile, fallbackDelay.toMillis());
+    }
+
+    /**
+     * Returns the number of milliseconds to wait for a response of the attempt represented by the specified
+     * {@link ClientRequestContext} before sending a hedged request. A negative value disables hedging
+     * for the current request.
+     */
+    long delayMillis(ClientRequestContext ctx);
+
+    /**
+     * Invoked when an attempt represented by the specified {@link ClientRequestContext} is complete.
+     * Override this method to collect latency samples.
+     */
+    default void onAttemptComplete(ClientRequestContext ctx, RequestLog log) {}
+}
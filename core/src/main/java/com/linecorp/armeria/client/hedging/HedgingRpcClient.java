@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static com.linecorp.armeria.internal.client.ClientUtil.executeWithFallback;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.RpcClient;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.RpcRequest;
+import com.linecorp.armeria.common.RpcResponse;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.internal.common.util.StringUtil;
+
+/**
+ * An {@link RpcClient} decorator that sends hedged RPC requests to reduce tail latency.
+ * When an attempt does not complete within the {@link HedgingDelay}, another attempt is sent to
+ * a different {@link Endpoint}. The result which arrives first is returned and the other attempts are
+ * cancelled. All attempts are recorded as the children of {@link ClientRequestContext#log()}.
+ *
+ * <p>Note that hedged requests are sent concurrently, so this decorator must be used only for idempotent
+ * requests.
+ */
+@UnstableApi
+public final class HedgingRpcClient extends AbstractHedgingClient<RpcRequest, RpcResponse>
+        implements RpcClient {
+
+    /**
+     * Creates a new {@link RpcClient} decorator that sends a hedged request when the response does not
+     * arrive within the specified {@code hedgingDelay}.
+     */
+    public static Function<? super RpcClient, HedgingRpcClient> newDecorator(Duration hedgingDelay) {
+        return builder(hedgingDelay).newDecorator();
+    }
+
+    /**
+     * Creates a new {@link RpcClient} decorator that sends a hedged request when the response does not
+     * arrive within the delay determined by the specified {@link HedgingDelay}.
+     */
+    public static Function<? super RpcClient, HedgingRpcClient> newDecorator(HedgingDelay hedgingDelay) {
+        return builder(hedgingDelay).newDecorator();
+    }
+
+    /**
+     * Returns a new {@link HedgingRpcClientBuilder} with the specified {@code hedgingDelay}.
+     */
+    public static HedgingRpcClientBuilder builder(Duration hedgingDelay) {
+        return builder(HedgingDelay.fixed(hedgingDelay));
+    }
+
+    /**
+     * Returns a new {@link HedgingRpcClientBuilder} with the specified {@link HedgingDelay}.
+     */
+    public static HedgingRpcClientBuilder builder(HedgingDelay hedgingDelay) {
+        return new HedgingRpcClientBuilder(hedgingDelay);
+    }
+
+    /**
+     * Creates a new instance that decorates the specified {@link RpcClient}.
+     */
+    HedgingRpcClient(RpcClient delegate, int maxTotalAttempts,
+                     HedgingDelay hedgingDelay, HedgingBudget budget) {
+        super(delegate, maxTotalAttempts, hedgingDelay, budget);
+    }
+
+    @Override
+    protected RpcResponse doExecute(ClientRequestContext ctx, RpcRequest req) throws Exception {
+        return new RpcHedgedExecution(ctx, req).start();
+    }
+
+    private final class RpcHedgedExecution extends HedgedExecution<RpcRequest, RpcResponse> {
+
+        private final RpcRequest req;
+
+        RpcHedgedExecution(ClientRequestContext ctx, RpcRequest req) {
+            super(HedgingRpcClient.this, ctx);
+            this.req = req;
+        }
+
+        @Override
+        RpcResponse newReturnedResponse(CompletableFuture<RpcResponse> future) {
+            return RpcResponse.from(future);
+        }
+
+        @Override
+        ClientRequestContext newAttemptContext(int attemptNo, List<Endpoint> usedEndpoints) {
+            final ClientRequestContext derivedCtx = newDerivedContext(ctx, null, req, usedEndpoints);
+            if (attemptNo > 1) {
+                derivedCtx.mutateAdditionalRequestHeaders(
+                        mutator -> mutator.add(ARMERIA_HEDGE_COUNT, StringUtil.toString(attemptNo - 1)));
+            }
+            return derivedCtx;
+        }
+
+        @Override
+        RpcResponse executeAttempt(ClientRequestContext attemptCtx) {
+            return executeWithFallback(unwrap(), attemptCtx,
+                                       (context, cause) -> RpcResponse.ofFailure(cause));
+        }
+
+        @Override
+        CompletionStage<?> whenResponded(ClientRequestContext attemptCtx, RpcResponse res) {
+            return res;
+        }
+
+        @Override
+        void abortResponse(ClientRequestContext attemptCtx, RpcResponse res, Throwable cause) {
+            res.cancel(true);
+        }
+
+        @Override
+        void onComplete(ClientRequestContext winnerCtx) {
+            final HttpRequest actualHttpReq = winnerCtx.request();
+            if (actualHttpReq != null) {
+                ctx.updateRequest(actualHttpReq);
+            }
+        }
+
+        @Override
+        void onFailure(Throwable cause) {}
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.logging.RequestLog;
+
+/**
+ * A {@link HedgingDelay} which uses the specified percentile of the recent latency of the response headers
+ * of each {@link Endpoint}.
+ */
+final class PercentileHedgingDelay implements HedgingDelay {
+
+    @VisibleForTesting
+    static final int NUM_SAMPLES = 128;
+    @VisibleForTesting
+    static final int MIN_SAMPLES = 16;
+    private static final int RECALCULATION_INTERVAL = 16;
+
+    private final double percentile;
+    private final long fallbackDelayMillis;
+    private final Cache<Endpoint, LatencyReservoir> reservoirs =
+            Caffeine.newBuilder()
+                    .expireAfterAccess(10, TimeUnit.MINUTES)
+                    .build();
+
+    PercentileHedgingDelay(double percentile, long fallbackDelayMillis) {
+        this.percentile = percentile;
+        this.fallbackDelayMillis = fallbackDelayMillis;
+    }
+
+    @Override
+    public long delayMillis(ClientRequestContext ctx) {
+        final Endpoint endpoint = ctx.endpoint();
+        if (endpoint == null) {
+            return fallbackDelayMillis;
+        }
+        final LatencyReservoir reservoir = reservoirs.getIfPresent(endpoint);
+        if (reservoir == null) {
+            return fallbackDelayMillis;
+        }
+        final long delayMillis = reservoir.percentileMillis();
+        return delayMillis >= 0 ? delayMillis : fallbackDelayMillis;
+    }
+
+    @Override
+    public void onAttemptComplete(ClientRequestContext ctx, RequestLog log) {
+        final Endpoint endpoint = ctx.endpoint();
+        if (endpoint == null || log.responseCause() != null) {
+            // Do not take failed or cancelled attempts into account.
+            return;
+        }
+        // Measure the time to the response headers rather than to the end of the response, because
+        // a hedged request is sent when the response headers do not arrive within the delay.
+        reservoirs.get(endpoint, unused -> new LatencyReservoir(percentile))
+                  .add(log.responseStartTimeNanos() - log.requestStartTimeNanos());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("percentile", percentile)
+                          .add("fallbackDelayMillis", fallbackDelayMillis)
+                          .toString();
+    }
+
+    /**
+     * A fixed-size ring of the most recent latency samples. The percentile is recalculated only after
+     * {@value #RECALCULATION_INTERVAL} new samples are added, so that the cost of sorting is amortized.
+     */
+    @VisibleForTesting
+    static final class LatencyReservoir {
+
+        private final double percentile;
+        private final AtomicLongArray samples = new AtomicLongArray(NUM_SAMPLES);
+        private final AtomicLong count = new AtomicLong();
+
+        private volatile long cachedPercentileMillis = -1;
+        private volatile long cachedCount;
+
+        LatencyReservoir(double percentile) {
+            this.percentile = percentile;
+        }
+
+        void add(long latencyNanos) {
+            final long index = count.getAndIncrement();
+            samples.set((int) (index % NUM_SAMPLES), Math.max(0, latencyNanos));
+        }
+
+        /**
+         * Returns the percentile of the samples in milliseconds, or {@code -1} if there are not enough
+         * samples.
+         */
+        long percentileMillis() {
+            final long count = this.count.get();
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            if (count - cachedCount < RECALCULATION_INTERVAL && cachedPercentileMillis >= 0) {
+                return cachedPercentileMillis;
+            }
+
+            final int size = (int) Math.min(count, NUM_SAMPLES);
+            final long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            final int index = Math.min(size - 1, (int) Math.ceil(percentile * size) - 1);
+            final long percentileMillis = TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+            cachedPercentileMillis = percentileMillis;
+            cachedCount = count;
+            return percentileMillis;
+        }
+    }
+}
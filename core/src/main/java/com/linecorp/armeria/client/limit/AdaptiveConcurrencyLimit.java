@@ -0,0 +1,247 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.client.limit;
+
+import static com.linecorp.armeria.client.limit.ConcurrencyLimitBuilder.noLimitFuture;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.ResponseTimeoutException;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.limit.AdaptiveLimit;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+import com.linecorp.armeria.common.util.SafeCloseable;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+
+/**
+ * A {@link ConcurrencyLimit} whose maximum concurrency is adjusted by an {@link AdaptiveLimit} from
+ * the round-trip time of the requests. A response timeout, a {@link HttpStatus#SERVICE_UNAVAILABLE} or
+ * {@link HttpStatus#TOO_MANY_REQUESTS} response is regarded as a dropped request.
+ *
+ * <p>The limit of a key, e.g. an {@link Endpoint}, is removed with its gauges
+ * when the key has had no active or pending requests for the idle timeout.
+ */
+final class AdaptiveConcurrencyLimit implements ConcurrencyLimit {
+
+    private final Supplier<? extends AdaptiveLimit> limitFactory;
+    private final Predicate<? super ClientRequestContext> predicate;
+    @Nullable
+    private final Function<? super ClientRequestContext, String> keyFunction;
+    @Nullable
+    private final String keyTagName;
+    private final int maxPendingAcquisitions;
+    private final long timeoutMillis;
+    private final MeterIdPrefix meterIdPrefix;
+
+    private final Cache<String, LimitState> states;
+
+    AdaptiveConcurrencyLimit(Supplier<? extends AdaptiveLimit> limitFactory,
+                             Predicate<? super ClientRequestContext> predicate,
+                             @Nullable Function<? super ClientRequestContext, String> keyFunction,
+                             @Nullable String keyTagName, int maxPendingAcquisitions, long timeoutMillis,
+                             long idleTimeoutMillis, MeterIdPrefix meterIdPrefix) {
+        this.limitFactory = limitFactory;
+        this.predicate = predicate;
+        this.keyFunction = keyFunction;
+        this.keyTagName = keyTagName;
+        this.maxPendingAcquisitions = maxPendingAcquisitions;
+        this.timeoutMillis = timeoutMillis;
+        this.meterIdPrefix = meterIdPrefix;
+
+        final long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        states = Caffeine.newBuilder()
+                         .expireAfter(new Expiry<String, LimitState>() {
+                             @Override
+                             public long expireAfterCreate(String key, LimitState state, long currentTime) {
+                                 return state.expireAfterNanos(idleTimeoutNanos);
+                             }
+
+                             @Override
+                             public long expireAfterUpdate(String key, LimitState state,
+                                                           long currentTime, long currentDuration) {
+                                 return state.expireAfterNanos(idleTimeoutNanos);
+                             }
+
+                             @Override
+                             public long expireAfterRead(String key, LimitState state,
+                                                         long currentTime, long currentDuration) {
+                                 return currentDuration;
+                             }
+                         })
+                         .removalListener(this::onRemoval)
+                         .build();
+    }
+
+    private void onRemoval(@Nullable String key, @Nullable LimitState state, RemovalCause cause) {
+        if (key == null || state == null) {
+            return;
+        }
+        // Keep the gauges if a new state has been created for the same key,
+        // because the gauges look up the current state of the key.
+        states.asMap().computeIfAbsent(key, unused -> {
+            state.removeGauges();
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<SafeCloseable> acquire(ClientRequestContext ctx) {
+        if (!predicate.test(ctx)) {
+            return noLimitFuture;
+        }
+
+        final String key = keyFunction != null ? keyFunction.apply(ctx) : "";
+        // Update the state with compute() so that the state does not expire while it has requests.
+        final LimitState state = states.asMap().compute(key, (k, s) -> {
+            if (s == null) {
+                s = new LimitState(ctx.meterRegistry(), k);
+            }
+            s.numRequests++;
+            return s;
+        });
+        assert state != null;
+        ctx.log().whenComplete().thenRun(() -> states.asMap().computeIfPresent(key, (k, s) -> {
+            s.numRequests--;
+            return s;
+        }));
+        return state.delegate.acquire(ctx).thenApply(permit -> {
+            state.onAcquired(ctx);
+            return permit;
+        });
+    }
+
+    @VisibleForTesting
+    @Nullable
+    AdaptiveLimit limit(String key) {
+        final LimitState state = states.getIfPresent(key);
+        return state != null ? state.limit : null;
+    }
+
+    @VisibleForTesting
+    void cleanUp() {
+        states.cleanUp();
+    }
+
+    private double gaugeValue(String key, Function<LimitState, Number> function) {
+        final LimitState state = states.getIfPresent(key);
+        return state != null ? function.apply(state).doubleValue() : Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("limitFactory", limitFactory)
+                          .add("keyTagName", keyTagName)
+                          .add("maxPendingAcquisitions", maxPendingAcquisitions)
+                          .add("timeoutMillis", timeoutMillis)
+                          .add("states", states.asMap())
+                          .toString();
+    }
+
+    private static boolean isDropped(RequestLog log) {
+        if (log.responseCause() instanceof ResponseTimeoutException) {
+            return true;
+        }
+        final HttpStatus status = log.responseHeaders().status();
+        return status == HttpStatus.SERVICE_UNAVAILABLE || status == HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    private final class LimitState {
+
+        final AdaptiveLimit limit;
+        final DefaultConcurrencyLimit delegate;
+        private final MeterRegistry meterRegistry;
+        private final List<Gauge> gauges;
+
+        // The number of the active or pending requests. Updated only in the compute() of the states.
+        int numRequests;
+
+        LimitState(MeterRegistry meterRegistry, String key) {
+            limit = limitFactory.get();
+            delegate = new DefaultConcurrencyLimit(ctx -> true, limit::limit,
+                                                   maxPendingAcquisitions, timeoutMillis);
+            this.meterRegistry = meterRegistry;
+
+            final List<Tag> tags = keyTagName != null ? meterIdPrefix.tags(keyTagName, key)
+                                                      : meterIdPrefix.tags();
+            gauges = ImmutableList.of(
+                    gauge(meterIdPrefix.name("limit"), tags, key, state -> state.limit.limit()),
+                    gauge(meterIdPrefix.name("active.requests"), tags, key,
+                          state -> state.delegate.acquiredPermits()),
+                    gauge(meterIdPrefix.name("pending.acquisitions"), tags, key,
+                          state -> state.delegate.numPendingAcquisitions()));
+        }
+
+        private Gauge gauge(String name, List<Tag> tags, String key, Function<LimitState, Number> function) {
+            return Gauge.builder(name, AdaptiveConcurrencyLimit.this, self -> self.gaugeValue(key, function))
+                        .tags(tags)
+                        .register(meterRegistry);
+        }
+
+        long expireAfterNanos(long idleTimeoutNanos) {
+            return numRequests > 0 ? Long.MAX_VALUE : idleTimeoutNanos;
+        }
+
+        void removeGauges() {
+            gauges.forEach(meterRegistry::remove);
+        }
+
+        void onAcquired(ClientRequestContext ctx) {
+            final long startTimeNanos = System.nanoTime();
+            final int inFlight = delegate.acquiredPermits();
+            ctx.log().whenComplete().thenAccept(log -> {
+                final Throwable cause = log.responseCause();
+                final boolean dropped = isDropped(log);
+                if (cause != null && !dropped) {
+                    // The failures unrelated with the load do not tell anything about the limit.
+                    return;
+                }
+                limit.onSample(System.nanoTime() - startTimeNanos, inFlight, dropped);
+                // Acquire the permits for the pending requests if the limit has been increased.
+                delegate.drain();
+            });
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                              .add("limit", limit)
+                              .add("delegate", delegate)
+                              .toString();
+        }
+    }
+}
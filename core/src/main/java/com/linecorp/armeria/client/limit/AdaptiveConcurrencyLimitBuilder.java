@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.client.limit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.limit.AdaptiveLimit;
+import com.linecorp.armeria.common.metric.MeterIdPrefix;
+
+/**
+ * Builds a {@link ConcurrencyLimit} whose maximum concurrency is adjusted by {@link AdaptiveLimit}s.
+ *
+ * @see ConcurrencyLimit#builderForAdaptive(Supplier)
+ */
+@UnstableApi
+public final class AdaptiveConcurrencyLimitBuilder {
+
+    private static final MeterIdPrefix DEFAULT_METER_ID_PREFIX =
+            new MeterIdPrefix("armeria.client.concurrency.limit");
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    private final Supplier<? extends AdaptiveLimit> limitFactory;
+    private long timeoutMillis = ConcurrencyLimitBuilder.DEFAULT_TIMEOUT_MILLIS;
+    private int maxPendingAcquisitions = ConcurrencyLimitBuilder.DEFAULT_MAX_PENDING_ACQUIRES;
+    private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private Predicate<? super ClientRequestContext> predicate = requestContext -> true;
+    @Nullable
+    private Function<? super ClientRequestContext, String> keyFunction;
+    @Nullable
+    private String keyTagName;
+    private MeterIdPrefix meterIdPrefix = DEFAULT_METER_ID_PREFIX;
+
+    AdaptiveConcurrencyLimitBuilder(Supplier<? extends AdaptiveLimit> limitFactory) {
+        this.limitFactory = limitFactory;
+    }
+
+    /**
+     * Sets the amount of time until this decorator fails the request if the request was not
+     * delegated to the {@code delegate} before then.
+     */
+    public AdaptiveConcurrencyLimitBuilder timeoutMillis(long timeoutMillis) {
+        checkArgument(timeoutMillis >= 0, "timeout: %s (expected: >= 0)", timeoutMillis);
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    /**
+     * Sets the amount of time until this decorator fails the request if the request was not
+     * delegated to the {@code delegate} before then.
+     */
+    public AdaptiveConcurrencyLimitBuilder timeout(Duration timeout) {
+        requireNonNull(timeout, "timeout");
+        return timeoutMillis(timeout.toMillis());
+    }
+
+    /**
+     * Sets the maximum number of pending acquisition. The {@link CompletableFuture} returned by
+     * {@link ConcurrencyLimit#acquire(ClientRequestContext)} will be exceptionally complete with an
+     * {@link TooManyPendingAcquisitionsException} if the pending exceeds this value.
+     */
+    public AdaptiveConcurrencyLimitBuilder maxPendingAcquisitions(int maxPendingAcquisitions) {
+        checkArgument(maxPendingAcquisitions >= 0,
+                      "maxPendingAcquisitions: %s (expected: >= 0)", maxPendingAcquisitions);
+        this.maxPendingAcquisitions = maxPendingAcquisitions;
+        return this;
+    }
+
+    /**
+     * Sets the {@link Predicate} for which to apply the concurrency limit.
+     */
+    public AdaptiveConcurrencyLimitBuilder predicate(Predicate<? super ClientRequestContext> predicate) {
+        this.predicate = requireNonNull(predicate, "predicate");
+        return this;
+    }
+
+    /**
+     * Makes the {@link ConcurrencyLimit} maintain a separate limit for each {@link Endpoint}, i.e.
+     * the combination of {@link Endpoint#authority()} and {@link Endpoint#ipAddr()}. If not set, a single
+     * limit is shared by all requests.
+     */
+    public AdaptiveConcurrencyLimitBuilder perEndpoint() {
+        keyFunction = ctx -> {
+            final Endpoint endpoint = ctx.endpoint();
+            if (endpoint == null) {
+                return "unknown";
+            }
+            final String ipAddr = endpoint.ipAddr();
+            return ipAddr != null ? endpoint.authority() + '/' + ipAddr : endpoint.authority();
+        };
+        keyTagName = "endpoint";
+        return this;
+    }
+
+    /**
+     * Makes the {@link ConcurrencyLimit} maintain a separate limit for each {@link Endpoint#authority()}.
+     * If not set, a single limit is shared by all requests.
+     */
+    public AdaptiveConcurrencyLimitBuilder perAuthority() {
+        keyFunction = ctx -> {
+            final Endpoint endpoint = ctx.endpoint();
+            return endpoint != null ? endpoint.authority() : "unknown";
+        };
+        keyTagName = "authority";
+        return this;
+    }
+
+    /**
+     * Sets the amount of time after which the limit of an {@link Endpoint} or an authority is removed
+     * with its gauges if it has had no active or pending requests. A new limit, which starts from its
+     * initial value, is created when a request is sent to the {@link Endpoint} or the authority again.
+     * {@code 600000} (10 minutes) is used by default.
+     *
+     * @see #perEndpoint()
+     * @see #perAuthority()
+     */
+    public AdaptiveConcurrencyLimitBuilder idleTimeoutMillis(long idleTimeoutMillis) {
+        checkArgument(idleTimeoutMillis > 0, "idleTimeoutMillis: %s (expected: > 0)", idleTimeoutMillis);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Sets the amount of time after which the limit of an {@link Endpoint} or an authority is removed
+     * with its gauges if it has had no active or pending requests. A new limit, which starts from its
+     * initial value, is created when a request is sent to the {@link Endpoint} or the authority again.
+     * 10 minutes is used by default.
+     *
+     * @see #perEndpoint()
+     * @see #perAuthority()
+     */
+    public AdaptiveConcurrencyLimitBuilder idleTimeout(Duration idleTimeout) {
+        requireNonNull(idleTimeout, "idleTimeout");
+        return idleTimeoutMillis(idleTimeout.toMillis());
+    }
+
+    /**
+     * Sets the {@link MeterIdPrefix} of the gauges which report the current limit ({@code <name>.limit}),
+     * the number of the active requests ({@code <name>.active.requests}) and the number of the pending
+     * acquisitions ({@code <name>.pending.acquisitions}). The gauges are registered to
+     * {@link ClientRequestContext#meterRegistry()}. {@code "armeria.client.concurrency.limit"} is used
+     * by default.
+     */
+    public AdaptiveConcurrencyLimitBuilder meterIdPrefix(MeterIdPrefix meterIdPrefix) {
+        this.meterIdPrefix = requireNonNull(meterIdPrefix, "meterIdPrefix");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link ConcurrencyLimit} based on the properties of this builder.
+     */
+    public ConcurrencyLimit build() {
+        return new AdaptiveConcurrencyLimit(limitFactory, predicate, keyFunction, keyTagName,
+                                            maxPendingAcquisitions, timeoutMillis, idleTimeoutMillis,
+                                            meterIdPrefix);
+    }
+}
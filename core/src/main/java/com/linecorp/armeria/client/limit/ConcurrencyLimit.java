@@ -22,9 +22,12 @@ import static java.util.Objects.requireNonNull;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
 import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.limit.AdaptiveLimit;
 import com.linecorp.armeria.common.util.SafeCloseable;
 import com.linecorp.armeria.common.util.SettableIntSupplier;
 
@@ -116,6 +119,39 @@ public interface ConcurrencyLimit {
         return new ConcurrencyLimitBuilder(maxConcurrency);
     }
 
+    /**
+     * Returns a newly-created {@link ConcurrencyLimit} whose maximum concurrency is adjusted by
+     * the {@link AdaptiveLimit} created by the specified {@link Supplier}. For example:
+     * <pre>{@code
+     * ConcurrencyLimit limit = ConcurrencyLimit.adaptive(AdaptiveLimit::gradient2);
+     * }</pre>
+     *
+     * @see #builderForAdaptive(Supplier)
+     */
+    @UnstableApi
+    static ConcurrencyLimit adaptive(Supplier<? extends AdaptiveLimit> limitFactory) {
+        return builderForAdaptive(limitFactory).build();
+    }
+
+    /**
+     * Returns a new {@link AdaptiveConcurrencyLimitBuilder} that builds a {@link ConcurrencyLimit} whose
+     * maximum concurrency is adjusted by the {@link AdaptiveLimit}s created by the specified
+     * {@link Supplier}. A new {@link AdaptiveLimit} is created for each {@link Endpoint} or authority
+     * when {@link AdaptiveConcurrencyLimitBuilder#perEndpoint()} or
+     * {@link AdaptiveConcurrencyLimitBuilder#perAuthority()} is specified. For example:
+     * <pre>{@code
+     * ConcurrencyLimit limit = ConcurrencyLimit.builderForAdaptive(AdaptiveLimit::vegas)
+     *                                          .perEndpoint()
+     *                                          .maxPendingAcquisitions(100)
+     *                                          .build();
+     * }</pre>
+     */
+    @UnstableApi
+    static AdaptiveConcurrencyLimitBuilder builderForAdaptive(Supplier<? extends AdaptiveLimit> limitFactory) {
+        requireNonNull(limitFactory, "limitFactory");
+        return new AdaptiveConcurrencyLimitBuilder(limitFactory);
+    }
+
     /**
      * Acquires a {@link SafeCloseable} that allows you to execute a job under the limit.
      * The {@link SafeCloseable} must be closed after the job is done:
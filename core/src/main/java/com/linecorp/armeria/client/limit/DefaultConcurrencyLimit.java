@@ -63,11 +63,14 @@ final class DefaultConcurrencyLimit implements ConcurrencyLimit {
         this.timeoutMillis = timeoutMillis;
     }
 
-    @VisibleForTesting
     int acquiredPermits() {
         return acquiredPermits.get();
     }
 
+    long numPendingAcquisitions() {
+        return numPendingAcquisitions.get();
+    }
+
     @VisibleForTesting
     int availablePermits() {
         final int availablePermitCount = maxConcurrency() - acquiredPermits.get();
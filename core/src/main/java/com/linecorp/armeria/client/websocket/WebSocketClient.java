@@ -0,0 +1,228 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.websocket;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.common.base.Joiner;
+
+import com.linecorp.armeria.client.InvalidResponseHeadersException;
+import com.linecorp.armeria.client.RequestOptions;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.stream.HttpDecoder;
+import com.linecorp.armeria.common.stream.HttpDecoderInput;
+import com.linecorp.armeria.common.stream.HttpDecoderOutput;
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.websocket.WebSocketFrame;
+import com.linecorp.armeria.internal.common.websocket.PerMessageDeflate;
+import com.linecorp.armeria.internal.common.websocket.PerMessageDeflateEncoder;
+import com.linecorp.armeria.internal.common.websocket.WebSocketFrameDecoder;
+import com.linecorp.armeria.internal.common.websocket.WebSocketFrameEncoder;
+
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * A WebSocket client which exchanges {@link WebSocketFrame}s with a
+ * {@link com.linecorp.armeria.server.websocket.WebSocketService}.
+ *
+ * <p>A WebSocket session is bootstrapped with an HTTP/2 extended {@code CONNECT} request, as defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc8441">RFC 8441</a>, so the specified {@link WebClient}
+ * must talk HTTP/2, e.g. {@code WebClient.of("h2c://example.com/")}. Many sessions to the same host share
+ * one connection. The {@code permessage-deflate} extension can be offered with
+ * {@link WebSocketClientBuilder#perMessageDeflate(boolean)}.
+ *
+ * <pre>{@code
+ * WebSocketClient client = WebSocketClient.of(WebClient.of("h2c://example.com/"));
+ * DefaultStreamMessage<WebSocketFrame> out = new DefaultStreamMessage<>();
+ * StreamMessage<WebSocketFrame> in = client.connect("/chat", out);
+ * out.write(WebSocketFrame.ofText("Hello!"));
+ * in.subscribe(...);
+ * }</pre>
+ */
+public final class WebSocketClient {
+
+    private static final String WEBSOCKET_VERSION = "13";
+
+    private static final RequestOptions REQUEST_OPTIONS = RequestOptions.builder()
+                                                                        .responseTimeoutMillis(0)
+                                                                        .maxResponseLength(0)
+                                                                        .build();
+
+    /**
+     * Returns a new {@link WebSocketClient} which sends the handshake requests via
+     * the specified {@link WebClient}.
+     */
+    public static WebSocketClient of(WebClient webClient) {
+        return builder(webClient).build();
+    }
+
+    /**
+     * Returns a new {@link WebSocketClientBuilder} which builds a {@link WebSocketClient} that sends
+     * the handshake requests via the specified {@link WebClient}.
+     */
+    public static WebSocketClientBuilder builder(WebClient webClient) {
+        return new WebSocketClientBuilder(requireNonNull(webClient, "webClient"));
+    }
+
+    private final WebClient webClient;
+    private final int maxFramePayloadLength;
+    private final List<String> subprotocols;
+    private final boolean perMessageDeflate;
+
+    WebSocketClient(WebClient webClient, int maxFramePayloadLength, List<String> subprotocols,
+                    boolean perMessageDeflate) {
+        this.webClient = webClient;
+        this.maxFramePayloadLength = maxFramePayloadLength;
+        this.subprotocols = subprotocols;
+        this.perMessageDeflate = perMessageDeflate;
+    }
+
+    /**
+     * Opens a WebSocket session to the specified {@code path}, sending the {@code out} frames to the peer.
+     * The returned {@link StreamMessage} is aborted with an {@link InvalidResponseHeadersException}
+     * if the handshake is rejected. The session ends when both {@code out} and the returned
+     * {@link StreamMessage} are completed. If {@code out} fails with the exception the returned
+     * {@link StreamMessage} failed with, e.g. when the peer violated the protocol, a close frame with
+     * the matching close code is sent to the peer.
+     *
+     * @return the frames received from the peer
+     */
+    public StreamMessage<WebSocketFrame> connect(String path, StreamMessage<WebSocketFrame> out) {
+        requireNonNull(path, "path");
+        requireNonNull(out, "out");
+
+        final RequestHeadersBuilder headers =
+                RequestHeaders.builder(HttpMethod.CONNECT, path)
+                              .set(HttpHeaderNames.PROTOCOL, "websocket")
+                              .set(HttpHeaderNames.SEC_WEBSOCKET_VERSION, WEBSOCKET_VERSION);
+        if (!subprotocols.isEmpty()) {
+            headers.set(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL, Joiner.on(", ").join(subprotocols));
+        }
+        if (perMessageDeflate) {
+            headers.set(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS, PerMessageDeflate.CLIENT_OFFER);
+        }
+
+        final HandshakeResponseDecoder decoder =
+                new HandshakeResponseDecoder(maxFramePayloadLength, perMessageDeflate);
+        final StreamMessage<WebSocketFrame> recovered = WebSocketFrameDecoder.recoverWithCloseFrame(out);
+        final StreamMessage<HttpData> encoded;
+        if (perMessageDeflate) {
+            // Whether to compress the frames is known only after the handshake response is received.
+            final CompletableFuture<PerMessageDeflateEncoder> whenNegotiated = decoder.whenNegotiated;
+            encoded = recovered.mapAsync(frame -> whenNegotiated.thenApply(encoder -> encode(encoder, frame)));
+            encoded.whenComplete().handle((unused, cause) -> whenNegotiated.thenAccept(encoder -> {
+                if (encoder != null) {
+                    encoder.close();
+                }
+            }));
+        } else {
+            encoded = recovered.map(frame -> encode(null, frame));
+        }
+        final HttpResponse res = webClient.execute(HttpRequest.of(headers.build(), encoded), REQUEST_OPTIONS);
+        return res.decode(decoder);
+    }
+
+    private static HttpData encode(@Nullable PerMessageDeflateEncoder encoder, WebSocketFrame frame) {
+        if (encoder != null) {
+            return encoder.encode(ByteBufAllocator.DEFAULT, frame);
+        }
+        // Frames sent by a client must be masked.
+        return WebSocketFrameEncoder.encode(ByteBufAllocator.DEFAULT, frame, true);
+    }
+
+    private static final class HandshakeResponseDecoder implements HttpDecoder<WebSocketFrame> {
+
+        private final int maxFramePayloadLength;
+        private final boolean offeredPerMessageDeflate;
+
+        /**
+         * Completed with the {@link PerMessageDeflateEncoder} which compresses the frames sent by the client,
+         * or {@code null} if the server declined {@code permessage-deflate}.
+         */
+        final CompletableFuture<PerMessageDeflateEncoder> whenNegotiated = new CompletableFuture<>();
+
+        @Nullable
+        private WebSocketFrameDecoder delegate;
+
+        HandshakeResponseDecoder(int maxFramePayloadLength, boolean offeredPerMessageDeflate) {
+            this.maxFramePayloadLength = maxFramePayloadLength;
+            this.offeredPerMessageDeflate = offeredPerMessageDeflate;
+        }
+
+        @Override
+        public void processHeaders(HttpHeaders in, HttpDecoderOutput<WebSocketFrame> out) {
+            final ResponseHeaders headers = (ResponseHeaders) in;
+            if (headers.status() != HttpStatus.OK) {
+                throw invalidResponseHeaders(headers);
+            }
+
+            final String extensions = headers.get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS);
+            PerMessageDeflate deflate = null;
+            if (extensions != null) {
+                deflate = offeredPerMessageDeflate ? PerMessageDeflate.acceptResponse(extensions) : null;
+                if (deflate == null) {
+                    // The server accepted an extension which was not offered.
+                    throw invalidResponseHeaders(headers);
+                }
+            }
+
+            delegate = new WebSocketFrameDecoder(maxFramePayloadLength, false, deflate != null);
+            whenNegotiated.complete(deflate != null ? new PerMessageDeflateEncoder(
+                    true, deflate.clientNoContextTakeover()) : null);
+        }
+
+        private InvalidResponseHeadersException invalidResponseHeaders(ResponseHeaders headers) {
+            final InvalidResponseHeadersException cause = new InvalidResponseHeadersException(headers);
+            whenNegotiated.completeExceptionally(cause);
+            return cause;
+        }
+
+        @Override
+        public void process(HttpDecoderInput in, HttpDecoderOutput<WebSocketFrame> out) throws Exception {
+            assert delegate != null;
+            delegate.process(in, out);
+        }
+
+        @Override
+        public void processOnComplete(HttpDecoderOutput<WebSocketFrame> out) {
+            if (delegate != null) {
+                delegate.processOnComplete(out);
+            }
+        }
+
+        @Override
+        public void processOnError(Throwable cause) {
+            whenNegotiated.completeExceptionally(cause);
+            if (delegate != null) {
+                delegate.processOnError(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.websocket;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.WebClient;
+
+/**
+ * Builds a new {@link WebSocketClient}.
+ */
+public final class WebSocketClientBuilder {
+
+    static final int DEFAULT_MAX_FRAME_PAYLOAD_LENGTH = 65536;
+
+    private final WebClient webClient;
+    private int maxFramePayloadLength = DEFAULT_MAX_FRAME_PAYLOAD_LENGTH;
+    private ImmutableList<String> subprotocols = ImmutableList.of();
+    private boolean perMessageDeflate;
+
+    WebSocketClientBuilder(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * Sets the maximum length of the payload of a data frame received from a peer.
+     * A session is aborted with a {@link com.linecorp.armeria.common.ContentTooLargeException}
+     * when a longer frame is received. {@value #DEFAULT_MAX_FRAME_PAYLOAD_LENGTH} is used by default.
+     */
+    public WebSocketClientBuilder maxFramePayloadLength(int maxFramePayloadLength) {
+        checkArgument(maxFramePayloadLength > 0,
+                      "maxFramePayloadLength: %s (expected: > 0)", maxFramePayloadLength);
+        this.maxFramePayloadLength = maxFramePayloadLength;
+        return this;
+    }
+
+    /**
+     * Sets the subprotocols to request in the {@code "sec-websocket-protocol"} header,
+     * in the order of preference.
+     */
+    public WebSocketClientBuilder subprotocols(String... subprotocols) {
+        return subprotocols(ImmutableList.copyOf(requireNonNull(subprotocols, "subprotocols")));
+    }
+
+    /**
+     * Sets the subprotocols to request in the {@code "sec-websocket-protocol"} header,
+     * in the order of preference.
+     */
+    public WebSocketClientBuilder subprotocols(Iterable<String> subprotocols) {
+        this.subprotocols = ImmutableList.copyOf(requireNonNull(subprotocols, "subprotocols"));
+        return this;
+    }
+
+    /**
+     * Sets whether to offer the {@code permessage-deflate} extension, which compresses the data messages,
+     * as defined in <a href="https://datatracker.ietf.org/doc/html/rfc7692">RFC 7692</a>. The frames are
+     * sent uncompressed if the server declines the offer. It is disabled by default.
+     */
+    public WebSocketClientBuilder perMessageDeflate(boolean perMessageDeflate) {
+        this.perMessageDeflate = perMessageDeflate;
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link WebSocketClient} based on the properties of this builder.
+     */
+    public WebSocketClient build() {
+        return new WebSocketClient(webClient, maxFramePayloadLength, subprotocols, perMessageDeflate);
+    }
+}
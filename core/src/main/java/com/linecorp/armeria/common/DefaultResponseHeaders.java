@@ -20,12 +20,34 @@ import com.linecorp.armeria.common.annotation.Nullable;
 @SuppressWarnings({ "checkstyle:EqualsHashCode", "EqualsAndHashcode" })
 final class DefaultResponseHeaders extends DefaultHttpHeaders implements ResponseHeaders {
 
+    private final boolean reusable;
+
     DefaultResponseHeaders(HttpHeadersBase headers) {
+        this(headers, false);
+    }
+
+    private DefaultResponseHeaders(HttpHeadersBase headers, boolean reusable) {
         super(headers);
+        this.reusable = reusable;
     }
 
     DefaultResponseHeaders(HttpHeaderGetters headers) {
+        this(headers, false);
+    }
+
+    private DefaultResponseHeaders(HttpHeaderGetters headers, boolean reusable) {
         super(headers);
+        this.reusable = reusable;
+    }
+
+    /**
+     * Returns a new reusable copy of the specified {@link ResponseHeaders}.
+     */
+    static ResponseHeaders reusableOf(ResponseHeaders headers) {
+        if (headers instanceof HttpHeadersBase) {
+            return new DefaultResponseHeaders((HttpHeadersBase) headers, true);
+        }
+        return new DefaultResponseHeaders(headers, true);
     }
 
     @Override
@@ -38,6 +60,19 @@ final class DefaultResponseHeaders extends DefaultHttpHeaders implements Respons
         return setCookie();
     }
 
+    @Override
+    public boolean isReusable() {
+        return reusable;
+    }
+
+    @Override
+    public ResponseHeaders toReusable() {
+        if (reusable) {
+            return this;
+        }
+        return reusableOf(this);
+    }
+
     @Override
     public ResponseHeadersBuilder toBuilder() {
         return new DefaultResponseHeadersBuilder(this);
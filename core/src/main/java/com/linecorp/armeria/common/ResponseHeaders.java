@@ -22,6 +22,8 @@ import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
 /**
  * Immutable HTTP/2 headers for an {@link HttpResponse}.
  *
@@ -192,6 +194,51 @@ public interface ResponseHeaders extends HttpHeaders, ResponseHeaderGetters {
         return new DefaultResponseHeaders(headers);
     }
 
+    /**
+     * Returns {@code true} if this {@link ResponseHeaders} has been marked as reusable
+     * with {@link #toReusable()}. This method returns {@code false} by default.
+     */
+    @UnstableApi
+    default boolean isReusable() {
+        return false;
+    }
+
+    /**
+     * Returns the {@link ResponseHeaders} which contains the same headers with this {@link ResponseHeaders}
+     * and is marked as reusable. A server caches the converted form of reusable {@link ResponseHeaders} so
+     * that the headers are not converted again whenever the same instance is sent. The {@code "date"} and
+     * {@code "server"} headers are added by the server as usual. For example:
+     * <pre>{@code
+     * static final ResponseHeaders HEADERS =
+     *         ResponseHeaders.builder(HttpStatus.OK)
+     *                        .contentType(MediaType.JSON_SEQ)
+     *                        .set(HttpHeaderNames.CACHE_CONTROL, "no-cache")
+     *                        .build()
+     *                        .toReusable();
+     *
+     * HttpResponseWriter res = HttpResponse.streaming();
+     * // The cached form of HEADERS is sent.
+     * res.write(HEADERS);
+     * }</pre>
+     *
+     * <p>Note that the cache is looked up by the identity of the {@link ResponseHeaders}. Any modification,
+     * e.g. via {@link #toBuilder()} or by adding additional response headers, creates a new
+     * {@link ResponseHeaders} which is not reusable. For example,
+     * {@link HttpResponse#of(ResponseHeaders, HttpData)} sets the {@code "content-length"} header unless
+     * the specified {@link ResponseHeaders} has the correct {@code "content-length"} already. Therefore,
+     * you should use this only for the constant headers which are sent repeatedly.
+     *
+     * <p>By default, this method returns this {@link ResponseHeaders} if {@link #isReusable()} returns
+     * {@code true}, or a reusable copy of it otherwise.
+     */
+    @UnstableApi
+    default ResponseHeaders toReusable() {
+        if (isReusable()) {
+            return this;
+        }
+        return DefaultResponseHeaders.reusableOf(this);
+    }
+
     @Override
     ResponseHeadersBuilder toBuilder();
 
@@ -86,6 +86,12 @@ public final class ServerCacheControl extends CacheControl {
                             b.sMaxAgeSeconds(sMaxAgeSeconds);
                         }
                     })
+                    .put("stale-while-revalidate", (b, v) -> {
+                        final long staleWhileRevalidateSeconds = parseDirectiveValueAsSeconds(v);
+                        if (staleWhileRevalidateSeconds >= 0) {
+                            b.staleWhileRevalidateSeconds(staleWhileRevalidateSeconds);
+                        }
+                    })
                     .build();
 
     /**
@@ -132,12 +138,14 @@ public final class ServerCacheControl extends CacheControl {
     private final boolean mustRevalidate;
     private final boolean proxyRevalidate;
     private final long sMaxAgeSeconds;
+    private final long staleWhileRevalidateSeconds;
     @Nullable
     private String headerValue;
 
     ServerCacheControl(boolean noCache, boolean noStore, boolean noTransform, long maxAgeSeconds,
                        boolean cachePublic, boolean cachePrivate, boolean immutable,
-                       boolean mustRevalidate, boolean proxyRevalidate, long sMaxAgeSeconds) {
+                       boolean mustRevalidate, boolean proxyRevalidate, long sMaxAgeSeconds,
+                       long staleWhileRevalidateSeconds) {
         super(noCache, noStore, noTransform, maxAgeSeconds);
         this.cachePublic = cachePublic;
         this.cachePrivate = cachePrivate;
@@ -145,12 +153,13 @@ public final class ServerCacheControl extends CacheControl {
         this.mustRevalidate = mustRevalidate;
         this.proxyRevalidate = proxyRevalidate;
         this.sMaxAgeSeconds = sMaxAgeSeconds;
+        this.staleWhileRevalidateSeconds = staleWhileRevalidateSeconds;
     }
 
     @Override
     public boolean isEmpty() {
         return super.isEmpty() && !cachePublic && !cachePrivate && !immutable &&
-               !mustRevalidate && !proxyRevalidate && sMaxAgeSeconds < 0;
+               !mustRevalidate && !proxyRevalidate && sMaxAgeSeconds < 0 && staleWhileRevalidateSeconds < 0;
     }
 
     /**
@@ -195,6 +204,13 @@ public final class ServerCacheControl extends CacheControl {
         return sMaxAgeSeconds;
     }
 
+    /**
+     * Returns the value of the {@code "stale-while-revalidate"} directive or {@code -1} if disabled.
+     */
+    public long staleWhileRevalidateSeconds() {
+        return staleWhileRevalidateSeconds;
+    }
+
     /**
      * Returns a newly created {@link ServerCacheControlBuilder} which has the same initial directives with
      * this {@link ServerCacheControl}.
@@ -229,6 +245,9 @@ public final class ServerCacheControl extends CacheControl {
         if (sMaxAgeSeconds >= 0) {
             buf.append(", s-maxage=").append(sMaxAgeSeconds);
         }
+        if (staleWhileRevalidateSeconds >= 0) {
+            buf.append(", stale-while-revalidate=").append(staleWhileRevalidateSeconds);
+        }
 
         if (buf.length() == 0) {
             return headerValue = "";
@@ -249,17 +268,19 @@ public final class ServerCacheControl extends CacheControl {
                immutable == that.immutable &&
                mustRevalidate == that.mustRevalidate &&
                proxyRevalidate == that.proxyRevalidate &&
-               sMaxAgeSeconds == that.sMaxAgeSeconds;
+               sMaxAgeSeconds == that.sMaxAgeSeconds &&
+               staleWhileRevalidateSeconds == that.staleWhileRevalidateSeconds;
     }
 
     @Override
     public int hashCode() {
-        return (((((super.hashCode() * 31 +
-                    (cachePublic ? 1 : 0)) * 31 +
-                   (cachePrivate ? 1 : 0)) * 31 +
-                  (immutable ? 1 : 0)) * 31 +
-                 (mustRevalidate ? 1 : 0)) * 31 +
-                (proxyRevalidate ? 1 : 0)) * 31 +
-               (int) (sMaxAgeSeconds ^ (sMaxAgeSeconds >>> 32));
+        return ((((((super.hashCode() * 31 +
+                     (cachePublic ? 1 : 0)) * 31 +
+                    (cachePrivate ? 1 : 0)) * 31 +
+                   (immutable ? 1 : 0)) * 31 +
+                  (mustRevalidate ? 1 : 0)) * 31 +
+                 (proxyRevalidate ? 1 : 0)) * 31 +
+                (int) (sMaxAgeSeconds ^ (sMaxAgeSeconds >>> 32))) * 31 +
+               (int) (staleWhileRevalidateSeconds ^ (staleWhileRevalidateSeconds >>> 32));
     }
 }
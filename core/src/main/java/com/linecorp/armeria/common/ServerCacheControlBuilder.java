@@ -43,6 +43,7 @@ public final class ServerCacheControlBuilder extends CacheControlBuilder {
     private boolean mustRevalidate;
     private boolean proxyRevalidate;
     private long sMaxAgeSeconds = -1;
+    private long staleWhileRevalidateSeconds = -1;
 
     ServerCacheControlBuilder() {}
 
@@ -54,6 +55,7 @@ public final class ServerCacheControlBuilder extends CacheControlBuilder {
         mustRevalidate = c.mustRevalidate();
         proxyRevalidate = c.proxyRevalidate();
         sMaxAgeSeconds = c.sMaxAgeSeconds();
+        staleWhileRevalidateSeconds = c.staleWhileRevalidateSeconds();
     }
 
     /**
@@ -161,6 +163,27 @@ public final class ServerCacheControlBuilder extends CacheControlBuilder {
         return this;
     }
 
+    /**
+     * Enables or disables the {@code "stale-while-revalidate"} directive.
+     *
+     * @param staleWhileRevalidate the value of the directive to enable, or {@code null} to disable.
+     */
+    public ServerCacheControlBuilder staleWhileRevalidate(@Nullable Duration staleWhileRevalidate) {
+        staleWhileRevalidateSeconds = validateDuration(staleWhileRevalidate, "staleWhileRevalidate");
+        return this;
+    }
+
+    /**
+     * Enables the {@code "stale-while-revalidate"} directive.
+     *
+     * @param staleWhileRevalidateSeconds the value in seconds.
+     */
+    public ServerCacheControlBuilder staleWhileRevalidateSeconds(long staleWhileRevalidateSeconds) {
+        this.staleWhileRevalidateSeconds = validateSeconds(staleWhileRevalidateSeconds,
+                                                           "staleWhileRevalidateSeconds");
+        return this;
+    }
+
     /**
      * Returns a newly created {@link ServerCacheControl} with the directives enabled so far.
      */
@@ -175,7 +198,8 @@ public final class ServerCacheControlBuilder extends CacheControlBuilder {
         final boolean cachePublic = cachePrivate ? false : this.cachePublic;
         return new ServerCacheControl(noCache, noStore, noTransform, maxAgeSeconds,
                                       cachePublic, cachePrivate, immutable,
-                                      mustRevalidate, proxyRevalidate, sMaxAgeSeconds);
+                                      mustRevalidate, proxyRevalidate, sMaxAgeSeconds,
+                                      staleWhileRevalidateSeconds);
     }
 
     // Overridden to change the return type.
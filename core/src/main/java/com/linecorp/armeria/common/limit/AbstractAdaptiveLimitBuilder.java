@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.limit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A skeletal builder implementation for {@link AdaptiveLimit}.
+ */
+abstract class AbstractAdaptiveLimitBuilder {
+
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 1000;
+
+    /**
+     * Sets the initial limit. {@code 20} is used by default.
+     */
+    public AbstractAdaptiveLimitBuilder initialLimit(int initialLimit) {
+        checkArgument(initialLimit > 0, "initialLimit: %s (expected: > 0)", initialLimit);
+        this.initialLimit = initialLimit;
+        return this;
+    }
+
+    /**
+     * Sets the minimum limit. {@code 1} is used by default.
+     */
+    public AbstractAdaptiveLimitBuilder minLimit(int minLimit) {
+        checkArgument(minLimit > 0, "minLimit: %s (expected: > 0)", minLimit);
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    /**
+     * Sets the maximum limit. {@code 1000} is used by default.
+     */
+    public AbstractAdaptiveLimitBuilder maxLimit(int maxLimit) {
+        checkArgument(maxLimit > 0, "maxLimit: %s (expected: > 0)", maxLimit);
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    final int getInitialLimit() {
+        return initialLimit;
+    }
+
+    final int getMinLimit() {
+        return minLimit;
+    }
+
+    final int getMaxLimit() {
+        return maxLimit;
+    }
+
+    final void validateLimits() {
+        checkState(minLimit <= maxLimit, "minLimit: %s, maxLimit: %s (expected: minLimit <= maxLimit)",
+                   minLimit, maxLimit);
+        checkState(minLimit <= initialLimit && initialLimit <= maxLimit,
+                   "initialLimit: %s (expected: minLimit(%s) <= initialLimit <= maxLimit(%s))",
+                   initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Returns a newly-created {@link AdaptiveLimit} based on the properties of this builder.
+     */
+    public abstract AdaptiveLimit build();
+}
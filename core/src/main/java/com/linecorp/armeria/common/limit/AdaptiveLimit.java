@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.limit;
+
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * A concurrency limit which is adjusted from the round-trip time (RTT) samples of the requests executed under
+ * the limit. An {@link AdaptiveLimit} is stateful, so a separate instance has to be used for each resource
+ * being protected.
+ *
+ * @see #aimd()
+ * @see #gradient2()
+ * @see #vegas()
+ */
+@UnstableApi
+public interface AdaptiveLimit {
+
+    /**
+     * Returns a new additive-increase/multiplicative-decrease (AIMD) {@link AdaptiveLimit} with the default
+     * properties. The limit is increased by one on a successful request and multiplied by {@code 0.9} when
+     * a request is dropped or its RTT exceeds 5 seconds.
+     */
+    static AdaptiveLimit aimd() {
+        return builderForAimd().build();
+    }
+
+    /**
+     * Returns a new {@link AimdLimitBuilder} that builds an additive-increase/multiplicative-decrease
+     * {@link AdaptiveLimit}.
+     */
+    static AimdLimitBuilder builderForAimd() {
+        return new AimdLimitBuilder();
+    }
+
+    /**
+     * Returns a new gradient {@link AdaptiveLimit} with the default properties. The limit is adjusted by
+     * the ratio of the long-term exponentially weighted moving average of the RTT to the current RTT,
+     * so that the limit is decreased as soon as the requests start to queue up.
+     */
+    static AdaptiveLimit gradient2() {
+        return builderForGradient2().build();
+    }
+
+    /**
+     * Returns a new {@link Gradient2LimitBuilder} that builds a gradient {@link AdaptiveLimit}.
+     */
+    static Gradient2LimitBuilder builderForGradient2() {
+        return new Gradient2LimitBuilder();
+    }
+
+    /**
+     * Returns a new <a href="https://en.wikipedia.org/wiki/TCP_Vegas">TCP Vegas</a>-style
+     * {@link AdaptiveLimit} with the default properties. The limit is adjusted by the estimated queue
+     * size, which is computed from the minimum RTT and the current RTT.
+     */
+    static AdaptiveLimit vegas() {
+        return builderForVegas().build();
+    }
+
+    /**
+     * Returns a new {@link VegasLimitBuilder} that builds a TCP Vegas-style {@link AdaptiveLimit}.
+     */
+    static VegasLimitBuilder builderForVegas() {
+        return new VegasLimitBuilder();
+    }
+
+    /**
+     * Returns the current limit.
+     */
+    int limit();
+
+    /**
+     * Updates the limit with a sample of a completed request.
+     *
+     * @param rttNanos the round-trip time of the request in nanoseconds
+     * @param inFlight the number of the in-flight requests when the request was started
+     * @param dropped whether the request was dropped, e.g. timed out or rejected by the remote peer
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
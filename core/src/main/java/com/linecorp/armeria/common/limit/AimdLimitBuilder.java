@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.limit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * Builds an additive-increase/multiplicative-decrease {@link AdaptiveLimit}.
+ *
+ * @see AdaptiveLimit#builderForAimd()
+ */
+@UnstableApi
+public final class AimdLimitBuilder extends AbstractAdaptiveLimitBuilder {
+
+    private double backoffRatio = 0.9;
+    private long timeoutNanos = Duration.ofSeconds(5).toNanos();
+
+    AimdLimitBuilder() {}
+
+    /**
+     * Sets the ratio which the limit is multiplied by when a request is dropped. {@code 0.9} is used
+     * by default.
+     */
+    public AimdLimitBuilder backoffRatio(double backoffRatio) {
+        checkArgument(backoffRatio >= 0.5 && backoffRatio < 1,
+                      "backoffRatio: %s (expected: 0.5 <= backoffRatio < 1)", backoffRatio);
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    /**
+     * Sets the RTT over which a request is considered as dropped. 5 seconds is used by default.
+     */
+    public AimdLimitBuilder timeout(Duration timeout) {
+        requireNonNull(timeout, "timeout");
+        checkArgument(!timeout.isNegative() && !timeout.isZero(), "timeout: %s (expected: > 0)", timeout);
+        timeoutNanos = timeout.toNanos();
+        return this;
+    }
+
+    /**
+     * Sets the RTT in milliseconds over which a request is considered as dropped. 5 seconds is used
+     * by default.
+     */
+    public AimdLimitBuilder timeoutMillis(long timeoutMillis) {
+        checkArgument(timeoutMillis > 0, "timeoutMillis: %s (expected: > 0)", timeoutMillis);
+        return timeout(Duration.ofMillis(timeoutMillis));
+    }
+
+    @Override
+    public AimdLimitBuilder initialLimit(int initialLimit) {
+        return (AimdLimitBuilder) super.initialLimit(initialLimit);
+    }
+
+    @Override
+    public AimdLimitBuilder minLimit(int minLimit) {
+        return (AimdLimitBuilder) super.minLimit(minLimit);
+    }
+
+    @Override
+    public AimdLimitBuilder maxLimit(int maxLimit) {
+        return (AimdLimitBuilder) super.maxLimit(maxLimit);
+    }
+
+    @Override
+    public AdaptiveLimit build() {
+        validateLimits();
+        return new AimdLimit(getInitialLimit(), getMinLimit(), getMaxLimit(), backoffRatio, timeoutNanos);
+    }
+}
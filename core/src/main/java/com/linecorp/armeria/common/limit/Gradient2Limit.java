@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.limit;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A gradient {@link AdaptiveLimit} which compares the long-term exponentially weighted moving average of
+ * the RTT with the current RTT.
+ */
+final class Gradient2Limit implements AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double longRttDecay;
+    private final int warmUpWindow;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private int numSamples;
+
+    Gradient2Limit(int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance,
+                   int longWindow) {
+        limit = initialLimit;
+        estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        longRttDecay = 2.0 / (longWindow + 1);
+        warmUpWindow = Math.min(10, longWindow);
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        // Update the long-term RTT. Use the simple average until enough samples are collected.
+        if (numSamples < warmUpWindow) {
+            numSamples++;
+            longRttNanos += (rttNanos - longRttNanos) / numSamples;
+        } else {
+            longRttNanos = longRttNanos * (1 - longRttDecay) + rttNanos * longRttDecay;
+        }
+
+        // Recover from a steady increase of the RTT quickly by decaying the long-term RTT,
+        // so that the limit can grow again once the load is gone.
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Do not grow the limit when it is not fully used.
+        if (!dropped && inFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        final double gradient;
+        if (dropped) {
+            gradient = 0.5;
+        } else {
+            gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        }
+        // Allow a small queue so that the limit can be probed upwards.
+        final double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        estimatedLimit = newLimit;
+        limit = (int) newLimit;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("limit", limit)
+                          .add("minLimit", minLimit)
+                          .add("maxLimit", maxLimit)
+                          .add("smoothing", smoothing)
+                          .add("rttTolerance", rttTolerance)
+                          .toString();
+    }
+}
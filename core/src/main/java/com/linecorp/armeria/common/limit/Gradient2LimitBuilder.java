@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.limit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * Builds a gradient {@link AdaptiveLimit}.
+ *
+ * @see AdaptiveLimit#builderForGradient2()
+ */
+@UnstableApi
+public final class Gradient2LimitBuilder extends AbstractAdaptiveLimitBuilder {
+
+    private double smoothing = 0.2;
+    private double rttTolerance = 1.5;
+    private int longWindow = 600;
+
+    Gradient2LimitBuilder() {}
+
+    /**
+     * Sets the weight of a new limit when it is blended with the current limit. The higher, the faster
+     * the limit is adjusted. {@code 0.2} is used by default.
+     */
+    public Gradient2LimitBuilder smoothing(double smoothing) {
+        checkArgument(smoothing > 0 && smoothing <= 1, "smoothing: %s (expected: 0 < smoothing <= 1)",
+                      smoothing);
+        this.smoothing = smoothing;
+        return this;
+    }
+
+    /**
+     * Sets how much the current RTT may exceed the long-term RTT before the limit is decreased.
+     * For example, {@code 2.0} means the limit is not decreased until the current RTT is twice as long as
+     * the long-term RTT. {@code 1.5} is used by default.
+     */
+    public Gradient2LimitBuilder rttTolerance(double rttTolerance) {
+        checkArgument(rttTolerance >= 1, "rttTolerance: %s (expected: >= 1)", rttTolerance);
+        this.rttTolerance = rttTolerance;
+        return this;
+    }
+
+    /**
+     * Sets the number of samples over which the long-term RTT is averaged. {@code 600} is used by default.
+     */
+    public Gradient2LimitBuilder longWindow(int longWindow) {
+        checkArgument(longWindow > 0, "longWindow: %s (expected: > 0)", longWindow);
+        this.longWindow = longWindow;
+        return this;
+    }
+
+    @Override
+    public Gradient2LimitBuilder initialLimit(int initialLimit) {
+        return (Gradient2LimitBuilder) super.initialLimit(initialLimit);
+    }
+
+    @Override
+    public Gradient2LimitBuilder minLimit(int minLimit) {
+        return (Gradient2LimitBuilder) super.minLimit(minLimit);
+    }
+
+    @Override
+    public Gradient2LimitBuilder maxLimit(int maxLimit) {
+        return (Gradient2LimitBuilder) super.maxLimit(maxLimit);
+    }
+
+    @Override
+    public AdaptiveLimit build() {
+        validateLimits();
+        return new Gradient2Limit(getInitialLimit(), getMinLimit(), getMaxLimit(),
+                                  smoothing, rttTolerance, longWindow);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.limit;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A TCP Vegas-style {@link AdaptiveLimit} which estimates the queue size from the minimum RTT and
+ * the current RTT. The limit is increased while the estimated queue is small and decreased when it grows.
+ */
+final class VegasLimit implements AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final int probeMultiplier;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private long rttNoLoadNanos;
+    private long numSamplesSinceProbe;
+
+    VegasLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, int probeMultiplier) {
+        limit = initialLimit;
+        estimatedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.probeMultiplier = probeMultiplier;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        // Reset the minimum RTT periodically because it may have been increased permanently,
+        // e.g. by a deployment.
+        if (++numSamplesSinceProbe >= (long) probeMultiplier * (long) estimatedLimit) {
+            numSamplesSinceProbe = 0;
+            rttNoLoadNanos = rttNanos;
+            return;
+        }
+
+        if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+            rttNoLoadNanos = rttNanos;
+            return;
+        }
+
+        final double currentLimit = estimatedLimit;
+        final double log10 = Math.max(1, Math.log10(currentLimit));
+        double newLimit;
+        if (dropped) {
+            newLimit = currentLimit - log10;
+        } else if (inFlight * 2 < currentLimit) {
+            // Do not grow the limit when it is not fully used.
+            return;
+        } else {
+            final int queueSize = (int) Math.ceil(currentLimit * (1 - (double) rttNoLoadNanos / rttNanos));
+            final double alpha = 3 * log10;
+            final double beta = 6 * log10;
+            if (queueSize <= log10) {
+                newLimit = currentLimit + beta;
+            } else if (queueSize < alpha) {
+                newLimit = currentLimit + log10;
+            } else if (queueSize > beta) {
+                newLimit = currentLimit - log10;
+            } else {
+                return;
+            }
+        }
+
+        newLimit = currentLimit * (1 - smoothing) + newLimit * smoothing;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        estimatedLimit = newLimit;
+        limit = (int) newLimit;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("limit", limit)
+                          .add("minLimit", minLimit)
+                          .add("maxLimit", maxLimit)
+                          .add("smoothing", smoothing)
+                          .add("rttNoLoadNanos", rttNoLoadNanos)
+                          .toString();
+    }
+}
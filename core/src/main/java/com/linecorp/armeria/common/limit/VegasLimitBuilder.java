@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.limit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+/**
+ * Builds a TCP Vegas-style {@link AdaptiveLimit}.
+ *
+ * @see AdaptiveLimit#builderForVegas()
+ */
+@UnstableApi
+public final class VegasLimitBuilder extends AbstractAdaptiveLimitBuilder {
+
+    private double smoothing = 1.0;
+    private int probeMultiplier = 30;
+
+    VegasLimitBuilder() {}
+
+    /**
+     * Sets the weight of a new limit when it is blended with the current limit. The higher, the faster
+     * the limit is adjusted. {@code 1.0} is used by default.
+     */
+    public VegasLimitBuilder smoothing(double smoothing) {
+        checkArgument(smoothing > 0 && smoothing <= 1, "smoothing: %s (expected: 0 < smoothing <= 1)",
+                      smoothing);
+        this.smoothing = smoothing;
+        return this;
+    }
+
+    /**
+     * Sets how often the minimum RTT is reset to probe a new minimum RTT, in multiples of the current limit.
+     * For example, {@code 30} means the minimum RTT is reset after {@code 30 * limit} samples.
+     * {@code 30} is used by default.
+     */
+    public VegasLimitBuilder probeMultiplier(int probeMultiplier) {
+        checkArgument(probeMultiplier > 0, "probeMultiplier: %s (expected: > 0)", probeMultiplier);
+        this.probeMultiplier = probeMultiplier;
+        return this;
+    }
+
+    @Override
+    public VegasLimitBuilder initialLimit(int initialLimit) {
+        return (VegasLimitBuilder) super.initialLimit(initialLimit);
+    }
+
+    @Override
+    public VegasLimitBuilder minLimit(int minLimit) {
+        return (VegasLimitBuilder) super.minLimit(minLimit);
+    }
+
+    @Override
+    public VegasLimitBuilder maxLimit(int maxLimit) {
+        return (VegasLimitBuilder) super.maxLimit(maxLimit);
+    }
+
+    @Override
+    public AdaptiveLimit build() {
+        validateLimits();
+        return new VegasLimit(getInitialLimit(), getMinLimit(), getMaxLimit(), smoothing, probeMultiplier);
+    }
+}
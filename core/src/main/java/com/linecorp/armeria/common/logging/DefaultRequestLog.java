@@ -21,11 +21,11 @@ import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.BiFunction;
 
 import javax.net.ssl.SSLSession;
@@ -72,6 +72,10 @@ final class DefaultRequestLog implements RequestLog, RequestLogBuilder {
     private static final AtomicIntegerFieldUpdater<DefaultRequestLog> deferredFlagsUpdater =
             AtomicIntegerFieldUpdater.newUpdater(DefaultRequestLog.class, "deferredFlags");
 
+    private static final AtomicReferenceFieldUpdater<DefaultRequestLog, RequestLogFuture>
+            pendingFuturesUpdater = AtomicReferenceFieldUpdater.newUpdater(
+                    DefaultRequestLog.class, RequestLogFuture.class, "pendingFutures");
+
     private static final RequestHeaders DUMMY_REQUEST_HEADERS_HTTP =
             RequestHeaders.builder(HttpMethod.UNKNOWN, "?").scheme("http").authority("?").build();
     private static final RequestHeaders DUMMY_REQUEST_HEADERS_HTTPS =
@@ -95,7 +99,12 @@ final class DefaultRequestLog implements RequestLog, RequestLogBuilder {
      * Updated by {@link #deferredFlagsUpdater}.
      */
     private volatile int deferredFlags;
-    private final List<RequestLogFuture> pendingFutures = new ArrayList<>(4);
+    /**
+     * The top of the stack of the incomplete {@link RequestLogFuture}s linked with
+     * {@link RequestLogFuture#next}. Updated by {@link #pendingFuturesUpdater}.
+     */
+    @Nullable
+    private volatile RequestLogFuture pendingFutures;
     @Nullable
     private UnmodifiableFuture<RequestLog> partiallyCompletedFuture;
     @Nullable
@@ -358,14 +367,11 @@ final class DefaultRequestLog implements RequestLog, RequestLogBuilder {
         if (hasInterestedFlags(flags, interestedFlags)) {
             future = completedFuture(flags);
         } else {
-            final RequestLogFuture[] satisfiedFutures;
             final RequestLogFuture newFuture = new RequestLogFuture(interestedFlags);
-            synchronized (pendingFutures) {
-                pendingFutures.add(newFuture);
-                satisfiedFutures = removeSatisfiedFutures();
-            }
-            if (satisfiedFutures != null) {
-                completeSatisfiedFutures(satisfiedFutures, partial(flags));
+            addPendingFuture(newFuture);
+            if (this.flags != flags) {
+                // The flags have been updated while adding the future.
+                completeSatisfiedFutures();
             }
 
             future = newFuture;
@@ -403,53 +409,83 @@ final class DefaultRequestLog implements RequestLog, RequestLogBuilder {
             }
 
             if (flagsUpdater.compareAndSet(this, oldFlags, newFlags)) {
-                final RequestLogFuture[] satisfiedFutures;
-                synchronized (pendingFutures) {
-                    satisfiedFutures = removeSatisfiedFutures();
-                }
-                if (satisfiedFutures != null) {
-                    final RequestLog log = partial(newFlags);
-                    completeSatisfiedFutures(satisfiedFutures, log);
-                }
+                completeSatisfiedFutures();
                 break;
             }
         }
     }
 
-    private static void completeSatisfiedFutures(RequestLogFuture[] satisfiedFutures, RequestLog log) {
-        for (RequestLogFuture f : satisfiedFutures) {
-            if (f == null) {
+    private void addPendingFuture(RequestLogFuture future) {
+        for (;;) {
+            final RequestLogFuture oldPendingFutures = pendingFutures;
+            future.next = oldPendingFutures;
+            if (pendingFuturesUpdater.compareAndSet(this, oldPendingFutures, future)) {
                 break;
             }
-            f.completeLog(log);
         }
     }
 
-    @Nullable
-    private RequestLogFuture[] removeSatisfiedFutures() {
-        if (pendingFutures.isEmpty()) {
-            return null;
-        }
+    /**
+     * Completes the pending {@link RequestLogFuture}s satisfied by the current {@link #flags} in the order
+     * they were added. The pending futures are detached from {@link #pendingFutures} and the unsatisfied ones
+     * are pushed back, so that no lock is required. If the flags are updated while the futures are detached,
+     * the futures are checked again because the thread which updated the flags could not see them.
+     */
+    private void completeSatisfiedFutures() {
+        for (;;) {
+            RequestLogFuture f = pendingFuturesUpdater.getAndSet(this, null);
+            if (f == null) {
+                return;
+            }
 
-        final int flags = this.flags;
-        final int maxNumListeners = pendingFutures.size();
-        final Iterator<RequestLogFuture> i = pendingFutures.iterator();
-        RequestLogFuture[] satisfied = null;
-        int numSatisfied = 0;
-
-        do {
-            final RequestLogFuture e = i.next();
-            final int interestedFlags = e.interestedFlags;
-            if ((flags & interestedFlags) == interestedFlags) {
-                i.remove();
-                if (satisfied == null) {
-                    satisfied = new RequestLogFuture[maxNumListeners];
+            final int flags = this.flags;
+
+            // Reverse the stack to complete the futures in the order they were added.
+            RequestLogFuture reversed = null;
+            do {
+                final RequestLogFuture next = f.next;
+                f.next = reversed;
+                reversed = f;
+                f = next;
+            } while (f != null);
+
+            RequestLog log = null;
+            RequestLogFuture unsatisfiedTop = null;
+            RequestLogFuture unsatisfiedBottom = null;
+            for (f = reversed; f != null;) {
+                final RequestLogFuture next = f.next;
+                if (hasInterestedFlags(flags, f.interestedFlags)) {
+                    f.next = null;
+                    if (log == null) {
+                        log = partial(flags);
+                    }
+                    f.completeLog(log);
+                } else {
+                    f.next = unsatisfiedTop;
+                    unsatisfiedTop = f;
+                    if (unsatisfiedBottom == null) {
+                        unsatisfiedBottom = f;
+                    }
+                }
+                f = next;
+            }
+
+            if (unsatisfiedTop == null) {
+                return;
+            }
+
+            for (;;) {
+                final RequestLogFuture oldPendingFutures = pendingFutures;
+                unsatisfiedBottom.next = oldPendingFutures;
+                if (pendingFuturesUpdater.compareAndSet(this, oldPendingFutures, unsatisfiedTop)) {
+                    break;
                 }
-                satisfied[numSatisfied++] = e;
             }
-        } while (i.hasNext());
 
-        return satisfied;
+            if (this.flags == flags) {
+                return;
+            }
+        }
     }
 
     // Methods related with deferred properties
@@ -586,6 +622,15 @@ final class DefaultRequestLog implements RequestLog, RequestLogBuilder {
         propagateResponseSideLog(lastChild.partial());
     }
 
+    @Override
+    public void endResponseWithChild(RequestLogAccess child) {
+        requireNonNull(child, "child");
+        checkState(!hasLastChild, "last child is already added");
+        checkState(children != null && children.contains(child), "child is not added: %s", child);
+        hasLastChild = true;
+        propagateResponseSideLog(child.partial());
+    }
+
     private void propagateResponseSideLog(RequestLog lastChild) {
         // Update the available properties without adding a callback if the lastChild already has them.
         if (lastChild.isAvailable(RequestLogProperty.RESPONSE_START_TIME)) {
@@ -1653,6 +1698,8 @@ final class DefaultRequestLog implements RequestLog, RequestLogBuilder {
     private static final class RequestLogFuture extends EventLoopCheckingFuture<RequestLog> {
 
         final int interestedFlags;
+        @Nullable
+        RequestLogFuture next;
 
         RequestLogFuture(int interestedFlags) {
             this.interestedFlags = interestedFlags;
@@ -421,4 +421,12 @@ public interface RequestLogBuilder extends RequestLogAccess {
      * in the child log will be propagated immediately.
      */
     void endResponseWithLastChild();
+
+    /**
+     * Fills the response-side logs from the specified {@code child}, which must have been added via
+     * {@link #addChild(RequestLogAccess)}. This is useful when the child that completed the request is not
+     * necessarily the last one, e.g. when multiple attempts were in flight concurrently.
+     * Note that already collected properties in the child log will be propagated immediately.
+     */
+    void endResponseWithChild(RequestLogAccess child);
 }
@@ -25,6 +25,7 @@ import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.CompletionHandler;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -41,6 +42,7 @@ import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.annotation.Nullable;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.util.concurrent.EventExecutor;
 
 /**
@@ -51,6 +53,13 @@ final class AsyncFileWriter implements Subscriber<HttpData>,
 
     private static final Logger logger = LoggerFactory.getLogger(AsyncFileWriter.class);
 
+    /**
+     * The maximum number of bytes to buffer while a write is in progress. The buffered {@link HttpData}s are
+     * merged and written at once, so that a stream of small {@link HttpData}s does not submit a task to
+     * the blocking task executor for each {@link HttpData}.
+     */
+    private static final int MAX_PENDING_BYTES = 64 * 1024;
+
     private final CompletableFuture<Void> completionFuture = new CompletableFuture<>();
     private final Path path;
     private final EventExecutor eventExecutor;
@@ -63,7 +72,10 @@ final class AsyncFileWriter implements Subscriber<HttpData>,
     private Subscription subscription;
 
     // state
+    private final ArrayDeque<HttpData> pendingData = new ArrayDeque<>();
+    private int pendingBytes;
     private long position;
+    private boolean requested;
     private boolean writing;
     private boolean closing;
 
@@ -88,24 +100,75 @@ final class AsyncFileWriter implements Subscriber<HttpData>,
             return;
         }
 
+        request();
+    }
+
+    private void request() {
+        assert subscription != null;
+        requested = true;
         subscription.request(1);
     }
 
     @Override
     public void onNext(HttpData httpData) {
+        requested = false;
+        if (completionFuture.isDone()) {
+            httpData.close();
+            return;
+        }
+
         if (httpData.isEmpty()) {
             httpData.close();
-            subscription.request(1);
+            request();
+            return;
+        }
+
+        if (writing) {
+            // Buffer the data until the current write is done.
+            pendingData.add(httpData);
+            pendingBytes += httpData.length();
+            if (pendingBytes < MAX_PENDING_BYTES) {
+                request();
+            }
+            return;
+        }
+
+        write(httpData.byteBuf());
+        if (!completionFuture.isDone()) {
+            // Receive the next data while writing.
+            request();
+        }
+    }
+
+    private void write(ByteBuf byteBuf) {
+        final ByteBuffer byteBuffer = byteBuf.nioBuffer();
+        writing = true;
+        try {
+            fileChannel.write(byteBuffer, position, Maps.immutableEntry(byteBuffer, byteBuf), this);
+        } catch (Throwable ex) {
+            byteBuf.release();
+            maybeCloseFileChannel(ex, false);
+        }
+    }
+
+    private void writePendingData() {
+        final ByteBuf byteBuf;
+        if (pendingData.size() == 1) {
+            byteBuf = pendingData.poll().byteBuf();
         } else {
-            final ByteBuf byteBuf = httpData.byteBuf();
-            final ByteBuffer byteBuffer = byteBuf.nioBuffer();
-            writing = true;
-            try {
-                fileChannel.write(byteBuffer, position, Maps.immutableEntry(byteBuffer, byteBuf), this);
-            } catch (Throwable ex) {
-                maybeCloseFileChannel(ex, false);
+            byteBuf = ByteBufAllocator.DEFAULT.directBuffer(pendingBytes);
+            for (;;) {
+                final HttpData data = pendingData.poll();
+                if (data == null) {
+                    break;
+                }
+                final ByteBuf buf = data.byteBuf();
+                byteBuf.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+                data.close();
             }
         }
+        pendingBytes = 0;
+        write(byteBuf);
     }
 
     @Override
@@ -143,12 +206,19 @@ final class AsyncFileWriter implements Subscriber<HttpData>,
                     }
                 } else {
                     byteBuf.release();
-                    writing = false;
+                    if (!pendingData.isEmpty()) {
+                        writePendingData();
+                        if (!requested && !closing && !completionFuture.isDone()) {
+                            request();
+                        }
+                        return;
+                    }
 
+                    writing = false;
                     if (closing) {
                         maybeCloseFileChannel(null, false);
-                    } else {
-                        subscription.request(1);
+                    } else if (!requested) {
+                        request();
                     }
                 }
             } else {
@@ -164,9 +234,11 @@ final class AsyncFileWriter implements Subscriber<HttpData>,
     @Override
     public void failed(Throwable cause, Entry<ByteBuffer, ByteBuf> attachment) {
         assert subscription != null;
-        subscription.cancel();
-        attachment.getValue().release();
-        maybeCloseFileChannel(cause, false);
+        eventExecutor.execute(() -> {
+            subscription.cancel();
+            attachment.getValue().release();
+            maybeCloseFileChannel(cause, false);
+        });
     }
 
     private void maybeCloseFileChannel(@Nullable Throwable cause, boolean onError) {
@@ -174,6 +246,15 @@ final class AsyncFileWriter implements Subscriber<HttpData>,
             return;
         }
 
+        for (;;) {
+            final HttpData data = pendingData.poll();
+            if (data == null) {
+                break;
+            }
+            data.close();
+        }
+        pendingBytes = 0;
+
         if (cause == null) {
             completionFuture.complete(null);
         } else {
@@ -26,8 +26,12 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.linecorp.armeria.common.CommonPools;
 import com.linecorp.armeria.common.Flags;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 
 /**
  * A builder that is useful for creating a {@link ScheduledExecutorService}.
@@ -37,12 +41,15 @@ import com.linecorp.armeria.common.Flags;
  */
 public final class BlockingTaskExecutorBuilder {
 
+    private static final Logger logger = LoggerFactory.getLogger(BlockingTaskExecutorBuilder.class);
+
     private String threadNamePrefix = "armeria-blocking-tasks";
     private int numThreads = Flags.numCommonBlockingTaskThreads();
     private long keepAliveTimeMillis = 60 * 1000;
     private boolean daemon = true;
     private int priority = Thread.NORM_PRIORITY;
     private Function<? super Runnable, ? extends Runnable> taskFunction = Function.identity();
+    private boolean useVirtualThreads = Flags.useVirtualThreadBlockingTaskExecutor();
 
     BlockingTaskExecutorBuilder() {}
 
@@ -124,10 +131,32 @@ public final class BlockingTaskExecutorBuilder {
         return this;
     }
 
+    /**
+     * Sets whether to run each task in a new virtual thread instead of a thread pool.
+     * If enabled, {@link #numThreads(int)}, {@link #keepAliveTimeMillis(long)} and {@link #daemon(boolean)}
+     * are ignored. Note that virtual threads require Java 21 or above. A thread pool is used instead if
+     * virtual threads are not available.
+     *
+     * <p>The default value of this option is {@link Flags#useVirtualThreadBlockingTaskExecutor()}.
+     */
+    @UnstableApi
+    public BlockingTaskExecutorBuilder useVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+        return this;
+    }
+
     /**
      * Returns a newly-created {@link BlockingTaskExecutor} with the properties given so far.
      */
     public BlockingTaskExecutor build() {
+        if (useVirtualThreads) {
+            if (VirtualThreadBlockingTaskExecutor.isAvailable()) {
+                return new VirtualThreadBlockingTaskExecutor(threadNamePrefix, priority, taskFunction);
+            }
+            logger.warn("Virtual threads are not available in Java {}; using a thread pool for '{}'",
+                        SystemInfo.javaVersion(), threadNamePrefix);
+        }
+
         final ThreadFactory threadFactory = ThreadFactories.builder(threadNamePrefix)
                                                            .daemon(daemon)
                                                            .priority(priority)
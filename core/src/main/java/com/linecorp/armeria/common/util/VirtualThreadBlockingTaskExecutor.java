@@ -0,0 +1,365 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.util;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * A {@link BlockingTaskExecutor} which runs each task in a new virtual thread. The delayed and periodic
+ * tasks are timed by a single platform thread and handed off to a new virtual thread when they are due.
+ * Virtual threads are available since Java 21, so they are created reflectively.
+ */
+final class VirtualThreadBlockingTaskExecutor implements BlockingTaskExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadBlockingTaskExecutor.class);
+
+    @Nullable
+    private static final MethodHandle OF_VIRTUAL;
+    @Nullable
+    private static final MethodHandle NAME;
+    @Nullable
+    private static final MethodHandle FACTORY;
+    @Nullable
+    private static final MethodHandle NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle name = null;
+        MethodHandle factory = null;
+        MethodHandle newThreadPerTaskExecutor = null;
+        if (SystemInfo.javaVersion() >= 21) {
+            try {
+                final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                final Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+                ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+                name = lookup.findVirtual(builderClass, "name",
+                                          MethodType.methodType(builderClass, String.class, long.class));
+                factory = lookup.findVirtual(builderClass, "factory",
+                                             MethodType.methodType(ThreadFactory.class));
+                newThreadPerTaskExecutor = lookup.findStatic(
+                        Executors.class, "newThreadPerTaskExecutor",
+                        MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+                // Make sure that virtual threads are not disabled.
+                newVirtualThreadFactory(ofVirtual, name, factory, "armeria-");
+            } catch (Throwable cause) {
+                logger.debug("Failed to find the virtual thread API:", cause);
+                ofVirtual = null;
+                name = null;
+                factory = null;
+                newThreadPerTaskExecutor = null;
+            }
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private static ThreadFactory newVirtualThreadFactory(MethodHandle ofVirtual, MethodHandle name,
+                                                         MethodHandle factory, String prefix)
+            throws Throwable {
+        // Thread.ofVirtual().name(prefix, 0).factory()
+        final Object builder = name.invoke(ofVirtual.invoke(), prefix, 0L);
+        return (ThreadFactory) factory.invoke(builder);
+    }
+
+    /**
+     * Returns whether virtual threads are available in the current Java Virtual Machine.
+     */
+    static boolean isAvailable() {
+        return NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    private final ExecutorService taskExecutor;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    VirtualThreadBlockingTaskExecutor(String threadNamePrefix, int priority,
+                                      Function<? super Runnable, ? extends Runnable> taskFunction) {
+        requireNonNull(threadNamePrefix, "threadNamePrefix");
+        requireNonNull(taskFunction, "taskFunction");
+        if (!isAvailable()) {
+            throw new IllegalStateException("Virtual threads are not available. (Java 21 or above required)");
+        }
+        assert OF_VIRTUAL != null && NAME != null && FACTORY != null;
+        assert NEW_THREAD_PER_TASK_EXECUTOR != null;
+
+        final String prefix = threadNamePrefix.endsWith("-") ? threadNamePrefix : threadNamePrefix + '-';
+        try {
+            final ThreadFactory virtualThreadFactory =
+                    newVirtualThreadFactory(OF_VIRTUAL, NAME, FACTORY, prefix);
+            final ThreadFactory threadFactory =
+                    task -> virtualThreadFactory.newThread(taskFunction.apply(task));
+            taskExecutor = (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(threadFactory);
+        } catch (Throwable cause) {
+            throw new IllegalStateException("failed to create a virtual thread executor", cause);
+        }
+
+        scheduler = new ScheduledThreadPoolExecutor(
+                1, ThreadFactories.builder(prefix + "scheduler")
+                                  .daemon(true)
+                                  .priority(priority)
+                                  .build());
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        taskExecutor.execute(command);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return taskExecutor.submit(task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        return taskExecutor.submit(task, result);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return taskExecutor.submit(task);
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+            throws InterruptedException {
+        return taskExecutor.invokeAll(tasks);
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout,
+                                         TimeUnit unit) throws InterruptedException {
+        return taskExecutor.invokeAll(tasks, timeout, unit);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+            throws InterruptedException, ExecutionException {
+        return taskExecutor.invokeAny(tasks);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return taskExecutor.invokeAny(tasks, timeout, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        requireNonNull(command, "command");
+        return schedule(Executors.callable(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        requireNonNull(callable, "callable");
+        requireNonNull(unit, "unit");
+        final HandOffFuture<V> future = new HandOffFuture<>();
+        future.timer = scheduler.schedule(() -> handOff(future, callable), delay, unit);
+        return future;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+                                                  TimeUnit unit) {
+        requireNonNull(command, "command");
+        requireNonNull(unit, "unit");
+        if (period <= 0) {
+            throw new IllegalArgumentException("period: " + period + " (expected: > 0)");
+        }
+        final PeriodicTask task = new PeriodicTask(command, unit.toNanos(period), true);
+        task.scheduleNext(unit.toNanos(initialDelay));
+        return task.future;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+                                                     TimeUnit unit) {
+        requireNonNull(command, "command");
+        requireNonNull(unit, "unit");
+        if (delay <= 0) {
+            throw new IllegalArgumentException("delay: " + delay + " (expected: > 0)");
+        }
+        final PeriodicTask task = new PeriodicTask(command, unit.toNanos(delay), false);
+        task.scheduleNext(unit.toNanos(initialDelay));
+        return task.future;
+    }
+
+    private <V> void handOff(HandOffFuture<V> future, Callable<V> callable) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    future.complete(callable.call());
+                } catch (Throwable cause) {
+                    future.completeExceptionally(cause);
+                }
+            });
+        } catch (Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        scheduler.shutdown();
+        taskExecutor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> tasks = new ArrayList<>(scheduler.shutdownNow());
+        tasks.addAll(taskExecutor.shutdownNow());
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return taskExecutor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return scheduler.isTerminated() && taskExecutor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!scheduler.awaitTermination(timeout, unit)) {
+            return false;
+        }
+        return taskExecutor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private final class PeriodicTask implements Runnable {
+
+        private final HandOffFuture<Void> future = new HandOffFuture<>();
+        private final Runnable command;
+        private final long periodNanos;
+        private final boolean fixedRate;
+        private long nextRunTimeNanos;
+
+        PeriodicTask(Runnable command, long periodNanos, boolean fixedRate) {
+            this.command = command;
+            this.periodNanos = periodNanos;
+            this.fixedRate = fixedRate;
+        }
+
+        void scheduleNext(long delayNanos) {
+            if (future.isDone()) {
+                return;
+            }
+            nextRunTimeNanos = System.nanoTime() + delayNanos;
+            try {
+                future.timer = scheduler.schedule(() -> {
+                    try {
+                        taskExecutor.execute(this);
+                    } catch (Throwable cause) {
+                        future.completeExceptionally(cause);
+                    }
+                }, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (Throwable cause) {
+                future.completeExceptionally(cause);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                command.run();
+            } catch (Throwable cause) {
+                // Suppress the subsequent executions as ScheduledThreadPoolExecutor does.
+                future.completeExceptionally(cause);
+                return;
+            }
+            if (fixedRate) {
+                // Subsequent executions may start late, but will not concurrently execute.
+                scheduleNext(Math.max(0, nextRunTimeNanos + periodNanos - System.nanoTime()));
+            } else {
+                scheduleNext(periodNanos);
+            }
+        }
+    }
+
+    /**
+     * A {@link ScheduledFuture} whose delay is determined by the timer in the scheduler and whose result is
+     * set by the virtual thread which runs the task.
+     */
+    private static final class HandOffFuture<V> extends CompletableFuture<V> implements ScheduledFuture<V> {
+
+        @Nullable
+        volatile ScheduledFuture<?> timer;
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            final ScheduledFuture<?> timer = this.timer;
+            return timer != null ? timer.getDelay(unit) : 0;
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            if (o == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            final ScheduledFuture<?> timer = this.timer;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            return cancelled;
+        }
+    }
+}
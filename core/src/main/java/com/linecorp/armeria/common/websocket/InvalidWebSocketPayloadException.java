@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.websocket;
+
+import com.linecorp.armeria.common.Flags;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * A {@link RuntimeException} raised when a remote peer sent a WebSocket frame whose payload is not consistent
+ * with its type, e.g. a text frame which is not valid UTF-8. A WebSocket session is closed with
+ * {@link WebSocketFrame#INVALID_FRAME_PAYLOAD_DATA} when this exception is raised.
+ */
+public final class InvalidWebSocketPayloadException extends RuntimeException {
+
+    private static final long serialVersionUID = -2936420862512781573L;
+
+    /**
+     * Creates a new instance with the specified {@code message}.
+     */
+    public InvalidWebSocketPayloadException(@Nullable String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        if (Flags.verboseExceptionSampler().isSampled(getClass())) {
+            super.fillInStackTrace();
+        }
+        return this;
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.websocket;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * A <a href="https://datatracker.ietf.org/doc/html/rfc6455#section-5">WebSocket frame</a>.
+ * A {@link WebSocketFrame} is immutable and does not hold a pooled buffer, so it does not need to be
+ * released.
+ */
+public final class WebSocketFrame {
+
+    /**
+     * The maximum length of the payload of a control frame.
+     */
+    public static final int MAX_CONTROL_FRAME_PAYLOAD_LENGTH = 125;
+
+    /**
+     * The close code which indicates a normal closure.
+     */
+    public static final int NORMAL_CLOSURE = 1000;
+
+    /**
+     * The close code which indicates that an endpoint is going away.
+     */
+    public static final int GOING_AWAY = 1001;
+
+    /**
+     * The close code which indicates that an endpoint terminates the connection due to a protocol error.
+     */
+    public static final int PROTOCOL_ERROR = 1002;
+
+    /**
+     * The close code which indicates that an endpoint received a message whose data is not consistent
+     * with its type, e.g. a text message which is not valid UTF-8.
+     */
+    public static final int INVALID_FRAME_PAYLOAD_DATA = 1007;
+
+    /**
+     * The close code which indicates that an endpoint received a message that is too big to process.
+     */
+    public static final int MESSAGE_TOO_BIG = 1009;
+
+    private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+    private static final WebSocketFrame EMPTY_CLOSE =
+            new WebSocketFrame(WebSocketFrameType.CLOSE, true, EMPTY_PAYLOAD);
+
+    private static final WebSocketFrame EMPTY_PING =
+            new WebSocketFrame(WebSocketFrameType.PING, true, EMPTY_PAYLOAD);
+
+    private static final WebSocketFrame EMPTY_PONG =
+            new WebSocketFrame(WebSocketFrameType.PONG, true, EMPTY_PAYLOAD);
+
+    /**
+     * Returns a new final text {@link WebSocketFrame} with the specified {@code text}.
+     */
+    public static WebSocketFrame ofText(String text) {
+        return ofText(text, true);
+    }
+
+    /**
+     * Returns a new text {@link WebSocketFrame} with the specified {@code text}.
+     *
+     * @param finalFragment whether the frame is the final fragment of a message
+     */
+    public static WebSocketFrame ofText(String text, boolean finalFragment) {
+        requireNonNull(text, "text");
+        return new WebSocketFrame(WebSocketFrameType.TEXT, finalFragment,
+                                  text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a new text {@link WebSocketFrame} with the specified UTF-8 encoded {@code payload}.
+     * Note that the {@code payload} is neither copied nor validated.
+     *
+     * @param finalFragment whether the frame is the final fragment of a message
+     */
+    public static WebSocketFrame ofText(byte[] payload, boolean finalFragment) {
+        return new WebSocketFrame(WebSocketFrameType.TEXT, finalFragment,
+                                  requireNonNull(payload, "payload"));
+    }
+
+    /**
+     * Returns a new final binary {@link WebSocketFrame} with the specified {@code payload}.
+     * Note that the {@code payload} is not copied.
+     */
+    public static WebSocketFrame ofBinary(byte[] payload) {
+        return ofBinary(payload, true);
+    }
+
+    /**
+     * Returns a new binary {@link WebSocketFrame} with the specified {@code payload}.
+     * Note that the {@code payload} is not copied.
+     *
+     * @param finalFragment whether the frame is the final fragment of a message
+     */
+    public static WebSocketFrame ofBinary(byte[] payload, boolean finalFragment) {
+        return new WebSocketFrame(WebSocketFrameType.BINARY, finalFragment,
+                                  requireNonNull(payload, "payload"));
+    }
+
+    /**
+     * Returns a new continuation {@link WebSocketFrame} with the specified {@code payload}.
+     * Note that the {@code payload} is not copied.
+     *
+     * @param finalFragment whether the frame is the final fragment of a message
+     */
+    public static WebSocketFrame ofContinuation(byte[] payload, boolean finalFragment) {
+        return new WebSocketFrame(WebSocketFrameType.CONTINUATION, finalFragment,
+                                  requireNonNull(payload, "payload"));
+    }
+
+    /**
+     * Returns a ping {@link WebSocketFrame} without payload.
+     */
+    public static WebSocketFrame ofPing() {
+        return EMPTY_PING;
+    }
+
+    /**
+     * Returns a new ping {@link WebSocketFrame} with the specified {@code payload}.
+     *
+     * @throws IllegalArgumentException if the {@code payload} is longer than
+     *                                  {@value #MAX_CONTROL_FRAME_PAYLOAD_LENGTH} bytes
+     */
+    public static WebSocketFrame ofPing(byte[] payload) {
+        return ofControl(WebSocketFrameType.PING, payload);
+    }
+
+    /**
+     * Returns a pong {@link WebSocketFrame} without payload.
+     */
+    public static WebSocketFrame ofPong() {
+        return EMPTY_PONG;
+    }
+
+    /**
+     * Returns a new pong {@link WebSocketFrame} with the specified {@code payload}.
+     *
+     * @throws IllegalArgumentException if the {@code payload} is longer than
+     *                                  {@value #MAX_CONTROL_FRAME_PAYLOAD_LENGTH} bytes
+     */
+    public static WebSocketFrame ofPong(byte[] payload) {
+        return ofControl(WebSocketFrameType.PONG, payload);
+    }
+
+    /**
+     * Returns a close {@link WebSocketFrame} without a close code.
+     */
+    public static WebSocketFrame ofClose() {
+        return EMPTY_CLOSE;
+    }
+
+    /**
+     * Returns a new close {@link WebSocketFrame} with the specified close {@code code} and {@code reason}.
+     *
+     * @throws IllegalArgumentException if the {@code code} is out of range or the {@code reason} is too long
+     */
+    public static WebSocketFrame ofClose(int code, String reason) {
+        checkArgument(code >= 1000 && code < 5000, "code: %s (expected: 1000 <= code < 5000)", code);
+        requireNonNull(reason, "reason");
+        final byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+        final byte[] payload = new byte[reasonBytes.length + 2];
+        payload[0] = (byte) (code >>> 8);
+        payload[1] = (byte) code;
+        System.arraycopy(reasonBytes, 0, payload, 2, reasonBytes.length);
+        return ofControl(WebSocketFrameType.CLOSE, payload);
+    }
+
+    private static WebSocketFrame ofControl(WebSocketFrameType type, byte[] payload) {
+        requireNonNull(payload, "payload");
+        checkArgument(payload.length <= MAX_CONTROL_FRAME_PAYLOAD_LENGTH,
+                      "payload.length: %s (expected: <= %s)",
+                      payload.length, MAX_CONTROL_FRAME_PAYLOAD_LENGTH);
+        return new WebSocketFrame(type, true, payload);
+    }
+
+    private final WebSocketFrameType type;
+    private final boolean finalFragment;
+    private final byte[] payload;
+
+    private WebSocketFrame(WebSocketFrameType type, boolean finalFragment, byte[] payload) {
+        this.type = type;
+        this.finalFragment = finalFragment;
+        this.payload = payload;
+    }
+
+    /**
+     * Returns the {@link WebSocketFrameType} of this frame.
+     */
+    public WebSocketFrameType type() {
+        return type;
+    }
+
+    /**
+     * Returns whether this frame is the final fragment of a message.
+     */
+    public boolean isFinalFragment() {
+        return finalFragment;
+    }
+
+    /**
+     * Returns the underlying byte array of the payload. Do not modify the content of the returned array.
+     */
+    public byte[] array() {
+        return payload;
+    }
+
+    /**
+     * Returns the length of the payload.
+     */
+    public int length() {
+        return payload.length;
+    }
+
+    /**
+     * Decodes the payload of this frame as UTF-8 text.
+     */
+    public String text() {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the close code of this close frame, or {@code -1} if this frame does not have a close code.
+     *
+     * @throws IllegalStateException if this frame is not a {@link WebSocketFrameType#CLOSE} frame
+     */
+    public int closeCode() {
+        checkState(type == WebSocketFrameType.CLOSE, "not a close frame: %s", type);
+        if (payload.length < 2) {
+            return -1;
+        }
+        return (payload[0] & 0xFF) << 8 | payload[1] & 0xFF;
+    }
+
+    /**
+     * Returns the close reason of this close frame, or {@code null} if this frame does not have a close code.
+     *
+     * @throws IllegalStateException if this frame is not a {@link WebSocketFrameType#CLOSE} frame
+     */
+    @Nullable
+    public String closeReason() {
+        checkState(type == WebSocketFrameType.CLOSE, "not a close frame: %s", type);
+        if (payload.length < 2) {
+            return null;
+        }
+        return new String(payload, 2, payload.length - 2, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WebSocketFrame)) {
+            return false;
+        }
+        final WebSocketFrame that = (WebSocketFrame) o;
+        return type == that.type && finalFragment == that.finalFragment &&
+               Arrays.equals(payload, that.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return (type.hashCode() * 31 + Boolean.hashCode(finalFragment)) * 31 + Arrays.hashCode(payload);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("type", type)
+                          .add("finalFragment", finalFragment)
+                          .add("length", payload.length)
+                          .toString();
+    }
+}
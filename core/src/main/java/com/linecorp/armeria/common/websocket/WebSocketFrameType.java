@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.websocket;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * The type of a {@link WebSocketFrame}, as defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc6455#section-5.2">RFC 6455, Section 5.2</a>.
+ */
+public enum WebSocketFrameType {
+
+    /**
+     * A continuation frame which carries a fragment of a text or binary message.
+     */
+    CONTINUATION(0x0),
+
+    /**
+     * A text frame whose payload is UTF-8 encoded text.
+     */
+    TEXT(0x1),
+
+    /**
+     * A binary frame.
+     */
+    BINARY(0x2),
+
+    /**
+     * A close frame which initiates or completes the closing handshake.
+     */
+    CLOSE(0x8),
+
+    /**
+     * A ping frame.
+     */
+    PING(0x9),
+
+    /**
+     * A pong frame which is sent in response to a {@link #PING} frame.
+     */
+    PONG(0xA);
+
+    private static final WebSocketFrameType[] OPCODE_TO_TYPE = new WebSocketFrameType[16];
+
+    static {
+        for (WebSocketFrameType type : values()) {
+            OPCODE_TO_TYPE[type.opcode] = type;
+        }
+    }
+
+    /**
+     * Returns the {@link WebSocketFrameType} of the specified {@code opcode}, or {@code null} if
+     * the {@code opcode} is reserved or unknown.
+     */
+    @Nullable
+    public static WebSocketFrameType ofOpcode(int opcode) {
+        if (opcode < 0 || opcode >= OPCODE_TO_TYPE.length) {
+            return null;
+        }
+        return OPCODE_TO_TYPE[opcode];
+    }
+
+    private final int opcode;
+
+    WebSocketFrameType(int opcode) {
+        this.opcode = opcode;
+    }
+
+    /**
+     * Returns the opcode of this type.
+     */
+    public int opcode() {
+        return opcode;
+    }
+
+    /**
+     * Returns whether this type is a control frame type, i.e. {@link #CLOSE}, {@link #PING} or
+     * {@link #PONG}.
+     */
+    public boolean isControl() {
+        return (opcode & 0x8) != 0;
+    }
+}
@@ -63,6 +63,7 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
     private ScheduledFuture<?> connectionIdleTimeout;
     private final long connectionIdleTimeNanos;
     private long lastConnectionIdleTime;
+    private boolean closedByIdleTimeout;
 
     @Nullable
     private ScheduledFuture<?> pingIdleTimeout;
@@ -199,6 +200,11 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
         return pingState == PingState.SHUTDOWN;
     }
 
+    @Override
+    public final boolean isClosedByIdleTimeout() {
+        return closedByIdleTimeout;
+    }
+
     @Override
     public final boolean needToCloseConnection() {
         return isMaxConnectionAgeExceeded || (currentNumRequests > 0 && currentNumRequests >=
@@ -356,6 +362,7 @@ public abstract class AbstractKeepAliveHandler implements KeepAliveHandler {
                 try {
                     if (!hasRequestsInProgress(ctx)) {
                         pingState = PingState.SHUTDOWN;
+                        closedByIdleTimeout = true;
                         logger.debug("{} Closing an idle {} connection", ctx.channel(), name);
                         ctx.channel().close();
                     }
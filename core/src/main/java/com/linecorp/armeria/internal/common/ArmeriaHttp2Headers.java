@@ -28,6 +28,10 @@ import java.util.function.Consumer;
 import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.HttpHeadersBuilder;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.ResponseHeadersBuilder;
 import com.linecorp.armeria.common.annotation.Nullable;
 
 import io.netty.handler.codec.Headers;
@@ -41,29 +45,72 @@ class ArmeriaHttp2Headers implements Http2Headers {
         return (T) obj;
     }
 
-    private final HttpHeadersBuilder delegate;
+    /**
+     * The {@link HttpHeadersBuilder} which stores the headers. If {@code null}, the builder is created when
+     * the first header is added, so that its type is chosen from the name of the first header.
+     * See {@link #newDelegate(AsciiString)}.
+     */
+    @Nullable
+    private HttpHeadersBuilder delegate;
+    private int sizeHint;
 
-    ArmeriaHttp2Headers() {
-        this(HttpHeaders.builder());
-    }
+    ArmeriaHttp2Headers() {}
 
     ArmeriaHttp2Headers(HttpHeadersBuilder delegate) {
         this.delegate = delegate;
     }
 
     HttpHeadersBuilder delegate() {
+        HttpHeadersBuilder delegate = this.delegate;
+        if (delegate == null) {
+            this.delegate = delegate = newDelegate(null);
+        }
+        return delegate;
+    }
+
+    private HttpHeadersBuilder delegate(AsciiString firstName) {
+        HttpHeadersBuilder delegate = this.delegate;
+        if (delegate == null) {
+            this.delegate = delegate = newDelegate(firstName);
+        }
+        return delegate;
+    }
+
+    /**
+     * Creates a new {@link HttpHeadersBuilder} whose type matches the specified name of the first header.
+     * Because all pseudo-headers must appear before regular headers in a header block, the first header tells
+     * whether the headers being decoded are request headers, response headers or trailers. Decoding into
+     * a {@link RequestHeadersBuilder} or a {@link ResponseHeadersBuilder} directly lets us build
+     * {@link RequestHeaders} or {@link ResponseHeaders} without wrapping an intermediate {@link HttpHeaders}.
+     */
+    private HttpHeadersBuilder newDelegate(@Nullable AsciiString firstName) {
+        final HttpHeadersBuilder delegate;
+        if (firstName == null || firstName.isEmpty() || firstName.charAt(0) != ':') {
+            delegate = HttpHeaders.builder();
+        } else if (HttpHeaderNames.STATUS.equals(firstName)) {
+            delegate = ResponseHeaders.builder();
+        } else {
+            delegate = RequestHeaders.builder();
+        }
+        if (sizeHint > 0) {
+            delegate.sizeHint(sizeHint);
+        }
         return delegate;
     }
 
     ArmeriaHttp2Headers sizeHint(int sizeHint) {
-        delegate.sizeHint(sizeHint);
+        if (delegate == null) {
+            this.sizeHint = sizeHint;
+        } else {
+            delegate.sizeHint(sizeHint);
+        }
         return this;
     }
 
     @Nullable
     @Override
     public CharSequence get(CharSequence name) {
-        return delegate.get(name);
+        return delegate().get(name);
     }
 
     @Override
@@ -74,7 +121,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public CharSequence getAndRemove(CharSequence name) {
-        return delegate.getAndRemove(name);
+        return delegate().getAndRemove(name);
     }
 
     @Override
@@ -84,23 +131,23 @@ class ArmeriaHttp2Headers implements Http2Headers {
 
     @Override
     public List<CharSequence> getAll(CharSequence name) {
-        return unsafeCast(delegate.getAll(name));
+        return unsafeCast(delegate().getAll(name));
     }
 
     @Override
     public List<CharSequence> getAllAndRemove(CharSequence name) {
-        return unsafeCast(delegate.getAllAndRemove(name));
+        return unsafeCast(delegate().getAllAndRemove(name));
     }
 
     @Nullable
     @Override
     public Boolean getBoolean(CharSequence name) {
-        return delegate.getBoolean(name);
+        return delegate().getBoolean(name);
     }
 
     @Override
     public boolean getBoolean(CharSequence name, boolean defaultValue) {
-        return delegate.getBoolean(name, defaultValue);
+        return delegate().getBoolean(name, defaultValue);
     }
 
     @Nullable
@@ -151,62 +198,62 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public Integer getInt(CharSequence name) {
-        return delegate.getInt(name);
+        return delegate().getInt(name);
     }
 
     @Override
     public int getInt(CharSequence name, int defaultValue) {
-        return delegate.getInt(name, defaultValue);
+        return delegate().getInt(name, defaultValue);
     }
 
     @Nullable
     @Override
     public Long getLong(CharSequence name) {
-        return delegate.getLong(name);
+        return delegate().getLong(name);
     }
 
     @Override
     public long getLong(CharSequence name, long defaultValue) {
-        return delegate.getLong(name, defaultValue);
+        return delegate().getLong(name, defaultValue);
     }
 
     @Nullable
     @Override
     public Float getFloat(CharSequence name) {
-        return delegate.getFloat(name);
+        return delegate().getFloat(name);
     }
 
     @Override
     public float getFloat(CharSequence name, float defaultValue) {
-        return delegate.getFloat(name, defaultValue);
+        return delegate().getFloat(name, defaultValue);
     }
 
     @Nullable
     @Override
     public Double getDouble(CharSequence name) {
-        return delegate.getDouble(name);
+        return delegate().getDouble(name);
     }
 
     @Override
     public double getDouble(CharSequence name, double defaultValue) {
-        return delegate.getDouble(name, defaultValue);
+        return delegate().getDouble(name, defaultValue);
     }
 
     @Nullable
     @Override
     public Long getTimeMillis(CharSequence name) {
-        return delegate.getTimeMillis(name);
+        return delegate().getTimeMillis(name);
     }
 
     @Override
     public long getTimeMillis(CharSequence name, long defaultValue) {
-        return delegate.getTimeMillis(name, defaultValue);
+        return delegate().getTimeMillis(name, defaultValue);
     }
 
     @Nullable
     @Override
     public Boolean getBooleanAndRemove(CharSequence name) {
-        final String value = delegate.getAndRemove(name);
+        final String value = delegate().getAndRemove(name);
         if (value != null) {
             return Boolean.parseBoolean(value);
         }
@@ -221,7 +268,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public Byte getByteAndRemove(CharSequence name) {
-        final Integer value = delegate.getIntAndRemove(name);
+        final Integer value = delegate().getIntAndRemove(name);
         if (value != null) {
             return value.byteValue();
         }
@@ -236,7 +283,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public Character getCharAndRemove(CharSequence name) {
-        final Integer value = delegate.getIntAndRemove(name);
+        final Integer value = delegate().getIntAndRemove(name);
         if (value != null) {
             return (char) value.intValue();
         }
@@ -251,7 +298,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public Short getShortAndRemove(CharSequence name) {
-        final Integer value = delegate.getIntAndRemove(name);
+        final Integer value = delegate().getIntAndRemove(name);
         if (value != null) {
             return value.shortValue();
         }
@@ -266,61 +313,61 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public Integer getIntAndRemove(CharSequence name) {
-        return delegate.getIntAndRemove(name);
+        return delegate().getIntAndRemove(name);
     }
 
     @Override
     public int getIntAndRemove(CharSequence name, int defaultValue) {
-        return delegate.getIntAndRemove(name, defaultValue);
+        return delegate().getIntAndRemove(name, defaultValue);
     }
 
     @Nullable
     @Override
     public Long getLongAndRemove(CharSequence name) {
-        return delegate.getLongAndRemove(name);
+        return delegate().getLongAndRemove(name);
     }
 
     @Override
     public long getLongAndRemove(CharSequence name, long defaultValue) {
-        return delegate.getLongAndRemove(name, defaultValue);
+        return delegate().getLongAndRemove(name, defaultValue);
     }
 
     @Nullable
     @Override
     public Float getFloatAndRemove(CharSequence name) {
-        return delegate.getFloatAndRemove(name);
+        return delegate().getFloatAndRemove(name);
     }
 
     @Override
     public float getFloatAndRemove(CharSequence name, float defaultValue) {
-        return delegate.getFloatAndRemove(name, defaultValue);
+        return delegate().getFloatAndRemove(name, defaultValue);
     }
 
     @Nullable
     @Override
     public Double getDoubleAndRemove(CharSequence name) {
-        return delegate.getDoubleAndRemove(name);
+        return delegate().getDoubleAndRemove(name);
     }
 
     @Override
     public double getDoubleAndRemove(CharSequence name, double defaultValue) {
-        return delegate.getDoubleAndRemove(name, defaultValue);
+        return delegate().getDoubleAndRemove(name, defaultValue);
     }
 
     @Nullable
     @Override
     public Long getTimeMillisAndRemove(CharSequence name) {
-        return delegate.getTimeMillisAndRemove(name);
+        return delegate().getTimeMillisAndRemove(name);
     }
 
     @Override
     public long getTimeMillisAndRemove(CharSequence name, long defaultValue) {
-        return delegate.getTimeMillisAndRemove(name, defaultValue);
+        return delegate().getTimeMillisAndRemove(name, defaultValue);
     }
 
     @Override
     public boolean contains(CharSequence name) {
-        return delegate.contains(name);
+        return delegate().contains(name);
     }
 
     @Override
@@ -330,7 +377,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
 
     @Override
     public boolean contains(CharSequence name, CharSequence value, boolean caseInsensitive) {
-        final List<String> values = delegate.getAll(name);
+        final List<String> values = delegate().getAll(name);
         if (values.isEmpty()) {
             return false;
         }
@@ -351,12 +398,12 @@ class ArmeriaHttp2Headers implements Http2Headers {
 
     @Override
     public boolean containsObject(CharSequence name, Object value) {
-        return delegate.containsObject(name, value);
+        return delegate().containsObject(name, value);
     }
 
     @Override
     public boolean containsBoolean(CharSequence name, boolean value) {
-        return delegate.containsBoolean(name, value);
+        return delegate().containsBoolean(name, value);
     }
 
     @Override
@@ -388,48 +435,48 @@ class ArmeriaHttp2Headers implements Http2Headers {
 
     @Override
     public boolean containsInt(CharSequence name, int value) {
-        return delegate.containsInt(name, value);
+        return delegate().containsInt(name, value);
     }
 
     @Override
     public boolean containsLong(CharSequence name, long value) {
-        return delegate.containsLong(name, value);
+        return delegate().containsLong(name, value);
     }
 
     @Override
     public boolean containsFloat(CharSequence name, float value) {
-        return delegate.containsFloat(name, value);
+        return delegate().containsFloat(name, value);
     }
 
     @Override
     public boolean containsDouble(CharSequence name, double value) {
-        return delegate.containsDouble(name, value);
+        return delegate().containsDouble(name, value);
     }
 
     @Override
     public boolean containsTimeMillis(CharSequence name, long value) {
-        return delegate.containsTimeMillis(name, value);
+        return delegate().containsTimeMillis(name, value);
     }
 
     @Override
     public int size() {
-        return delegate.size();
+        return delegate().size();
     }
 
     @Override
     public boolean isEmpty() {
-        return delegate.isEmpty();
+        return delegate().isEmpty();
     }
 
     @Override
     public Set<CharSequence> names() {
-        return unsafeCast(delegate.names());
+        return unsafeCast(delegate().names());
     }
 
     @Override
     public Http2Headers add(CharSequence name, CharSequence value) {
         final AsciiString headerName = HttpHeaderNames.of(name);
-        delegate.add(headerName, ArmeriaHttpUtil.convertHeaderValue(headerName, value));
+        delegate(headerName).add(headerName, ArmeriaHttpUtil.convertHeaderValue(headerName, value));
         return this;
     }
 
@@ -463,80 +510,80 @@ class ArmeriaHttp2Headers implements Http2Headers {
 
     @Override
     public Http2Headers addObject(CharSequence name, Object value) {
-        delegate.addObject(name, value);
+        delegate().addObject(name, value);
         return this;
     }
 
     @Override
     public Http2Headers addObject(CharSequence name, Iterable<?> values) {
-        delegate.addObject(name, values);
+        delegate().addObject(name, values);
         return this;
     }
 
     @Override
     public Http2Headers addObject(CharSequence name, Object... values) {
-        delegate.addObject(name, values);
+        delegate().addObject(name, values);
         return this;
     }
 
     @Override
     public Http2Headers addBoolean(CharSequence name, boolean value) {
-        delegate.add(name, String.valueOf(value));
+        delegate().add(name, String.valueOf(value));
         return this;
     }
 
     @Override
     public Http2Headers addByte(CharSequence name, byte value) {
-        delegate.addInt(name, value);
+        delegate().addInt(name, value);
         return this;
     }
 
     @Override
     public Http2Headers addChar(CharSequence name, char value) {
-        delegate.addInt(name, value);
+        delegate().addInt(name, value);
         return this;
     }
 
     @Override
     public Http2Headers addShort(CharSequence name, short value) {
-        delegate.addInt(name, value);
+        delegate().addInt(name, value);
         return this;
     }
 
     @Override
     public Http2Headers addInt(CharSequence name, int value) {
-        delegate.addInt(name, value);
+        delegate().addInt(name, value);
         return this;
     }
 
     @Override
     public Http2Headers addLong(CharSequence name, long value) {
-        delegate.addLong(name, value);
+        delegate().addLong(name, value);
         return this;
     }
 
     @Override
     public Http2Headers addFloat(CharSequence name, float value) {
-        delegate.addFloat(name, value);
+        delegate().addFloat(name, value);
         return this;
     }
 
     @Override
     public Http2Headers addDouble(CharSequence name, double value) {
-        delegate.addDouble(name, value);
+        delegate().addDouble(name, value);
         return this;
     }
 
     @Override
     public Http2Headers addTimeMillis(CharSequence name, long value) {
-        delegate.addTimeMillis(name, value);
+        delegate().addTimeMillis(name, value);
         return this;
     }
 
     @Override
     public Http2Headers set(CharSequence name, CharSequence value) {
         final AsciiString headerName = HttpHeaderNames.of(name);
-        delegate.set(headerName, ArmeriaHttpUtil.convertHeaderValue(headerName, value));
+        delegate(headerName).set(headerName, ArmeriaHttpUtil.convertHeaderValue(headerName, value));
         return this;
     }
 
@@ -567,7 +614,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
 
     @Override
     public Http2Headers setObject(CharSequence name, Object value) {
-        delegate.setObject(name, value);
+        delegate().setObject(name, value);
         return this;
     }
 
@@ -589,55 +636,55 @@ class ArmeriaHttp2Headers implements Http2Headers {
 
     @Override
     public Http2Headers setBoolean(CharSequence name, boolean value) {
-        delegate.set(name, String.valueOf(value));
+        delegate().set(name, String.valueOf(value));
         return this;
     }
 
     @Override
     public Http2Headers setByte(CharSequence name, byte value) {
-        delegate.setInt(name, value);
+        delegate().setInt(name, value);
         return this;
     }
 
     @Override
     public Http2Headers setChar(CharSequence name, char value) {
-        delegate.setInt(name, value);
+        delegate().setInt(name, value);
         return this;
     }
 
     @Override
     public Http2Headers setShort(CharSequence name, short value) {
-        delegate.setInt(name, value);
+        delegate().setInt(name, value);
         return this;
     }
 
     @Override
     public Http2Headers setInt(CharSequence name, int value) {
-        delegate.setInt(name, value);
+        delegate().setInt(name, value);
         return this;
     }
 
     @Override
     public Http2Headers setLong(CharSequence name, long value) {
-        delegate.setLong(name, value);
+        delegate().setLong(name, value);
         return this;
     }
 
     @Override
     public Http2Headers setFloat(CharSequence name, float value) {
-        delegate.setFloat(name, value);
+        delegate().setFloat(name, value);
         return this;
     }
 
     @Override
     public Http2Headers setDouble(CharSequence name, double value) {
-        delegate.setDouble(name, value);
+        delegate().setDouble(name, value);
         return this;
     }
 
     @Override
     public Http2Headers setTimeMillis(CharSequence name, long value) {
-        delegate.setTimeMillis(name, value);
+        delegate().setTimeMillis(name, value);
         return this;
     }
 
@@ -654,33 +701,33 @@ class ArmeriaHttp2Headers implements Http2Headers {
 
     @Override
     public boolean remove(CharSequence name) {
-        return delegate.remove(name);
+        return delegate().remove(name);
     }
 
     @Override
     public Http2Headers clear() {
-        delegate.clear();
+        delegate().clear();
         return this;
     }
 
     @Override
     public Iterator<Entry<CharSequence, CharSequence>> iterator() {
-        return unsafeCast(delegate.iterator());
+        return unsafeCast(delegate().iterator());
     }
 
     @Override
     public void forEach(Consumer<? super Entry<CharSequence, CharSequence>> action) {
-        delegate.forEach(entry -> action.accept(unsafeCast(entry)));
+        delegate().forEach(entry -> action.accept(unsafeCast(entry)));
     }
 
     @Override
     public Spliterator<Entry<CharSequence, CharSequence>> spliterator() {
-        return unsafeCast(delegate.spliterator());
+        return unsafeCast(delegate().spliterator());
     }
 
     @Override
     public Iterator<CharSequence> valueIterator(CharSequence name) {
-        return unsafeCast(delegate.valueIterator(name));
+        return unsafeCast(delegate().valueIterator(name));
     }
 
     @Override
@@ -691,7 +738,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public CharSequence method() {
-        return delegate.get(HttpHeaderNames.METHOD);
+        return delegate().get(HttpHeaderNames.METHOD);
     }
 
     @Override
@@ -702,7 +749,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public CharSequence scheme() {
-        return delegate.get(HttpHeaderNames.SCHEME);
+        return delegate().get(HttpHeaderNames.SCHEME);
     }
 
     @Override
@@ -713,7 +760,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public CharSequence authority() {
-        return delegate.get(HttpHeaderNames.AUTHORITY);
+        return delegate().get(HttpHeaderNames.AUTHORITY);
     }
 
     @Override
@@ -724,7 +771,7 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public CharSequence path() {
-        return delegate.get(HttpHeaderNames.PATH);
+        return delegate().get(HttpHeaderNames.PATH);
     }
 
     @Override
@@ -735,12 +782,12 @@ class ArmeriaHttp2Headers implements Http2Headers {
     @Nullable
     @Override
     public CharSequence status() {
-        return delegate.get(HttpHeaderNames.STATUS);
+        return delegate().get(HttpHeaderNames.STATUS);
     }
 
     @Override
     public int hashCode() {
-        return delegate.hashCode();
+        return delegate().hashCode();
     }
 
     @Override
@@ -753,11 +800,11 @@ class ArmeriaHttp2Headers implements Http2Headers {
         }
         final ArmeriaHttp2Headers that = (ArmeriaHttp2Headers) obj;
 
-        return delegate.equals(that.delegate());
+        return delegate().equals(that.delegate());
     }
 
     @Override
     public String toString() {
-        return delegate.toString();
+        return delegate().toString();
     }
 }
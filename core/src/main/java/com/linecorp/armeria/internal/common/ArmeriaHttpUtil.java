@@ -546,6 +546,33 @@ public final class ArmeriaHttpUtil {
         }
     }
 
+    /**
+     * Builds the {@link HttpHeaders} decoded by {@link ArmeriaHttp2HeadersDecoder}. If the headers were
+     * decoded into a {@link RequestHeadersBuilder} or a {@link ResponseHeadersBuilder}, the returned
+     * {@link HttpHeaders} is a {@link RequestHeaders} or a {@link ResponseHeaders} built without
+     * an intermediate copy.
+     */
+    private static HttpHeaders buildDecodedHeaders(HttpHeadersBuilder builder) {
+        if (builder instanceof RequestHeadersBuilder) {
+            if (builder.contains(HttpHeaderNames.METHOD) && builder.contains(HttpHeaderNames.PATH)) {
+                return ((RequestHeadersBuilder) builder).build();
+            }
+        } else if (builder instanceof ResponseHeadersBuilder) {
+            if (builder.contains(HttpHeaderNames.STATUS)) {
+                return ((ResponseHeadersBuilder) builder).build();
+            }
+        } else {
+            return builder.build();
+        }
+
+        // Malformed headers which do not have the mandatory pseudo-headers, e.g. trailers with
+        // pseudo-headers. Let the caller validate them as usual.
+        return HttpHeaders.builder()
+                          .add(builder)
+                          .endOfStream(builder.isEndOfStream())
+                          .build();
+    }
+
     /**
      * Converts the specified Netty HTTP/2 into Armeria HTTP/2 {@link RequestHeaders}.
      */
@@ -571,7 +598,7 @@ public final class ArmeriaHttpUtil {
             // https://datatracker.ietf.org/doc/html/rfc7540#section-8.1.2.5
             builder.set(HttpHeaderNames.COOKIE, COOKIE_JOINER.join(cookies));
         }
-        return RequestHeaders.of(builder.build());
+        return RequestHeaders.of(buildDecodedHeaders(builder));
     }
 
     /**
@@ -581,7 +608,7 @@ public final class ArmeriaHttpUtil {
         assert http2Headers instanceof ArmeriaHttp2Headers;
         final HttpHeadersBuilder delegate = ((ArmeriaHttp2Headers) http2Headers).delegate();
         delegate.endOfStream(endOfStream);
-        HttpHeaders headers = delegate.build();
+        HttpHeaders headers = buildDecodedHeaders(delegate);
 
         if (request) {
             if (headers.contains(HttpHeaderNames.METHOD)) {
@@ -1009,6 +1036,12 @@ public final class ArmeriaHttpUtil {
             return headers;
         }
 
+        if (!content.isEmpty() &&
+            headers.getLong(HttpHeaderNames.CONTENT_LENGTH, -1) == content.length()) {
+            // Keep the headers as they are, which might be reusable, if 'content-length' is correct already.
+            return headers;
+        }
+
         if (!headers.contains(HttpHeaderNames.CONTENT_LENGTH) || !content.isEmpty()) {
             return headers.toBuilder()
                           .contentLength(content.length())
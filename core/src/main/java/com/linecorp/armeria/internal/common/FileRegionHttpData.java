@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.ByteBufAccessMode;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.common.util.TransportType;
+import com.linecorp.armeria.internal.common.util.TransportTypeProvider;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.internal.EmptyArrays;
+
+/**
+ * An {@link HttpData} which refers to a region of a file instead of holding its content in memory.
+ * {@link Http1ObjectEncoder} writes it as a {@link FileRegion} on a cleartext connection, so that the
+ * content is transferred from the file to the socket without being copied into the user space,
+ * e.g. via {@code sendfile()}.
+ *
+ * <p>Any other consumer which accesses the content, e.g. an HTTP/2 or TLS connection or a decorator,
+ * makes this {@link HttpData} read the region of the file into memory. Therefore, the length of a region
+ * should be as small as a chunk of a streamed file, e.g. 8 KiB, because it may be read on an event loop.
+ */
+public final class FileRegionHttpData implements HttpData {
+
+    @Nullable
+    private static final Class<?> epollSocketChannelType =
+            TransportType.EPOLL.isAvailable() ? TransportTypeProvider.EPOLL.socketChannelType() : null;
+
+    /**
+     * Returns whether the specified {@link Channel} writes a {@link FileRegion} to the socket as is,
+     * i.e. it is a cleartext NIO or epoll socket. Other transports such as io_uring and the
+     * {@link Channel}s which wrap another {@link Channel} do not support {@link FileRegion}.
+     */
+    public static boolean isSupported(@Nullable Channel ch) {
+        if (ch == null) {
+            return false;
+        }
+        final Class<?> type = ch.getClass();
+        if (type != NioSocketChannel.class && type != epollSocketChannelType) {
+            return false;
+        }
+        return ch.pipeline().get(SslHandler.class) == null;
+    }
+
+    private final File file;
+    private final long position;
+    private final int length;
+    private final boolean endOfStream;
+
+    @Nullable
+    private HttpData content;
+
+    /**
+     * Creates a new instance which refers to the region of the specified {@link File}.
+     */
+    public FileRegionHttpData(File file, long position, int length, boolean endOfStream) {
+        requireNonNull(file, "file");
+        checkArgument(position >= 0, "position: %s (expected: >= 0)", position);
+        checkArgument(length >= 0, "length: %s (expected: >= 0)", length);
+        this.file = file;
+        this.position = position;
+        this.length = length;
+        this.endOfStream = endOfStream;
+    }
+
+    /**
+     * Returns a new {@link FileRegion} which refers to the same region of the file.
+     * The file is opened lazily when the returned {@link FileRegion} is transferred.
+     */
+    public FileRegion newFileRegion() {
+        return new DefaultFileRegion(file, position, length);
+    }
+
+    private HttpData content() {
+        HttpData content = this.content;
+        if (content != null) {
+            return content;
+        }
+
+        final byte[] array;
+        if (length == 0) {
+            array = EmptyArrays.EMPTY_BYTES;
+        } else {
+            array = new byte[length];
+            final ByteBuffer buf = ByteBuffer.wrap(array);
+            try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf, position + buf.position()) < 0) {
+                        throw new EOFException("file truncated: " + file);
+                    }
+                }
+            } catch (IOException e) {
+                return Exceptions.throwUnsafely(e);
+            }
+        }
+
+        content = HttpData.wrap(array);
+        this.content = content;
+        return content;
+    }
+
+    @Override
+    public byte[] array() {
+        return content().array();
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public String toString(Charset charset) {
+        return content().toString(charset);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("file", file)
+                          .add("position", position)
+                          .add("length", length)
+                          .add("endOfStream", endOfStream)
+                          .toString();
+    }
+
+    @Override
+    public InputStream toInputStream() {
+        return content().toInputStream();
+    }
+
+    @Override
+    public boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    @Override
+    public FileRegionHttpData withEndOfStream(boolean endOfStream) {
+        if (this.endOfStream == endOfStream) {
+            return this;
+        }
+        return new FileRegionHttpData(file, position, length, endOfStream);
+    }
+
+    @Override
+    public boolean isPooled() {
+        return false;
+    }
+
+    @Override
+    public ByteBuf byteBuf(ByteBufAccessMode mode) {
+        return content().byteBuf(mode);
+    }
+
+    @Override
+    public ByteBuf byteBuf(int offset, int length, ByteBufAccessMode mode) {
+        return content().byteBuf(offset, length, mode);
+    }
+
+    @Override
+    public void close() {}
+}
@@ -35,10 +35,12 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.FileRegion;
 import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http2.Http2Error;
 import io.netty.util.ReferenceCountUtil;
@@ -93,6 +95,13 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
      */
     private final IntObjectMap<PendingWrites> pendingWritesMap = new IntObjectHashMap<>();
 
+    /**
+     * The ID of the request whose response switched the connection to another protocol with
+     * a {@code 101 Switching Protocols} response, e.g. a WebSocket handshake, or {@code 0} if not switched.
+     * The content of such a response is written as is, without HTTP/1 framing.
+     */
+    private int switchedProtocolId;
+
     protected Http1ObjectEncoder(Channel ch, SessionProtocol protocol) {
         this.ch = requireNonNull(ch, "ch");
         this.protocol = requireNonNull(protocol, "protocol");
@@ -103,6 +112,14 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         return ch;
     }
 
+    /**
+     * Returns the ID of the request which is at its turn to send a response. The responses of the requests
+     * whose IDs are less than the returned value have been written completely.
+     */
+    protected final int currentId() {
+        return currentId;
+    }
+
     protected final ChannelFuture writeNonInformationalHeaders(int id, HttpObject converted,
                                                                boolean endStream) {
         ChannelFuture f;
@@ -119,6 +136,27 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         return f;
     }
 
+    /**
+     * Writes the specified {@code 101 Switching Protocols} response. The content written after it
+     * for the same request is sent as is, once {@link #onProtocolSwitched()} removed the HTTP/1 codec.
+     */
+    protected final ChannelFuture writeSwitchingProtocolsHeaders(int id, HttpResponse converted,
+                                                                 boolean endStream) {
+        switchedProtocolId = id;
+        ChannelFuture f = write(id, converted, false);
+        if (endStream) {
+            f = write(id, Unpooled.EMPTY_BUFFER, true);
+        }
+        ch.flush();
+        return f;
+    }
+
+    /**
+     * Invoked when the {@code 101 Switching Protocols} response has been written to the {@link Channel},
+     * so that the HTTP/1 codec is removed from the pipeline.
+     */
+    protected void onProtocolSwitched() {}
+
     @Override
     public final ChannelFuture doWriteData(int id, int streamId, HttpData data, boolean endStream) {
         if (!isWritable(id)) {
@@ -126,6 +164,10 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
             return newClosedSessionFuture();
         }
 
+        if (id == switchedProtocolId) {
+            return doWriteRawData(id, data, endStream);
+        }
+
         final int length = data.length();
         if (length == 0) {
             data.close();
@@ -136,6 +178,11 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
 
         try {
+            if (data instanceof FileRegionHttpData && !protocol.isTls() && FileRegionHttpData.isSupported(ch)) {
+                // Cleartext connection; let the transport transfer the file content, e.g. via sendfile().
+                return doWriteFileRegion(id, (FileRegionHttpData) data, endStream);
+            }
+
             if (!protocol.isTls() || length <= MAX_TLS_DATA_LENGTH) {
                 // Cleartext connection or data.length() <= MAX_TLS_DATA_LENGTH
                 return doWriteUnsplitData(id, data, endStream);
@@ -148,6 +195,18 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
     }
 
+    private ChannelFuture doWriteRawData(int id, HttpData data, boolean endStream) {
+        final ChannelFuture future;
+        if (data.isEmpty()) {
+            data.close();
+            future = write(id, Unpooled.EMPTY_BUFFER, endStream);
+        } else {
+            future = write(id, toByteBuf(data), endStream);
+        }
+        ch.flush();
+        return future;
+    }
+
     private ChannelFuture doWriteUnsplitData(int id, HttpData data, boolean endStream) {
         final ByteBuf buf = toByteBuf(data);
         boolean handled = false;
@@ -170,6 +229,16 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
     }
 
+    private ChannelFuture doWriteFileRegion(int id, FileRegionHttpData data, boolean endStream) {
+        // Do not flush here but let the caller flush, so that the flushes deferred by
+        // the pipeline, e.g. for the pipelined requests, are not forced by a file transfer.
+        ChannelFuture future = write(id, data.newFileRegion(), false);
+        if (endStream) {
+            future = write(id, LastHttpContent.EMPTY_LAST_CONTENT, true);
+        }
+        return future;
+    }
+
     private ChannelFuture doWriteSplitData(int id, HttpData data, boolean endStream) {
         try {
             int offset = 0;
@@ -197,7 +266,10 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
     }
 
-    protected final ChannelFuture write(int id, HttpObject obj, boolean endStream) {
+    /**
+     * Writes the specified {@link HttpObject} or {@link FileRegion}.
+     */
+    protected final ChannelFuture write(int id, Object obj, boolean endStream) {
         if (id < currentId) {
             // Attempted to write something on a finished request/response; discard.
             // e.g. the request already timed out.
@@ -209,10 +281,11 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         if (id == currentId) {
             if (currentPendingWrites != null) {
                 pendingWritesMap.remove(id);
-                flushPendingWrites(currentPendingWrites);
+                flushPendingWrites(id, currentPendingWrites);
             }
 
             final ChannelFuture future = ch.write(obj);
+            maybeSwitchProtocol(id, obj);
             if (!isPing(id)) {
                 keepAliveHandler().onReadOrWrite();
             }
@@ -226,7 +299,7 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
                         break;
                     }
 
-                    flushPendingWrites(nextPendingWrites);
+                    flushPendingWrites(currentId, nextPendingWrites);
                     if (!nextPendingWrites.isEndOfStream()) {
                         break;
                     }
@@ -239,7 +312,7 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
             return future;
         } else {
             final ChannelPromise promise = ch.newPromise();
-            final Entry<HttpObject, ChannelPromise> entry = new SimpleImmutableEntry<>(obj, promise);
+            final Entry<Object, ChannelPromise> entry = new SimpleImmutableEntry<>(obj, promise);
             final PendingWrites pendingWrites;
             if (currentPendingWrites == null) {
                 pendingWrites = new PendingWrites();
@@ -259,14 +332,21 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
     }
 
-    private void flushPendingWrites(PendingWrites pendingWrites) {
+    private void flushPendingWrites(int id, PendingWrites pendingWrites) {
         for (;;) {
-            final Entry<HttpObject, ChannelPromise> e = pendingWrites.poll();
+            final Entry<Object, ChannelPromise> e = pendingWrites.poll();
             if (e == null) {
                 break;
             }
 
             ch.write(e.getKey(), e.getValue());
+            maybeSwitchProtocol(id, e.getKey());
+        }
+    }
+
+    private void maybeSwitchProtocol(int id, Object obj) {
+        if (id == switchedProtocolId && obj instanceof HttpResponse) {
+            onProtocolSwitched();
         }
     }
 
@@ -275,6 +355,10 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         if (!isWritable(id)) {
             return newClosedSessionFuture();
         }
+        if (id == switchedProtocolId) {
+            // No trailers after switching protocols.
+            return write(id, Unpooled.EMPTY_BUFFER, true);
+        }
 
         return write(id, convertTrailers(headers), true);
     }
@@ -306,7 +390,7 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
             for (int i = minClosedId; i <= maxIdWithPendingWrites; i++) {
                 final PendingWrites pendingWrites = pendingWritesMap.remove(i);
                 for (;;) {
-                    final Entry<HttpObject, ChannelPromise> e = pendingWrites.poll();
+                    final Entry<Object, ChannelPromise> e = pendingWrites.poll();
                     if (e == null) {
                         break;
                     }
@@ -352,9 +436,9 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
 
         final ClosedSessionException cause = ClosedSessionException.get();
-        for (Queue<Entry<HttpObject, ChannelPromise>> queue : pendingWritesMap.values()) {
+        for (Queue<Entry<Object, ChannelPromise>> queue : pendingWritesMap.values()) {
             for (;;) {
-                final Entry<HttpObject, ChannelPromise> e = queue.poll();
+                final Entry<Object, ChannelPromise> e = queue.poll();
                 if (e == null) {
                     break;
                 }
@@ -371,7 +455,7 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         return closed;
     }
 
-    private static final class PendingWrites extends ArrayDeque<Entry<HttpObject, ChannelPromise>> {
+    private static final class PendingWrites extends ArrayDeque<Entry<Object, ChannelPromise>> {
 
         private static final long serialVersionUID = 4241891747461017445L;
 
@@ -382,8 +466,8 @@ public abstract class Http1ObjectEncoder implements HttpObjectEncoder {
         }
 
         @Override
-        public boolean add(Entry<HttpObject, ChannelPromise> httpObjectChannelPromiseEntry) {
-            return isEndOfStream() ? false : super.add(httpObjectChannelPromiseEntry);
+        public boolean add(Entry<Object, ChannelPromise> objectChannelPromiseEntry) {
+            return isEndOfStream() ? false : super.add(objectChannelPromiseEntry);
         }
 
         boolean isEndOfStream() {
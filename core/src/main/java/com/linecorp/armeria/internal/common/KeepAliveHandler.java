@@ -59,6 +59,12 @@ public interface KeepAliveHandler {
      */
     boolean isClosing();
 
+    /**
+     * Returns whether the connection has been closed by this {@link KeepAliveHandler} because neither read
+     * nor write was performed within the idle timeout.
+     */
+    boolean isClosedByIdleTimeout();
+
     /**
      * Returns whether a connection managed by this {@link KeepAliveHandler} reaches its lifespan.
      */
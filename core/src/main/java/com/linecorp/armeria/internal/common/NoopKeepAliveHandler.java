@@ -49,6 +49,11 @@ public enum NoopKeepAliveHandler implements KeepAliveHandler {
         return false;
     }
 
+    @Override
+    public boolean isClosedByIdleTimeout() {
+        return false;
+    }
+
     @Override
     public boolean needToCloseConnection() {
         return false;
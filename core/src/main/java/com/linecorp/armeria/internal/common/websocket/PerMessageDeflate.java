@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.websocket;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Ascii;
+import com.google.common.base.Splitter;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * The parameters of the {@code permessage-deflate} extension negotiated for a WebSocket session via
+ * the {@code "sec-websocket-extensions"} header, as defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc7692">RFC 7692</a>.
+ *
+ * <p>{@link java.util.zip.Deflater} always compresses with the 32 KiB (15 bits) window, so an offer which
+ * limits the window of the server is declined and the window of the client is never limited.
+ */
+public final class PerMessageDeflate {
+
+    /**
+     * The extension offer sent by a client, which accepts any parameters of the server.
+     */
+    public static final String CLIENT_OFFER = "permessage-deflate";
+
+    private static final String EXTENSION_NAME = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+    private static final String SERVER_MAX_WINDOW_BITS = "server_max_window_bits";
+    private static final String CLIENT_MAX_WINDOW_BITS = "client_max_window_bits";
+
+    private static final int MIN_WINDOW_BITS = 8;
+    private static final int MAX_WINDOW_BITS = 15;
+
+    private static final Splitter EXTENSION_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final Splitter PARAMETER_SPLITTER = Splitter.on(';').trimResults();
+
+    /**
+     * Returns the {@link PerMessageDeflate} which accepts the first acceptable {@code permessage-deflate}
+     * offer in the specified {@code "sec-websocket-extensions"} header sent by a client,
+     * or {@code null} if there is no such offer.
+     */
+    @Nullable
+    public static PerMessageDeflate acceptOffer(@Nullable String extensions) {
+        if (extensions == null) {
+            return null;
+        }
+        for (String extension : EXTENSION_SPLITTER.split(extensions)) {
+            final Map<String, String> params = parse(extension);
+            if (params == null) {
+                continue;
+            }
+
+            final String serverMaxWindowBits = params.remove(SERVER_MAX_WINDOW_BITS);
+            if (serverMaxWindowBits != null && windowBits(serverMaxWindowBits) != MAX_WINDOW_BITS) {
+                // Cannot compress with a smaller window.
+                continue;
+            }
+            final String clientMaxWindowBits = params.remove(CLIENT_MAX_WINDOW_BITS);
+            if (clientMaxWindowBits != null && !clientMaxWindowBits.isEmpty() &&
+                windowBits(clientMaxWindowBits) < 0) {
+                continue;
+            }
+
+            final String serverNoContextTakeover = params.remove(SERVER_NO_CONTEXT_TAKEOVER);
+            final String clientNoContextTakeover = params.remove(CLIENT_NO_CONTEXT_TAKEOVER);
+            if (!params.isEmpty() || !isEmpty(serverNoContextTakeover) || !isEmpty(clientNoContextTakeover)) {
+                // An unknown parameter or a parameter with an unexpected value.
+                continue;
+            }
+            return new PerMessageDeflate(serverNoContextTakeover != null, clientNoContextTakeover != null);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the {@link PerMessageDeflate} accepted by the specified {@code "sec-websocket-extensions"}
+     * header sent by a server in response to {@link #CLIENT_OFFER}, or {@code null} if the header is not
+     * a valid response.
+     */
+    @Nullable
+    public static PerMessageDeflate acceptResponse(String extensions) {
+        final List<String> accepted = EXTENSION_SPLITTER.splitToList(extensions);
+        if (accepted.size() != 1) {
+            return null;
+        }
+        final Map<String, String> params = parse(accepted.get(0));
+        if (params == null) {
+            return null;
+        }
+
+        final String serverMaxWindowBits = params.remove(SERVER_MAX_WINDOW_BITS);
+        if (serverMaxWindowBits != null && windowBits(serverMaxWindowBits) < 0) {
+            return null;
+        }
+        final String serverNoContextTakeover = params.remove(SERVER_NO_CONTEXT_TAKEOVER);
+        final String clientNoContextTakeover = params.remove(CLIENT_NO_CONTEXT_TAKEOVER);
+        if (!params.isEmpty() || !isEmpty(serverNoContextTakeover) || !isEmpty(clientNoContextTakeover)) {
+            // Includes 'client_max_window_bits', which is not offered.
+            return null;
+        }
+        return new PerMessageDeflate(serverNoContextTakeover != null, clientNoContextTakeover != null);
+    }
+
+    /**
+     * Parses the parameters of the specified {@code permessage-deflate} extension. A parameter without
+     * a value is mapped to an empty string.
+     *
+     * @return {@code null} if the extension is not {@code permessage-deflate} or a parameter is duplicate.
+     */
+    @Nullable
+    private static Map<String, String> parse(String extension) {
+        final Map<String, String> params = new HashMap<>();
+        boolean first = true;
+        for (String param : PARAMETER_SPLITTER.split(extension)) {
+            if (first) {
+                if (!Ascii.equalsIgnoreCase(EXTENSION_NAME, param)) {
+                    return null;
+                }
+                first = false;
+                continue;
+            }
+
+            final int eqIdx = param.indexOf('=');
+            final String name;
+            String value;
+            if (eqIdx < 0) {
+                name = Ascii.toLowerCase(param);
+                value = "";
+            } else {
+                name = Ascii.toLowerCase(param.substring(0, eqIdx).trim());
+                value = param.substring(eqIdx + 1).trim();
+                if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+                    value = value.substring(1, value.length() - 1);
+                }
+            }
+            if (params.put(name, value) != null) {
+                return null;
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Returns the window bits in the specified value, or {@code -1} if the value is not valid.
+     */
+    private static int windowBits(String value) {
+        if (value.isEmpty() || value.length() > 2) {
+            return -1;
+        }
+        int bits = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char ch = value.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            bits = bits * 10 + ch - '0';
+        }
+        return bits >= MIN_WINDOW_BITS && bits <= MAX_WINDOW_BITS ? bits : -1;
+    }
+
+    private static boolean isEmpty(@Nullable String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private final boolean serverNoContextTakeover;
+    private final boolean clientNoContextTakeover;
+
+    private PerMessageDeflate(boolean serverNoContextTakeover, boolean clientNoContextTakeover) {
+        this.serverNoContextTakeover = serverNoContextTakeover;
+        this.clientNoContextTakeover = clientNoContextTakeover;
+    }
+
+    /**
+     * Returns whether a server resets its compression context at the end of each message.
+     */
+    public boolean serverNoContextTakeover() {
+        return serverNoContextTakeover;
+    }
+
+    /**
+     * Returns whether a client resets its compression context at the end of each message.
+     */
+    public boolean clientNoContextTakeover() {
+        return clientNoContextTakeover;
+    }
+
+    /**
+     * Returns the {@code "sec-websocket-extensions"} header value which a server sends to accept
+     * the offer of a client.
+     */
+    public String toResponse() {
+        final StringBuilder buf = new StringBuilder(EXTENSION_NAME);
+        if (serverNoContextTakeover) {
+            buf.append("; ").append(SERVER_NO_CONTEXT_TAKEOVER);
+        }
+        if (clientNoContextTakeover) {
+            buf.append("; ").append(CLIENT_NO_CONTEXT_TAKEOVER);
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toResponse();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.websocket;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.Deflater;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.websocket.WebSocketFrame;
+import com.linecorp.armeria.common.websocket.WebSocketFrameType;
+
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Encodes {@link WebSocketFrame}s into {@link HttpData}s, compressing the data messages with
+ * the {@code permessage-deflate} extension, as defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc7692#section-7.2.1">RFC 7692, Section 7.2.1</a>.
+ * Control frames are not compressed. An instance holds the compression context of a WebSocket session,
+ * so it must not be shared between sessions and {@link #close()} must be called when the session ends.
+ */
+public final class PerMessageDeflateEncoder implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int TAIL_LENGTH = 4;
+    private static final byte[] EMPTY_BLOCK = { 0x00 };
+
+    private final boolean mask;
+    private final boolean noContextTakeover;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, /* nowrap */ true);
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Creates a new instance.
+     *
+     * @param mask whether to mask the payload. Must be {@code true} for the frames sent by a client.
+     * @param noContextTakeover whether to reset the compression context at the end of each message.
+     */
+    public PerMessageDeflateEncoder(boolean mask, boolean noContextTakeover) {
+        this.mask = mask;
+        this.noContextTakeover = noContextTakeover;
+    }
+
+    /**
+     * Encodes the specified {@link WebSocketFrame} into a pooled {@link HttpData}.
+     */
+    public HttpData encode(ByteBufAllocator alloc, WebSocketFrame frame) {
+        final WebSocketFrameType type = frame.type();
+        if (type.isControl()) {
+            return WebSocketFrameEncoder.encode(alloc, frame, mask);
+        }
+
+        final boolean finalFragment = frame.isFinalFragment();
+        final byte[] compressed = compress(frame.array(), finalFragment);
+        // Only the first frame of a compressed message has the RSV1 bit.
+        return WebSocketFrameEncoder.encode(alloc, type, finalFragment,
+                                            type != WebSocketFrameType.CONTINUATION, compressed, mask);
+    }
+
+    private byte[] compress(byte[] payload, boolean finalFragment) {
+        deflater.setInput(payload);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(payload.length / 2, 16));
+        for (;;) {
+            final int numBytes = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+            out.write(buffer, 0, numBytes);
+            if (numBytes < buffer.length) {
+                break;
+            }
+        }
+
+        if (!finalFragment) {
+            return out.toByteArray();
+        }
+
+        if (noContextTakeover) {
+            deflater.reset();
+        }
+        final byte[] compressed = out.toByteArray();
+        if (compressed.length < TAIL_LENGTH) {
+            // Nothing has been written since the previous flush. Send an empty stored block,
+            // whose tail is appended by the receiver.
+            return EMPTY_BLOCK.clone();
+        }
+        // Remove the '00 00 ff ff' tail of the empty stored block written by the sync flush.
+        final byte[] withoutTail = new byte[compressed.length - TAIL_LENGTH];
+        System.arraycopy(compressed, 0, withoutTail, 0, withoutTail.length);
+        return withoutTail;
+    }
+
+    @Override
+    public void close() {
+        deflater.end();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.websocket;
+
+/**
+ * Validates that a sequence of bytes is well-formed UTF-8, as defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc3629#section-4">RFC 3629, Section 4</a>.
+ * The bytes may be fed in multiple chunks, so a character may span more than one fragment of a message.
+ */
+final class Utf8Validator {
+
+    /**
+     * The number of the continuation bytes expected for the current character.
+     */
+    private int remaining;
+    /**
+     * The range of the next continuation byte, which rejects overlong forms, surrogates and
+     * the code points greater than {@code U+10FFFF}.
+     */
+    private int lowerBound = 0x80;
+    private int upperBound = 0xBF;
+
+    /**
+     * Feeds the specified bytes.
+     *
+     * @return {@code false} if the bytes fed so far are not a prefix of well-formed UTF-8.
+     */
+    boolean feed(byte[] bytes, int offset, int length) {
+        final int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            final int b = bytes[i] & 0xFF;
+            if (remaining != 0) {
+                if (b < lowerBound || b > upperBound) {
+                    return false;
+                }
+                remaining--;
+                lowerBound = 0x80;
+                upperBound = 0xBF;
+                continue;
+            }
+
+            if (b < 0x80) {
+                continue;
+            }
+            if (b >= 0xC2 && b <= 0xDF) {
+                remaining = 1;
+            } else if (b == 0xE0) {
+                remaining = 2;
+                lowerBound = 0xA0;
+            } else if (b == 0xED) {
+                remaining = 2;
+                upperBound = 0x9F;
+            } else if (b >= 0xE1 && b <= 0xEF) {
+                remaining = 2;
+            } else if (b == 0xF0) {
+                remaining = 3;
+                lowerBound = 0x90;
+            } else if (b >= 0xF1 && b <= 0xF3) {
+                remaining = 3;
+            } else if (b == 0xF4) {
+                remaining = 3;
+                upperBound = 0x8F;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the bytes fed so far do not end in the middle of a character.
+     */
+    boolean isComplete() {
+        return remaining == 0;
+    }
+
+    void reset() {
+        remaining = 0;
+        lowerBound = 0x80;
+        upperBound = 0xBF;
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.websocket;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.linecorp.armeria.common.ContentTooLargeException;
+import com.linecorp.armeria.common.ProtocolViolationException;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.stream.HttpDecoder;
+import com.linecorp.armeria.common.stream.HttpDecoderInput;
+import com.linecorp.armeria.common.stream.HttpDecoderOutput;
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.common.websocket.InvalidWebSocketPayloadException;
+import com.linecorp.armeria.common.websocket.WebSocketFrame;
+import com.linecorp.armeria.common.websocket.WebSocketFrameType;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Decodes a stream of {@link com.linecorp.armeria.common.HttpData} into {@link WebSocketFrame}s, as defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc6455#section-5">RFC 6455, Section 5</a>.
+ * A frame is not produced until its whole payload is received, so that the decoder does not hold
+ * any state other than the fragmentation state and the decompression context between frames.
+ *
+ * <p>When the {@code permessage-deflate} extension is negotiated, the data messages whose first frame has
+ * the {@code RSV1} bit are decompressed, as defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc7692#section-7.2.2">RFC 7692, Section 7.2.2</a>.
+ * The payload length limit and the UTF-8 validation are applied to the decompressed payload.
+ */
+public final class WebSocketFrameDecoder implements HttpDecoder<WebSocketFrame> {
+
+    private static final int FIN = 0x80;
+    private static final int RSV = 0x70;
+    private static final int RSV1 = 0x40;
+    private static final int OPCODE = 0x0F;
+    private static final int MASK = 0x80;
+    private static final int PAYLOAD_LENGTH = 0x7F;
+
+    private static final byte[] DEFLATE_TAIL = { 0x00, 0x00, (byte) 0xFF, (byte) 0xFF };
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int maxFramePayloadLength;
+    private final boolean expectMaskedFrames;
+    private final boolean perMessageDeflate;
+    private final Utf8Validator utf8Validator = new Utf8Validator();
+    private boolean inFragmentedMessage;
+    private boolean inTextMessage;
+    private boolean inCompressedMessage;
+    @Nullable
+    private Inflater inflater;
+    @Nullable
+    private byte[] buffer;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxFramePayloadLength the maximum allowed length of the payload of a frame
+     * @param expectMaskedFrames {@code true} if the frames sent by a client are decoded, which must be masked.
+     *                           {@code false} if the frames sent by a server are decoded, which must not be
+     *                           masked.
+     */
+    public WebSocketFrameDecoder(int maxFramePayloadLength, boolean expectMaskedFrames) {
+        this(maxFramePayloadLength, expectMaskedFrames, false);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxFramePayloadLength the maximum allowed length of the (decompressed) payload of a frame
+     * @param expectMaskedFrames {@code true} if the frames sent by a client are decoded, which must be masked.
+     *                           {@code false} if the frames sent by a server are decoded, which must not be
+     *                           masked.
+     * @param perMessageDeflate whether the {@code permessage-deflate} extension has been negotiated
+     */
+    public WebSocketFrameDecoder(int maxFramePayloadLength, boolean expectMaskedFrames,
+                                 boolean perMessageDeflate) {
+        checkArgument(maxFramePayloadLength > 0,
+                      "maxFramePayloadLength: %s (expected: > 0)", maxFramePayloadLength);
+        this.maxFramePayloadLength = maxFramePayloadLength;
+        this.expectMaskedFrames = expectMaskedFrames;
+        this.perMessageDeflate = perMessageDeflate;
+    }
+
+    /**
+     * Returns a {@link StreamMessage} which sends a close {@link WebSocketFrame} with the matching close code
+     * instead of failing when the specified outbound {@link StreamMessage} failed because of the frames sent
+     * by the peer, e.g. {@link ProtocolViolationException}.
+     */
+    public static StreamMessage<WebSocketFrame> recoverWithCloseFrame(StreamMessage<WebSocketFrame> out) {
+        return out.recoverAndResume(cause -> {
+            final WebSocketFrame closeFrame = toCloseFrame(cause);
+            return closeFrame != null ? StreamMessage.of(closeFrame) : StreamMessage.aborted(cause);
+        });
+    }
+
+    @Nullable
+    private static WebSocketFrame toCloseFrame(Throwable cause) {
+        final Throwable peeled = Exceptions.peel(cause);
+        if (peeled instanceof ProtocolViolationException) {
+            return WebSocketFrame.ofClose(WebSocketFrame.PROTOCOL_ERROR, "");
+        }
+        if (peeled instanceof InvalidWebSocketPayloadException) {
+            return WebSocketFrame.ofClose(WebSocketFrame.INVALID_FRAME_PAYLOAD_DATA, "");
+        }
+        if (peeled instanceof ContentTooLargeException) {
+            return WebSocketFrame.ofClose(WebSocketFrame.MESSAGE_TOO_BIG, "");
+        }
+        return null;
+    }
+
+    @Override
+    public void process(HttpDecoderInput in, HttpDecoderOutput<WebSocketFrame> out) throws Exception {
+        for (;;) {
+            final int readableBytes = in.readableBytes();
+            if (readableBytes < 2) {
+                return;
+            }
+
+            final int b0 = in.getByte(0) & 0xFF;
+            final int b1 = in.getByte(1) & 0xFF;
+            final boolean finalFragment = (b0 & FIN) != 0;
+            final boolean masked = (b1 & MASK) != 0;
+
+            int headerLength = 2;
+            long payloadLength = b1 & PAYLOAD_LENGTH;
+            if (payloadLength == 126) {
+                headerLength += 2;
+                if (readableBytes < headerLength) {
+                    return;
+                }
+                payloadLength = (in.getByte(2) & 0xFF) << 8 | in.getByte(3) & 0xFF;
+            } else if (payloadLength == 127) {
+                headerLength += 8;
+                if (readableBytes < headerLength) {
+                    return;
+                }
+                payloadLength = 0;
+                for (int i = 2; i < 10; i++) {
+                    payloadLength = payloadLength << 8 | in.getByte(i) & 0xFF;
+                }
+                if (payloadLength < 0) {
+                    throw new ProtocolViolationException(
+                            "the most significant bit of the payload length must be 0");
+                }
+            }
+
+            final WebSocketFrameType type = validateHeader(b0, finalFragment, masked, payloadLength);
+            if (masked) {
+                headerLength += 4;
+            }
+            if (readableBytes - headerLength < payloadLength) {
+                // Wait until the whole frame is received.
+                return;
+            }
+
+            final byte[] maskingKey;
+            if (masked) {
+                maskingKey = new byte[4];
+                for (int i = 0; i < 4; i++) {
+                    maskingKey[i] = in.getByte(headerLength - 4 + i);
+                }
+            } else {
+                maskingKey = null;
+            }
+            in.skipBytes(headerLength);
+
+            byte[] payload = new byte[(int) payloadLength];
+            if (payloadLength > 0) {
+                final ByteBuf buf = in.readBytes((int) payloadLength);
+                try {
+                    buf.readBytes(payload);
+                } finally {
+                    buf.release();
+                }
+                if (maskingKey != null) {
+                    for (int i = 0; i < payload.length; i++) {
+                        payload[i] ^= maskingKey[i & 3];
+                    }
+                }
+            }
+
+            if (!type.isControl()) {
+                if (type != WebSocketFrameType.CONTINUATION) {
+                    inTextMessage = type == WebSocketFrameType.TEXT;
+                    inCompressedMessage = (b0 & RSV1) != 0;
+                    utf8Validator.reset();
+                }
+                if (inCompressedMessage) {
+                    payload = decompress(payload, finalFragment);
+                }
+                if (inTextMessage &&
+                    (!utf8Validator.feed(payload, 0, payload.length) ||
+                     finalFragment && !utf8Validator.isComplete())) {
+                    throw new InvalidWebSocketPayloadException("a text message is not valid UTF-8");
+                }
+                inFragmentedMessage = !finalFragment;
+            }
+            out.add(newFrame(type, finalFragment, payload));
+        }
+    }
+
+    private WebSocketFrameType validateHeader(int b0, boolean finalFragment, boolean masked,
+                                              long payloadLength) {
+        final int rsv = b0 & RSV;
+        if (rsv != 0 && (rsv != RSV1 || !perMessageDeflate)) {
+            // No extension other than permessage-deflate, which uses RSV1, is supported.
+            throw new ProtocolViolationException("non-zero reserved bits: " + rsv);
+        }
+        if (masked != expectMaskedFrames) {
+            throw new ProtocolViolationException(expectMaskedFrames ? "received an unmasked frame"
+                                                                    : "received a masked frame");
+        }
+
+        final int opcode = b0 & OPCODE;
+        final WebSocketFrameType type = WebSocketFrameType.ofOpcode(opcode);
+        if (type == null) {
+            throw new ProtocolViolationException("unknown opcode: " + opcode);
+        }
+
+        if (rsv != 0 && (type.isControl() || type == WebSocketFrameType.CONTINUATION)) {
+            // Only the first frame of a data message can be marked as compressed.
+            throw new ProtocolViolationException("non-zero reserved bits in a " + type + " frame");
+        }
+
+        if (type.isControl()) {
+            if (!finalFragment) {
+                throw new ProtocolViolationException("fragmented control frame: " + type);
+            }
+            if (payloadLength > WebSocketFrame.MAX_CONTROL_FRAME_PAYLOAD_LENGTH) {
+                throw new ProtocolViolationException("too long control frame: " + payloadLength);
+            }
+            // A control frame may be injected in the middle of a fragmented message.
+            return type;
+        }
+
+        if (payloadLength > maxFramePayloadLength) {
+            throw ContentTooLargeException.builder()
+                                          .maxContentLength(maxFramePayloadLength)
+                                          .contentLength(payloadLength)
+                                          .build();
+        }
+
+        if (type == WebSocketFrameType.CONTINUATION) {
+            if (!inFragmentedMessage) {
+                throw new ProtocolViolationException("continuation frame without a preceding frame");
+            }
+        } else if (inFragmentedMessage) {
+            throw new ProtocolViolationException("expected a continuation frame but received: " + type);
+        }
+        return type;
+    }
+
+    private byte[] decompress(byte[] payload, boolean finalFragment) {
+        Inflater inflater = this.inflater;
+        byte[] buffer = this.buffer;
+        if (inflater == null) {
+            this.inflater = inflater = new Inflater(/* nowrap */ true);
+            this.buffer = buffer = new byte[BUFFER_SIZE];
+        }
+        assert buffer != null;
+
+        final byte[] input;
+        if (finalFragment) {
+            // Append the tail removed by the sender.
+            input = Arrays.copyOf(payload, payload.length + DEFLATE_TAIL.length);
+            System.arraycopy(DEFLATE_TAIL, 0, input, payload.length, DEFLATE_TAIL.length);
+        } else {
+            input = payload;
+        }
+        inflater.setInput(input);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(input.length * 2, 16));
+        try {
+            while (!inflater.needsInput() && !inflater.finished()) {
+                final int numBytes = inflater.inflate(buffer);
+                if (numBytes == 0) {
+                    break;
+                }
+                out.write(buffer, 0, numBytes);
+                if (out.size() > maxFramePayloadLength) {
+                    throw ContentTooLargeException.builder()
+                                                  .maxContentLength(maxFramePayloadLength)
+                                                  .transferred(out.size())
+                                                  .build();
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new InvalidWebSocketPayloadException("failed to decompress a message: " + e.getMessage());
+        }
+
+        if (inflater.finished()) {
+            // The sender ended the DEFLATE stream with a final block; start a new one for the next message.
+            inflater.reset();
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void processOnComplete(HttpDecoderOutput<WebSocketFrame> out) {
+        releaseInflater();
+    }
+
+    @Override
+    public void processOnError(Throwable cause) {
+        releaseInflater();
+    }
+
+    private void releaseInflater() {
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+    }
+
+    private static WebSocketFrame newFrame(WebSocketFrameType type, boolean finalFragment, byte[] payload) {
+        switch (type) {
+            case CONTINUATION:
+                return WebSocketFrame.ofContinuation(payload, finalFragment);
+            case TEXT:
+                return WebSocketFrame.ofText(payload, finalFragment);
+            case BINARY:
+                return WebSocketFrame.ofBinary(payload, finalFragment);
+            case PING:
+                return payload.length == 0 ? WebSocketFrame.ofPing() : WebSocketFrame.ofPing(payload);
+            case PONG:
+                return payload.length == 0 ? WebSocketFrame.ofPong() : WebSocketFrame.ofPong(payload);
+            case CLOSE:
+                return newCloseFrame(payload);
+            default:
+                throw new Error(); // Never reaches here.
+        }
+    }
+
+    private static WebSocketFrame newCloseFrame(byte[] payload) {
+        if (payload.length == 0) {
+            return WebSocketFrame.ofClose();
+        }
+        if (payload.length == 1) {
+            throw new ProtocolViolationException("invalid close frame payload length: 1");
+        }
+        final int code = (payload[0] & 0xFF) << 8 | payload[1] & 0xFF;
+        if (code < 1000 || code >= 5000) {
+            throw new ProtocolViolationException("invalid close code: " + code);
+        }
+        final Utf8Validator validator = new Utf8Validator();
+        if (!validator.feed(payload, 2, payload.length - 2) || !validator.isComplete()) {
+            throw new InvalidWebSocketPayloadException("the reason of a close frame is not valid UTF-8");
+        }
+        return WebSocketFrame.ofClose(code, new String(payload, 2, payload.length - 2,
+                                                       StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.websocket;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.websocket.WebSocketFrame;
+import com.linecorp.armeria.common.websocket.WebSocketFrameType;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Encodes a {@link WebSocketFrame} into an {@link HttpData}, as defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc6455#section-5">RFC 6455, Section 5</a>.
+ */
+public final class WebSocketFrameEncoder {
+
+    /**
+     * Encodes the specified {@link WebSocketFrame} into a pooled {@link HttpData}.
+     *
+     * @param mask whether to mask the payload. Must be {@code true} for the frames sent by a client and
+     *             {@code false} for the frames sent by a server.
+     */
+    public static HttpData encode(ByteBufAllocator alloc, WebSocketFrame frame, boolean mask) {
+        return encode(alloc, frame.type(), frame.isFinalFragment(), false, frame.array(), mask);
+    }
+
+    /**
+     * Encodes a frame with the specified properties into a pooled {@link HttpData}.
+     *
+     * @param compressed whether the frame is the first frame of a message compressed by
+     *                   {@link PerMessageDeflateEncoder}, which sets the {@code RSV1} bit.
+     */
+    static HttpData encode(ByteBufAllocator alloc, WebSocketFrameType type, boolean finalFragment,
+                           boolean compressed, byte[] payload, boolean mask) {
+        final int length = payload.length;
+        final int headerLength = (length < 126 ? 2 : length <= 0xFFFF ? 4 : 10) + (mask ? 4 : 0);
+        final ByteBuf buf = alloc.buffer(headerLength + length);
+
+        int b0 = type.opcode();
+        if (finalFragment) {
+            b0 |= 0x80;
+        }
+        if (compressed) {
+            b0 |= 0x40;
+        }
+        buf.writeByte(b0);
+
+        final int maskBit = mask ? 0x80 : 0;
+        if (length < 126) {
+            buf.writeByte(maskBit | length);
+        } else if (length <= 0xFFFF) {
+            buf.writeByte(maskBit | 126);
+            buf.writeShort(length);
+        } else {
+            buf.writeByte(maskBit | 127);
+            buf.writeLong(length);
+        }
+
+        if (mask) {
+            final int maskingKey = ThreadLocalRandom.current().nextInt();
+            buf.writeInt(maskingKey);
+            for (int i = 0; i < length; i++) {
+                buf.writeByte(payload[i] ^ maskingKey >>> (3 - (i & 3) << 3));
+            }
+        } else {
+            buf.writeBytes(payload);
+        }
+
+        return HttpData.wrap(buf);
+    }
+
+    private WebSocketFrameEncoder() {}
+}
@@ -46,14 +46,18 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
 import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpExpectationFailedEvent;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.LastHttpContent;
@@ -81,12 +85,27 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
     private int receivedRequests;
     private boolean discarding;
 
+    /**
+     * Whether the HTTP/1 decoder has been removed after a WebSocket handshake request. The bytes received
+     * from then on are the frames of the WebSocket session, which are sent as the content of the request.
+     */
+    private boolean webSocketUpgraded;
+
+    /**
+     * Whether the flushes requested while reading should be deferred until {@link #channelReadComplete}
+     * so that the responses of the pipelined requests are written in a batch.
+     */
+    private final boolean batchResponses;
+    private boolean reading;
+    private boolean flushPending;
+
     Http1RequestDecoder(ServerConfig cfg, Channel channel, AsciiString scheme,
                         ServerHttp1ObjectEncoder encoder) {
         this.cfg = cfg;
         this.scheme = scheme;
         inboundTrafficController = InboundTrafficController.ofHttp1(channel);
         this.encoder = encoder;
+        batchResponses = cfg.isHttp1PipelinedResponseBatchingEnabled();
     }
 
     @Override
@@ -97,6 +116,7 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
 
     @Override
     public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfPending(ctx);
         destroyKeepAliveHandler();
         super.handlerRemoved(ctx);
     }
@@ -125,6 +145,10 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        reading = true;
+        if (webSocketUpgraded && msg instanceof ByteBuf) {
+            msg = new DefaultHttpContent((ByteBuf) msg);
+        }
         if (!(msg instanceof HttpObject)) {
             ctx.fireChannelRead(msg);
             return;
@@ -163,8 +187,15 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
                     final boolean hasInvalidExpectHeader = !handle100Continue(id, nettyReq);
 
                     // Convert the Netty HttpHeaders into Armeria RequestHeaders.
-                    final RequestHeaders headers =
-                            ArmeriaHttpUtil.toArmeria(ctx, nettyReq, cfg, scheme.toString());
+                    final boolean webSocketUpgrade = isWebSocketUpgrade(nettyReq);
+                    RequestHeaders headers = ArmeriaHttpUtil.toArmeria(ctx, nettyReq, cfg, scheme.toString());
+                    if (webSocketUpgrade) {
+                        // Keep the 'upgrade' header, which is removed from the HTTP/2 style headers,
+                        // so that a service can tell a WebSocket handshake request.
+                        headers = headers.toBuilder()
+                                         .set(HttpHeaderNames.UPGRADE, HttpHeaderValues.WEBSOCKET.toString())
+                                         .build();
+                    }
 
                     // Do not accept a CONNECT request.
                     if (headers.method() == HttpMethod.CONNECT) {
@@ -201,8 +232,9 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
 
                     // Close the request early when it is certain there will be neither content nor trailers.
                     final EventLoop eventLoop = ctx.channel().eventLoop();
-                    final boolean keepAlive = HttpUtil.isKeepAlive(nettyReq);
-                    if (contentEmpty && !HttpUtil.isTransferEncodingChunked(nettyReq)) {
+                    // No more requests are received after a WebSocket handshake request.
+                    final boolean keepAlive = HttpUtil.isKeepAlive(nettyReq) && !webSocketUpgrade;
+                    if (contentEmpty && !HttpUtil.isTransferEncodingChunked(nettyReq) && !webSocketUpgrade) {
                         this.req = req = new EmptyContentDecodedHttpRequest(
                                 eventLoop, id, 1, headers, keepAlive);
                     } else {
@@ -268,6 +300,16 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
                 }
 
                 if (msg instanceof LastHttpContent) {
+                    if (decodedReq.headers().contains(HttpHeaderNames.UPGRADE)) {
+                        // Keep the request open and remove the HTTP/1 decoder, so that the bytes received
+                        // from now on are sent as the content of the request.
+                        webSocketUpgraded = true;
+                        final HttpServerCodec codec = ctx.pipeline().get(HttpServerCodec.class);
+                        assert codec != null;
+                        codec.removeInboundHandler();
+                        return;
+                    }
+
                     final HttpHeaders trailingHeaders = ((LastHttpContent) msg).trailingHeaders();
                     if (!trailingHeaders.isEmpty()) {
                         decodedReq.write(ArmeriaHttpUtil.toArmeria(trailingHeaders));
@@ -297,6 +339,14 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
         }
     }
 
+    private static boolean isWebSocketUpgrade(HttpRequest nettyReq) {
+        final HttpHeaders nettyHeaders = nettyReq.headers();
+        return nettyReq.method() == io.netty.handler.codec.http.HttpMethod.GET &&
+               nettyReq.protocolVersion().compareTo(HttpVersion.HTTP_1_1) >= 0 &&
+               nettyHeaders.containsValue(HttpHeaderNames.UPGRADE, HttpHeaderValues.WEBSOCKET, true) &&
+               nettyHeaders.containsValue(HttpHeaderNames.CONNECTION, HttpHeaderValues.UPGRADE, true);
+    }
+
     private boolean handle100Continue(int id, HttpRequest nettyReq) {
         final HttpHeaders nettyHeaders = nettyReq.headers();
         if (nettyReq.protocolVersion().compareTo(HttpVersion.HTTP_1_1) < 0) {
@@ -344,6 +394,47 @@ final class Http1RequestDecoder extends ChannelDuplexHandler {
                                    headers, status, message, cause);
     }
 
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        reading = false;
+        ctx.fireChannelReadComplete();
+        flushIfPending(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (!ctx.channel().isWritable()) {
+            // Do not let the unflushed responses pile up.
+            flushIfPending(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (reading && batchResponses) {
+            // Flush the responses of all requests decoded from the current read at once
+            // when the read is complete.
+            flushPending = true;
+            return;
+        }
+        flushPending = false;
+        ctx.flush();
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending(ctx);
+        ctx.close(promise);
+    }
+
+    private void flushIfPending(ChannelHandlerContext ctx) {
+        if (flushPending) {
+            flushPending = false;
+            ctx.flush();
+        }
+    }
+
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
         if (evt instanceof UpgradeEvent) {
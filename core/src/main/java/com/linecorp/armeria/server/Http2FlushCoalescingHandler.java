@@ -0,0 +1,178 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server;
+
+import java.util.concurrent.TimeUnit;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.micrometer.core.instrument.Counter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.Future;
+
+/**
+ * Coalesces the flushes requested by the streams of an HTTP/2 connection, so that the frames written by
+ * multiple streams are sent with a single flush. This handler is placed before
+ * {@link Http2ServerConnectionHandler}, i.e. between the connection handler and the socket or the
+ * {@code SslHandler}. A requested flush is:
+ * <ul>
+ *   <li>deferred until {@code channelReadComplete()} if it was requested while reading,</li>
+ *   <li>performed immediately if more than {@code maxPendingBytes} bytes were written since the last flush,
+ *       or</li>
+ *   <li>performed at the end of the current event loop iteration or after {@code maxFlushDelayMillis},
+ *       otherwise.</li>
+ * </ul>
+ */
+final class Http2FlushCoalescingHandler extends ChannelDuplexHandler {
+
+    private final long maxFlushDelayMillis;
+    private final int maxPendingBytes;
+    private final Counter writes;
+    private final Counter flushRequests;
+    private final Counter flushes;
+    private final Runnable flushTask = this::flushIfPending;
+
+    @Nullable
+    private ChannelHandlerContext ctx;
+    @Nullable
+    private Future<?> scheduledFlush;
+    private boolean readInProgress;
+    private boolean flushPending;
+    private long pendingBytes;
+
+    Http2FlushCoalescingHandler(long maxFlushDelayMillis, int maxPendingBytes,
+                                Counter writes, Counter flushRequests, Counter flushes) {
+        this.maxFlushDelayMillis = maxFlushDelayMillis;
+        this.maxPendingBytes = maxPendingBytes;
+        this.writes = writes;
+        this.flushRequests = flushRequests;
+        this.flushes = flushes;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfPending();
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        writes.increment();
+        if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        } else if (msg instanceof ByteBufHolder) {
+            pendingBytes += ((ByteBufHolder) msg).content().readableBytes();
+        }
+        ctx.write(msg, promise);
+
+        if (flushPending && pendingBytes >= maxPendingBytes) {
+            flushNow(ctx);
+        }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        flushRequests.increment();
+        if (pendingBytes >= maxPendingBytes) {
+            flushNow(ctx);
+            return;
+        }
+
+        flushPending = true;
+        if (readInProgress) {
+            // Will be flushed in channelReadComplete().
+            return;
+        }
+
+        if (scheduledFlush == null) {
+            if (maxFlushDelayMillis > 0) {
+                scheduledFlush = ctx.executor().schedule(flushTask, maxFlushDelayMillis,
+                                                         TimeUnit.MILLISECONDS);
+            } else {
+                scheduledFlush = ctx.executor().submit(flushTask);
+            }
+        }
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        readInProgress = true;
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        // Let Http2ConnectionHandler request its flush first, so that it is coalesced with the others.
+        ctx.fireChannelReadComplete();
+        readInProgress = false;
+        flushIfPending();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (!ctx.channel().isWritable()) {
+            // Flush the pending frames so that the channel becomes writable again.
+            flushIfPending();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        flushIfPending();
+        ctx.fireExceptionCaught(cause);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending();
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfPending();
+        ctx.close(promise);
+    }
+
+    private void flushIfPending() {
+        if (flushPending) {
+            assert ctx != null;
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        final Future<?> scheduledFlush = this.scheduledFlush;
+        if (scheduledFlush != null) {
+            this.scheduledFlush = null;
+            scheduledFlush.cancel(false);
+        }
+        flushPending = false;
+        pendingBytes = 0;
+        flushes.increment();
+        ctx.flush();
+    }
+}
@@ -25,6 +25,7 @@ import com.linecorp.armeria.internal.common.InitiateConnectionShutdown;
 import com.linecorp.armeria.internal.common.KeepAliveHandler;
 import com.linecorp.armeria.internal.common.NoopKeepAliveHandler;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
@@ -117,6 +118,16 @@ final class Http2ServerConnectionHandler extends AbstractHttp2ConnectionHandler
 
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        if (cfg.isHttp2FlushCoalescingEnabled()) {
+            // Add before this handler so that the flushes requested by the streams are coalesced
+            // before reaching the socket or the SslHandler.
+            final MeterRegistry meterRegistry = cfg.meterRegistry();
+            ctx.pipeline().addBefore(ctx.name(), null, new Http2FlushCoalescingHandler(
+                    cfg.http2MaxFlushDelayMillis(), cfg.http2MaxPendingFlushBytes(),
+                    meterRegistry.counter("armeria.server.http2.writes"),
+                    meterRegistry.counter("armeria.server.http2.flush.requests"),
+                    meterRegistry.counter("armeria.server.http2.flushes")));
+        }
         maybeInitializeKeepAliveHandler(ctx);
         super.handlerAdded(ctx);
     }
@@ -150,7 +150,8 @@ final class HttpResponseSubscriber implements Subscriber<HttpObject> {
                 final ResponseHeaders headers = (ResponseHeaders) o;
                 final HttpStatus status = headers.status();
                 final ResponseHeaders merged;
-                if (status.isInformational()) {
+                final boolean switchingProtocols = isSwitchingProtocols(status);
+                if (status.isInformational() && !switchingProtocols) {
                     if (endOfStream) {
                         req.abortResponse(new IllegalStateException(
                                 "published an informational headers whose endOfStream is true: " + o +
@@ -168,7 +169,7 @@ final class HttpResponseSubscriber implements Subscriber<HttpObject> {
 
                     if (req.method() == HttpMethod.HEAD) {
                         endOfStream = true;
-                    } else if (status.isContentAlwaysEmpty()) {
+                    } else if (status.isContentAlwaysEmpty() && !switchingProtocols) {
                         state = State.NEEDS_TRAILERS;
                     } else {
                         state = State.NEEDS_DATA_OR_TRAILERS;
@@ -248,6 +249,16 @@ final class HttpResponseSubscriber implements Subscriber<HttpObject> {
         ctx.flush();
     }
 
+    /**
+     * Returns whether the specified {@link HttpStatus} accepts the protocol upgrade requested with
+     * an HTTP/1 {@code "upgrade"} header, e.g. a WebSocket handshake. The data which follows
+     * a {@code 101 Switching Protocols} response belongs to the new protocol.
+     */
+    private boolean isSwitchingProtocols(HttpStatus status) {
+        return status == HttpStatus.SWITCHING_PROTOCOLS && !reqCtx.sessionProtocol().isMultiplex() &&
+               req.headers().contains(HttpHeaderNames.UPGRADE);
+    }
+
     private boolean failIfStreamOrSessionClosed() {
         // Make sure that a stream exists before writing data.
         // The following situation may cause the data to be written to a closed stream.
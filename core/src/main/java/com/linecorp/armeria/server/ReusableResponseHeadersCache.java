@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.linecorp.armeria.common.Http1HeaderNaming;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpHeadersBuilder;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.internal.common.ArmeriaHttpUtil;
+import com.linecorp.armeria.internal.common.util.HttpTimestampSupplier;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
+
+/**
+ * Caches the converted form of the {@link ResponseHeaders} marked with {@link ResponseHeaders#toReusable()}
+ * so that they are not converted into Netty headers again whenever they are sent. The header names and
+ * values are stored as {@link AsciiString}s, whose bytes and hash codes are computed only once, so that
+ * Netty can copy them into the outbound buffer or the HPACK encoder without encoding them again.
+ */
+final class ReusableResponseHeadersCache {
+
+    // The reusable headers are usually constants, so we do not expect many entries.
+    private static final int MAX_NUM_ENTRIES = 1024;
+
+    private static final Cache<ResponseHeaders, Http1Entry> http1Cache = newCache();
+    private static final Cache<ResponseHeaders, Http2Entry> http2Cache = newCache();
+
+    private static <V> Cache<ResponseHeaders, V> newCache() {
+        // Weak keys are compared by their identity and removed when the headers are garbage-collected.
+        return Caffeine.newBuilder()
+                       .weakKeys()
+                       .maximumSize(MAX_NUM_ENTRIES)
+                       .build();
+    }
+
+    /**
+     * Returns the HTTP/1 headers converted from the specified reusable {@link ResponseHeaders}, with the
+     * {@code "server"} header added if necessary. The returned headers must not be modified.
+     */
+    static HttpHeaders http1Headers(ResponseHeaders headers, Http1HeaderNaming http1HeaderNaming,
+                                    boolean enableServerHeader) {
+        assert headers.isReusable();
+        final Http1Entry entry = http1Cache.getIfPresent(headers);
+        if (entry != null && entry.http1HeaderNaming == http1HeaderNaming &&
+            entry.enableServerHeader == enableServerHeader) {
+            return entry.headers;
+        }
+
+        final Http1Entry newEntry = new Http1Entry(headers, http1HeaderNaming, enableServerHeader);
+        http1Cache.put(headers, newEntry);
+        return newEntry.headers;
+    }
+
+    /**
+     * Returns the HTTP/2 headers converted from the specified reusable {@link ResponseHeaders}, with the
+     * {@code "server"} and {@code "date"} headers added if necessary. The returned headers must not be
+     * modified.
+     */
+    static Http2Headers http2Headers(ResponseHeaders headers, boolean enableServerHeader,
+                                     boolean enableDateHeader) {
+        assert headers.isReusable();
+        final Http2Entry entry = http2Cache.getIfPresent(headers);
+        if (entry != null && entry.enableServerHeader == enableServerHeader &&
+            entry.enableDateHeader == enableDateHeader) {
+            return entry.headers();
+        }
+
+        final Http2Entry newEntry = new Http2Entry(headers, enableServerHeader, enableDateHeader);
+        http2Cache.put(headers, newEntry);
+        return newEntry.headers();
+    }
+
+    private static final class Http1Entry {
+
+        final Http1HeaderNaming http1HeaderNaming;
+        final boolean enableServerHeader;
+        final HttpHeaders headers;
+
+        Http1Entry(ResponseHeaders headers, Http1HeaderNaming http1HeaderNaming, boolean enableServerHeader) {
+            this.http1HeaderNaming = http1HeaderNaming;
+            this.enableServerHeader = enableServerHeader;
+
+            final HttpHeaders converted = new DefaultHttpHeaders(false);
+            ArmeriaHttpUtil.toNettyHttp1ServerHeaders(headers, converted, http1HeaderNaming);
+            if (enableServerHeader && !converted.contains(HttpHeaderNames.SERVER)) {
+                converted.add(HttpHeaderNames.SERVER, ArmeriaHttpUtil.SERVER_HEADER);
+            }
+
+            final HttpHeaders asciiHeaders = new DefaultHttpHeaders(false);
+            for (final Iterator<Entry<CharSequence, CharSequence>> i = converted.iteratorCharSequence();
+                 i.hasNext();) {
+                final Entry<CharSequence, CharSequence> e = i.next();
+                asciiHeaders.add(AsciiString.of(e.getKey()), AsciiString.of(e.getValue()));
+            }
+            this.headers = asciiHeaders;
+        }
+    }
+
+    private static final class Http2Entry {
+
+        final boolean enableServerHeader;
+        final boolean enableDateHeader;
+        private final Http2Headers headers;
+        private final boolean addDateHeader;
+
+        /**
+         * The {@link #headers} with the {@code "date"} header, which is updated every second.
+         */
+        @Nullable
+        private volatile DatedHttp2Headers datedHeaders;
+
+        Http2Entry(ResponseHeaders headers, boolean enableServerHeader, boolean enableDateHeader) {
+            this.enableServerHeader = enableServerHeader;
+            this.enableDateHeader = enableDateHeader;
+            addDateHeader = enableDateHeader && !headers.contains(HttpHeaderNames.DATE);
+
+            final HttpHeadersBuilder builder = headers.toBuilder();
+            if (enableServerHeader && !headers.contains(HttpHeaderNames.SERVER)) {
+                builder.add(HttpHeaderNames.SERVER, ArmeriaHttpUtil.SERVER_HEADER);
+            }
+            final Http2Headers converted = ArmeriaHttpUtil.toNettyHttp2ServerHeaders(builder);
+            final Http2Headers asciiHeaders = new DefaultHttp2Headers(false, converted.size() + 1);
+            for (Entry<CharSequence, CharSequence> e : converted) {
+                asciiHeaders.add(AsciiString.of(e.getKey()), AsciiString.of(e.getValue()));
+            }
+            this.headers = asciiHeaders;
+        }
+
+        Http2Headers headers() {
+            if (!addDateHeader) {
+                return headers;
+            }
+
+            final String date = HttpTimestampSupplier.currentTime();
+            final DatedHttp2Headers datedHeaders = this.datedHeaders;
+            if (datedHeaders != null && datedHeaders.date.equals(date)) {
+                return datedHeaders.headers;
+            }
+
+            final Http2Headers newHeaders = new DefaultHttp2Headers(false, headers.size() + 1);
+            newHeaders.set(headers);
+            newHeaders.add(HttpHeaderNames.DATE, AsciiString.of(date));
+            this.datedHeaders = new DatedHttp2Headers(date, newHeaders);
+            return newHeaders;
+        }
+    }
+
+    private static final class DatedHttp2Headers {
+
+        final String date;
+        final Http2Headers headers;
+
+        DatedHttp2Headers(String date, Http2Headers headers) {
+            this.date = date;
+            this.headers = headers;
+        }
+    }
+
+    private ReusableResponseHeadersCache() {}
+}
@@ -152,6 +152,7 @@ public final class ServerBuilder {
     @VisibleForTesting
     static final long MIN_PING_INTERVAL_MILLIS = 1000L;
     private static final long MIN_MAX_CONNECTION_AGE_MILLIS = 1_000L;
+    static final int DEFAULT_HTTP2_MAX_PENDING_FLUSH_BYTES = 65536;
 
     static {
         RequestContextUtil.init();
@@ -180,9 +181,13 @@ public final class ServerBuilder {
     private long http2MaxStreamsPerConnection = Flags.defaultHttp2MaxStreamsPerConnection();
     private int http2MaxFrameSize = Flags.defaultHttp2MaxFrameSize();
     private long http2MaxHeaderListSize = Flags.defaultHttp2MaxHeaderListSize();
+    private boolean http2FlushCoalescing;
+    private long http2MaxFlushDelayMillis;
+    private int http2MaxPendingFlushBytes = DEFAULT_HTTP2_MAX_PENDING_FLUSH_BYTES;
     private int http1MaxInitialLineLength = Flags.defaultHttp1MaxInitialLineLength();
     private int http1MaxHeaderSize = Flags.defaultHttp1MaxHeaderSize();
     private int http1MaxChunkSize = Flags.defaultHttp1MaxChunkSize();
+    private boolean http1PipelinedResponseBatching;
     private int proxyProtocolMaxTlvSize = PROXY_PROTOCOL_DEFAULT_MAX_TLV_SIZE;
     private Duration gracefulShutdownQuietPeriod = DEFAULT_GRACEFUL_SHUTDOWN_QUIET_PERIOD;
     private Duration gracefulShutdownTimeout = DEFAULT_GRACEFUL_SHUTDOWN_TIMEOUT;
@@ -716,6 +721,67 @@ public final class ServerBuilder {
         return this;
     }
 
+    /**
+     * Sets whether to coalesce the flushes of an HTTP/2 connection. If enabled, the frames written by
+     * the streams of a connection are not flushed one by one but flushed together at the end of the current
+     * event loop iteration, or after {@link #http2MaxFlushDelay(Duration)} if specified. This reduces
+     * the number of system calls and TLS records when a connection has many concurrent streams
+     * which write small frames, e.g. gRPC unary calls, at the cost of slightly increased latency.
+     * This option is disabled by default.
+     *
+     * <p>The number of the writes and flushes are recorded into the {@link MeterRegistry} with the meter
+     * names {@code "armeria.server.http2.writes"}, {@code "armeria.server.http2.flush.requests"} and
+     * {@code "armeria.server.http2.flushes"} so that you can tell how many flushes were coalesced.
+     *
+     * @see #http2MaxFlushDelay(Duration)
+     * @see #http2MaxPendingFlushBytes(int)
+     */
+    @UnstableApi
+    public ServerBuilder http2FlushCoalescing(boolean http2FlushCoalescing) {
+        this.http2FlushCoalescing = http2FlushCoalescing;
+        return this;
+    }
+
+    /**
+     * Sets the maximum amount of time to delay a flush of an HTTP/2 connection when
+     * {@linkplain #http2FlushCoalescing(boolean) flush coalescing} is enabled. A longer delay lets
+     * more frames be flushed together but increases latency. {@link Duration#ZERO} means the flush is
+     * performed at the end of the current event loop iteration, which is the default.
+     */
+    @UnstableApi
+    public ServerBuilder http2MaxFlushDelay(Duration http2MaxFlushDelay) {
+        requireNonNull(http2MaxFlushDelay, "http2MaxFlushDelay");
+        return http2MaxFlushDelayMillis(http2MaxFlushDelay.toMillis());
+    }
+
+    /**
+     * Sets the maximum number of milliseconds to delay a flush of an HTTP/2 connection when
+     * {@linkplain #http2FlushCoalescing(boolean) flush coalescing} is enabled. A longer delay lets
+     * more frames be flushed together but increases latency. {@code 0} means the flush is performed
+     * at the end of the current event loop iteration, which is the default.
+     */
+    @UnstableApi
+    public ServerBuilder http2MaxFlushDelayMillis(long http2MaxFlushDelayMillis) {
+        checkArgument(http2MaxFlushDelayMillis >= 0,
+                      "http2MaxFlushDelayMillis: %s (expected: >= 0)", http2MaxFlushDelayMillis);
+        this.http2MaxFlushDelayMillis = http2MaxFlushDelayMillis;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of bytes which can be written to an HTTP/2 connection without being
+     * flushed when {@linkplain #http2FlushCoalescing(boolean) flush coalescing} is enabled. Once the
+     * number of the pending bytes exceeds this value, the requested flush is performed immediately.
+     * Defaults to {@value #DEFAULT_HTTP2_MAX_PENDING_FLUSH_BYTES} bytes.
+     */
+    @UnstableApi
+    public ServerBuilder http2MaxPendingFlushBytes(int http2MaxPendingFlushBytes) {
+        checkArgument(http2MaxPendingFlushBytes > 0,
+                      "http2MaxPendingFlushBytes: %s (expected: > 0)", http2MaxPendingFlushBytes);
+        this.http2MaxPendingFlushBytes = http2MaxPendingFlushBytes;
+        return this;
+    }
+
     /**
      * Sets the maximum length of an HTTP/1 response initial line.
      */
@@ -743,6 +809,20 @@ public final class ServerBuilder {
         return this;
     }
 
+    /**
+     * Sets whether to write the responses of the pipelined HTTP/1 requests in a batch. If enabled,
+     * the responses completed while a burst of pipelined requests is being decoded are not flushed one by
+     * one but flushed together when the burst has been read, so that they are sent with a single
+     * gathering write. The responses completed out of order are still sent in the order of the requests.
+     * This improves the throughput of the clients which pipeline many small requests, at the cost of
+     * slightly delaying the responses which are produced while reading. This option is disabled by default.
+     */
+    @UnstableApi
+    public ServerBuilder http1PipelinedResponseBatching(boolean http1PipelinedResponseBatching) {
+        this.http1PipelinedResponseBatching = http1PipelinedResponseBatching;
+        return this;
+    }
+
     /**
      * Sets the amount of time to wait after calling {@link Server#stop()} for
      * requests to go away before actually shutting down.
@@ -809,6 +889,22 @@ public final class ServerBuilder {
         return blockingTaskExecutor(executor, true);
     }
 
+    /**
+     * Uses a newly created {@link BlockingTaskExecutor} which runs each blocking task or invocation in
+     * a new virtual thread. Virtual threads require Java 21 or above; a thread pool with
+     * {@link Flags#numCommonBlockingTaskThreads()} threads is used if they are not available.
+     * The {@link BlockingTaskExecutor} will be shut down when the {@link Server} stops.
+     * Note that the {@link RequestContext} is propagated to the virtual threads as it is to the pooled ones
+     * when a task is submitted via {@link ServiceRequestContext#blockingTaskExecutor()}.
+     */
+    @UnstableApi
+    public ServerBuilder blockingTaskExecutorWithVirtualThreads() {
+        final BlockingTaskExecutor executor = BlockingTaskExecutor.builder()
+                                                                  .useVirtualThreads(true)
+                                                                  .build();
+        return blockingTaskExecutor(executor, true);
+    }
+
     /**
      * Sets the {@link MeterRegistry} that collects various stats.
      */
@@ -1821,7 +1917,8 @@ public final class ServerBuilder {
                 meterRegistry, proxyProtocolMaxTlvSize, channelOptions, newChildChannelOptions,
                 clientAddressSources, clientAddressTrustedProxyFilter, clientAddressFilter, clientAddressMapper,
                 enableServerHeader, enableDateHeader, requestIdGenerator, errorHandler, sslContexts,
-                http1HeaderNaming);
+                http1HeaderNaming, http2FlushCoalescing, http2MaxFlushDelayMillis,
+                http2MaxPendingFlushBytes, http1PipelinedResponseBatching);
     }
 
     /**
@@ -41,6 +41,7 @@ import com.linecorp.armeria.common.Http1HeaderNaming;
 import com.linecorp.armeria.common.Request;
 import com.linecorp.armeria.common.RequestId;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.util.BlockingTaskExecutor;
 
 import io.micrometer.core.instrument.MeterRegistry;
@@ -114,6 +115,10 @@ public final class ServerConfig {
     private final Supplier<RequestId> requestIdGenerator;
     private final ServerErrorHandler errorHandler;
     private final Http1HeaderNaming http1HeaderNaming;
+    private final boolean http2FlushCoalescingEnabled;
+    private final long http2MaxFlushDelayMillis;
+    private final int http2MaxPendingFlushBytes;
+    private final boolean http1PipelinedResponseBatchingEnabled;
 
     @Nullable
     private final Mapping<String, SslContext> sslContexts;
@@ -143,7 +148,9 @@ public final class ServerConfig {
             Supplier<? extends RequestId> requestIdGenerator,
             ServerErrorHandler errorHandler,
             @Nullable Mapping<String, SslContext> sslContexts,
-            Http1HeaderNaming http1HeaderNaming) {
+            Http1HeaderNaming http1HeaderNaming, boolean http2FlushCoalescingEnabled,
+            long http2MaxFlushDelayMillis, int http2MaxPendingFlushBytes,
+            boolean http1PipelinedResponseBatchingEnabled) {
         requireNonNull(ports, "ports");
         requireNonNull(defaultVirtualHost, "defaultVirtualHost");
         requireNonNull(virtualHosts, "virtualHosts");
@@ -257,6 +264,12 @@ public final class ServerConfig {
         this.errorHandler = requireNonNull(errorHandler, "errorHandler");
         this.sslContexts = sslContexts;
         this.http1HeaderNaming = requireNonNull(http1HeaderNaming, "http1HeaderNaming");
+        this.http2FlushCoalescingEnabled = http2FlushCoalescingEnabled;
+        this.http2MaxFlushDelayMillis = validateNonNegative(http2MaxFlushDelayMillis,
+                                                            "http2MaxFlushDelayMillis");
+        this.http2MaxPendingFlushBytes = validateNonNegative(http2MaxPendingFlushBytes,
+                                                             "http2MaxPendingFlushBytes");
+        this.http1PipelinedResponseBatchingEnabled = http1PipelinedResponseBatchingEnabled;
     }
 
     private static Int2ObjectMap<Mapping<String, VirtualHost>> buildDomainAndPortMapping(
@@ -756,6 +769,47 @@ public final class ServerConfig {
         return http1HeaderNaming;
     }
 
+    /**
+     * Returns whether the flushes of an HTTP/2 connection are coalesced so that the frames written by
+     * multiple streams are sent with a single flush.
+     *
+     * @see #http2MaxFlushDelayMillis()
+     * @see #http2MaxPendingFlushBytes()
+     */
+    @UnstableApi
+    public boolean isHttp2FlushCoalescingEnabled() {
+        return http2FlushCoalescingEnabled;
+    }
+
+    /**
+     * Returns the maximum number of milliseconds to delay a flush of an HTTP/2 connection when
+     * {@linkplain #isHttp2FlushCoalescingEnabled() flush coalescing} is enabled. {@code 0} means
+     * the requested flushes are performed at the end of the current event loop iteration.
+     */
+    @UnstableApi
+    public long http2MaxFlushDelayMillis() {
+        return http2MaxFlushDelayMillis;
+    }
+
+    /**
+     * Returns the maximum number of bytes which can be written to an HTTP/2 connection without being
+     * flushed when {@linkplain #isHttp2FlushCoalescingEnabled() flush coalescing} is enabled.
+     * A flush is performed immediately once the number of pending bytes exceeds this value.
+     */
+    @UnstableApi
+    public int http2MaxPendingFlushBytes() {
+        return http2MaxPendingFlushBytes;
+    }
+
+    /**
+     * Returns whether the responses of the pipelined HTTP/1 requests which were decoded in the same read
+     * are flushed together rather than one by one.
+     */
+    @UnstableApi
+    public boolean isHttp1PipelinedResponseBatchingEnabled() {
+        return http1PipelinedResponseBatchingEnabled;
+    }
+
     @Override
     public String toString() {
         String strVal = this.strVal;
@@ -40,8 +40,11 @@ import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 
 final class ServerHttp1ObjectEncoder extends Http1ObjectEncoder implements ServerHttpObjectEncoder {
     private final KeepAliveHandler keepAliveHandler;
@@ -52,7 +55,12 @@ final class ServerHttp1ObjectEncoder extends Http1ObjectEncoder implements Serve
     private boolean shouldSendConnectionCloseHeader;
     private boolean sentConnectionCloseHeader;
 
-    private int lastResponseHeadersId;
+    /**
+     * The IDs of the requests whose response headers have been written but whose responses have not been
+     * completed yet. A response can be written before the responses of its preceding requests when
+     * the pipelined requests are completed out of order.
+     */
+    private final IntSet responseHeadersSentIds = new IntOpenHashSet();
 
     ServerHttp1ObjectEncoder(Channel ch, SessionProtocol protocol, KeepAliveHandler keepAliveHandler,
                              boolean enableDateHeader, boolean enableServerHeader,
@@ -83,10 +91,16 @@ final class ServerHttp1ObjectEncoder extends Http1ObjectEncoder implements Serve
         }
 
         final HttpResponse converted = convertHeaders(headers, endStream, isTrailersEmpty);
+        if (headers.status() == HttpStatus.SWITCHING_PROTOCOLS) {
+            // Sent only when the request asked for a protocol upgrade, e.g. a WebSocket handshake.
+            addResponseHeadersSentId(id);
+            converted.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.UPGRADE);
+            return writeSwitchingProtocolsHeaders(id, converted, endStream);
+        }
         if (headers.status().isInformational()) {
             return write(id, converted, false);
         }
-        lastResponseHeadersId = id;
+        addResponseHeadersSentId(id);
 
         if (shouldSendConnectionCloseHeader || keepAliveHandler.needToCloseConnection()) {
             converted.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
@@ -132,9 +146,15 @@ final class ServerHttp1ObjectEncoder extends Http1ObjectEncoder implements Serve
         return res;
     }
 
-    private void convertHeaders(HttpHeaders inHeaders, io.netty.handler.codec.http.HttpHeaders outHeaders,
+    private void convertHeaders(ResponseHeaders inHeaders, io.netty.handler.codec.http.HttpHeaders outHeaders,
                                 boolean isTrailersEmpty) {
-        ArmeriaHttpUtil.toNettyHttp1ServerHeaders(inHeaders, outHeaders, http1HeaderNaming);
+        if (inHeaders.isReusable()) {
+            // The cached headers contain the "server" header already if necessary.
+            outHeaders.set(ReusableResponseHeadersCache.http1Headers(inHeaders, http1HeaderNaming,
+                                                                     enableServerHeader));
+        } else {
+            ArmeriaHttpUtil.toNettyHttp1ServerHeaders(inHeaders, outHeaders, http1HeaderNaming);
+        }
 
         if (!isTrailersEmpty && outHeaders.contains(HttpHeaderNames.CONTENT_LENGTH)) {
             // We don't apply chunked encoding when the content-length header is set, which would
@@ -168,6 +188,15 @@ final class ServerHttp1ObjectEncoder extends Http1ObjectEncoder implements Serve
         ArmeriaHttpUtil.toNettyHttp1ServerTrailers(inputHeaders, outputHeaders, http1HeaderNaming);
     }
 
+    @Override
+    protected void onProtocolSwitched() {
+        final HttpServerCodec codec = channel().pipeline().get(HttpServerCodec.class);
+        if (codec != null) {
+            // The content of the response is written as is from now on.
+            codec.removeOutboundHandler();
+        }
+    }
+
     @Override
     protected boolean isPing(int id) {
         return false;
@@ -177,9 +206,18 @@ final class ServerHttp1ObjectEncoder extends Http1ObjectEncoder implements Serve
         return sentConnectionCloseHeader;
     }
 
+    private void addResponseHeadersSentId(int id) {
+        if (!responseHeadersSentIds.isEmpty()) {
+            // Forget the IDs of the completed responses.
+            final int currentId = currentId();
+            responseHeadersSentIds.removeIf((int sentId) -> sentId < currentId);
+        }
+        responseHeadersSentIds.add(id);
+    }
+
     @Override
     public boolean isResponseHeadersSent(int id, int streamId) {
-        return id <= lastResponseHeadersId;
+        return id < currentId() || responseHeadersSentIds.contains(id);
     }
 
     @Override
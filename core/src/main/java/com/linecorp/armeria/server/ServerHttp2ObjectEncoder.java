@@ -90,6 +90,12 @@ final class ServerHttp2ObjectEncoder extends Http2ObjectEncoder implements Serve
     }
 
     private Http2Headers convertHeaders(ResponseHeaders inputHeaders, boolean isTrailersEmpty) {
+        if (inputHeaders.isReusable() &&
+            (isTrailersEmpty || !inputHeaders.contains(HttpHeaderNames.CONTENT_LENGTH))) {
+            return ReusableResponseHeadersCache.http2Headers(inputHeaders, enableServerHeader,
+                                                             enableDateHeader);
+        }
+
         final HttpHeadersBuilder builder = inputHeaders.toBuilder();
         if (enableServerHeader && !inputHeaders.contains(HttpHeaderNames.SERVER)) {
             builder.add(HttpHeaderNames.SERVER, ArmeriaHttpUtil.SERVER_HEADER);
@@ -63,7 +63,9 @@ import com.google.common.net.HostAndPort;
 
 import com.linecorp.armeria.common.CommonPools;
 import com.linecorp.armeria.common.Flags;
+import com.linecorp.armeria.common.RequestContext;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 import com.linecorp.armeria.common.util.BlockingTaskExecutor;
 import com.linecorp.armeria.common.util.SystemInfo;
 import com.linecorp.armeria.internal.common.util.SelfSignedCertificate;
@@ -923,6 +925,22 @@ public final class VirtualHostBuilder {
         return blockingTaskExecutor(executor, true);
     }
 
+    /**
+     * Uses a newly created {@link BlockingTaskExecutor} which runs each blocking task or invocation in
+     * a new virtual thread. Virtual threads require Java 21 or above; a thread pool with
+     * {@link Flags#numCommonBlockingTaskThreads()} threads is used if they are not available.
+     * The {@link BlockingTaskExecutor} will be shut down when the {@link Server} stops.
+     * Note that the {@link RequestContext} is propagated to the virtual threads as it is to the pooled ones
+     * when a task is submitted via {@link ServiceRequestContext#blockingTaskExecutor()}.
+     */
+    @UnstableApi
+    public VirtualHostBuilder blockingTaskExecutorWithVirtualThreads() {
+        final BlockingTaskExecutor executor = BlockingTaskExecutor.builder()
+                                                                  .useVirtualThreads(true)
+                                                                  .build();
+        return blockingTaskExecutor(executor, true);
+    }
+
     /**
      * Sets the {@link RequestConverterFunction}s, {@link ResponseConverterFunction}
      * and {@link ExceptionHandlerFunction}s for creating an {@link AnnotatedServiceExtensions}.
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AsciiString;
+import io.netty.util.IllegalReferenceCountException;
+
+/**
+ * A response cached by {@link ResponseCachingService}. The content is kept either in a byte array or in
+ * a pooled {@link ByteBuf} which is released when the response is evicted.
+ */
+final class CachedResponse {
+
+    private final ResponseHeaders headers;
+    private final HttpData content;
+    @Nullable
+    private final ByteBuf buf;
+    private final HttpHeaders trailers;
+    private final long createdNanos;
+    private final long timeToLiveNanos;
+
+    /**
+     * Creates a new instance which takes the ownership of the content of the specified
+     * {@link AggregatedHttpResponse}.
+     */
+    CachedResponse(AggregatedHttpResponse res, long timeToLiveNanos) {
+        headers = res.headers();
+        content = res.content();
+        buf = content.isPooled() ? content.byteBuf() : null;
+        trailers = res.trailers();
+        createdNanos = System.nanoTime();
+        this.timeToLiveNanos = timeToLiveNanos;
+    }
+
+    long timeToLiveNanos() {
+        return timeToLiveNanos;
+    }
+
+    /**
+     * Returns the estimated number of bytes taken by this response.
+     */
+    int estimatedSize() {
+        int size = content.length();
+        size += estimatedSize(headers);
+        size += estimatedSize(trailers);
+        return size;
+    }
+
+    private static int estimatedSize(HttpHeaders headers) {
+        int size = 0;
+        for (AsciiString name : headers.names()) {
+            size += name.length();
+            for (String value : headers.getAll(name)) {
+                size += value.length();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns a new {@link HttpResponse} which serves this cached response with the {@code "age"} header,
+     * or {@code null} if the content has been released by the eviction.
+     */
+    @Nullable
+    HttpResponse toHttpResponse() {
+        final HttpData content;
+        if (buf != null) {
+            try {
+                content = HttpData.wrap(buf.retainedDuplicate());
+            } catch (IllegalReferenceCountException e) {
+                // Evicted concurrently.
+                return null;
+            }
+        } else {
+            content = this.content;
+        }
+        final long ageSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - createdNanos);
+        final ResponseHeaders headers = this.headers.toBuilder()
+                                                    .setLong(HttpHeaderNames.AGE, ageSeconds)
+                                                    .build();
+        return HttpResponse.of(headers, content, trailers);
+    }
+
+    /**
+     * Releases the pooled content of this response.
+     */
+    void release() {
+        if (buf != null) {
+            buf.release();
+        }
+    }
+}
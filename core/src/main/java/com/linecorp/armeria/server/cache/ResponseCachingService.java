@@ -0,0 +1,264 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.ServerCacheControl;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.armeria.server.SimpleDecoratingHttpService;
+
+import io.netty.util.AsciiString;
+
+/**
+ * Decorates an {@link HttpService} to cache the responses of {@code GET} requests, following
+ * the {@link ServerCacheControl} of the responses as a shared cache does. A response is cached for
+ * {@code "s-maxage"}, {@code "max-age"} or {@link ResponseCachingServiceBuilder#defaultMaxAgeSeconds(long)}
+ * in the order of precedence, unless it has {@code "no-store"}, {@code "no-cache"}, {@code "private"} or
+ * {@code "set-cookie"}. The response of a request with an {@code "authorization"} header is cached only if
+ * it has {@code "public"}, {@code "s-maxage"} or {@code "must-revalidate"}.
+ *
+ * <p>The concurrent requests with the same cache key which miss the cache are collapsed into one
+ * invocation of the decorated {@link HttpService}, and the other requests wait for its response.
+ * If the response turns out not cacheable, they invoke the decorated {@link HttpService} by themselves.
+ *
+ * <pre>{@code
+ * ServerBuilder sb = Server.builder();
+ * sb.annotatedService(new MyReadService(),
+ *                     ResponseCachingService.builder()
+ *                                           .varyingHeaders(HttpHeaderNames.ACCEPT_LANGUAGE)
+ *                                           .maxSizeInBytes(64 * 1024 * 1024)
+ *                                           .newDecorator());
+ * }</pre>
+ */
+public final class ResponseCachingService extends SimpleDecoratingHttpService {
+
+    /**
+     * Returns a new {@link HttpService} decorator which caches the responses with the default
+     * configuration.
+     */
+    public static Function<? super HttpService, ResponseCachingService> newDecorator() {
+        return builder().newDecorator();
+    }
+
+    /**
+     * Returns a new {@link ResponseCachingServiceBuilder}.
+     */
+    public static ResponseCachingServiceBuilder builder() {
+        return new ResponseCachingServiceBuilder();
+    }
+
+    private final Function<? super ServiceRequestContext, String> cacheKeyFunction;
+    private final List<AsciiString> varyingHeaders;
+    private final long defaultMaxAgeSeconds;
+    private final boolean usePooledBuffers;
+    private final Cache<String, CachedResponse> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<CachedResponse>> inflights =
+            new ConcurrentHashMap<>();
+
+    ResponseCachingService(HttpService delegate,
+                           Function<? super ServiceRequestContext, String> cacheKeyFunction,
+                           List<AsciiString> varyingHeaders, long maxSizeInBytes,
+                           long defaultMaxAgeSeconds, boolean usePooledBuffers) {
+        super(delegate);
+        this.cacheKeyFunction = cacheKeyFunction;
+        this.varyingHeaders = ImmutableList.copyOf(varyingHeaders);
+        this.defaultMaxAgeSeconds = defaultMaxAgeSeconds;
+        this.usePooledBuffers = usePooledBuffers;
+        cache = Caffeine.newBuilder()
+                        .maximumWeight(maxSizeInBytes)
+                        .<String, CachedResponse>weigher((key, res) -> key.length() + res.estimatedSize())
+                        .expireAfter(new Expiry<String, CachedResponse>() {
+                            @Override
+                            public long expireAfterCreate(String key, CachedResponse res, long currentTime) {
+                                return res.timeToLiveNanos();
+                            }
+
+                            @Override
+                            public long expireAfterUpdate(String key, CachedResponse res,
+                                                          long currentTime, long currentDuration) {
+                                return res.timeToLiveNanos();
+                            }
+
+                            @Override
+                            public long expireAfterRead(String key, CachedResponse res,
+                                                        long currentTime, long currentDuration) {
+                                return currentDuration;
+                            }
+                        })
+                        .<String, CachedResponse>removalListener((key, res, cause) -> {
+                            if (res != null) {
+                                res.release();
+                            }
+                        })
+                        .build();
+    }
+
+    @Override
+    public HttpResponse serve(ServiceRequestContext ctx, HttpRequest req) throws Exception {
+        if (req.method() != HttpMethod.GET) {
+            return unwrap().serve(ctx, req);
+        }
+
+        final String key = cacheKey(ctx, req);
+        final CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            final HttpResponse res = cached.toHttpResponse();
+            if (res != null) {
+                return res;
+            }
+        }
+
+        final CompletableFuture<CachedResponse> future = new CompletableFuture<>();
+        final CompletableFuture<CachedResponse> inflight = inflights.putIfAbsent(key, future);
+        if (inflight != null) {
+            // Wait for the response of the request which is being served.
+            return HttpResponse.from(inflight.thenApplyAsync(res -> {
+                if (res != null) {
+                    final HttpResponse cachedRes = res.toHttpResponse();
+                    if (cachedRes != null) {
+                        return cachedRes;
+                    }
+                }
+                try {
+                    return unwrap().serve(ctx, req);
+                } catch (Exception e) {
+                    return Exceptions.throwUnsafely(e);
+                }
+            }, ctx.eventLoop()));
+        }
+
+        final HttpResponse res;
+        try {
+            res = unwrap().serve(ctx, req);
+        } catch (Throwable t) {
+            complete(key, future, null);
+            throw t;
+        }
+
+        final CompletableFuture<AggregatedHttpResponse> aggregated;
+        if (usePooledBuffers) {
+            aggregated = res.aggregateWithPooledObjects(ctx.eventLoop(), ctx.alloc());
+        } else {
+            aggregated = res.aggregate(ctx.eventLoop());
+        }
+        return HttpResponse.from(aggregated.handle((aggregatedRes, cause) -> {
+            if (cause != null) {
+                complete(key, future, null);
+                return HttpResponse.ofFailure(cause);
+            }
+
+            final long timeToLiveSeconds = timeToLiveSeconds(req.headers(), aggregatedRes.headers());
+            if (timeToLiveSeconds <= 0) {
+                complete(key, future, null);
+                return aggregatedRes.toHttpResponse();
+            }
+
+            final CachedResponse newCached =
+                    new CachedResponse(aggregatedRes, TimeUnit.SECONDS.toNanos(timeToLiveSeconds));
+            // Retain the content for the current request before the cache may evict it.
+            final HttpResponse newRes = newCached.toHttpResponse();
+            assert newRes != null;
+            cache.put(key, newCached);
+            complete(key, future, newCached);
+            return newRes;
+        }));
+    }
+
+    private String cacheKey(ServiceRequestContext ctx, HttpRequest req) {
+        final String key = cacheKeyFunction.apply(ctx);
+        if (varyingHeaders.isEmpty()) {
+            return key;
+        }
+        final StringBuilder buf = new StringBuilder(key);
+        for (AsciiString name : varyingHeaders) {
+            buf.append('\n').append(name).append('=').append(req.headers().getAll(name));
+        }
+        return buf.toString();
+    }
+
+    private void complete(String key, CompletableFuture<CachedResponse> future,
+                          @Nullable CachedResponse res) {
+        inflights.remove(key, future);
+        future.complete(res);
+    }
+
+    /**
+     * Returns how long the response with the specified {@link ResponseHeaders} can be cached,
+     * or {@code 0} if the response must not be cached.
+     */
+    private long timeToLiveSeconds(RequestHeaders reqHeaders, ResponseHeaders headers) {
+        switch (headers.status().code()) {
+            case 200:
+            case 203:
+            case 204:
+            case 300:
+            case 301:
+            case 308:
+            case 404:
+            case 405:
+            case 410:
+            case 414:
+            case 501:
+                break;
+            default:
+                return 0;
+        }
+        if (headers.contains(HttpHeaderNames.SET_COOKIE) || headers.contains(HttpHeaderNames.VARY)) {
+            // Do not share a response for a specific client.
+            // The headers which affect the response have to be specified with varyingHeaders() instead.
+            return 0;
+        }
+
+        final ServerCacheControl cacheControl =
+                ServerCacheControl.parse(headers.getAll(HttpHeaderNames.CACHE_CONTROL));
+        if (cacheControl.noStore() || cacheControl.noCache() || cacheControl.cachePrivate()) {
+            return 0;
+        }
+        if (reqHeaders.contains(HttpHeaderNames.AUTHORIZATION) && !cacheControl.cachePublic() &&
+            cacheControl.sMaxAgeSeconds() < 0 && !cacheControl.mustRevalidate()) {
+            // A shared cache must not store the response of an authenticated request unless allowed.
+            // See https://datatracker.ietf.org/doc/html/rfc9111#section-3.5
+            return 0;
+        }
+        if (cacheControl.sMaxAgeSeconds() >= 0) {
+            return cacheControl.sMaxAgeSeconds();
+        }
+        if (cacheControl.maxAgeSeconds() >= 0) {
+            return cacheControl.maxAgeSeconds();
+        }
+        return defaultMaxAgeSeconds;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+import io.netty.util.AsciiString;
+
+/**
+ * Builds a new {@link ResponseCachingService} or its decorator function.
+ */
+public final class ResponseCachingServiceBuilder {
+
+    static final long DEFAULT_MAX_SIZE_IN_BYTES = 32 * 1024 * 1024;
+
+    private static final Function<? super ServiceRequestContext, String> DEFAULT_CACHE_KEY_FUNCTION =
+            ctx -> {
+                final String query = ctx.query();
+                final String hostnamePattern = ctx.config().virtualHost().hostnamePattern();
+                return query == null ? hostnamePattern + ctx.path()
+                                     : hostnamePattern + ctx.path() + '?' + query;
+            };
+
+    private Function<? super ServiceRequestContext, String> cacheKeyFunction = DEFAULT_CACHE_KEY_FUNCTION;
+    private ImmutableList<AsciiString> varyingHeaders = ImmutableList.of();
+    private long maxSizeInBytes = DEFAULT_MAX_SIZE_IN_BYTES;
+    private long defaultMaxAgeSeconds;
+    private boolean usePooledBuffers;
+
+    ResponseCachingServiceBuilder() {}
+
+    /**
+     * Sets the {@link Function} which returns the cache key of a request. The virtual host, the path and
+     * the query of a request are used by default. Note that the values of
+     * the {@linkplain #varyingHeaders(CharSequence...) varying headers} are always appended to the key.
+     */
+    public ResponseCachingServiceBuilder cacheKeyFunction(
+            Function<? super ServiceRequestContext, String> cacheKeyFunction) {
+        this.cacheKeyFunction = requireNonNull(cacheKeyFunction, "cacheKeyFunction");
+        return this;
+    }
+
+    /**
+     * Sets the names of the request headers which affect the response, such as
+     * {@link HttpHeaderNames#ACCEPT_LANGUAGE}. The requests with different values of these headers are
+     * cached separately. Note that a response with the {@code "vary"} header is never cached because
+     * the cache key cannot be determined before the response is generated.
+     */
+    public ResponseCachingServiceBuilder varyingHeaders(CharSequence... varyingHeaders) {
+        return varyingHeaders(ImmutableList.copyOf(requireNonNull(varyingHeaders, "varyingHeaders")));
+    }
+
+    /**
+     * Sets the names of the request headers which affect the response, such as
+     * {@link HttpHeaderNames#ACCEPT_LANGUAGE}. The requests with different values of these headers are
+     * cached separately. Note that a response with the {@code "vary"} header is never cached because
+     * the cache key cannot be determined before the response is generated.
+     */
+    public ResponseCachingServiceBuilder varyingHeaders(Iterable<? extends CharSequence> varyingHeaders) {
+        requireNonNull(varyingHeaders, "varyingHeaders");
+        final ImmutableList.Builder<AsciiString> builder = ImmutableList.builder();
+        for (CharSequence name : varyingHeaders) {
+            builder.add(HttpHeaderNames.of(requireNonNull(name, "varyingHeaders contains null.")));
+        }
+        this.varyingHeaders = builder.build();
+        return this;
+    }
+
+    /**
+     * Sets the maximum total size of the cached responses in bytes. The size of a response is estimated
+     * from the length of its content and headers. {@value DEFAULT_MAX_SIZE_IN_BYTES} bytes by default.
+     */
+    public ResponseCachingServiceBuilder maxSizeInBytes(long maxSizeInBytes) {
+        checkArgument(maxSizeInBytes > 0, "maxSizeInBytes: %s (expected: > 0)", maxSizeInBytes);
+        this.maxSizeInBytes = maxSizeInBytes;
+        return this;
+    }
+
+    /**
+     * Sets how long a response is cached when it has neither {@code "s-maxage"} nor {@code "max-age"}
+     * directive. Such a response is not cached by default.
+     */
+    public ResponseCachingServiceBuilder defaultMaxAge(Duration defaultMaxAge) {
+        requireNonNull(defaultMaxAge, "defaultMaxAge");
+        checkArgument(!defaultMaxAge.isNegative(), "defaultMaxAge: %s (expected: >= 0)", defaultMaxAge);
+        return defaultMaxAgeSeconds(defaultMaxAge.getSeconds());
+    }
+
+    /**
+     * Sets how long a response is cached in seconds when it has neither {@code "s-maxage"} nor
+     * {@code "max-age"} directive. Such a response is not cached by default.
+     */
+    public ResponseCachingServiceBuilder defaultMaxAgeSeconds(long defaultMaxAgeSeconds) {
+        checkArgument(defaultMaxAgeSeconds >= 0,
+                      "defaultMaxAgeSeconds: %s (expected: >= 0)", defaultMaxAgeSeconds);
+        this.defaultMaxAgeSeconds = defaultMaxAgeSeconds;
+        return this;
+    }
+
+    /**
+     * Sets whether the content of the cached responses is kept in pooled direct buffers rather than in
+     * the heap, so that large cached responses do not fill the old generation. The pooled buffers are
+     * released when the responses are evicted. The content is kept in the heap by default.
+     */
+    public ResponseCachingServiceBuilder usePooledBuffers(boolean usePooledBuffers) {
+        this.usePooledBuffers = usePooledBuffers;
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link ResponseCachingService} based on the properties of this builder.
+     */
+    public ResponseCachingService build(HttpService delegate) {
+        requireNonNull(delegate, "delegate");
+        return new ResponseCachingService(delegate, cacheKeyFunction, varyingHeaders, maxSizeInBytes,
+                                          defaultMaxAgeSeconds, usePooledBuffers);
+    }
+
+    /**
+     * Returns a newly-created decorator that decorates an {@link HttpService} with a new
+     * {@link ResponseCachingService} based on the properties of this builder.
+     */
+    public Function<? super HttpService, ResponseCachingService> newDecorator() {
+        final Function<? super ServiceRequestContext, String> cacheKeyFunction = this.cacheKeyFunction;
+        final ImmutableList<AsciiString> varyingHeaders = this.varyingHeaders;
+        final long maxSizeInBytes = this.maxSizeInBytes;
+        final long defaultMaxAgeSeconds = this.defaultMaxAgeSeconds;
+        final boolean usePooledBuffers = this.usePooledBuffers;
+        return delegate -> new ResponseCachingService(delegate, cacheKeyFunction, varyingHeaders,
+                                                      maxSizeInBytes, defaultMaxAgeSeconds, usePooledBuffers);
+    }
+}
@@ -146,6 +146,14 @@ final class DeferredHttpFile implements HttpFile {
         }));
     }
 
+    /**
+     * Returns the {@link HttpFile} produced by the stage, or {@code null} if the stage is not complete yet.
+     */
+    @Nullable
+    HttpFile delegate() {
+        return delegate;
+    }
+
     private void setDelegate(@Nullable HttpFile delegate) {
         if (delegate == null) {
             if (!warnedNullDelegate) {
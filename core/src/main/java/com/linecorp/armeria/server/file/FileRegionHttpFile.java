@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpResponseWriter;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
+
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * An {@link HttpFile} on a file system whose content is streamed as {@link FileRegionHttpData}s,
+ * which are transferred directly from the file to the socket on a cleartext HTTP/1 connection.
+ *
+ * @see FileServiceBuilder#zeroCopy(boolean)
+ */
+final class FileRegionHttpFile extends AbstractHttpFile {
+
+    // Use the same size as the chunks of StreamingHttpFile, so that a region which is read into memory,
+    // e.g. by a decorator on an event loop, is never larger than a chunk.
+    private static final int MAX_REGION_SIZE = 8192;
+
+    private final FileSystemHttpFile delegate;
+    private final Path path;
+
+    FileRegionHttpFile(FileSystemHttpFile delegate,
+                       Path path,
+                       @Nullable MediaType contentType,
+                       Clock clock,
+                       boolean dateEnabled,
+                       boolean lastModifiedEnabled,
+                       @Nullable BiFunction<String, HttpFileAttributes, String> entityTagFunction,
+                       HttpHeaders headers) {
+        super(contentType, clock, dateEnabled, lastModifiedEnabled, entityTagFunction, headers);
+        this.delegate = requireNonNull(delegate, "delegate");
+        this.path = requireNonNull(path, "path");
+    }
+
+    @Override
+    protected String pathOrUri() {
+        return path.toString();
+    }
+
+    @Override
+    public CompletableFuture<HttpFileAttributes> readAttributes(Executor fileReadExecutor) {
+        return delegate.readAttributes(fileReadExecutor);
+    }
+
+    @Override
+    protected HttpResponse doRead(ResponseHeaders headers, long length,
+                                  Executor fileReadExecutor, ByteBufAllocator alloc) {
+        final File file = path.toFile();
+        final HttpResponseWriter res = HttpResponse.streaming();
+        res.write(headers);
+        if (length == 0) {
+            res.close();
+        } else {
+            writeRegion(res, file, 0, length, fileReadExecutor);
+        }
+        return res;
+    }
+
+    /**
+     * Writes the next region of the file when the previous one is consumed, so that the regions of
+     * a huge file are not queued all at once.
+     */
+    private static void writeRegion(HttpResponseWriter res, File file, long offset, long end,
+                                    Executor fileReadExecutor) {
+        final int regionSize = (int) Math.min(MAX_REGION_SIZE, end - offset);
+        final long nextOffset = offset + regionSize;
+        final boolean endOfStream = nextOffset == end;
+        if (!res.tryWrite(new FileRegionHttpData(file, offset, regionSize, endOfStream))) {
+            return;
+        }
+
+        if (endOfStream) {
+            res.close();
+            return;
+        }
+
+        res.whenConsumed().thenRun(() -> {
+            try {
+                fileReadExecutor.execute(() -> writeRegion(res, file, nextOffset, end, fileReadExecutor));
+            } catch (Exception e) {
+                res.close(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<AggregatedHttpFile> aggregate(Executor fileReadExecutor) {
+        return delegate.aggregate(fileReadExecutor);
+    }
+
+    @Override
+    public CompletableFuture<AggregatedHttpFile> aggregateWithPooledObjects(Executor fileReadExecutor,
+                                                                            ByteBufAllocator alloc) {
+        return delegate.aggregateWithPooledObjects(fileReadExecutor, alloc);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues()
+                          .add("path", path)
+                          .add("contentType", contentType())
+                          .add("dateEnabled", isDateEnabled())
+                          .add("lastModifiedEnabled", isLastModifiedEnabled())
+                          .add("additionalHeaders", additionalHeaders())
+                          .toString();
+    }
+}
@@ -19,17 +19,21 @@ package com.linecorp.armeria.server.file;
 import static com.linecorp.armeria.internal.common.HttpMessageAggregator.aggregateData;
 import static java.util.Objects.requireNonNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.BiFunction;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,19 +41,25 @@ import org.slf4j.LoggerFactory;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.github.benmanes.caffeine.cache.Weigher;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 
 import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpRequest;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.SessionProtocol;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.encoding.StreamDecoder;
 import com.linecorp.armeria.common.encoding.StreamDecoderFactory;
+import com.linecorp.armeria.common.logging.RequestLogProperty;
 import com.linecorp.armeria.common.metric.MeterIdPrefix;
 import com.linecorp.armeria.common.util.Exceptions;
 import com.linecorp.armeria.common.util.UnmodifiableFuture;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
 import com.linecorp.armeria.internal.common.metric.CaffeineMetricSupport;
 import com.linecorp.armeria.internal.common.util.TemporaryThreadLocals;
 import com.linecorp.armeria.server.AbstractHttpService;
@@ -74,6 +84,12 @@ public final class FileService extends AbstractHttpService {
 
     private static final Splitter COMMA_SPLITTER = Splitter.on(',');
 
+    private static final List<MediaType> COMPRESSIBLE_TYPES =
+            ImmutableList.of(MediaType.ANY_TEXT_TYPE,
+                             MediaType.JAVASCRIPT_UTF_8.withoutParameters(),
+                             MediaType.APPLICATION_XML_UTF_8.withoutParameters(),
+                             MediaType.SVG_UTF_8.withoutParameters());
+
     private static final UnmodifiableFuture<HttpFile> NON_EXISTENT_FILE_FUTURE =
             UnmodifiableFuture.completedFuture(HttpFile.nonExistent());
 
@@ -151,6 +167,13 @@ public final class FileService extends AbstractHttpService {
 
     private static Cache<PathAndEncoding, AggregatedHttpFile> newCache(String cacheSpec) {
         final Caffeine<Object, Object> b = Caffeine.from(cacheSpec);
+        if (cacheSpec.contains("maximumWeight")) {
+            // Bound the cache by the total length of the cached content.
+            b.weigher((Weigher<PathAndEncoding, AggregatedHttpFile>) (key, value) -> {
+                final HttpData content = value.content();
+                return content != null ? content.length() : 0;
+            });
+        }
         b.recordStats()
          .removalListener((RemovalListener<PathAndEncoding, AggregatedHttpFile>) (key, value, cause) -> {
              if (value != null) {
@@ -193,14 +216,35 @@ public final class FileService extends AbstractHttpService {
 
     @Override
     protected HttpResponse doGet(ServiceRequestContext ctx, HttpRequest req) throws Exception {
-        return findFile(ctx, req).asService().serve(ctx, req);
+        final HttpResponse res = findFile(ctx, req).asService().serve(ctx, req);
+        if (config.serveCompressedFiles() || config.autoCompress()) {
+            // The content encoding of the response, including the identity, was chosen by
+            // the "accept-encoding" header of the request.
+            return res.mapHeaders(FileService::varyOnAcceptEncoding);
+        }
+        return res;
+    }
+
+    private static ResponseHeaders varyOnAcceptEncoding(ResponseHeaders headers) {
+        for (String vary : headers.getAll(HttpHeaderNames.VARY)) {
+            for (String name : COMMA_SPLITTER.split(vary)) {
+                final String trimmed = name.trim();
+                if ("*".equals(trimmed) || HttpHeaderNames.ACCEPT_ENCODING.contentEqualsIgnoreCase(trimmed)) {
+                    return headers;
+                }
+            }
+        }
+        return headers.toBuilder()
+                      .add(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING.toString())
+                      .build();
     }
 
     private HttpFile findFile(ServiceRequestContext ctx, HttpRequest req) {
         final EnumSet<ContentEncoding> encodings = EnumSet.noneOf(ContentEncoding.class);
 
         boolean needsDecompression = false;
-        if (config.serveCompressedFiles()) {
+        boolean needsCompression = false;
+        if (config.serveCompressedFiles() || config.autoCompress()) {
             // We do a simple parse of the accept-encoding header, without worrying about star values
             // or priorities.
             final String acceptEncoding = req.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
@@ -213,15 +257,24 @@ public final class FileService extends AbstractHttpService {
                     }
                 }
             }
-            if (config().autoDecompress() && encodings.isEmpty()) {
+            if (config.autoCompress() && cache != null && encodings.contains(ContentEncoding.GZIP)) {
+                needsCompression = true;
+            }
+            if (!config.serveCompressedFiles()) {
+                // Do not look for pre-compressed files.
+                encodings.clear();
+            } else if (config().autoDecompress() && encodings.isEmpty()) {
                 needsDecompression = true;
                 Collections.addAll(encodings, ContentEncoding.values());
             }
         }
         final boolean decompress = needsDecompression;
+        final boolean compress = needsCompression;
 
         final String decodedMappedPath = ctx.decodedMappedPath();
-        return HttpFile.from(findFile(ctx, decodedMappedPath, encodings, decompress).thenCompose(file -> {
+        final CompletableFuture<@Nullable HttpFile> fileFuture =
+                findFile(ctx, decodedMappedPath, encodings, decompress, compress);
+        return HttpFile.from(fileFuture.thenCompose(file -> {
             if (file != null) {
                 return UnmodifiableFuture.completedFuture(file);
             }
@@ -230,7 +283,7 @@ public final class FileService extends AbstractHttpService {
             if (endsWithSlash) {
                 // Try index.html if it was a directory access.
                 final String indexPath = decodedMappedPath + "index.html";
-                return findFile(ctx, indexPath, encodings, decompress).thenCompose(indexFile -> {
+                return findFile(ctx, indexPath, encodings, decompress, compress).thenCompose(indexFile -> {
                     if (indexFile != null) {
                         return UnmodifiableFuture.completedFuture(indexFile);
                     }
@@ -261,7 +314,7 @@ public final class FileService extends AbstractHttpService {
                 // 1) /index.html exists or
                 // 2) it has a directory listing.
                 final String indexPath = decodedMappedPath + "/index.html";
-                return findFile(ctx, indexPath, encodings, decompress).thenCompose(indexFile -> {
+                return findFile(ctx, indexPath, encodings, decompress, compress).thenCompose(indexFile -> {
                     if (indexFile != null) {
                         return UnmodifiableFuture.completedFuture(true);
                     }
@@ -293,7 +346,7 @@ public final class FileService extends AbstractHttpService {
 
     private CompletableFuture<@Nullable HttpFile> findFile(ServiceRequestContext ctx, String path,
                                                            Set<ContentEncoding> supportedEncodings,
-                                                           boolean decompress) {
+                                                           boolean decompress, boolean compress) {
         if (decompress) {
             return findFileAndDecompress(ctx, path, supportedEncodings);
         }
@@ -301,6 +354,8 @@ public final class FileService extends AbstractHttpService {
         return findFile(ctx, path, supportedEncodings.iterator(), false).thenCompose(file -> {
             if (file != null) {
                 return UnmodifiableFuture.completedFuture(file);
+            } else if (compress && isCompressible(path)) {
+                return findFileAndCompress(ctx, path);
             } else {
                 return findFile(ctx, path, (ContentEncoding) null, false);
             }
@@ -345,7 +400,7 @@ public final class FileService extends AbstractHttpService {
                                                          config.mediaTypeResolver()
                                                                .guessFromPath(path, encoding.headerValue));
                     } else {
-                        return uncachedFile;
+                        return maybeZeroCopy(ctx, uncachedFile);
                     }
                 }
                 return null;
@@ -361,14 +416,14 @@ public final class FileService extends AbstractHttpService {
             if (uncachedAttrs.length() > config.maxCacheEntrySizeBytes()) {
                 // Invalidate the cache just in case the file was small previously.
                 cache.invalidate(pathAndEncoding);
-                return uncachedFile;
+                return maybeZeroCopy(ctx, uncachedFile);
             }
 
             @Nullable
             final AggregatedHttpFile cachedFile = cache.getIfPresent(pathAndEncoding);
             if (cachedFile == null) {
                 // Cache miss. Add a new entry to the cache.
-                return cache(ctx, pathAndEncoding, uncachedFile, encoding, decompress);
+                return cache(ctx, pathAndEncoding, uncachedFile, uncachedAttrs, encoding, decompress);
             }
 
             final HttpFileAttributes cachedAttrs = cachedFile.attributes();
@@ -380,10 +435,40 @@ public final class FileService extends AbstractHttpService {
 
             // Cache hit, but the cached file is out of date. Replace the old entry from the cache.
             cache.invalidate(pathAndEncoding);
-            return cache(ctx, pathAndEncoding, uncachedFile, encoding, decompress);
+            return cache(ctx, pathAndEncoding, uncachedFile, uncachedAttrs, encoding, decompress);
         });
     }
 
+    private HttpFile maybeZeroCopy(ServiceRequestContext ctx, HttpFile file) {
+        // FileRegion is written as is only on a cleartext HTTP/1 connection whose transport supports it.
+        // Otherwise, the file is read in chunks by the blocking task executor as usual.
+        if (!config.zeroCopy() || ctx.sessionProtocol() != SessionProtocol.H1C ||
+            !FileRegionHttpData.isSupported(ctx.log().ensureAvailable(RequestLogProperty.SESSION).channel())) {
+            return file;
+        }
+
+        final FileSystemHttpFile fileSystemFile = unwrapFileSystemHttpFile(file);
+        if (fileSystemFile != null) {
+            return fileSystemFile.toFileRegionHttpFile();
+        }
+        return file;
+    }
+
+    @Nullable
+    private static FileSystemHttpFile unwrapFileSystemHttpFile(HttpFile file) {
+        HttpFile unwrapped = file;
+        while (unwrapped instanceof DeferredHttpFile) {
+            // The attributes have been read already, so the delegate is available.
+            final HttpFile delegate = ((DeferredHttpFile) unwrapped).delegate();
+            if (delegate == null) {
+                return null;
+            }
+            unwrapped = delegate;
+        }
+
+        return unwrapped instanceof FileSystemHttpFile ? (FileSystemHttpFile) unwrapped : null;
+    }
+
     private CompletableFuture<@Nullable HttpFile> findFileAndDecompress(
             ServiceRequestContext ctx, String path, Set<ContentEncoding> supportedEncodings) {
         // Look up a non-compressed file first to avoid extra decompression
@@ -397,14 +482,33 @@ public final class FileService extends AbstractHttpService {
     }
 
     private HttpFile cache(ServiceRequestContext ctx, PathAndEncoding pathAndEncoding, HttpFile uncachedFile,
-                           @Nullable ContentEncoding encoding, boolean decompress) {
+                           HttpFileAttributes uncachedAttrs, @Nullable ContentEncoding encoding,
+                           boolean decompress) {
 
         assert cache != null;
 
         final Executor executor = ctx.blockingTaskExecutor();
         final ByteBufAllocator alloc = ctx.alloc();
 
-        return HttpFile.from(uncachedFile.aggregateWithPooledObjects(executor, alloc).thenApply(aggregated -> {
+        CompletableFuture<AggregatedHttpFile> future = null;
+        final int memoryMapThresholdBytes = config.memoryMapThresholdBytes();
+        if (!decompress && memoryMapThresholdBytes > 0 && uncachedAttrs.length() >= memoryMapThresholdBytes) {
+            final FileSystemHttpFile fileSystemFile = unwrapFileSystemHttpFile(uncachedFile);
+            if (fileSystemFile != null) {
+                future = fileSystemFile.aggregateMapped(executor).thenCompose(mapped -> {
+                    if (mapped != null) {
+                        return UnmodifiableFuture.completedFuture(mapped);
+                    }
+                    // The file was modified while being mapped.
+                    return uncachedFile.aggregateWithPooledObjects(executor, alloc);
+                });
+            }
+        }
+        if (future == null) {
+            future = uncachedFile.aggregateWithPooledObjects(executor, alloc);
+        }
+
+        return HttpFile.from(future.thenApply(aggregated -> {
             if (decompress && encoding != null) {
                 assert aggregated instanceof HttpDataFile;
                 aggregated = decompress((HttpDataFile) aggregated, encoding, alloc);
@@ -423,6 +527,106 @@ public final class FileService extends AbstractHttpService {
         }));
     }
 
+    private CompletableFuture<@Nullable HttpFile> findFileAndCompress(ServiceRequestContext ctx,
+                                                                      String path) {
+        assert cache != null;
+
+        final ScheduledExecutorService readExecutor = ctx.blockingTaskExecutor();
+        final HttpFile uncachedFile = config.vfs().get(readExecutor, path, config.clock(),
+                                                       null, config.headers(),
+                                                       config.mediaTypeResolver());
+
+        return uncachedFile.readAttributes(readExecutor).thenApply(uncachedAttrs -> {
+            if (uncachedAttrs == null) {
+                return null;
+            }
+
+            if (uncachedAttrs.length() > config.maxCacheEntrySizeBytes()) {
+                // Too large to be compressed and cached.
+                return maybeZeroCopy(ctx, uncachedFile);
+            }
+
+            final PathAndEncoding pathAndEncoding =
+                    new PathAndEncoding(path, ContentEncoding.GZIP.headerValue);
+            @Nullable
+            final AggregatedHttpFile cachedFile = cache.getIfPresent(pathAndEncoding);
+            if (cachedFile != null) {
+                final HttpFileAttributes cachedAttrs = cachedFile.attributes();
+                assert cachedAttrs != null;
+                // The length of the compressed file differs from the original one.
+                if (cachedAttrs.lastModifiedMillis() == uncachedAttrs.lastModifiedMillis()) {
+                    return cachedFile.toHttpFile();
+                }
+                cache.invalidate(pathAndEncoding);
+            }
+
+            return HttpFile.from(uncachedFile.aggregate(readExecutor).thenApplyAsync(aggregated -> {
+                if (!(aggregated instanceof HttpDataFile)) {
+                    // The file has been removed.
+                    return aggregated.toHttpFile();
+                }
+
+                final AggregatedHttpFile compressed = compress((HttpDataFile) aggregated);
+                cache.put(pathAndEncoding, compressed);
+                return compressed.toHttpFile();
+            }, readExecutor).exceptionally(cause -> {
+                logger.warn("{} Failed to compress a file: {}", ctx, uncachedFile, Exceptions.peel(cause));
+                return uncachedFile;
+            }));
+        });
+    }
+
+    private boolean isCompressible(String path) {
+        final MediaType contentType = config.mediaTypeResolver().guessFromPath(path, null);
+        if (contentType == null) {
+            return false;
+        }
+        if (contentType.isJson()) {
+            return true;
+        }
+        for (MediaType compressibleType : COMPRESSIBLE_TYPES) {
+            if (contentType.is(compressibleType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static AggregatedHttpFile compress(HttpDataFile file) {
+        final HttpData content = file.content();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(content.length() / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.array());
+        } catch (IOException e) {
+            return Exceptions.throwUnsafely(e);
+        }
+
+        if (out.size() >= content.length()) {
+            // Not worth compressing; serve the original content.
+            return file;
+        }
+
+        final HttpFileAttributes attributes = file.attributes();
+        final AggregatedHttpFileBuilder builder =
+                AggregatedHttpFile.builder(HttpData.wrap(out.toByteArray()), attributes.lastModifiedMillis());
+        builder.clock(file.clock());
+        builder.date(file.isDateEnabled());
+        builder.lastModified(file.isLastModifiedEnabled());
+        builder.setHeaders(file.additionalHeaders());
+        builder.setHeader(HttpHeaderNames.CONTENT_ENCODING, ContentEncoding.GZIP.headerValue);
+        builder.setHeader(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+
+        // A compressed representation must have an entity tag different from the original one.
+        final String etag = file.generateEntityTag(attributes);
+        if (etag == null) {
+            builder.entityTag(false);
+        } else {
+            final String compressedEtag = etag + '-' + ContentEncoding.GZIP.headerValue;
+            builder.entityTag((unused1, unused2) -> compressedEtag);
+        }
+        return builder.build();
+    }
+
     private static HttpDataFile decompress(HttpDataFile compressed, ContentEncoding encoding,
                                            ByteBufAllocator alloc) {
 
@@ -16,6 +16,7 @@
 
 package com.linecorp.armeria.server.file;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.linecorp.armeria.server.file.FileServiceConfig.validateEntryCacheSpec;
 import static com.linecorp.armeria.server.file.FileServiceConfig.validateMaxCacheEntrySizeBytes;
@@ -35,6 +36,8 @@ import com.linecorp.armeria.common.HttpHeadersBuilder;
 import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.server.encoding.EncodingService;
 
 /**
  * Builds a new {@link FileService} and its {@link FileServiceConfig}. Use the factory methods in
@@ -54,6 +57,9 @@ public final class FileServiceBuilder {
     boolean serveCompressedFiles;
     private boolean autoDecompress;
     boolean autoIndex;
+    private boolean zeroCopy;
+    private boolean autoCompress;
+    private int memoryMapThresholdBytes;
     boolean canSetMaxCacheEntries = true;
     boolean canSetEntryCacheSpec = true;
     @Nullable
@@ -89,9 +95,33 @@ public final class FileServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets the maximum total size of the cached file entries in bytes. Unlike
+     * {@link #maxCacheEntries(int)}, the cache is bounded by the total length of the cached content,
+     * which is more predictable when the sizes of the files vary. {@code 0} disables the cache.
+     *
+     * @see #maxCacheEntrySizeBytes(int)
+     */
+    @UnstableApi
+    public FileServiceBuilder maxCacheSizeBytes(long maxCacheSizeBytes) {
+        checkState(canSetMaxCacheEntries && canSetEntryCacheSpec,
+                   "Cannot call maxCacheSizeBytes() if called maxCacheEntries() or entryCacheSpec() already.");
+        checkArgument(maxCacheSizeBytes >= 0,
+                      "maxCacheSizeBytes: %s (expected: >= 0)", maxCacheSizeBytes);
+        if (maxCacheSizeBytes == 0) {
+            entryCacheSpec = null;
+        } else {
+            entryCacheSpec = String.format("maximumWeight=%d", maxCacheSizeBytes);
+        }
+        canSetMaxCacheEntries = false;
+        canSetEntryCacheSpec = false;
+        return this;
+    }
+
     /**
      * Sets the {@linkplain CaffeineSpec Caffeine specification string} of the cache that stores the content
-     * of the {@link HttpFile}s read by the {@link FileService}.
+     * of the {@link HttpFile}s read by the {@link FileService}. If {@code maximumWeight} is specified,
+     * an entry is weighed by the length of its content in bytes.
      * If not set, {@link Flags#fileServiceCacheSpec()} is used by default.
      */
     public FileServiceBuilder entryCacheSpec(String entryCacheSpec) {
@@ -134,6 +164,23 @@ public final class FileServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets whether {@link FileService} compresses a file with gzip when a client
+     * {@link HttpHeaderNames#ACCEPT_ENCODING accepts} it and there is no pre-compressed file.
+     * The compressed variant is built when it is requested for the first time and then stored in the cache,
+     * so that the file is not compressed again for every request unlike {@link EncodingService}.
+     * Only the textual files which are small enough to be cached are compressed.
+     * By default, this feature is disabled.
+     *
+     * @see #serveCompressedFiles(boolean)
+     * @see #maxCacheEntrySizeBytes(int)
+     */
+    @UnstableApi
+    public FileServiceBuilder autoCompress(boolean autoCompress) {
+        this.autoCompress = autoCompress;
+        return this;
+    }
+
     /**
      * Sets the maximum allowed size of a cached file entry. The file bigger than this value will not be
      * cached. If not set, {@value #DEFAULT_MAX_CACHE_ENTRY_SIZE_BYTES} is used by default.
@@ -143,6 +190,30 @@ public final class FileServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets the minimum size of a file on a file system which is memory-mapped instead of being copied into
+     * a buffer when it is cached. A memory-mapped file does not occupy the heap or the direct memory
+     * allocated by Netty, but it is read directly by the event loop while being served:
+     * <ul>
+     *   <li>Its content changes if the file is modified in place. A cached file is served only when its
+     *       length and last modified time are the same as the current ones, but a modification which keeps
+     *       both is not detected.</li>
+     *   <li>If the file is truncated while being served, the process may crash with {@code SIGBUS}.</li>
+     *   <li>The mapping is not released when the file is evicted from the cache, but when it is
+     *       garbage-collected.</li>
+     * </ul>
+     * Therefore, enable this feature only for the immutable files which are replaced atomically,
+     * e.g. by renaming, rather than modified in place. {@code 0} disables this feature, which is the default.
+     *
+     * @see #maxCacheEntrySizeBytes(int)
+     */
+    @UnstableApi
+    public FileServiceBuilder memoryMapThresholdBytes(int memoryMapThresholdBytes) {
+        this.memoryMapThresholdBytes = validateNonNegativeParameter(memoryMapThresholdBytes,
+                                                                    "memoryMapThresholdBytes");
+        return this;
+    }
+
     /**
      * Sets whether {@link FileService} auto-generates a directory listing for a directory without an
      * {@code index.html} file. By default, this feature is disabled. Consider the security implications of
@@ -153,6 +224,25 @@ public final class FileServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets whether {@link FileService} transfers the content of a file on a file system directly from
+     * the file to the socket, e.g. via {@code sendfile()}, without copying it into the user space.
+     * The zero-copy transfer is used only for the files which are not cached and served over a cleartext
+     * HTTP/1 connection of the NIO or epoll transport. The content is read and copied as usual for TLS and
+     * HTTP/2 connections and for the other transports such as io_uring.
+     * By default, this feature is disabled.
+     *
+     * <p>Note that a decorator which accesses the content of a response, such as
+     * {@link EncodingService}, reads the file into memory in chunks of 8 KiB on an event loop thread when
+     * this feature is enabled. Do not enable this feature if {@link FileService} is decorated with
+     * such a decorator.
+     */
+    @UnstableApi
+    public FileServiceBuilder zeroCopy(boolean zeroCopy) {
+        this.zeroCopy = zeroCopy;
+        return this;
+    }
+
     /**
      * Returns the immutable additional {@link HttpHeaders} which will be set when building an
      * {@link HttpResponse}.
@@ -247,13 +337,15 @@ public final class FileServiceBuilder {
 
         return new FileService(new FileServiceConfig(
                 vfs, clock, entryCacheSpec, maxCacheEntrySizeBytes,
-                serveCompressedFiles, autoDecompress, autoIndex, buildHeaders(),
+                serveCompressedFiles, autoDecompress, autoCompress, autoIndex, zeroCopy,
+                memoryMapThresholdBytes, buildHeaders(),
                 mediaTypeResolver.orElse(MediaTypeResolver.ofDefault())));
     }
 
     @Override
     public String toString() {
         return FileServiceConfig.toString(this, vfs, clock, entryCacheSpec, maxCacheEntrySizeBytes,
-                                          serveCompressedFiles, autoIndex, headers, mediaTypeResolver);
+                                          serveCompressedFiles, autoCompress, autoIndex, zeroCopy,
+                                          memoryMapThresholdBytes, headers, mediaTypeResolver);
     }
 }
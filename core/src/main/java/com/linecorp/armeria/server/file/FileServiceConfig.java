@@ -28,6 +28,7 @@ import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
 
 import io.netty.util.AsciiString;
 
@@ -43,12 +44,16 @@ public final class FileServiceConfig {
     private final int maxCacheEntrySizeBytes;
     private final boolean serveCompressedFiles;
     private final boolean autoDecompress;
+    private final boolean autoCompress;
     private final boolean autoIndex;
+    private final boolean zeroCopy;
+    private final int memoryMapThresholdBytes;
     private final HttpHeaders headers;
     private final MediaTypeResolver mediaTypeResolver;
 
     FileServiceConfig(HttpVfs vfs, Clock clock, @Nullable String entryCacheSpec, int maxCacheEntrySizeBytes,
-                      boolean serveCompressedFiles, boolean autoDecompress, boolean autoIndex,
+                      boolean serveCompressedFiles, boolean autoDecompress, boolean autoCompress,
+                      boolean autoIndex, boolean zeroCopy, int memoryMapThresholdBytes,
                       HttpHeaders headers, MediaTypeResolver mediaTypeResolver) {
         this.vfs = requireNonNull(vfs, "vfs");
         this.clock = requireNonNull(clock, "clock");
@@ -56,7 +61,11 @@ public final class FileServiceConfig {
         this.maxCacheEntrySizeBytes = validateMaxCacheEntrySizeBytes(maxCacheEntrySizeBytes);
         this.serveCompressedFiles = serveCompressedFiles;
         this.autoDecompress = autoDecompress;
+        this.autoCompress = autoCompress;
         this.autoIndex = autoIndex;
+        this.zeroCopy = zeroCopy;
+        this.memoryMapThresholdBytes = validateNonNegativeParameter(memoryMapThresholdBytes,
+                                                                    "memoryMapThresholdBytes");
         this.headers = requireNonNull(headers, "headers");
         this.mediaTypeResolver = requireNonNull(mediaTypeResolver, "mediaTypeResolver");
     }
@@ -130,6 +139,15 @@ public final class FileServiceConfig {
         return autoDecompress;
     }
 
+    /**
+     * Returns whether a file is compressed with gzip and cached when a client accepts it and there is no
+     * pre-compressed file.
+     */
+    @UnstableApi
+    public boolean autoCompress() {
+        return autoCompress;
+    }
+
     /**
      * Returns whether a directory listing for a directory without an {@code index.html} file will be
      * auto-generated.
@@ -138,6 +156,24 @@ public final class FileServiceConfig {
         return autoIndex;
     }
 
+    /**
+     * Returns whether the content of a file on a file system is transferred directly from the file to
+     * the socket on a cleartext HTTP/1 connection.
+     */
+    @UnstableApi
+    public boolean zeroCopy() {
+        return zeroCopy;
+    }
+
+    /**
+     * Returns the minimum size of a file which is memory-mapped when it is cached.
+     * {@code 0} if memory-mapping is disabled.
+     */
+    @UnstableApi
+    public int memoryMapThresholdBytes() {
+        return memoryMapThresholdBytes;
+    }
+
     /**
      * Returns the additional {@link HttpHeaders} to send in a response.
      */
@@ -155,12 +191,14 @@ public final class FileServiceConfig {
     @Override
     public String toString() {
         return toString(this, vfs(), clock(), entryCacheSpec(), maxCacheEntrySizeBytes(),
-                        serveCompressedFiles(), autoIndex(), headers(), mediaTypeResolver());
+                        serveCompressedFiles(), autoCompress(), autoIndex(), zeroCopy(),
+                        memoryMapThresholdBytes(), headers(), mediaTypeResolver());
     }
 
     static String toString(Object holder, HttpVfs vfs, Clock clock,
                            @Nullable String entryCacheSpec, int maxCacheEntrySizeBytes,
-                           boolean serveCompressedFiles, boolean autoIndex,
+                           boolean serveCompressedFiles, boolean autoCompress, boolean autoIndex,
+                           boolean zeroCopy, int memoryMapThresholdBytes,
                            @Nullable Iterable<Entry<AsciiString, String>> headers,
                            MediaTypeResolver mediaTypeResolver) {
 
@@ -170,7 +208,10 @@ public final class FileServiceConfig {
                           .add("entryCacheSpec", entryCacheSpec)
                           .add("maxCacheEntrySizeBytes", maxCacheEntrySizeBytes)
                           .add("serveCompressedFiles", serveCompressedFiles)
+                          .add("autoCompress", autoCompress)
                           .add("autoIndex", autoIndex)
+                          .add("zeroCopy", zeroCopy)
+                          .add("memoryMapThresholdBytes", memoryMapThresholdBytes)
                           .add("headers", headers)
                           .add("mediaTypeResolver", mediaTypeResolver)
                           .toString();
@@ -18,7 +18,10 @@ package com.linecorp.armeria.server.file;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.ScatteringByteChannel;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -32,15 +35,20 @@ import java.util.function.BiFunction;
 
 import com.google.common.base.MoreObjects;
 
+import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.util.Exceptions;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 
 final class FileSystemHttpFile extends StreamingHttpFile<ByteChannel> {
 
     private final Path path;
+    @Nullable
+    private final BiFunction<String, HttpFileAttributes, String> entityTagFunction;
 
     FileSystemHttpFile(Path path,
                        boolean contentTypeAutoDetectionEnabled,
@@ -53,6 +61,7 @@ final class FileSystemHttpFile extends StreamingHttpFile<ByteChannel> {
               MediaTypeResolver.ofDefault().guessFromPath(path.toString(), null) : null,
               clock, dateEnabled, lastModifiedEnabled, entityTagFunction, headers);
         this.path = requireNonNull(path, "path");
+        this.entityTagFunction = entityTagFunction;
     }
 
     @Override
@@ -62,23 +71,66 @@ final class FileSystemHttpFile extends StreamingHttpFile<ByteChannel> {
 
     @Override
     public CompletableFuture<HttpFileAttributes> readAttributes(Executor fileReadExecutor) {
+        return CompletableFuture.supplyAsync(this::readAttributes, fileReadExecutor);
+    }
+
+    @Nullable
+    private HttpFileAttributes readAttributes() {
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try {
+            final BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            if (attrs.isRegularFile()) {
+                return new HttpFileAttributes(attrs.size(), attrs.lastModifiedTime().toMillis());
+            }
+        } catch (NoSuchFileException e) {
+            // Non-existent file.
+        } catch (IOException e) {
+            return Exceptions.throwUnsafely(e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns a new {@link HttpFile} which serves the same file with the same headers, but streams
+     * its content as {@link FileRegionHttpData}s.
+     */
+    HttpFile toFileRegionHttpFile() {
+        return new FileRegionHttpFile(this, path, contentType(), clock(), isDateEnabled(),
+                                      isLastModifiedEnabled(), entityTagFunction, additionalHeaders());
+    }
+
+    /**
+     * Aggregates the content of the file by mapping it into memory instead of copying it.
+     * The returned future is completed with {@code null} if the file was modified while being mapped,
+     * so that the caller can copy the file instead. Note that the content of the returned
+     * {@link AggregatedHttpFile} still changes if the file is modified later, so the caller must compare
+     * its {@link AggregatedHttpFile#attributes()} with the current ones before serving it.
+     */
+    CompletableFuture<@Nullable AggregatedHttpFile> aggregateMapped(Executor fileReadExecutor) {
         return CompletableFuture.supplyAsync(() -> {
-            if (!Files.exists(path)) {
-                return null;
+            final HttpFileAttributes attrs = readAttributes();
+            if (attrs == null) {
+                return NonExistentAggregatedHttpFile.INSTANCE;
             }
 
-            try {
-                final BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
-                if (attrs.isRegularFile()) {
-                    return new HttpFileAttributes(attrs.size(), attrs.lastModifiedTime().toMillis());
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                final MappedByteBuffer buf = ch.map(MapMode.READ_ONLY, 0, attrs.length());
+                if (!attrs.equals(readAttributes())) {
+                    // Modified or truncated while being mapped. Accessing the truncated region of
+                    // a mapping raises SIGBUS, so let the caller copy the file instead.
+                    return null;
                 }
+                return newAggregatedFile(attrs, HttpData.wrap(Unpooled.wrappedBuffer(buf)).withEndOfStream());
             } catch (NoSuchFileException e) {
-                // Non-existent file.
+                return NonExistentAggregatedHttpFile.INSTANCE;
             } catch (IOException e) {
-                return Exceptions.throwUnsafely(e);
+                // e.g. The file has been truncated after its attributes were read.
+                return null;
             }
-
-            return null;
         }, fileReadExecutor);
     }
 
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server.limit;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.limit.AdaptiveLimit;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+/**
+ * Limits the number of concurrent requests of a {@link ConcurrencyLimitingService} with
+ * an {@link AdaptiveLimit}.
+ *
+ * <p>Each {@link Partition} is guaranteed its share of the limit. A partition may use more than its share
+ * while the limit is not reached, and a request of a partition which uses less than its share is accepted
+ * even if the limit is reached.
+ */
+final class ConcurrencyLimiter {
+
+    private final AdaptiveLimit limit;
+    private final List<Partition> partitions;
+    private final Partition defaultPartition = new Partition("default", 0, ctx -> true);
+
+    private int inFlight;
+
+    ConcurrencyLimiter(AdaptiveLimit limit, List<Partition> partitions) {
+        this.limit = limit;
+        // Copy the partitions so that they do not share the number of the in-flight requests with
+        // the other limiters.
+        this.partitions = partitions.stream().map(Partition::copy).collect(toImmutableList());
+    }
+
+    Partition partition(ServiceRequestContext ctx) {
+        for (Partition partition : partitions) {
+            if (partition.predicate.test(ctx)) {
+                return partition;
+            }
+        }
+        return defaultPartition;
+    }
+
+    /**
+     * Acquires a permit for the specified {@link Partition}.
+     *
+     * @return the number of the in-flight requests before acquiring the permit,
+     *         or {@code -1} if the limit has been reached
+     */
+    synchronized int tryAcquire(Partition partition) {
+        final int limit = this.limit.limit();
+        if (inFlight >= limit && partition.inFlight >= partition.limit(limit)) {
+            return -1;
+        }
+        partition.inFlight++;
+        return inFlight++;
+    }
+
+    void release(Partition partition, long rttNanos, int inFlight, boolean dropped) {
+        release(partition);
+        limit.onSample(rttNanos, inFlight, dropped);
+    }
+
+    synchronized void release(Partition partition) {
+        partition.inFlight--;
+        inFlight--;
+    }
+
+    int limit() {
+        return limit.limit();
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("limit", limit)
+                          .add("partitions", partitions)
+                          .toString();
+    }
+
+    static final class Partition {
+
+        private final String name;
+        private final double ratio;
+        private final Predicate<? super ServiceRequestContext> predicate;
+
+        // Guarded by the ConcurrencyLimiter.
+        private int inFlight;
+
+        Partition(String name, double ratio, Predicate<? super ServiceRequestContext> predicate) {
+            this.name = name;
+            this.ratio = ratio;
+            this.predicate = predicate;
+        }
+
+        String name() {
+            return name;
+        }
+
+        Partition copy() {
+            return new Partition(name, ratio, predicate);
+        }
+
+        int limit(int totalLimit) {
+            return (int) Math.ceil(totalLimit * ratio);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                              .add("name", name)
+                              .add("ratio", ratio)
+                              .toString();
+        }
+    }
+}
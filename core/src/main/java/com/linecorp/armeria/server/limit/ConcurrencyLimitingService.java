@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server.limit;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.limit.AdaptiveLimit;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.RequestTimeoutException;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.armeria.server.SimpleDecoratingHttpService;
+import com.linecorp.armeria.server.limit.ConcurrencyLimiter.Partition;
+
+/**
+ * Decorates an {@link HttpService} to limit the number of concurrent requests with an {@link AdaptiveLimit}.
+ * The limit is learned from the latency of the requests, and the requests over the limit are rejected
+ * immediately instead of being queued. For example:
+ * <pre>{@code
+ * ServerBuilder sb = Server.builder();
+ * sb.decorator(ConcurrencyLimitingService.builder(AdaptiveLimit::gradient2)
+ *                                        .partition("critical", 0.8,
+ *                                                   ctx -> ctx.path().startsWith("/api/"))
+ *                                        .newDecorator());
+ * }</pre>
+ *
+ * <p>Note that a new {@link AdaptiveLimit} is created for each decorated {@link HttpService}, so that
+ * the limit of a service is learned only from the latency of its own requests.
+ *
+ * @see ConcurrencyLimitingServiceBuilder#partition(String, double, java.util.function.Predicate)
+ */
+@UnstableApi
+public final class ConcurrencyLimitingService extends SimpleDecoratingHttpService {
+
+    /**
+     * Returns a new {@link HttpService} decorator that limits the number of concurrent requests with
+     * the {@link AdaptiveLimit}s created by the specified {@link Supplier}.
+     */
+    public static Function<? super HttpService, ConcurrencyLimitingService> newDecorator(
+            Supplier<? extends AdaptiveLimit> limitFactory) {
+        return builder(limitFactory).newDecorator();
+    }
+
+    /**
+     * Returns a new {@link ConcurrencyLimitingServiceBuilder} with the specified {@link Supplier} which
+     * creates a new {@link AdaptiveLimit} for each decorated {@link HttpService}.
+     */
+    public static ConcurrencyLimitingServiceBuilder builder(Supplier<? extends AdaptiveLimit> limitFactory) {
+        return new ConcurrencyLimitingServiceBuilder(requireNonNull(limitFactory, "limitFactory"));
+    }
+
+    private final ConcurrencyLimiter limiter;
+    private final BiFunction<? super ServiceRequestContext, ? super HttpRequest,
+            ? extends HttpResponse> rejectHandler;
+
+    ConcurrencyLimitingService(HttpService delegate, ConcurrencyLimiter limiter,
+                               BiFunction<? super ServiceRequestContext, ? super HttpRequest,
+                                       ? extends HttpResponse> rejectHandler) {
+        super(delegate);
+        this.limiter = limiter;
+        this.rejectHandler = rejectHandler;
+    }
+
+    @Override
+    public HttpResponse serve(ServiceRequestContext ctx, HttpRequest req) throws Exception {
+        final Partition partition = limiter.partition(ctx);
+        final int inFlight = limiter.tryAcquire(partition);
+        if (inFlight < 0) {
+            return rejectHandler.apply(ctx, req);
+        }
+
+        final long startTimeNanos = System.nanoTime();
+        ctx.log().whenComplete().thenAccept(log -> {
+            final long rttNanos = System.nanoTime() - startTimeNanos;
+            final Throwable cause = log.responseCause();
+            if (cause == null) {
+                limiter.release(partition, rttNanos, inFlight, false);
+            } else if (cause instanceof RequestTimeoutException) {
+                limiter.release(partition, rttNanos, inFlight, true);
+            } else {
+                // The failures unrelated with the load do not tell anything about the limit.
+                limiter.release(partition);
+            }
+        });
+        return unwrap().serve(ctx, req);
+    }
+
+    /**
+     * Returns the current limit.
+     */
+    public int limit() {
+        return limiter.limit();
+    }
+
+    /**
+     * Returns the current number of the in-flight requests.
+     */
+    public int inFlight() {
+        return limiter.inFlight();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server.limit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.limit.AdaptiveLimit;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.armeria.server.limit.ConcurrencyLimiter.Partition;
+
+/**
+ * Builds a new {@link ConcurrencyLimitingService}.
+ *
+ * @see ConcurrencyLimitingService#builder(Supplier)
+ */
+@UnstableApi
+public final class ConcurrencyLimitingServiceBuilder {
+
+    private static final BiFunction<ServiceRequestContext, HttpRequest, HttpResponse> DEFAULT_REJECT_HANDLER =
+            (ctx, req) -> HttpResponse.of(HttpStatus.SERVICE_UNAVAILABLE);
+
+    private final Supplier<? extends AdaptiveLimit> limitFactory;
+    private final List<Partition> partitions = new ArrayList<>();
+    private double totalRatio;
+    private BiFunction<? super ServiceRequestContext, ? super HttpRequest,
+            ? extends HttpResponse> rejectHandler = DEFAULT_REJECT_HANDLER;
+
+    ConcurrencyLimitingServiceBuilder(Supplier<? extends AdaptiveLimit> limitFactory) {
+        this.limitFactory = limitFactory;
+    }
+
+    /**
+     * Adds a partition which is guaranteed the specified {@code ratio} of the limit. A request belongs to
+     * the first partition whose {@link Predicate} matches the {@link ServiceRequestContext} of the request,
+     * or to the default partition which is guaranteed nothing if none matches. For example, the following
+     * decorator accepts the requests to {@code /api} until they use 90 percent of the limit, even if
+     * the requests to the other paths have already used all the limit:
+     * <pre>{@code
+     * ConcurrencyLimitingService.builder(AdaptiveLimit::vegas)
+     *                           .partition("api", 0.9, ctx -> ctx.path().startsWith("/api/"))
+     *                           .newDecorator();
+     * }</pre>
+     *
+     * @param name the name of the partition
+     * @param ratio the ratio of the limit guaranteed for the partition
+     * @param predicate the {@link Predicate} which determines whether a request belongs to the partition
+     */
+    public ConcurrencyLimitingServiceBuilder partition(String name, double ratio,
+                                                       Predicate<? super ServiceRequestContext> predicate) {
+        requireNonNull(name, "name");
+        requireNonNull(predicate, "predicate");
+        checkArgument(ratio > 0 && ratio <= 1, "ratio: %s (expected: 0 < ratio <= 1)", ratio);
+        checkArgument(partitions.stream().noneMatch(p -> p.name().equals(name)),
+                      "duplicate partition: %s", name);
+        checkArgument(totalRatio + ratio <= 1.0 + 1e-9,
+                      "ratio: %s (expected: the sum of the ratios <= 1, current sum: %s)", ratio, totalRatio);
+        partitions.add(new Partition(name, ratio, predicate));
+        totalRatio += ratio;
+        return this;
+    }
+
+    /**
+     * Sets the {@link BiFunction} which returns the {@link HttpResponse} for a rejected request.
+     * If not set, a {@link HttpStatus#SERVICE_UNAVAILABLE} response is sent.
+     */
+    public ConcurrencyLimitingServiceBuilder onRejectedRequest(
+            BiFunction<? super ServiceRequestContext, ? super HttpRequest,
+                    ? extends HttpResponse> rejectHandler) {
+        this.rejectHandler = requireNonNull(rejectHandler, "rejectHandler");
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link ConcurrencyLimitingService} that decorates the specified
+     * {@link HttpService} with the properties of this builder.
+     */
+    public ConcurrencyLimitingService build(HttpService delegate) {
+        requireNonNull(delegate, "delegate");
+        return new ConcurrencyLimitingService(delegate, newLimiter(limitFactory, partitions), rejectHandler);
+    }
+
+    /**
+     * Returns a newly-created decorator that decorates an {@link HttpService} with
+     * a {@link ConcurrencyLimitingService}. Each {@link HttpService} decorated by the returned decorator
+     * has its own {@link AdaptiveLimit}.
+     */
+    public Function<? super HttpService, ConcurrencyLimitingService> newDecorator() {
+        final Supplier<? extends AdaptiveLimit> limitFactory = this.limitFactory;
+        final List<Partition> partitions = ImmutableList.copyOf(this.partitions);
+        final BiFunction<? super ServiceRequestContext, ? super HttpRequest,
+                ? extends HttpResponse> rejectHandler = this.rejectHandler;
+        return delegate -> new ConcurrencyLimitingService(delegate, newLimiter(limitFactory, partitions),
+                                                          rejectHandler);
+    }
+
+    private static ConcurrencyLimiter newLimiter(Supplier<? extends AdaptiveLimit> limitFactory,
+                                                 List<Partition> partitions) {
+        return new ConcurrencyLimiter(requireNonNull(limitFactory.get(), "limitFactory.get() returned null"),
+                                      partitions);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.websocket;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Set;
+
+import com.google.common.base.Splitter;
+
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.ResponseHeadersBuilder;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.websocket.WebSocketFrame;
+import com.linecorp.armeria.internal.common.websocket.PerMessageDeflate;
+import com.linecorp.armeria.internal.common.websocket.PerMessageDeflateEncoder;
+import com.linecorp.armeria.internal.common.websocket.WebSocketFrameDecoder;
+import com.linecorp.armeria.internal.common.websocket.WebSocketFrameEncoder;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+import io.netty.util.AsciiString;
+
+/**
+ * An {@link HttpService} which accepts a WebSocket session and exchanges {@link WebSocketFrame}s with
+ * the peer through a {@link WebSocketServiceHandler}.
+ *
+ * <p>A WebSocket session is bootstrapped with either an HTTP/2 extended {@code CONNECT} request, as defined
+ * in <a href="https://datatracker.ietf.org/doc/html/rfc8441">RFC 8441</a>, which occupies a single HTTP/2
+ * stream, or an HTTP/1.1 {@code GET} request with an {@code "upgrade: websocket"} header, as defined in
+ * <a href="https://datatracker.ietf.org/doc/html/rfc6455#section-4">RFC 6455, Section 4</a>, which takes
+ * over the whole connection. Unlike a long-polling request, an idle session costs neither a new request nor
+ * a {@link com.linecorp.armeria.common.logging.RequestLog}, and its request timeout is cleared.
+ * The {@code permessage-deflate} extension can be enabled with
+ * {@link WebSocketServiceBuilder#perMessageDeflate(boolean)}.
+ *
+ * <pre>{@code
+ * ServerBuilder sb = Server.builder();
+ * sb.service("/chat", WebSocketService.of((ctx, in) -> in.map(frame -> {
+ *     if (frame.type() == WebSocketFrameType.PING) {
+ *         return WebSocketFrame.ofPong(frame.array());
+ *     }
+ *     return frame; // Echo the received frame.
+ * })));
+ * }</pre>
+ */
+public final class WebSocketService implements HttpService {
+
+    private static final String WEBSOCKET = "websocket";
+    private static final String WEBSOCKET_VERSION = "13";
+    private static final String WEBSOCKET_KEY_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private static final Splitter SUBPROTOCOL_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    /**
+     * Returns a new {@link WebSocketService} with the specified {@link WebSocketServiceHandler}.
+     */
+    public static WebSocketService of(WebSocketServiceHandler handler) {
+        return builder(handler).build();
+    }
+
+    /**
+     * Returns a new {@link WebSocketServiceBuilder} with the specified {@link WebSocketServiceHandler}.
+     */
+    public static WebSocketServiceBuilder builder(WebSocketServiceHandler handler) {
+        return new WebSocketServiceBuilder(requireNonNull(handler, "handler"));
+    }
+
+    private final WebSocketServiceHandler handler;
+    private final int maxFramePayloadLength;
+    private final Set<String> subprotocols;
+    private final boolean perMessageDeflate;
+
+    WebSocketService(WebSocketServiceHandler handler, int maxFramePayloadLength, Set<String> subprotocols,
+                     boolean perMessageDeflate) {
+        this.handler = handler;
+        this.maxFramePayloadLength = maxFramePayloadLength;
+        this.subprotocols = subprotocols;
+        this.perMessageDeflate = perMessageDeflate;
+    }
+
+    @Override
+    public HttpResponse serve(ServiceRequestContext ctx, HttpRequest req) throws Exception {
+        final RequestHeaders headers = req.headers();
+        final boolean http1Upgrade = !ctx.sessionProtocol().isMultiplex();
+        final HttpMethod expectedMethod = http1Upgrade ? HttpMethod.GET : HttpMethod.CONNECT;
+        final AsciiString protocolHeader = http1Upgrade ? HttpHeaderNames.UPGRADE : HttpHeaderNames.PROTOCOL;
+        if (headers.method() != expectedMethod || !WEBSOCKET.equalsIgnoreCase(headers.get(protocolHeader))) {
+            return HttpResponse.of(HttpStatus.BAD_REQUEST, MediaType.PLAIN_TEXT_UTF_8,
+                                   "Not a WebSocket handshake request");
+        }
+        if (!WEBSOCKET_VERSION.equals(headers.get(HttpHeaderNames.SEC_WEBSOCKET_VERSION))) {
+            return HttpResponse.of(ResponseHeaders.of(HttpStatus.BAD_REQUEST,
+                                                      HttpHeaderNames.SEC_WEBSOCKET_VERSION,
+                                                      WEBSOCKET_VERSION));
+        }
+
+        final ResponseHeadersBuilder resHeaders;
+        if (http1Upgrade) {
+            final String key = headers.get(HttpHeaderNames.SEC_WEBSOCKET_KEY);
+            if (key == null) {
+                return HttpResponse.of(HttpStatus.BAD_REQUEST, MediaType.PLAIN_TEXT_UTF_8,
+                                       "Missing sec-websocket-key");
+            }
+            resHeaders = ResponseHeaders.builder(HttpStatus.SWITCHING_PROTOCOLS)
+                                        .set(HttpHeaderNames.UPGRADE, WEBSOCKET)
+                                        .set(HttpHeaderNames.SEC_WEBSOCKET_ACCEPT, acceptKey(key));
+        } else {
+            resHeaders = ResponseHeaders.builder(HttpStatus.OK);
+        }
+
+        final String subprotocol = selectSubprotocol(headers.get(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL));
+        if (subprotocol != null) {
+            resHeaders.set(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL, subprotocol);
+        }
+        final PerMessageDeflate deflate =
+                perMessageDeflate ? PerMessageDeflate.acceptOffer(
+                        headers.get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS)) : null;
+        if (deflate != null) {
+            resHeaders.set(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS, deflate.toResponse());
+        }
+
+        // A WebSocket session lives as long as the peer wants.
+        ctx.clearRequestTimeout();
+        ctx.setMaxRequestLength(0);
+
+        final StreamMessage<WebSocketFrame> in =
+                req.decode(new WebSocketFrameDecoder(maxFramePayloadLength, true, deflate != null),
+                           ctx.alloc());
+        final StreamMessage<WebSocketFrame> out = handler.handle(ctx, in);
+        requireNonNull(out, "handler.handle() returned null");
+        final StreamMessage<WebSocketFrame> recovered = WebSocketFrameDecoder.recoverWithCloseFrame(out);
+        final StreamMessage<HttpData> encoded;
+        if (deflate == null) {
+            encoded = recovered.map(frame -> WebSocketFrameEncoder.encode(ctx.alloc(), frame, false));
+        } else {
+            final PerMessageDeflateEncoder encoder =
+                    new PerMessageDeflateEncoder(false, deflate.serverNoContextTakeover());
+            encoded = recovered.map(frame -> encoder.encode(ctx.alloc(), frame));
+            encoded.whenComplete().handle((unused, cause) -> {
+                encoder.close();
+                return null;
+            });
+        }
+        return HttpResponse.of(resHeaders.build(), encoded);
+    }
+
+    /**
+     * Returns the {@code "sec-websocket-accept"} header value for the specified
+     * {@code "sec-websocket-key"} header value.
+     */
+    private static String acceptKey(String key) {
+        final MessageDigest sha1;
+        try {
+            sha1 = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-1.
+            throw new Error(e);
+        }
+        final byte[] digest = sha1.digest((key + WEBSOCKET_KEY_GUID).getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+
+    @Nullable
+    private String selectSubprotocol(@Nullable String requested) {
+        if (requested == null || subprotocols.isEmpty()) {
+            return null;
+        }
+        for (String subprotocol : SUBPROTOCOL_SPLITTER.split(requested)) {
+            if (subprotocols.contains(subprotocol)) {
+                return subprotocol;
+            }
+        }
+        return null;
+    }
+}
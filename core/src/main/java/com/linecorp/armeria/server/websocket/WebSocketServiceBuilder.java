@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.websocket;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Builds a new {@link WebSocketService}.
+ */
+public final class WebSocketServiceBuilder {
+
+    static final int DEFAULT_MAX_FRAME_PAYLOAD_LENGTH = 65536;
+
+    private final WebSocketServiceHandler handler;
+    private int maxFramePayloadLength = DEFAULT_MAX_FRAME_PAYLOAD_LENGTH;
+    private ImmutableSet<String> subprotocols = ImmutableSet.of();
+    private boolean perMessageDeflate;
+
+    WebSocketServiceBuilder(WebSocketServiceHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Sets the maximum length of the payload of a data frame received from a peer.
+     * A session is aborted with a {@link com.linecorp.armeria.common.ContentTooLargeException}
+     * when a longer frame is received. {@value #DEFAULT_MAX_FRAME_PAYLOAD_LENGTH} is used by default.
+     */
+    public WebSocketServiceBuilder maxFramePayloadLength(int maxFramePayloadLength) {
+        checkArgument(maxFramePayloadLength > 0,
+                      "maxFramePayloadLength: %s (expected: > 0)", maxFramePayloadLength);
+        this.maxFramePayloadLength = maxFramePayloadLength;
+        return this;
+    }
+
+    /**
+     * Sets the subprotocols supported by the {@link WebSocketService}. The first subprotocol requested
+     * by a peer which is supported is sent back in the {@code "sec-websocket-protocol"} header.
+     */
+    public WebSocketServiceBuilder subprotocols(String... subprotocols) {
+        return subprotocols(ImmutableSet.copyOf(requireNonNull(subprotocols, "subprotocols")));
+    }
+
+    /**
+     * Sets the subprotocols supported by the {@link WebSocketService}. The first subprotocol requested
+     * by a peer which is supported is sent back in the {@code "sec-websocket-protocol"} header.
+     */
+    public WebSocketServiceBuilder subprotocols(Iterable<String> subprotocols) {
+        this.subprotocols = ImmutableSet.copyOf(requireNonNull(subprotocols, "subprotocols"));
+        return this;
+    }
+
+    /**
+     * Sets whether to accept the {@code permessage-deflate} extension offered by a peer, which compresses
+     * the data messages, as defined in <a href="https://datatracker.ietf.org/doc/html/rfc7692">RFC 7692</a>.
+     * An offer which limits the compression window of the server is declined. It is disabled by default.
+     */
+    public WebSocketServiceBuilder perMessageDeflate(boolean perMessageDeflate) {
+        this.perMessageDeflate = perMessageDeflate;
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link WebSocketService} based on the properties of this builder.
+     */
+    public WebSocketService build() {
+        return new WebSocketService(handler, maxFramePayloadLength, subprotocols, perMessageDeflate);
+    }
+}
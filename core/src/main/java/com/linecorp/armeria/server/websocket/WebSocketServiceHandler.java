@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.websocket;
+
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.websocket.WebSocketFrame;
+import com.linecorp.armeria.common.websocket.WebSocketFrameType;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+/**
+ * Handles a WebSocket session accepted by a {@link WebSocketService}.
+ */
+@FunctionalInterface
+public interface WebSocketServiceHandler {
+
+    /**
+     * Handles a WebSocket session. The returned {@link StreamMessage} is subscribed only as fast as
+     * the peer reads the frames, and the {@code in} frames are read from the peer only as fast as
+     * they are requested, so a slow peer or a slow handler does not cause the frames to be buffered
+     * indefinitely.
+     *
+     * <p>Note that a {@link WebSocketFrameType#PING} frame is not answered automatically; a handler
+     * is expected to send a {@link WebSocketFrameType#PONG} frame back. The session ends when
+     * the returned {@link StreamMessage} is completed. If the returned {@link StreamMessage} fails with
+     * the exception the {@code in} frames failed with, e.g. when the peer violated the protocol or sent a text
+     * frame which is not valid UTF-8, a close frame with the matching close code is sent to the peer.
+     *
+     * @param ctx the {@link ServiceRequestContext} of the handshake request
+     * @param in the frames received from the peer
+     * @return the frames to send to the peer
+     */
+    StreamMessage<WebSocketFrame> handle(ServiceRequestContext ctx, StreamMessage<WebSocketFrame> in);
+}
@@ -29,6 +29,8 @@ import static com.linecorp.armeria.client.ClientFactoryOptions.HTTP2_MAX_FRAME_S
 import static com.linecorp.armeria.client.ClientFactoryOptions.HTTP2_MAX_HEADER_LIST_SIZE;
 import static com.linecorp.armeria.client.ClientFactoryOptions.IDLE_TIMEOUT_MILLIS;
 import static com.linecorp.armeria.client.ClientFactoryOptions.METER_REGISTRY;
+import static com.linecorp.armeria.client.ClientFactoryOptions.MIN_CONNECTIONS_PER_ENDPOINT;
+import static com.linecorp.armeria.client.ClientFactoryOptions.SHARE_HTTP2_CONNECTIONS_ACROSS_EVENT_LOOPS;
 import static com.linecorp.armeria.client.ClientFactoryOptions.SHUTDOWN_WORKER_GROUP_ON_CLOSE;
 import static com.linecorp.armeria.client.ClientFactoryOptions.USE_HTTP1_PIPELINING;
 import static com.linecorp.armeria.client.ClientFactoryOptions.USE_HTTP2_PREFACE;
@@ -118,6 +120,8 @@ class ClientFactoryOptionsTest {
                     arguments(IDLE_TIMEOUT_MILLIS, 8),
                     arguments(USE_HTTP2_PREFACE, true),
                     arguments(USE_HTTP1_PIPELINING, false),
+                    arguments(SHARE_HTTP2_CONNECTIONS_ACROSS_EVENT_LOOPS, true),
+                    arguments(MIN_CONNECTIONS_PER_ENDPOINT, 1),
                     arguments(CONNECTION_POOL_LISTENER, ConnectionPoolListener.noop()),
                     arguments(METER_REGISTRY, Metrics.globalRegistry));
         }
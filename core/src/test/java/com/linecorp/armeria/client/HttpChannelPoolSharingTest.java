@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.logging.RequestLogProperty;
+import com.linecorp.armeria.common.util.ReleasableHolder;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+
+class HttpChannelPoolSharingTest {
+
+    private static final Queue<CompletableFuture<HttpResponse>> responses = new ConcurrentLinkedQueue<>();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/ok", (ctx, req) -> HttpResponse.of(200));
+            sb.service("/pending", (ctx, req) -> {
+                final CompletableFuture<HttpResponse> f = new CompletableFuture<>();
+                responses.add(f);
+                return HttpResponse.from(f);
+            });
+            sb.http2MaxStreamsPerConnection(2);
+        }
+    };
+
+    @AfterEach
+    void completeResponses() {
+        for (;;) {
+            final CompletableFuture<HttpResponse> f = responses.poll();
+            if (f == null) {
+                break;
+            }
+            f.complete(HttpResponse.of(200));
+        }
+    }
+
+    @Test
+    void shareConnectionOfOtherEventLoop() {
+        try (ClientFactory factory = newClientFactory(true)) {
+            final WebClient client = WebClient.builder(server.uri(SessionProtocol.H2C))
+                                              .factory(factory)
+                                              .build();
+            assertThat(client.get("/ok").aggregate().join().status().code()).isEqualTo(200);
+            assertThat(factory.numConnections()).isOne();
+
+            // The two requests would be assigned to different event loops by default, but both of them are
+            // assigned to the event loop of the existing connection.
+            final ClientRequestContext ctx1 = sendPendingRequest(client, 1);
+            final ClientRequestContext ctx2 = sendPendingRequest(client, 2);
+            assertThat(ctx1.eventLoop().withoutContext()).isSameAs(ctx2.eventLoop().withoutContext());
+            assertThat(factory.numConnections()).isOne();
+            for (ClientRequestContext ctx : ImmutableList.of(ctx1, ctx2)) {
+                final Channel channel = ctx.log().whenAvailable(RequestLogProperty.SESSION).join().channel();
+                assertThat(channel.eventLoop()).isSameAs(ctx.eventLoop().withoutContext());
+            }
+
+            // A new connection is created once MAX_CONCURRENT_STREAMS is reached.
+            sendPendingRequest(client, 3);
+            assertThat(factory.numConnections()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void reportSharedRequestsToEventLoopScheduler() {
+        final AtomicInteger numAcquired = new AtomicInteger();
+        final AtomicInteger numReleased = new AtomicInteger();
+        try (ClientFactory factory =
+                     ClientFactory.builder()
+                                  .workerGroup(2)
+                                  .eventLoopSchedulerFactory(group -> {
+                                      final EventLoopScheduler delegate =
+                                              new DefaultEventLoopScheduler(group, 2, 2, ImmutableList.of());
+                                      return (sessionProtocol, endpointGroup, endpoint) -> {
+                                          numAcquired.incrementAndGet();
+                                          final ReleasableHolder<EventLoop> acquired =
+                                                  delegate.acquire(sessionProtocol, endpointGroup, endpoint);
+                                          return new ReleasableHolder<EventLoop>() {
+                                              @Override
+                                              public EventLoop get() {
+                                                  return acquired.get();
+                                              }
+
+                                              @Override
+                                              public void release() {
+                                                  numReleased.incrementAndGet();
+                                                  acquired.release();
+                                              }
+                                          };
+                                      };
+                                  })
+                                  .shareHttp2ConnectionsAcrossEventLoops(true)
+                                  .build()) {
+            final WebClient client = WebClient.builder(server.uri(SessionProtocol.H2C))
+                                              .factory(factory)
+                                              .build();
+            assertThat(client.get("/ok").aggregate().join().status().code()).isEqualTo(200);
+            final ClientRequestContext ctx1 = sendPendingRequest(client, 1);
+            final ClientRequestContext ctx2 = sendPendingRequest(client, 2);
+            assertThat(ctx1.eventLoop().withoutContext()).isSameAs(ctx2.eventLoop().withoutContext());
+            assertThat(factory.numConnections()).isOne();
+
+            // The requests steered to the event loop of the existing connection are still acquired from
+            // and released back to the EventLoopScheduler.
+            completeResponses();
+            await().untilAsserted(() -> {
+                assertThat(numAcquired).hasValue(3);
+                assertThat(numReleased).hasValue(3);
+            });
+        }
+    }
+
+    @Test
+    void doNotShareByDefault() {
+        try (ClientFactory factory = newClientFactory(false)) {
+            final WebClient client = WebClient.builder(server.uri(SessionProtocol.H2C))
+                                              .factory(factory)
+                                              .build();
+            assertThat(client.get("/ok").aggregate().join().status().code()).isEqualTo(200);
+            assertThat(factory.numConnections()).isOne();
+
+            final ClientRequestContext ctx1 = sendPendingRequest(client, 1);
+            final ClientRequestContext ctx2 = sendPendingRequest(client, 2);
+            assertThat(ctx1.eventLoop().withoutContext()).isNotSameAs(ctx2.eventLoop().withoutContext());
+            assertThat(factory.numConnections()).isEqualTo(2);
+        }
+    }
+
+    private static ClientFactory newClientFactory(boolean shareHttp2Connections) {
+        return ClientFactory.builder()
+                            .workerGroup(2)
+                            .maxNumEventLoopsPerEndpoint(2)
+                            .shareHttp2ConnectionsAcrossEventLoops(shareHttp2Connections)
+                            .build();
+    }
+
+    private static ClientRequestContext sendPendingRequest(WebClient client, int expectedNumPendingRequests) {
+        final ClientRequestContext ctx;
+        try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+            client.get("/pending");
+            ctx = captor.get();
+        }
+        await().until(() -> responses.size() == expectedNumPendingRequests);
+        return ctx;
+    }
+}
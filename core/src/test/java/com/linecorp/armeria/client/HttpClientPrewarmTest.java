@@ -0,0 +1,292 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.endpoint.DynamicEndpointGroup;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.InetNameResolver;
+import io.netty.util.AttributeMap;
+import io.netty.util.NetUtil;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Promise;
+
+class HttpClientPrewarmTest {
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/", (ctx, req) -> HttpResponse.of(200));
+        }
+    };
+
+    @RegisterExtension
+    static final ServerExtension closingServer = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/", (ctx, req) -> HttpResponse.of(200));
+            // Closes the connections shortly after they are established.
+            sb.idleTimeoutMillis(300);
+        }
+    };
+
+    @Test
+    void prewarmConnectionsOnClientCreation() {
+        final RecordingListener listener = new RecordingListener();
+        try (ClientFactory factory = ClientFactory.builder()
+                                                  .minConnectionsPerEndpoint(2)
+                                                  .connectionPoolListener(listener)
+                                                  .build()) {
+            final WebClient client = WebClient.builder(server.uri(SessionProtocol.H2C))
+                                              .factory(factory)
+                                              .build();
+            await().untilAsserted(() -> assertThat(listener.prewarmed).containsExactly(1, 2));
+            assertThat(listener.numOpened.get()).isEqualTo(2);
+            assertThat(factory.numConnections()).isEqualTo(2);
+
+            // The pre-warmed connections are used by the requests.
+            assertThat(client.get("/").aggregate().join().status().code()).isEqualTo(200);
+            assertThat(factory.numConnections()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void prewarmConnectionsOnEndpointAddition() {
+        final RecordingListener listener = new RecordingListener();
+        final Group group = new Group();
+        try (ClientFactory factory = ClientFactory.builder()
+                                                  .minConnectionsPerEndpoint(1)
+                                                  .connectionPoolListener(listener)
+                                                  .build()) {
+            WebClient.builder(SessionProtocol.H2C, group).factory(factory).build();
+            assertThat(factory.numConnections()).isZero();
+
+            group.set(Endpoint.of("127.0.0.1", server.httpPort()));
+            await().untilAsserted(() -> assertThat(factory.numConnections()).isOne());
+
+            group.set(Endpoint.of("127.0.0.1", server.httpPort()),
+                      Endpoint.of("localhost", server.httpPort()).withIpAddr("127.0.0.1"));
+            await().untilAsserted(() -> assertThat(factory.numConnections()).isEqualTo(2));
+            assertThat(listener.prewarmed).containsExactly(1, 1);
+        }
+    }
+
+    @Test
+    void reestablishConnectionsClosedByPeerWithBackoff() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        try (ClientFactory factory = ClientFactory.builder()
+                                                  .minConnectionsPerEndpoint(1)
+                                                  .connectionPoolListener(listener)
+                                                  .build()) {
+            WebClient.builder(closingServer.uri(SessionProtocol.H2C)).factory(factory).build();
+            await().untilAsserted(() -> assertThat(listener.numOpened.get()).isGreaterThanOrEqualTo(2));
+
+            // The connection attempts are delayed more and more because the connections are closed
+            // shortly after they are established, i.e. 300ms + 200ms, 300ms + 400ms, 300ms + 800ms, ...
+            Thread.sleep(2000);
+            assertThat(listener.numOpened.get()).isBetween(2, 4);
+        }
+    }
+
+    @Test
+    void doNotReestablishConnectionsClosedByIdleTimeout() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        try (ClientFactory factory = ClientFactory.builder()
+                                                  .minConnectionsPerEndpoint(1)
+                                                  .idleTimeoutMillis(500)
+                                                  .connectionPoolListener(listener)
+                                                  .build()) {
+            WebClient.builder(server.uri(SessionProtocol.H2C)).factory(factory).build();
+            await().untilAsserted(() -> assertThat(listener.numClosed.get()).isOne());
+            Thread.sleep(1000);
+            assertThat(listener.numOpened.get()).isOne();
+            assertThat(factory.numConnections()).isZero();
+        }
+    }
+
+    @Test
+    void stopPrewarmingStaticEndpointOnIdleTimeout() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        try (ClientFactory factory = ClientFactory.builder()
+                                                  .minConnectionsPerEndpoint(2)
+                                                  .idleTimeoutMillis(500)
+                                                  .connectionPoolListener(listener)
+                                                  .build()) {
+            final WebClient client = WebClient.builder(server.uri(SessionProtocol.H2C))
+                                              .factory(factory)
+                                              .build();
+            await().untilAsserted(() -> assertThat(listener.numClosed.get()).isEqualTo(2));
+
+            // The connections are not replenished by a request because the prewarmer of the static
+            // Endpoint has been removed.
+            assertThat(client.get("/").aggregate().join().status().code()).isEqualTo(200);
+            Thread.sleep(200);
+            assertThat(listener.numOpened.get()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void retryFailedResolution() {
+        final AtomicInteger numResolutions = new AtomicInteger();
+        final RecordingListener listener = new RecordingListener();
+        final AddressResolverGroup<InetSocketAddress> resolverGroup =
+                new AddressResolverGroup<InetSocketAddress>() {
+                    @Override
+                    protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor) {
+                        return new FailingNameResolver(executor, numResolutions).asAddressResolver();
+                    }
+                };
+        try (ClientFactory factory = ClientFactory.builder()
+                                                  .minConnectionsPerEndpoint(1)
+                                                  .connectionPoolListener(listener)
+                                                  .addressResolverGroupFactory(unused -> resolverGroup)
+                                                  .build()) {
+            WebClient.builder(SessionProtocol.H2C, Endpoint.of("prewarm.test", server.httpPort()))
+                     .factory(factory)
+                     .build();
+
+            // The first two resolutions fail and are retried with a backoff.
+            await().untilAsserted(() -> assertThat(listener.prewarmed).containsExactly(1));
+            assertThat(numResolutions).hasValue(3);
+        }
+    }
+
+    @Test
+    void stopPrewarmingOnEndpointGroupClose() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        final Group group = new Group();
+        try (ClientFactory factory = ClientFactory.builder()
+                                                  .minConnectionsPerEndpoint(1)
+                                                  .connectionPoolListener(listener)
+                                                  .build()) {
+            WebClient.builder(SessionProtocol.H2C, group).factory(factory).build();
+            group.set(Endpoint.of("127.0.0.1", closingServer.httpPort()));
+            await().untilAsserted(() -> assertThat(listener.numOpened.get()).isOne());
+
+            // The connection closed by the server is not reestablished once the group is closed.
+            group.close();
+            await().untilAsserted(() -> assertThat(listener.numClosed.get()).isOne());
+            Thread.sleep(1000);
+            assertThat(listener.numOpened.get()).isOne();
+        }
+    }
+
+    @Test
+    void prewarmHttp1IdleConnections() {
+        final RecordingListener listener = new RecordingListener();
+        try (ClientFactory factory = ClientFactory.builder()
+                                                  .minConnectionsPerEndpoint(1)
+                                                  .connectionPoolListener(listener)
+                                                  .build()) {
+            final WebClient client = WebClient.builder(server.uri(SessionProtocol.H1C))
+                                              .factory(factory)
+                                              .build();
+            await().untilAsserted(() -> assertThat(factory.numConnections()).isOne());
+
+            // An HTTP/1 connection taken out of the pool is replenished.
+            assertThat(client.get("/").aggregate().join().status().code()).isEqualTo(200);
+            await().untilAsserted(() -> assertThat(factory.numConnections()).isEqualTo(2));
+        }
+    }
+
+    @Test
+    void disabledByDefault() {
+        try (ClientFactory factory = ClientFactory.builder().build()) {
+            WebClient.builder(server.uri(SessionProtocol.H2C)).factory(factory).build();
+            assertThat(factory.numConnections()).isZero();
+        }
+    }
+
+    private static final class FailingNameResolver extends InetNameResolver {
+
+        private final AtomicInteger numResolutions;
+
+        FailingNameResolver(EventExecutor executor, AtomicInteger numResolutions) {
+            super(executor);
+            this.numResolutions = numResolutions;
+        }
+
+        @Override
+        protected void doResolve(String inetHost, Promise<InetAddress> promise) {
+            if (numResolutions.incrementAndGet() <= 2) {
+                promise.setFailure(new UnknownHostException(inetHost));
+            } else {
+                promise.setSuccess(NetUtil.LOCALHOST4);
+            }
+        }
+
+        @Override
+        protected void doResolveAll(String inetHost, Promise<List<InetAddress>> promise) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class Group extends DynamicEndpointGroup {
+        void set(Endpoint... endpoints) {
+            setEndpoints(ImmutableList.copyOf(endpoints));
+        }
+    }
+
+    private static final class RecordingListener implements ConnectionPoolListener {
+
+        final AtomicInteger numOpened = new AtomicInteger();
+        final AtomicInteger numClosed = new AtomicInteger();
+        final List<Integer> prewarmed = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void connectionOpen(SessionProtocol protocol, InetSocketAddress remoteAddr,
+                                   InetSocketAddress localAddr, AttributeMap attrs) {
+            numOpened.incrementAndGet();
+        }
+
+        @Override
+        public void connectionClosed(SessionProtocol protocol, InetSocketAddress remoteAddr,
+                                     InetSocketAddress localAddr, AttributeMap attrs) {
+            numClosed.incrementAndGet();
+        }
+
+        @Override
+        public void connectionPrewarmed(SessionProtocol desiredProtocol, InetSocketAddress remoteAddr,
+                                        int numConnections, int minConnections,
+                                        @Nullable Throwable cause) {
+            if (cause == null) {
+                prewarmed.add(numConnections);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.ResponseHeadersBuilder;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class CachingClientTest {
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    @RegisterExtension
+    static ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.service("/max-age", (ctx, req) -> {
+                return respond(ResponseHeaders.builder(HttpStatus.OK)
+                                              .add(HttpHeaderNames.CACHE_CONTROL, "max-age=60"));
+            });
+            sb.service("/no-store", (ctx, req) -> {
+                return respond(ResponseHeaders.builder(HttpStatus.OK)
+                                              .add(HttpHeaderNames.CACHE_CONTROL, "no-store, max-age=60"));
+            });
+            sb.service("/etag", (ctx, req) -> {
+                final int count = counter.incrementAndGet();
+                final ResponseHeaders headers = ResponseHeaders.builder(HttpStatus.OK)
+                                                               .add(HttpHeaderNames.CACHE_CONTROL, "no-cache")
+                                                               .add(HttpHeaderNames.ETAG, "\"v1\"")
+                                                               .build();
+                if ("\"v1\"".equals(req.headers().get(HttpHeaderNames.IF_NONE_MATCH))) {
+                    return HttpResponse.of(headers.toBuilder().status(HttpStatus.NOT_MODIFIED).build());
+                }
+                return HttpResponse.of(headers, HttpData.ofUtf8(String.valueOf(count)));
+            });
+            sb.service("/vary", (ctx, req) -> {
+                final String language = req.headers().get(HttpHeaderNames.ACCEPT_LANGUAGE, "");
+                counter.incrementAndGet();
+                return HttpResponse.of(ResponseHeaders.builder(HttpStatus.OK)
+                                                      .add(HttpHeaderNames.CACHE_CONTROL, "max-age=60")
+                                                      .add(HttpHeaderNames.VARY, "accept-language")
+                                                      .build(),
+                                       HttpData.ofUtf8(language));
+            });
+            sb.service("/stale-while-revalidate", (ctx, req) -> {
+                return respond(ResponseHeaders.builder(HttpStatus.OK)
+                                              .add(HttpHeaderNames.CACHE_CONTROL,
+                                                   "max-age=1, stale-while-revalidate=60"));
+            });
+        }
+    };
+
+    private static HttpResponse respond(ResponseHeadersBuilder headers) {
+        return HttpResponse.of(headers.contentType(MediaType.PLAIN_TEXT_UTF_8).build(),
+                               HttpData.ofUtf8(String.valueOf(counter.incrementAndGet())));
+    }
+
+    private WebClient client;
+
+    @BeforeEach
+    void setUp() {
+        counter.set(0);
+        client = WebClient.builder(server.httpUri())
+                          .decorator(CachingClient.newDecorator())
+                          .build();
+    }
+
+    @Test
+    void freshResponse() {
+        final AggregatedHttpResponse res1 = client.get("/max-age").aggregate().join();
+        assertThat(res1.contentUtf8()).isEqualTo("1");
+        final AggregatedHttpResponse res2 = client.get("/max-age").aggregate().join();
+        assertThat(res2.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res2.contentUtf8()).isEqualTo("1");
+        assertThat(res2.headers().getLong(HttpHeaderNames.AGE)).isNotNull();
+        assertThat(counter).hasValue(1);
+    }
+
+    @Test
+    void noStore() {
+        assertThat(client.get("/no-store").aggregate().join().contentUtf8()).isEqualTo("1");
+        assertThat(client.get("/no-store").aggregate().join().contentUtf8()).isEqualTo("2");
+    }
+
+    @Test
+    void requestNoCache() {
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("1");
+        final RequestHeaders headers = RequestHeaders.builder(HttpMethod.GET, "/max-age")
+                                                     .add(HttpHeaderNames.CACHE_CONTROL, "no-cache")
+                                                     .build();
+        assertThat(client.execute(headers).aggregate().join().contentUtf8()).isEqualTo("2");
+    }
+
+    @Test
+    void onlyIfCached() {
+        final RequestHeaders headers = RequestHeaders.builder(HttpMethod.GET, "/max-age")
+                                                     .add(HttpHeaderNames.CACHE_CONTROL, "only-if-cached")
+                                                     .build();
+        assertThat(client.execute(headers).aggregate().join().status())
+                .isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(counter).hasValue(0);
+    }
+
+    @Test
+    void revalidateWithEtag() {
+        assertThat(client.get("/etag").aggregate().join().contentUtf8()).isEqualTo("1");
+        final AggregatedHttpResponse res = client.get("/etag").aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.contentUtf8()).isEqualTo("1");
+        assertThat(counter).hasValue(2);
+    }
+
+    @Test
+    void vary() {
+        final RequestHeaders en = RequestHeaders.builder(HttpMethod.GET, "/vary")
+                                                .add(HttpHeaderNames.ACCEPT_LANGUAGE, "en")
+                                                .build();
+        final RequestHeaders ko = RequestHeaders.builder(HttpMethod.GET, "/vary")
+                                                .add(HttpHeaderNames.ACCEPT_LANGUAGE, "ko")
+                                                .build();
+        assertThat(client.execute(en).aggregate().join().contentUtf8()).isEqualTo("en");
+        assertThat(client.execute(en).aggregate().join().contentUtf8()).isEqualTo("en");
+        assertThat(counter).hasValue(1);
+        assertThat(client.execute(ko).aggregate().join().contentUtf8()).isEqualTo("ko");
+        assertThat(counter).hasValue(2);
+    }
+
+    @Test
+    void staleWhileRevalidate() throws Exception {
+        assertThat(client.get("/stale-while-revalidate").aggregate().join().contentUtf8()).isEqualTo("1");
+        Thread.sleep(1100);
+
+        // The stale response is returned while it is revalidated in the background.
+        assertThat(client.get("/stale-while-revalidate").aggregate().join().contentUtf8()).isEqualTo("1");
+        await().untilAtomic(counter, is(2));
+        await().untilAsserted(() -> assertThat(client.get("/stale-while-revalidate").aggregate().join()
+                                                     .contentUtf8()).isEqualTo("2"));
+    }
+
+    @Test
+    void invalidateOnUnsafeRequest() {
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("1");
+        assertThat(client.post("/max-age", "").aggregate().join().contentUtf8()).isEqualTo("2");
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("3");
+    }
+
+    @Test
+    void shareCacheBetweenEndpointsOfGroup() {
+        final EndpointGroup group = EndpointGroup.of(
+                Endpoint.of("foo.com", server.httpPort()).withIpAddr("127.0.0.1"),
+                Endpoint.of("bar.com", server.httpPort()).withIpAddr("127.0.0.1"));
+        final WebClient groupClient = WebClient.builder(SessionProtocol.HTTP, group)
+                                               .decorator(CachingClient.newDecorator())
+                                               .build();
+
+        // The second request is sent to the other Endpoint, but is served from the cache.
+        assertThat(groupClient.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("1");
+        assertThat(groupClient.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("1");
+        assertThat(counter).hasValue(1);
+
+        // An unsafe request sent to one Endpoint invalidates the cached response for all Endpoints.
+        assertThat(groupClient.post("/max-age", "").aggregate().join().contentUtf8()).isEqualTo("2");
+        assertThat(groupClient.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("3");
+        assertThat(groupClient.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("3");
+        assertThat(counter).hasValue(3);
+    }
+
+    @Test
+    void doNotShareCacheBetweenGroups() {
+        final ResponseCacheStore store = ResponseCacheStore.of();
+        final EndpointGroup group1 = EndpointGroup.of(
+                Endpoint.of("foo.com", server.httpPort()).withIpAddr("127.0.0.1"),
+                Endpoint.of("bar.com", server.httpPort()).withIpAddr("127.0.0.1"));
+        final EndpointGroup group2 = EndpointGroup.of(
+                Endpoint.of("baz.com", server.httpPort()).withIpAddr("127.0.0.1"),
+                Endpoint.of("qux.com", server.httpPort()).withIpAddr("127.0.0.1"));
+        final WebClient client1 = WebClient.builder(SessionProtocol.HTTP, group1)
+                                           .decorator(CachingClient.newDecorator(store))
+                                           .build();
+        final WebClient client2 = WebClient.builder(SessionProtocol.HTTP, group2)
+                                           .decorator(CachingClient.newDecorator(store))
+                                           .build();
+
+        assertThat(client1.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("1");
+        assertThat(client2.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("2");
+        assertThat(client1.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("1");
+        assertThat(client2.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("2");
+        assertThat(counter).hasValue(2);
+    }
+}
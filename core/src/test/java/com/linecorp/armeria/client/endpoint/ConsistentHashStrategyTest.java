@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+
+class ConsistentHashStrategyTest {
+
+    private static final ToLongFunction<ClientRequestContext> hasher = ctx -> ctx.path().hashCode();
+
+    private static final int NUM_KEYS = 10000;
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void distributeEvenly(boolean maglev) {
+        final List<Endpoint> endpoints = endpoints(10);
+        final EndpointGroup group = EndpointGroup.of(strategy(maglev).build(), endpoints);
+        final Map<Endpoint, Integer> counts = new HashMap<>();
+        for (int i = 0; i < NUM_KEYS; i++) {
+            final Endpoint endpoint = group.selectNow(newContext(i));
+            assertThat(group.selectNow(newContext(i))).isEqualTo(endpoint);
+            counts.merge(endpoint, 1, Integer::sum);
+        }
+        assertThat(counts).hasSize(10);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(700, 1300));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void distributeByWeight(boolean maglev) {
+        final Endpoint heavy = Endpoint.of("127.0.0.1", 1).withWeight(2000);
+        final Endpoint light = Endpoint.of("127.0.0.1", 2);
+        final EndpointGroup group = EndpointGroup.of(strategy(maglev).build(), heavy, light);
+        int numHeavy = 0;
+        for (int i = 0; i < NUM_KEYS; i++) {
+            if (heavy.equals(group.selectNow(newContext(i)))) {
+                numHeavy++;
+            }
+        }
+        assertThat(numHeavy).isBetween(6000, 7300);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void remapOnlyRemovedKeys(boolean maglev) {
+        final List<Endpoint> endpoints = endpoints(10);
+        final DynamicEndpointGroup group = new DynamicEndpointGroup(strategy(maglev).build());
+        group.setEndpoints(endpoints);
+        final Endpoint[] oldSelections = new Endpoint[NUM_KEYS];
+        for (int i = 0; i < NUM_KEYS; i++) {
+            oldSelections[i] = group.selectNow(newContext(i));
+        }
+
+        final Endpoint removed = endpoints.remove(3);
+        group.setEndpoints(endpoints);
+        int numKept = 0;
+        int numNotRemoved = 0;
+        for (int i = 0; i < NUM_KEYS; i++) {
+            final Endpoint endpoint = group.selectNow(newContext(i));
+            assertThat(endpoint).isNotEqualTo(removed);
+            if (!oldSelections[i].equals(removed)) {
+                numNotRemoved++;
+                if (oldSelections[i].equals(endpoint)) {
+                    numKept++;
+                }
+            }
+        }
+
+        if (maglev) {
+            // Maglev trades a small disruption for the even distribution.
+            assertThat(numKept).isGreaterThan(numNotRemoved * 9 / 10);
+        } else {
+            assertThat(numKept).isEqualTo(numNotRemoved);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void boundedLoad(boolean maglev) {
+        final EndpointGroup group = EndpointGroup.of(strategy(maglev).boundedLoad(1.25).build(),
+                                                     endpoints(4));
+        final ClientRequestContext firstCtx = newContext(0);
+        final Endpoint owner = group.selectNow(firstCtx);
+        final Map<Endpoint, Integer> counts = new HashMap<>();
+        counts.put(owner, 1);
+        final List<ClientRequestContext> contexts = new ArrayList<>();
+        contexts.add(firstCtx);
+        // Send the requests with the same key without completing them.
+        for (int i = 1; i < 100; i++) {
+            final ClientRequestContext ctx = newContext(0);
+            contexts.add(ctx);
+            counts.merge(group.selectNow(ctx), 1, Integer::sum);
+        }
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(32));
+
+        // The requests are sent to the same endpoint again once the loads are gone.
+        contexts.forEach(ctx -> {
+            ctx.logBuilder().endRequest();
+            ctx.logBuilder().endResponse();
+        });
+        assertThat(group.selectNow(newContext(0))).isEqualTo(owner);
+    }
+
+    @Test
+    void selectEmpty() {
+        assertThat(EndpointGroup.of(EndpointSelectionStrategy.ringHash(hasher))
+                                .selectNow(newContext(0))).isNull();
+        assertThat(EndpointGroup.of(EndpointSelectionStrategy.maglev(hasher))
+                                .selectNow(newContext(0))).isNull();
+    }
+
+    @Test
+    void invalidTableSize() {
+        assertThatThrownBy(() -> EndpointSelectionStrategy.builderForMaglev(hasher).tableSize(65536))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("prime");
+        assertThatThrownBy(() -> EndpointSelectionStrategy.builderForRingHash(hasher).boundedLoad(1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ConsistentHashStrategyBuilder strategy(boolean maglev) {
+        return maglev ? EndpointSelectionStrategy.builderForMaglev(hasher)
+                      : EndpointSelectionStrategy.builderForRingHash(hasher);
+    }
+
+    private static List<Endpoint> endpoints(int numEndpoints) {
+        final List<Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < numEndpoints; i++) {
+            endpoints.add(Endpoint.of("127.0.0.1", i + 1));
+        }
+        return endpoints;
+    }
+
+    private static ClientRequestContext newContext(int key) {
+        return ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/" + key));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy.leastRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+
+class LeastRequestStrategyTest {
+
+    @Test
+    void selectLessLoaded() {
+        final Endpoint foo = Endpoint.parse("foo.com:1234");
+        final Endpoint bar = Endpoint.parse("bar.com:1234");
+        final EndpointGroup group = EndpointGroup.of(leastRequest(), foo, bar);
+
+        final ClientRequestContext ctx1 = newContext();
+        final Endpoint first = group.selectNow(ctx1);
+        final Endpoint other = first.equals(foo) ? bar : foo;
+
+        // The other endpoint has no in-flight requests.
+        final ClientRequestContext ctx2 = newContext();
+        assertThat(group.selectNow(ctx2)).isEqualTo(other);
+
+        // Complete the request sent to the first endpoint.
+        complete(ctx1);
+        assertThat(group.selectNow(newContext())).isEqualTo(first);
+    }
+
+    @Test
+    void selectByWeight() {
+        final Endpoint heavy = Endpoint.parse("foo.com:1234").withWeight(3);
+        final Endpoint light = Endpoint.parse("bar.com:1234").withWeight(1);
+        final EndpointGroup group = EndpointGroup.of(leastRequest(), heavy, light);
+
+        int numHeavy = 0;
+        for (int i = 0; i < 8; i++) {
+            if (heavy.equals(group.selectNow(newContext()))) {
+                numHeavy++;
+            }
+        }
+        // The heavy endpoint takes the requests in proportion to its weight.
+        assertThat(numHeavy).isBetween(5, 7);
+    }
+
+    @Test
+    void selectEmpty() {
+        assertThat(EndpointGroup.of(leastRequest()).selectNow(newContext())).isNull();
+    }
+
+    @Test
+    void keepLoadsOnUpdate() {
+        final Endpoint foo = Endpoint.parse("foo.com:1234");
+        final Endpoint bar = Endpoint.parse("bar.com:1234");
+        final DynamicEndpointGroup group = new DynamicEndpointGroup(leastRequest());
+        group.setEndpoints(ImmutableList.of(foo));
+        final PowerOfTwoChoicesSelector selector =
+                (PowerOfTwoChoicesSelector) leastRequest().newSelector(group);
+
+        assertThat(selector.selectNow(newContext())).isEqualTo(foo);
+        assertThat(selector.load(foo).inflight()).isOne();
+
+        group.setEndpoints(ImmutableList.of(foo, bar));
+        assertThat(selector.load(foo).inflight()).isOne();
+        assertThat(selector.load(bar).inflight()).isZero();
+        assertThat(selector.selectNow(newContext())).isEqualTo(bar);
+    }
+
+    private static ClientRequestContext newContext() {
+        return ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+    }
+
+    private static void complete(ClientRequestContext ctx) {
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().endResponse();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.endpoint.PeakEwmaStrategy.PeakEwmaLoad;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+
+class PeakEwmaStrategyTest {
+
+    private static final long DECAY_TIME_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void peak() {
+        final PeakEwmaLoad load = new PeakEwmaLoad(DECAY_TIME_NANOS);
+        assertThat(load.cost(0)).isZero();
+
+        load.onComplete(0, 100);
+        assertThat(load.cost(100)).isEqualTo(100);
+
+        // A latency spike is reflected immediately.
+        load.onComplete(100, 1100);
+        assertThat(load.cost(1100)).isEqualTo(1000);
+
+        // A lower latency is averaged.
+        final long now = 1100 + DECAY_TIME_NANOS;
+        load.onComplete(now - 100, now);
+        assertThat(load.cost(now)).isBetween(100.0, 1000.0);
+    }
+
+    @Test
+    void decay() {
+        final PeakEwmaLoad load = new PeakEwmaLoad(DECAY_TIME_NANOS);
+        load.onComplete(0, 1000);
+        assertThat(load.cost(1000)).isEqualTo(1000);
+        assertThat(load.cost(1000 + DECAY_TIME_NANOS)).isCloseTo(1000 / Math.E, within(0.001));
+    }
+
+    @Test
+    void penalizeUnknownLatency() {
+        final PeakEwmaLoad load = new PeakEwmaLoad(DECAY_TIME_NANOS);
+        load.onStart();
+        assertThat(load.cost(System.nanoTime())).isGreaterThan(TimeUnit.DAYS.toNanos(1));
+    }
+
+    @Test
+    void avoidSlowEndpoint() throws Exception {
+        final Endpoint fast = Endpoint.parse("foo.com:1234");
+        final Endpoint slow = Endpoint.parse("bar.com:1234");
+        final EndpointGroup group = EndpointGroup.of(EndpointSelectionStrategy.peakEwma(Duration.ofMinutes(1)),
+                                                     fast, slow);
+        // Record one sample for each endpoint.
+        final ClientRequestContext ctx1 = newContext();
+        final ClientRequestContext ctx2 = newContext();
+        final Endpoint first = group.selectNow(ctx1);
+        assertThat(group.selectNow(ctx2)).isNotEqualTo(first);
+        final ClientRequestContext fastCtx = first.equals(fast) ? ctx1 : ctx2;
+        final ClientRequestContext slowCtx = first.equals(fast) ? ctx2 : ctx1;
+        complete(fastCtx);
+        Thread.sleep(200);
+        complete(slowCtx);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(group.selectNow(newContext())).isEqualTo(fast);
+        }
+    }
+
+    private static ClientRequestContext newContext() {
+        return ClientRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+    }
+
+    private static void complete(ClientRequestContext ctx) {
+        ctx.logBuilder().endRequest();
+        ctx.logBuilder().endResponse();
+    }
+}
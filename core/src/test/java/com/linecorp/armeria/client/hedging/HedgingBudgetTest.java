@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class HedgingBudgetTest {
+
+    @Test
+    void depositAndWithdraw() {
+        final HedgingBudget budget = HedgingBudget.of(0.5, 2);
+        assertThat(budget.availableHedges()).isEqualTo(2);
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isFalse();
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+
+        // Never exceeds maxTokens.
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.availableHedges()).isEqualTo(2);
+    }
+
+    @Test
+    void unlimited() {
+        final HedgingBudget budget = HedgingBudget.unlimited();
+        for (int i = 0; i < 100; i++) {
+            assertThat(budget.tryWithdraw()).isTrue();
+        }
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThatThrownBy(() -> HedgingBudget.of(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HedgingBudget.of(0.1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
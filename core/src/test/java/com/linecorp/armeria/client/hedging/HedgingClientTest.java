@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.client.hedging;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.base.Stopwatch;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.ClientRequestContextCaptor;
+import com.linecorp.armeria.client.Clients;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.client.endpoint.EndpointGroup;
+import com.linecorp.armeria.client.endpoint.EndpointSelectionStrategy;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.logging.RequestLog;
+import com.linecorp.armeria.common.logging.RequestLogAccess;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class HedgingClientTest {
+
+    private static final AtomicInteger reqCount = new AtomicInteger();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.http(0);
+            sb.http(0);
+            sb.service("/slow-first", (ctx, req) -> {
+                if (reqCount.getAndIncrement() == 0) {
+                    return HttpResponse.delayed(HttpResponse.of(HttpStatus.OK), Duration.ofSeconds(3));
+                }
+                return HttpResponse.of(HttpStatus.OK);
+            });
+            sb.service("/fast", (ctx, req) -> {
+                reqCount.incrementAndGet();
+                return HttpResponse.of(HttpStatus.OK);
+            });
+        }
+    };
+
+    private static EndpointGroup endpointGroup;
+
+    @BeforeEach
+    void setUp() {
+        reqCount.set(0);
+        final List<Endpoint> endpoints = server.server().activePorts().keySet().stream()
+                                               .map(InetSocketAddress::getPort)
+                                               .map(port -> Endpoint.of("127.0.0.1", port))
+                                               .collect(toImmutableList());
+        endpointGroup = EndpointGroup.of(EndpointSelectionStrategy.roundRobin(), endpoints);
+    }
+
+    @Test
+    void hedgedRequestWins() {
+        final WebClient client =
+                WebClient.builder(SessionProtocol.H2C, endpointGroup)
+                         .decorator(HedgingClient.builder(Duration.ofMillis(200))
+                                                 .budget(HedgingBudget.unlimited())
+                                                 .newDecorator())
+                         .build();
+
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        final ClientRequestContext ctx;
+        final AggregatedHttpResponse res;
+        try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+            res = client.get("/slow-first").aggregate().join();
+            ctx = captor.get();
+        }
+        assertThat(res.status()).isSameAs(HttpStatus.OK);
+        assertThat(stopwatch.elapsed()).isLessThan(Duration.ofSeconds(2));
+        assertThat(reqCount).hasValue(2);
+
+        final RequestLog log = ctx.log().whenComplete().join();
+        assertThat(log.responseHeaders().status()).isSameAs(HttpStatus.OK);
+        final List<RequestLogAccess> children = ctx.log().children();
+        assertThat(children).hasSize(2);
+
+        // The loser must be cancelled.
+        final RequestLog loser = children.get(0).whenComplete().join();
+        assertThat(loser.responseCause()).isNotNull();
+        final RequestLog winner = children.get(1).whenComplete().join();
+        assertThat(winner.responseCause()).isNull();
+        assertThat(winner.requestHeaders().get(AbstractHedgingClient.ARMERIA_HEDGE_COUNT)).isEqualTo("1");
+        assertThat(((ClientRequestContext) winner.context()).endpoint())
+                .isNotEqualTo(((ClientRequestContext) loser.context()).endpoint());
+    }
+
+    @Test
+    void noHedgedRequestIfResponseArrivesInTime() {
+        final WebClient client =
+                WebClient.builder(SessionProtocol.H2C, endpointGroup)
+                         .decorator(HedgingClient.newDecorator(Duration.ofSeconds(10)))
+                         .build();
+
+        final ClientRequestContext ctx;
+        try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+            assertThat(client.get("/fast").aggregate().join().status()).isSameAs(HttpStatus.OK);
+            ctx = captor.get();
+        }
+        ctx.log().whenComplete().join();
+        assertThat(ctx.log().children()).hasSize(1);
+        assertThat(reqCount).hasValue(1);
+    }
+
+    @Test
+    void exhaustedBudget() {
+        final HedgingBudget budget = HedgingBudget.of(0.01, 1);
+        final WebClient client =
+                WebClient.builder(SessionProtocol.H2C, endpointGroup)
+                         .decorator(HedgingClient.builder(Duration.ofMillis(200))
+                                                 .budget(budget)
+                                                 .newDecorator())
+                         .build();
+
+        // The first hedge consumes the only token.
+        assertThat(client.get("/slow-first").aggregate().join().status()).isSameAs(HttpStatus.OK);
+        assertThat(budget.availableHedges()).isZero();
+
+        reqCount.set(0);
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        final ClientRequestContext ctx;
+        try (ClientRequestContextCaptor captor = Clients.newContextCaptor()) {
+            client.get("/slow-first").aggregate().join();
+            ctx = captor.get();
+        }
+        // No hedged request was sent, so the slow response had to be waited for.
+        assertThat(stopwatch.elapsed()).isGreaterThanOrEqualTo(Duration.ofSeconds(3));
+        await().untilAsserted(() -> assertThat(ctx.log().children()).hasSize(1));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.client.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.client.ClientRequestContext;
+import com.linecorp.armeria.client.Endpoint;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.limit.AdaptiveLimit;
+import com.linecorp.armeria.common.logging.RequestLogBuilder;
+import com.linecorp.armeria.common.metric.MoreMeters;
+import com.linecorp.armeria.common.util.SafeCloseable;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimitTest {
+
+    @Test
+    void adjustLimitPerEndpoint() {
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final ConcurrencyLimit concurrencyLimit =
+                ConcurrencyLimit.builderForAdaptive(() -> AdaptiveLimit.builderForAimd()
+                                                                       .initialLimit(2)
+                                                                       .build())
+                                .perEndpoint()
+                                .maxPendingAcquisitions(0)
+                                .build();
+        final AdaptiveConcurrencyLimit limit = (AdaptiveConcurrencyLimit) concurrencyLimit;
+
+        final Endpoint foo = Endpoint.of("foo.com", 8080).withIpAddr("1.1.1.1");
+        final Endpoint bar = Endpoint.of("bar.com", 8080);
+        final ClientRequestContext ctx1 = newContext(meterRegistry, foo);
+        final ClientRequestContext ctx2 = newContext(meterRegistry, foo);
+        final ClientRequestContext ctx3 = newContext(meterRegistry, foo);
+        final SafeCloseable permit1 = limit.acquire(ctx1).join();
+        final SafeCloseable permit2 = limit.acquire(ctx2).join();
+        // Rejected because the limit is 2 and no pending acquisitions are allowed.
+        assertThat(limit.acquire(ctx3)).isCompletedExceptionally();
+        // The limit of the other endpoint is not affected.
+        final SafeCloseable permit3 = limit.acquire(newContext(meterRegistry, bar)).join();
+
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.concurrency.limit.limit#value{endpoint=foo.com:8080/1.1.1.1}",
+                               2.0)
+                .containsEntry("armeria.client.concurrency.limit.active.requests#value" +
+                               "{endpoint=foo.com:8080/1.1.1.1}", 2.0)
+                .containsEntry("armeria.client.concurrency.limit.active.requests#value" +
+                               "{endpoint=bar.com:8080}", 1.0);
+
+        // A successful response increases the limit.
+        complete(ctx1, HttpStatus.OK);
+        permit1.close();
+        final AdaptiveLimit fooLimit = limit.limit("foo.com:8080/1.1.1.1");
+        assertThat(fooLimit).isNotNull();
+        await().untilAsserted(() -> assertThat(fooLimit.limit()).isEqualTo(3));
+
+        // A dropped response decreases the limit.
+        complete(ctx2, HttpStatus.SERVICE_UNAVAILABLE);
+        permit2.close();
+        await().untilAsserted(() -> assertThat(fooLimit.limit()).isEqualTo(2));
+        permit3.close();
+    }
+
+    @Test
+    void globalLimitIsUsedByDefault() {
+        final AdaptiveConcurrencyLimit limit =
+                (AdaptiveConcurrencyLimit) ConcurrencyLimit.adaptive(AdaptiveLimit::vegas);
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final CompletableFuture<SafeCloseable> future =
+                limit.acquire(newContext(meterRegistry, Endpoint.of("foo.com")));
+        assertThat(future.join()).isNotNull();
+        assertThat(limit.limit("")).isNotNull();
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.concurrency.limit.limit#value", 20.0);
+    }
+
+    @Test
+    void removeIdleLimit() throws Exception {
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final AdaptiveConcurrencyLimit limit =
+                (AdaptiveConcurrencyLimit) ConcurrencyLimit.builderForAdaptive(AdaptiveLimit::aimd)
+                                                           .perAuthority()
+                                                           .idleTimeoutMillis(100)
+                                                           .build();
+        final ClientRequestContext ctx = newContext(meterRegistry, Endpoint.of("foo.com", 8080));
+        final SafeCloseable permit = limit.acquire(ctx).join();
+
+        // Not removed while the request is active.
+        Thread.sleep(300);
+        limit.cleanUp();
+        assertThat(limit.limit("foo.com:8080")).isNotNull();
+        assertThat(MoreMeters.measureAll(meterRegistry))
+                .containsEntry("armeria.client.concurrency.limit.active.requests#value" +
+                               "{authority=foo.com:8080}", 1.0);
+
+        complete(ctx, HttpStatus.OK);
+        permit.close();
+        await().untilAsserted(() -> {
+            limit.cleanUp();
+            assertThat(limit.limit("foo.com:8080")).isNull();
+            assertThat(MoreMeters.measureAll(meterRegistry)).isEmpty();
+        });
+    }
+
+    private static ClientRequestContext newContext(MeterRegistry meterRegistry, Endpoint endpoint) {
+        return ClientRequestContext.builder(HttpRequest.of(HttpMethod.GET, "/"))
+                                   .endpoint(endpoint)
+                                   .meterRegistry(meterRegistry)
+                                   .build();
+    }
+
+    private static void complete(ClientRequestContext ctx, HttpStatus status) {
+        final RequestLogBuilder logBuilder = ctx.logBuilder();
+        logBuilder.endRequest();
+        logBuilder.responseHeaders(ResponseHeaders.of(status));
+        logBuilder.endResponse();
+    }
+}
@@ -132,6 +132,21 @@ public class ServerCacheControlTest {
         assertThat(ServerCacheControl.builder().sMaxAgeSeconds(60).build()).isEqualTo(cc);
     }
 
+    @Test
+    public void testStaleWhileRevalidate() {
+        final ServerCacheControl cc = ServerCacheControl.builder()
+                                                        .staleWhileRevalidate(Duration.ofMinutes(1))
+                                                        .build();
+        assertThat(cc.isEmpty()).isFalse();
+        assertThat(cc.sMaxAgeSeconds()).isEqualTo(-1);
+        assertThat(cc.staleWhileRevalidateSeconds()).isEqualTo(60);
+        assertThat(cc.asHeaderValue()).isEqualTo("stale-while-revalidate=60");
+        assertThat(cc.toString()).isEqualTo("ServerCacheControl(stale-while-revalidate=60)");
+
+        assertThat(ServerCacheControl.builder().staleWhileRevalidateSeconds(60).build()).isEqualTo(cc);
+        assertThat(cc.toBuilder().staleWhileRevalidate(null).build().isEmpty()).isTrue();
+    }
+
     @Test
     public void testToBuilder() {
         final ServerCacheControl cc = ServerCacheControl.builder()
@@ -168,7 +183,7 @@ public class ServerCacheControlTest {
         // Make sure all directives are set.
         assertThat(ServerCacheControl.parse("no-cache, no-store, no-transform, must-revalidate, " +
                                             "max-age=1, public, private, immutable, proxy-revalidate, " +
-                                            "s-maxage=2"))
+                                            "s-maxage=2, stale-while-revalidate=3"))
                 .isEqualTo(ServerCacheControl.builder()
                                              .noCache()
                                              .noStore()
@@ -179,6 +194,7 @@ public class ServerCacheControlTest {
                                              .mustRevalidate()
                                              .proxyRevalidate()
                                              .sMaxAgeSeconds(2)
+                                             .staleWhileRevalidateSeconds(3)
                                              .build());
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimitTest {
+
+    private static final long RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void aimd() {
+        final AdaptiveLimit limit = AdaptiveLimit.builderForAimd()
+                                                 .initialLimit(10)
+                                                 .minLimit(5)
+                                                 .maxLimit(12)
+                                                 .timeoutMillis(1000)
+                                                 .build();
+        assertThat(limit.limit()).isEqualTo(10);
+
+        // Not increased when the limit is not used.
+        limit.onSample(RTT_NANOS, 1, false);
+        assertThat(limit.limit()).isEqualTo(10);
+
+        limit.onSample(RTT_NANOS, 10, false);
+        assertThat(limit.limit()).isEqualTo(11);
+        limit.onSample(RTT_NANOS, 11, false);
+        limit.onSample(RTT_NANOS, 12, false);
+        assertThat(limit.limit()).isEqualTo(12);
+
+        limit.onSample(RTT_NANOS, 12, true);
+        assertThat(limit.limit()).isEqualTo(10);
+        limit.onSample(TimeUnit.SECONDS.toNanos(2), 10, false);
+        assertThat(limit.limit()).isEqualTo(9);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT_NANOS, 10, true);
+        }
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void gradient2() {
+        final AdaptiveLimit limit = AdaptiveLimit.builderForGradient2()
+                                                 .initialLimit(50)
+                                                 .build();
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(RTT_NANOS, limit.limit(), false);
+        }
+        final int steadyLimit = limit.limit();
+        assertThat(steadyLimit).isGreaterThan(50);
+
+        // Decreased when the requests start to queue up.
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(RTT_NANOS * 4, limit.limit(), false);
+        }
+        assertThat(limit.limit()).isLessThan(steadyLimit);
+    }
+
+    @Test
+    void vegas() {
+        final AdaptiveLimit limit = AdaptiveLimit.builderForVegas()
+                                                 .initialLimit(20)
+                                                 .build();
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT_NANOS, limit.limit(), false);
+        }
+        final int steadyLimit = limit.limit();
+        assertThat(steadyLimit).isGreaterThan(20);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT_NANOS * 3, limit.limit(), false);
+        }
+        assertThat(limit.limit()).isLessThan(steadyLimit);
+
+        final int beforeDrop = limit.limit();
+        limit.onSample(RTT_NANOS * 3, limit.limit(), true);
+        assertThat(limit.limit()).isLessThan(beforeDrop);
+    }
+
+    @Test
+    void invalidLimits() {
+        assertThatThrownBy(() -> AdaptiveLimit.builderForVegas().minLimit(10).maxLimit(5).build())
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> AdaptiveLimit.builderForAimd().initialLimit(2000).build())
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
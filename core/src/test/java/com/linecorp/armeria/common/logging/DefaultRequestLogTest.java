@@ -25,7 +25,12 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -577,4 +582,54 @@ class DefaultRequestLogTest {
         assertThat(lines[2]).matches("^\\t\\{req=\\{.*}, res=\\{.*}}$");
         assertThat(lines[3]).matches("^\\t\\{req=\\{.*}, res=\\{.*}}$");
     }
+
+    @Test
+    void completeFuturesInOrder() {
+        final ServiceRequestContext sctx =
+                ServiceRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+        log = new DefaultRequestLog(sctx);
+        final List<Integer> completed = new ArrayList<>();
+        log.whenComplete().thenRun(() -> completed.add(0));
+        log.whenRequestComplete().thenRun(() -> completed.add(1));
+        log.whenComplete().thenRun(() -> completed.add(2));
+        log.whenRequestComplete().thenRun(() -> completed.add(3));
+
+        log.endRequest();
+        assertThat(completed).containsExactly(1, 3);
+        log.endResponse();
+        assertThat(completed).containsExactly(1, 3, 0, 2);
+    }
+
+    @Test
+    void addFuturesWhileUpdatingFlags() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 100; i++) {
+                final ServiceRequestContext sctx =
+                        ServiceRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+                final DefaultRequestLog log = new DefaultRequestLog(sctx);
+                final List<Future<List<CompletableFuture<?>>>> tasks = new ArrayList<>();
+                for (int j = 0; j < 4; j++) {
+                    tasks.add(executor.submit(() -> {
+                        final List<CompletableFuture<?>> futures = new ArrayList<>();
+                        for (int k = 0; k < 100; k++) {
+                            futures.add(log.whenRequestComplete());
+                            futures.add(log.whenComplete());
+                        }
+                        return futures;
+                    }));
+                }
+                log.endRequest();
+                log.endResponse();
+
+                for (Future<List<CompletableFuture<?>>> task : tasks) {
+                    for (CompletableFuture<?> future : task.get()) {
+                        assertThat(future).isDone();
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -68,6 +68,28 @@ class StreamMessagesTest {
         }
     }
 
+    @Test
+    void writeManySmallChunks() throws IOException {
+        final List<ByteBuf> bufs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final byte[] chunk = new byte[i % 200 + 1];
+            Arrays.fill(chunk, (byte) i);
+            bufs.add(Unpooled.directBuffer().writeBytes(chunk));
+        }
+        final HttpData[] httpData = bufs.stream().map(HttpData::wrap).toArray(HttpData[]::new);
+        final byte[] expected = Arrays.stream(httpData)
+                                      .map(HttpData::array)
+                                      .reduce(Bytes::concat).get();
+
+        final Path destination = tempDir.resolve("small-chunks.bin");
+        StreamMessages.writeTo(StreamMessage.of(httpData), destination).join();
+        assertThat(Files.readAllBytes(destination)).isEqualTo(expected);
+
+        for (ByteBuf buf : bufs) {
+            assertThat(buf.refCnt()).isZero();
+        }
+    }
+
     @Test
     void invalidOpenOption() {
         assertThatThrownBy(() -> {
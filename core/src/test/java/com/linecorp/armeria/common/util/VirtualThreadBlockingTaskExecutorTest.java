@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.common.ContextAwareScheduledExecutorService;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.RequestContext;
+import com.linecorp.armeria.server.ServiceRequestContext;
+
+class VirtualThreadBlockingTaskExecutorTest {
+
+    @Test
+    void fallbackToThreadPool() {
+        assumeThat(VirtualThreadBlockingTaskExecutor.isAvailable()).isFalse();
+        final BlockingTaskExecutor executor = BlockingTaskExecutor.builder()
+                                                                  .useVirtualThreads(true)
+                                                                  .build();
+        try {
+            assertThat(executor).isInstanceOf(DefaultBlockingTaskExecutor.class);
+            assertThat(executor.unwrap()).isInstanceOf(ScheduledThreadPoolExecutor.class);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void runTasksInVirtualThreads() throws Exception {
+        assumeThat(VirtualThreadBlockingTaskExecutor.isAvailable()).isTrue();
+        final BlockingTaskExecutor executor = BlockingTaskExecutor.builder()
+                                                                  .threadNamePrefix("vt-test")
+                                                                  .useVirtualThreads(true)
+                                                                  .build();
+        try {
+            assertThat(executor).isInstanceOf(VirtualThreadBlockingTaskExecutor.class);
+            final String threadName = executor.submit(() -> Thread.currentThread().getName()).get();
+            assertThat(threadName).startsWith("vt-test-");
+
+            final ScheduledFuture<String> scheduled =
+                    executor.schedule(() -> Thread.currentThread().getName(), 10, TimeUnit.MILLISECONDS);
+            assertThat(scheduled.get(10, TimeUnit.SECONDS)).startsWith("vt-test-");
+
+            final CountDownLatch latch = new CountDownLatch(3);
+            final ScheduledFuture<?> periodic =
+                    executor.scheduleWithFixedDelay(latch::countDown, 0, 10, TimeUnit.MILLISECONDS);
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(periodic.cancel(false)).isTrue();
+            assertThat(periodic.isCancelled()).isTrue();
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void propagateRequestContext() throws Exception {
+        assumeThat(VirtualThreadBlockingTaskExecutor.isAvailable()).isTrue();
+        final BlockingTaskExecutor executor = BlockingTaskExecutor.builder()
+                                                                  .useVirtualThreads(true)
+                                                                  .build();
+        try {
+            final ServiceRequestContext ctx = ServiceRequestContext.of(HttpRequest.of(HttpMethod.GET, "/"));
+            final ContextAwareScheduledExecutorService contextAware =
+                    ContextAwareScheduledExecutorService.of(ctx, executor);
+            final CompletableFuture<RequestContext> captured = new CompletableFuture<>();
+            contextAware.schedule(() -> captured.complete(RequestContext.currentOrNull()),
+                                  10, TimeUnit.MILLISECONDS);
+            assertThat(captured.get(10, TimeUnit.SECONDS)).isSameAs(ctx);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
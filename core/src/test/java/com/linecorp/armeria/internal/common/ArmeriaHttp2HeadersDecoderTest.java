@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.internal.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpHeaders;
+import com.linecorp.armeria.common.HttpHeadersBuilder;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.RequestHeadersBuilder;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.ResponseHeadersBuilder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersEncoder;
+import io.netty.handler.codec.http2.Http2Headers;
+
+class ArmeriaHttp2HeadersDecoderTest {
+
+    private final DefaultHttp2HeadersEncoder encoder = new DefaultHttp2HeadersEncoder();
+    private final ArmeriaHttp2HeadersDecoder decoder = new ArmeriaHttp2HeadersDecoder(true, 8192);
+
+    @Test
+    void requestHeaders() throws Exception {
+        final Http2Headers decoded = roundTrip(new DefaultHttp2Headers().method("GET")
+                                                                         .scheme("https")
+                                                                         .authority("foo.com")
+                                                                         .path("/bar")
+                                                                         .add("x-foo", "baz"));
+        assertThat(delegate(decoded)).isInstanceOf(RequestHeadersBuilder.class);
+
+        final HttpHeaders headers = ArmeriaHttpUtil.toArmeria(decoded, true, true);
+        assertThat(headers).isInstanceOf(RequestHeaders.class);
+        final RequestHeaders requestHeaders = (RequestHeaders) headers;
+        assertThat(requestHeaders.path()).isEqualTo("/bar");
+        assertThat(requestHeaders.authority()).isEqualTo("foo.com");
+        assertThat(requestHeaders.get("x-foo")).isEqualTo("baz");
+        assertThat(requestHeaders.isEndOfStream()).isTrue();
+    }
+
+    @Test
+    void responseHeaders() throws Exception {
+        final Http2Headers decoded = roundTrip(new DefaultHttp2Headers().status("200")
+                                                                         .add("content-type", "text/plain"));
+        assertThat(delegate(decoded)).isInstanceOf(ResponseHeadersBuilder.class);
+
+        final HttpHeaders headers = ArmeriaHttpUtil.toArmeria(decoded, false, false);
+        assertThat(headers).isInstanceOf(ResponseHeaders.class);
+        assertThat(((ResponseHeaders) headers).status().code()).isEqualTo(200);
+        assertThat(headers.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo("text/plain");
+        assertThat(headers.isEndOfStream()).isFalse();
+    }
+
+    @Test
+    void trailers() throws Exception {
+        final Http2Headers decoded = roundTrip(new DefaultHttp2Headers().add("grpc-status", "0"));
+        assertThat(delegate(decoded)).isNotInstanceOfAny(RequestHeadersBuilder.class,
+                                                         ResponseHeadersBuilder.class);
+
+        final HttpHeaders headers = ArmeriaHttpUtil.toArmeria(decoded, false, true);
+        assertThat(headers).isNotInstanceOfAny(RequestHeaders.class, ResponseHeaders.class);
+        assertThat(headers.get("grpc-status")).isEqualTo("0");
+        assertThat(headers.isEndOfStream()).isTrue();
+    }
+
+    @Test
+    void requestHeadersWithoutMethod() throws Exception {
+        final Http2Headers decoded = roundTrip(new DefaultHttp2Headers().authority("foo.com")
+                                                                         .add("x-foo", "baz"));
+        assertThat(delegate(decoded)).isInstanceOf(RequestHeadersBuilder.class);
+
+        // Should not fail even if the mandatory pseudo-headers are missing.
+        final HttpHeaders headers = ArmeriaHttpUtil.toArmeria(decoded, true, true);
+        assertThat(headers).isNotInstanceOf(RequestHeaders.class);
+        assertThat(headers.get(HttpHeaderNames.AUTHORITY)).isEqualTo("foo.com");
+        assertThat(headers.get("x-foo")).isEqualTo("baz");
+        assertThat(headers.isEndOfStream()).isTrue();
+    }
+
+    private Http2Headers roundTrip(Http2Headers headers) throws Exception {
+        final ByteBuf buf = Unpooled.buffer();
+        try {
+            encoder.encodeHeaders(1, headers, buf);
+            return decoder.decodeHeaders(1, buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static HttpHeadersBuilder delegate(Http2Headers headers) {
+        return ((ArmeriaHttp2Headers) headers).delegate();
+    }
+}
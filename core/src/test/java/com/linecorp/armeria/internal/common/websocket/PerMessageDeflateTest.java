@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PerMessageDeflateTest {
+
+    @Test
+    void acceptOffer() {
+        assertThat(PerMessageDeflate.acceptOffer(null)).isNull();
+        assertThat(PerMessageDeflate.acceptOffer("x-webkit-deflate-frame")).isNull();
+
+        PerMessageDeflate accepted =
+                PerMessageDeflate.acceptOffer("permessage-deflate; client_max_window_bits");
+        assertThat(accepted).isNotNull();
+        assertThat(accepted.toResponse()).isEqualTo("permessage-deflate");
+
+        accepted = PerMessageDeflate.acceptOffer(
+                "permessage-deflate; server_no_context_takeover; client_no_context_takeover");
+        assertThat(accepted).isNotNull();
+        assertThat(accepted.serverNoContextTakeover()).isTrue();
+        assertThat(accepted.clientNoContextTakeover()).isTrue();
+        assertThat(accepted.toResponse())
+                .isEqualTo("permessage-deflate; server_no_context_takeover; client_no_context_takeover");
+    }
+
+    @Test
+    void declineServerWindowSmallerThanDefault() {
+        // The first offer is declined because java.util.zip cannot compress with a smaller window.
+        final PerMessageDeflate accepted = PerMessageDeflate.acceptOffer(
+                "permessage-deflate; server_max_window_bits=10, " +
+                "permessage-deflate; server_max_window_bits=\"15\"");
+        assertThat(accepted).isNotNull();
+        assertThat(accepted.serverNoContextTakeover()).isFalse();
+    }
+
+    @Test
+    void declineInvalidOffer() {
+        assertThat(PerMessageDeflate.acceptOffer("permessage-deflate; unknown")).isNull();
+        assertThat(PerMessageDeflate.acceptOffer(
+                "permessage-deflate; server_no_context_takeover; server_no_context_takeover")).isNull();
+        assertThat(PerMessageDeflate.acceptOffer("permessage-deflate; client_max_window_bits=16")).isNull();
+        assertThat(PerMessageDeflate.acceptOffer("permessage-deflate; server_no_context_takeover=1")).isNull();
+    }
+
+    @Test
+    void acceptResponse() {
+        PerMessageDeflate accepted = PerMessageDeflate.acceptResponse("permessage-deflate");
+        assertThat(accepted).isNotNull();
+        assertThat(accepted.clientNoContextTakeover()).isFalse();
+
+        accepted = PerMessageDeflate.acceptResponse(
+                "permessage-deflate; client_no_context_takeover; server_max_window_bits=12");
+        assertThat(accepted).isNotNull();
+        assertThat(accepted.clientNoContextTakeover()).isTrue();
+
+        // Not offered by the client.
+        assertThat(PerMessageDeflate.acceptResponse("permessage-deflate; client_max_window_bits=12")).isNull();
+        assertThat(PerMessageDeflate.acceptResponse("permessage-deflate, permessage-deflate")).isNull();
+        assertThat(PerMessageDeflate.acceptResponse("x-webkit-deflate-frame")).isNull();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.linecorp.armeria.common.ContentTooLargeException;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.ProtocolViolationException;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.websocket.InvalidWebSocketPayloadException;
+import com.linecorp.armeria.common.websocket.WebSocketFrame;
+
+import io.netty.buffer.ByteBufAllocator;
+
+class WebSocketFrameDecoderTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void decodeByteByByte(boolean masked) {
+        final List<WebSocketFrame> frames = new ArrayList<>();
+        frames.add(WebSocketFrame.ofText("foo"));
+        frames.add(WebSocketFrame.ofBinary(new byte[200], false));
+        frames.add(WebSocketFrame.ofPing());
+        frames.add(WebSocketFrame.ofContinuation(new byte[70000], true));
+        frames.add(WebSocketFrame.ofClose());
+
+        final List<HttpData> data = new ArrayList<>();
+        for (WebSocketFrame frame : frames) {
+            final HttpData encoded = WebSocketFrameEncoder.encode(ByteBufAllocator.DEFAULT, frame, masked);
+            for (byte b : encoded.array()) {
+                data.add(HttpData.wrap(new byte[] { b }));
+            }
+            encoded.close();
+        }
+
+        assertThat(decode(data, masked, 100000).collect().join()).containsExactlyElementsOf(frames);
+    }
+
+    @Test
+    void rejectUnmaskedFrameFromClient() {
+        final HttpData data = WebSocketFrameEncoder.encode(ByteBufAllocator.DEFAULT,
+                                                           WebSocketFrame.ofText("foo"), false);
+        assertThatThrownBy(() -> decode(data, true, 1024).collect().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ProtocolViolationException.class);
+    }
+
+    @Test
+    void rejectUnexpectedContinuationFrame() {
+        final HttpData data = WebSocketFrameEncoder.encode(ByteBufAllocator.DEFAULT,
+                                                           WebSocketFrame.ofContinuation(new byte[1], true),
+                                                           true);
+        assertThatThrownBy(() -> decode(data, true, 1024).collect().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ProtocolViolationException.class);
+    }
+
+    @Test
+    void rejectNegativePayloadLength() {
+        final byte[] header = { (byte) 0x82, (byte) 0xFF, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0, 1, 2, 3, 4 };
+        assertThatThrownBy(() -> decode(HttpData.wrap(header), true, Integer.MAX_VALUE).collect().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ProtocolViolationException.class);
+    }
+
+    @Test
+    void rejectInvalidUtf8Text() {
+        final HttpData data = WebSocketFrameEncoder.encode(
+                ByteBufAllocator.DEFAULT, WebSocketFrame.ofText(new byte[] { (byte) 0xC0, (byte) 0x80 }, true),
+                true);
+        assertThatThrownBy(() -> decode(data, true, 1024).collect().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(InvalidWebSocketPayloadException.class);
+    }
+
+    @Test
+    void rejectTruncatedUtf8Text() {
+        final HttpData data = WebSocketFrameEncoder.encode(
+                ByteBufAllocator.DEFAULT, WebSocketFrame.ofText(new byte[] { (byte) 0xE2, (byte) 0x82 }, true),
+                true);
+        assertThatThrownBy(() -> decode(data, true, 1024).collect().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(InvalidWebSocketPayloadException.class);
+    }
+
+    @Test
+    void acceptUtf8SplitAcrossFragments() {
+        // U+D55C is encoded as ED 95 9C.
+        final List<WebSocketFrame> frames = new ArrayList<>();
+        frames.add(WebSocketFrame.ofText(new byte[] { (byte) 0xED, (byte) 0x95 }, false));
+        frames.add(WebSocketFrame.ofPing());
+        frames.add(WebSocketFrame.ofContinuation(new byte[] { (byte) 0x9C }, true));
+
+        final List<HttpData> data = new ArrayList<>();
+        for (WebSocketFrame frame : frames) {
+            data.add(WebSocketFrameEncoder.encode(ByteBufAllocator.DEFAULT, frame, true));
+        }
+        assertThat(decode(data, true, 1024).collect().join()).containsExactlyElementsOf(frames);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void decodeCompressedMessages(boolean noContextTakeover) {
+        final byte[] large = new byte[70000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i % 7);
+        }
+        final List<WebSocketFrame> frames = new ArrayList<>();
+        frames.add(WebSocketFrame.ofText("Hello, Hello, Hello!"));
+        frames.add(WebSocketFrame.ofBinary(large, false));
+        frames.add(WebSocketFrame.ofPing(new byte[] { 1, 2, 3 }));
+        frames.add(WebSocketFrame.ofContinuation(new byte[0], false));
+        frames.add(WebSocketFrame.ofContinuation(large, true));
+        frames.add(WebSocketFrame.ofText("Hello, Hello, Hello!"));
+        frames.add(WebSocketFrame.ofText(""));
+        frames.add(WebSocketFrame.ofClose());
+
+        final List<HttpData> data = new ArrayList<>();
+        try (PerMessageDeflateEncoder encoder = new PerMessageDeflateEncoder(true, noContextTakeover)) {
+            for (WebSocketFrame frame : frames) {
+                data.add(encoder.encode(ByteBufAllocator.DEFAULT, frame));
+            }
+        }
+        // The repeated text is compressed.
+        assertThat(data.get(0).length()).isLessThan(2 + 4 + 20);
+
+        assertThat(decode(data, true, 100000, true).collect().join()).containsExactlyElementsOf(frames);
+    }
+
+    @Test
+    void rejectCompressedFrameWithoutNegotiation() {
+        final HttpData data;
+        try (PerMessageDeflateEncoder encoder = new PerMessageDeflateEncoder(true, false)) {
+            data = encoder.encode(ByteBufAllocator.DEFAULT, WebSocketFrame.ofText("foo"));
+        }
+        assertThatThrownBy(() -> decode(data, true, 1024).collect().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ProtocolViolationException.class);
+    }
+
+    @Test
+    void rejectCompressedContinuationFrame() {
+        final List<HttpData> data = new ArrayList<>();
+        data.add(WebSocketFrameEncoder.encode(ByteBufAllocator.DEFAULT,
+                                              WebSocketFrame.ofText("foo", false), true));
+        // A continuation frame with RSV1.
+        data.add(HttpData.wrap(new byte[] { (byte) 0xC0, (byte) 0x80, 1, 2, 3, 4 }));
+        assertThatThrownBy(() -> decode(data, true, 1024, true).collect().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ProtocolViolationException.class);
+    }
+
+    @Test
+    void rejectTooLargeDecompressedPayload() {
+        final HttpData data;
+        try (PerMessageDeflateEncoder encoder = new PerMessageDeflateEncoder(true, false)) {
+            data = encoder.encode(ByteBufAllocator.DEFAULT, WebSocketFrame.ofBinary(new byte[100000]));
+        }
+        assertThat(data.length()).isLessThan(1024);
+        final List<HttpData> list = new ArrayList<>();
+        list.add(data);
+        assertThatThrownBy(() -> decode(list, true, 1024, true).collect().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ContentTooLargeException.class);
+    }
+
+    private static StreamMessage<WebSocketFrame> decode(HttpData data, boolean masked,
+                                                        int maxFramePayloadLength) {
+        final List<HttpData> list = new ArrayList<>();
+        list.add(data);
+        return decode(list, masked, maxFramePayloadLength);
+    }
+
+    private static StreamMessage<WebSocketFrame> decode(List<HttpData> data, boolean masked,
+                                                        int maxFramePayloadLength) {
+        return decode(data, masked, maxFramePayloadLength, false);
+    }
+
+    private static StreamMessage<WebSocketFrame> decode(List<HttpData> data, boolean masked,
+                                                        int maxFramePayloadLength,
+                                                        boolean perMessageDeflate) {
+        final HttpRequest req = HttpRequest.of(RequestHeaders.of(HttpMethod.CONNECT, "/"),
+                                               StreamMessage.of(data.toArray(new HttpData[0])));
+        return req.decode(new WebSocketFrameDecoder(maxFramePayloadLength, masked, perMessageDeflate));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.base.Strings;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+class Http2FlushCoalescingTest {
+
+    private static final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private static final MeterRegistry delayedMeterRegistry = new SimpleMeterRegistry();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.meterRegistry(meterRegistry);
+            sb.http2FlushCoalescing(true);
+            sb.service("/", (ctx, req) -> HttpResponse.delayed(HttpResponse.of("Hello, world!"),
+                                                                   Duration.ofMillis(1)));
+        }
+    };
+
+    @RegisterExtension
+    static final ServerExtension delayedServer = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.meterRegistry(delayedMeterRegistry);
+            sb.http2FlushCoalescing(true);
+            sb.http2MaxFlushDelayMillis(10);
+            sb.http2MaxPendingFlushBytes(1024);
+            sb.service("/", (ctx, req) -> HttpResponse.of("Hello, world!"));
+            sb.service("/large", (ctx, req) -> HttpResponse.of(Strings.repeat("a", 8192)));
+        }
+    };
+
+    @Test
+    void coalesceFlushes() {
+        sendConcurrentRequests(server, "/", 50);
+
+        final double writes = meterRegistry.counter("armeria.server.http2.writes").count();
+        final double flushRequests = meterRegistry.counter("armeria.server.http2.flush.requests").count();
+        final double flushes = meterRegistry.counter("armeria.server.http2.flushes").count();
+        assertThat(writes).isPositive();
+        assertThat(flushes).isPositive();
+        assertThat(flushes).isLessThan(flushRequests);
+    }
+
+    @Test
+    void flushWithDelayAndMaxPendingBytes() {
+        sendConcurrentRequests(delayedServer, "/", 10);
+        sendConcurrentRequests(delayedServer, "/large", 10);
+        assertThat(delayedMeterRegistry.counter("armeria.server.http2.flushes").count()).isPositive();
+    }
+
+    @Test
+    void flushOncePerReadBatch() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final Counter flushRequests = registry.counter("flush.requests");
+        final Counter flushes = registry.counter("flushes");
+        final EmbeddedChannel ch = new EmbeddedChannel(
+                new Http2FlushCoalescingHandler(0, Integer.MAX_VALUE, registry.counter("writes"),
+                                                flushRequests, flushes),
+                new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        // Respond to each message with a flush, like a stream does.
+                        ctx.writeAndFlush(msg);
+                    }
+
+                    @Override
+                    public void channelReadComplete(ChannelHandlerContext ctx) {
+                        // Http2ConnectionHandler flushes when a read batch is complete.
+                        ctx.flush();
+                    }
+                });
+
+        ch.writeInbound(Unpooled.wrappedBuffer(new byte[] { 1 }),
+                        Unpooled.wrappedBuffer(new byte[] { 2 }),
+                        Unpooled.wrappedBuffer(new byte[] { 3 }));
+        assertThat(flushRequests.count()).isEqualTo(4);
+        assertThat(flushes.count()).isEqualTo(1);
+        assertThat(ch.outboundMessages()).hasSize(3);
+
+        ch.writeInbound(Unpooled.wrappedBuffer(new byte[] { 4 }));
+        assertThat(flushRequests.count()).isEqualTo(6);
+        assertThat(flushes.count()).isEqualTo(2);
+        assertThat(ch.outboundMessages()).hasSize(4);
+        ch.finishAndReleaseAll();
+    }
+
+    private static void sendConcurrentRequests(ServerExtension server, String path, int numRequests) {
+        final WebClient client = WebClient.of(server.uri(SessionProtocol.H2C));
+        final List<CompletableFuture<AggregatedHttpResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < numRequests; i++) {
+            futures.add(client.get(path).aggregate());
+        }
+        for (CompletableFuture<AggregatedHttpResponse> future : futures) {
+            assertThat(future.join().status()).isSameAs(HttpStatus.OK);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.logging.RequestLogProperty;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+
+class HttpServerPipelinedResponseBatchingTest {
+
+    private static final AtomicInteger flushes = new AtomicInteger();
+
+    @RegisterExtension
+    static ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.http1PipelinedResponseBatching(true)
+              .disableServerHeader()
+              .disableDateHeader();
+            sb.service("/delay/{millis}", (ctx, req) -> {
+                final String millis = ctx.pathParam("millis");
+                final HttpResponse res = HttpResponse.of(HttpStatus.OK, MediaType.PLAIN_TEXT_UTF_8, millis);
+                return HttpResponse.delayed(res, Duration.ofMillis(Long.parseLong(millis)));
+            });
+            sb.service("/immediate", (ctx, req) -> HttpResponse.of("OK"));
+            sb.service("/flushes", (ctx, req) -> {
+                // Count the flushes which reach the socket from the first request on.
+                final Channel ch = ctx.log().ensureAvailable(RequestLogProperty.SESSION).channel();
+                if (ch.pipeline().get(FlushCounter.class) == null) {
+                    ch.pipeline().addFirst(new FlushCounter());
+                }
+                return HttpResponse.of("OK");
+            });
+        }
+    };
+
+    @Test
+    void configured() {
+        assertThat(server.server().config().isHttp1PipelinedResponseBatchingEnabled()).isTrue();
+    }
+
+    @Test
+    void responsesCompletedOutOfOrder() throws Exception {
+        try (Socket s = new Socket("127.0.0.1", server.httpPort())) {
+            s.setSoTimeout(10000);
+            final InputStream in = s.getInputStream();
+            final OutputStream out = s.getOutputStream();
+            // The second and third requests complete before the first one.
+            out.write(("GET /delay/300 HTTP/1.1\r\n\r\n" +
+                       "GET /delay/0 HTTP/1.1\r\n\r\n" +
+                       "GET /delay/100 HTTP/1.1\r\n" +
+                       "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+            assertThat(new String(ByteStreams.toByteArray(in), StandardCharsets.US_ASCII))
+                    .isEqualTo(response("300") + response("0") + response("100"));
+        }
+    }
+
+    @Test
+    void burstOfImmediateResponses() throws Exception {
+        try (Socket s = new Socket("127.0.0.1", server.httpPort())) {
+            s.setSoTimeout(10000);
+            final InputStream in = s.getInputStream();
+            final OutputStream out = s.getOutputStream();
+            out.write((Strings.repeat("GET /immediate HTTP/1.1\r\n\r\n", 99) +
+                       "GET /immediate HTTP/1.1\r\n" +
+                       "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+            assertThat(new String(ByteStreams.toByteArray(in), StandardCharsets.US_ASCII))
+                    .isEqualTo(Strings.repeat(response("OK"), 100));
+        }
+    }
+
+    @Test
+    void burstIsFlushedOnce() throws Exception {
+        flushes.set(0);
+        try (Socket s = new Socket("127.0.0.1", server.httpPort())) {
+            s.setSoTimeout(10000);
+            final InputStream in = s.getInputStream();
+            final OutputStream out = s.getOutputStream();
+            // Small enough to be read at once.
+            out.write((Strings.repeat("GET /flushes HTTP/1.1\r\n\r\n", 9) +
+                       "GET /flushes HTTP/1.1\r\n" +
+                       "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+            assertThat(new String(ByteStreams.toByteArray(in), StandardCharsets.US_ASCII))
+                    .isEqualTo(Strings.repeat(response("OK"), 10));
+        }
+        assertThat(flushes).hasValue(1);
+    }
+
+    private static String response(String content) {
+        return "HTTP/1.1 200 OK\r\n" +
+               "content-type: text/plain; charset=utf-8\r\n" +
+               "content-length: " + content.length() + "\r\n\r\n" + content;
+    }
+
+    private static final class FlushCounter extends ChannelOutboundHandlerAdapter {
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushes.incrementAndGet();
+            super.flush(ctx);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpResponseWriter;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class ReusableResponseHeadersTest {
+
+    private static final ResponseHeaders HEADERS =
+            ResponseHeaders.builder(HttpStatus.OK)
+                           .contentType(MediaType.PLAIN_TEXT_UTF_8)
+                           .set(HttpHeaderNames.CACHE_CONTROL, "no-cache")
+                           .set("x-custom", "foo")
+                           .build()
+                           .toReusable();
+
+    private static final ResponseHeaders HEADERS_WITH_CONTENT_LENGTH =
+            HEADERS.toBuilder().contentLength(5).build().toReusable();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service("/fixed", (ctx, req) -> {
+                return HttpResponse.of(HEADERS_WITH_CONTENT_LENGTH, HttpData.ofUtf8("hello"));
+            });
+            sb.service("/streaming", (ctx, req) -> {
+                final HttpResponseWriter res = HttpResponse.streaming();
+                res.write(HEADERS);
+                res.write(HttpData.ofUtf8("hello"));
+                res.close();
+                return res;
+            });
+            sb.service("/trailers", (ctx, req) -> {
+                ctx.addAdditionalResponseTrailer("x-trailer", "bar");
+                return HttpResponse.of(HEADERS_WITH_CONTENT_LENGTH, HttpData.ofUtf8("hello"));
+            });
+        }
+    };
+
+    @Test
+    void toReusable() {
+        final ResponseHeaders headers = ResponseHeaders.of(HttpStatus.OK);
+        assertThat(headers.isReusable()).isFalse();
+
+        final ResponseHeaders reusable = headers.toReusable();
+        assertThat(reusable.isReusable()).isTrue();
+        assertThat(reusable).isEqualTo(headers);
+        assertThat(reusable.toReusable()).isSameAs(reusable);
+
+        // Reusable unless modified.
+        assertThat(reusable.toBuilder().build()).isSameAs(reusable);
+        assertThat(reusable.toBuilder().add("x-foo", "bar").build().isReusable()).isFalse();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void fixedContentLength(SessionProtocol protocol) {
+        final WebClient client = WebClient.of(server.uri(protocol));
+        for (int i = 0; i < 3; i++) {
+            final AggregatedHttpResponse res = client.get("/fixed").aggregate().join();
+            assertThat(res.status()).isSameAs(HttpStatus.OK);
+            assertThat(res.contentUtf8()).isEqualTo("hello");
+            assertCommonHeaders(res.headers());
+            assertThat(res.headers().contentLength()).isEqualTo(5);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void streaming(SessionProtocol protocol) {
+        final WebClient client = WebClient.of(server.uri(protocol));
+        for (int i = 0; i < 3; i++) {
+            final AggregatedHttpResponse res = client.get("/streaming").aggregate().join();
+            assertThat(res.status()).isSameAs(HttpStatus.OK);
+            assertThat(res.contentUtf8()).isEqualTo("hello");
+            assertCommonHeaders(res.headers());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void withTrailers(SessionProtocol protocol) {
+        final WebClient client = WebClient.of(server.uri(protocol));
+        final AggregatedHttpResponse res = client.get("/trailers").aggregate().join();
+        assertThat(res.status()).isSameAs(HttpStatus.OK);
+        assertThat(res.contentUtf8()).isEqualTo("hello");
+        assertCommonHeaders(res.headers());
+        assertThat(res.trailers().get("x-trailer")).isEqualTo("bar");
+    }
+
+    private static void assertCommonHeaders(ResponseHeaders headers) {
+        assertThat(headers.contentType()).isEqualTo(MediaType.PLAIN_TEXT_UTF_8);
+        assertThat(headers.get(HttpHeaderNames.CACHE_CONTROL)).isEqualTo("no-cache");
+        assertThat(headers.get("x-custom")).isEqualTo("foo");
+        assertThat(headers.get(HttpHeaderNames.SERVER)).startsWith("Armeria/");
+        assertThat(headers.get(HttpHeaderNames.DATE)).isNotNull();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.base.Strings;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class ResponseCachingServiceTest {
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    @RegisterExtension
+    static ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.service("/max-age", respond("max-age=60")
+                    .decorate(ResponseCachingService.newDecorator()));
+            sb.service("/no-store", respond("no-store, max-age=60")
+                    .decorate(ResponseCachingService.newDecorator()));
+            sb.service("/private", respond("private, max-age=60")
+                    .decorate(ResponseCachingService.newDecorator()));
+            sb.service("/authorized", respond("max-age=60")
+                    .decorate(ResponseCachingService.newDecorator()));
+            sb.service("/public", respond("public, max-age=60")
+                    .decorate(ResponseCachingService.newDecorator()));
+            sb.service("/s-maxage", respond("s-maxage=60")
+                    .decorate(ResponseCachingService.newDecorator()));
+            sb.service("/no-directive", respond(null)
+                    .decorate(ResponseCachingService.newDecorator()));
+            sb.service("/default-max-age", respond(null)
+                    .decorate(ResponseCachingService.builder()
+                                                    .defaultMaxAge(Duration.ofMinutes(1))
+                                                    .newDecorator()));
+            sb.service("/varying", respond("max-age=60")
+                    .decorate(ResponseCachingService.builder()
+                                                    .varyingHeaders(HttpHeaderNames.ACCEPT_LANGUAGE)
+                                                    .newDecorator()));
+            sb.service("/pooled", ((HttpService) (ctx, req) -> {
+                final String content = Strings.repeat(String.valueOf(counter.incrementAndGet()), 100000);
+                return HttpResponse.of(ResponseHeaders.of(HttpStatus.OK,
+                                                          HttpHeaderNames.CACHE_CONTROL, "max-age=60"),
+                                       HttpData.ofUtf8(content));
+            }).decorate(ResponseCachingService.builder()
+                                              .usePooledBuffers(true)
+                                              .newDecorator()));
+            sb.service("/slow", ((HttpService) (ctx, req) -> {
+                final int count = counter.incrementAndGet();
+                return HttpResponse.delayed(
+                        HttpResponse.of(ResponseHeaders.of(HttpStatus.OK,
+                                                           HttpHeaderNames.CACHE_CONTROL, "max-age=60"),
+                                        HttpData.ofUtf8(String.valueOf(count))),
+                        Duration.ofMillis(500));
+            }).decorate(ResponseCachingService.newDecorator()));
+        }
+    };
+
+    private static HttpService respond(@Nullable String cacheControl) {
+        return (ctx, req) -> {
+            final ResponseHeaders headers;
+            if (cacheControl != null) {
+                headers = ResponseHeaders.of(HttpStatus.OK, HttpHeaderNames.CACHE_CONTROL, cacheControl);
+            } else {
+                headers = ResponseHeaders.of(HttpStatus.OK);
+            }
+            final String language = req.headers().get(HttpHeaderNames.ACCEPT_LANGUAGE, "");
+            return HttpResponse.of(headers, HttpData.ofUtf8(counter.incrementAndGet() + language));
+        };
+    }
+
+    private WebClient client;
+
+    @BeforeEach
+    void setUp() {
+        counter.set(0);
+        client = WebClient.of(server.httpUri());
+    }
+
+    @Test
+    void cacheResponse() {
+        assertThat(client.get("/max-age").aggregate().join().contentUtf8()).isEqualTo("1");
+        final AggregatedHttpResponse res = client.get("/max-age").aggregate().join();
+        assertThat(res.contentUtf8()).isEqualTo("1");
+        assertThat(res.headers().getLong(HttpHeaderNames.AGE)).isNotNull();
+
+        // The query is a part of the cache key.
+        assertThat(client.get("/max-age?foo=bar").aggregate().join().contentUtf8()).isEqualTo("2");
+        assertThat(client.get("/max-age?foo=bar").aggregate().join().contentUtf8()).isEqualTo("2");
+
+        // Unsafe methods are not cached.
+        assertThat(client.post("/max-age", "").aggregate().join().contentUtf8()).isEqualTo("3");
+    }
+
+    @Test
+    void doNotCache() {
+        for (String path : new String[] { "/no-store", "/private", "/no-directive" }) {
+            counter.set(0);
+            assertThat(client.get(path).aggregate().join().contentUtf8()).isEqualTo("1");
+            assertThat(client.get(path).aggregate().join().contentUtf8()).isEqualTo("2");
+        }
+    }
+
+    @Test
+    void authorizedRequest() {
+        final RequestHeaders authorized = RequestHeaders.of(HttpMethod.GET, "/authorized",
+                                                            HttpHeaderNames.AUTHORIZATION, "Bearer foo");
+        assertThat(client.execute(authorized).aggregate().join().contentUtf8()).isEqualTo("1");
+        assertThat(client.execute(authorized).aggregate().join().contentUtf8()).isEqualTo("2");
+
+        // Cached if explicitly allowed.
+        for (String path : new String[] { "/public", "/s-maxage" }) {
+            counter.set(0);
+            final RequestHeaders headers = RequestHeaders.of(HttpMethod.GET, path,
+                                                             HttpHeaderNames.AUTHORIZATION, "Bearer foo");
+            assertThat(client.execute(headers).aggregate().join().contentUtf8()).isEqualTo("1");
+            assertThat(client.execute(headers).aggregate().join().contentUtf8()).isEqualTo("1");
+        }
+    }
+
+    @Test
+    void defaultMaxAge() {
+        assertThat(client.get("/default-max-age").aggregate().join().contentUtf8()).isEqualTo("1");
+        assertThat(client.get("/default-max-age").aggregate().join().contentUtf8()).isEqualTo("1");
+    }
+
+    @Test
+    void varyingHeaders() {
+        final RequestHeaders en = RequestHeaders.of(HttpMethod.GET, "/varying",
+                                                    HttpHeaderNames.ACCEPT_LANGUAGE, "en");
+        final RequestHeaders ko = RequestHeaders.of(HttpMethod.GET, "/varying",
+                                                    HttpHeaderNames.ACCEPT_LANGUAGE, "ko");
+        assertThat(client.execute(en).aggregate().join().contentUtf8()).isEqualTo("1en");
+        assertThat(client.execute(ko).aggregate().join().contentUtf8()).isEqualTo("2ko");
+        assertThat(client.execute(en).aggregate().join().contentUtf8()).isEqualTo("1en");
+        assertThat(client.execute(ko).aggregate().join().contentUtf8()).isEqualTo("2ko");
+    }
+
+    @Test
+    void pooledBuffers() {
+        final String expected = Strings.repeat("1", 100000);
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.get("/pooled").aggregate().join().contentUtf8()).isEqualTo(expected);
+        }
+        assertThat(counter).hasValue(1);
+    }
+
+    @Test
+    void collapseConcurrentMisses() throws Exception {
+        final List<CompletableFuture<AggregatedHttpResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(client.get("/slow").aggregate());
+        }
+        for (CompletableFuture<AggregatedHttpResponse> future : futures) {
+            assertThat(future.get(10, TimeUnit.SECONDS).contentUtf8()).isEqualTo("1");
+        }
+        assertThat(counter).hasValue(1);
+    }
+}
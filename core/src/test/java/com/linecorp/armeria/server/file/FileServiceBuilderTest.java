@@ -68,6 +68,28 @@ class FileServiceBuilderTest {
                 .hasMessageContaining("Should enable serveCompressedFiles when autoDecompress is set");
     }
 
+    @Test
+    void maxCacheSizeBytes() {
+        final FileService service = FileService.builder(FileServiceBuilderTest.class.getClassLoader(), "/")
+                                               .maxCacheSizeBytes(1024 * 1024)
+                                               .build();
+        assertThat(service.config().entryCacheSpec()).isEqualTo("maximumWeight=1048576");
+
+        assertThat(FileService.builder(FileServiceBuilderTest.class.getClassLoader(), "/")
+                              .maxCacheSizeBytes(0)
+                              .build()
+                              .config()
+                              .entryCacheSpec()).isNull();
+
+        assertThatThrownBy(() -> FileService.builder(FileServiceBuilderTest.class.getClassLoader(), "/")
+                                            .maxCacheEntries(10)
+                                            .maxCacheSizeBytes(1024))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> FileService.builder(FileServiceBuilderTest.class.getClassLoader(), "/")
+                                            .maxCacheSizeBytes(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void testCustomMediaTypeResolverGuessFromPathCustomJsonExtension() {
         final AggregatedHttpResponse response = WebClient.of(server.httpUri())
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class FileServiceCachedVariantTest {
+
+    private static final String TEXT = Strings.repeat("Hello, Armeria! ", 1024);
+
+    @TempDir
+    static Path tmpDir;
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.serviceUnder("/compress/",
+                            FileService.builder(tmpDir)
+                                       .autoCompress(true)
+                                       .maxCacheSizeBytes(1024 * 1024)
+                                       .build());
+            sb.serviceUnder("/mmap/",
+                            FileService.builder(tmpDir)
+                                       .memoryMapThresholdBytes(1024)
+                                       .build());
+        }
+    };
+
+    @BeforeAll
+    static void createFiles() throws Exception {
+        Files.write(tmpDir.resolve("text.txt"), TEXT.getBytes(StandardCharsets.UTF_8));
+        Files.write(tmpDir.resolve("data.bin"), TEXT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void compressedVariantIsServedAndCached() throws Exception {
+        final WebClient client = WebClient.of(server.httpUri());
+        final AggregatedHttpResponse res1 = execute(client, gzipRequest("/compress/text.txt"));
+        assertThat(res1.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res1.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(res1.headers().get(HttpHeaderNames.VARY)).isEqualTo("accept-encoding");
+        assertThat(res1.content().length()).isLessThan(TEXT.length());
+        assertThat(gunzip(res1.content().array())).isEqualTo(TEXT);
+
+        // The second response is served from the cache.
+        final AggregatedHttpResponse res2 = execute(client, gzipRequest("/compress/text.txt"));
+        assertThat(res2.content()).isEqualTo(res1.content());
+        assertThat(res2.headers().get(HttpHeaderNames.ETAG))
+                .isEqualTo(res1.headers().get(HttpHeaderNames.ETAG));
+
+        // A client which does not accept gzip gets the original content with a different entity tag.
+        final AggregatedHttpResponse res3 = client.get("/compress/text.txt").aggregate().join();
+        assertThat(res3.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+        assertThat(res3.contentUtf8()).isEqualTo(TEXT);
+        assertThat(res3.headers().get(HttpHeaderNames.ETAG))
+                .isNotEqualTo(res1.headers().get(HttpHeaderNames.ETAG));
+        // The identity response was negotiated as well.
+        assertThat(res3.headers().getAll(HttpHeaderNames.VARY)).containsExactly("accept-encoding");
+    }
+
+    @Test
+    void binaryFileIsNotCompressed() {
+        final WebClient client = WebClient.of(server.httpUri());
+        final AggregatedHttpResponse res = execute(client, gzipRequest("/compress/data.bin"));
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+        assertThat(res.headers().getAll(HttpHeaderNames.VARY)).containsExactly("accept-encoding");
+        assertThat(res.contentUtf8()).isEqualTo(TEXT);
+    }
+
+    @Test
+    void memoryMappedFile() throws Exception {
+        final WebClient client = WebClient.of(server.httpUri());
+        final Path file = tmpDir.resolve("mapped.txt");
+        Files.write(file, TEXT.getBytes(StandardCharsets.UTF_8));
+        assertThat(client.get("/mmap/mapped.txt").aggregate().join().contentUtf8()).isEqualTo(TEXT);
+        // Served from the cache.
+        assertThat(client.get("/mmap/mapped.txt").aggregate().join().contentUtf8()).isEqualTo(TEXT);
+
+        // Replace the file rather than modifying it in place.
+        final String newText = TEXT + "Bye!";
+        final Path tmpFile = tmpDir.resolve("mapped.txt.tmp");
+        Files.write(tmpFile, newText.getBytes(StandardCharsets.UTF_8));
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        assertThat(client.get("/mmap/mapped.txt").aggregate().join().contentUtf8()).isEqualTo(newText);
+    }
+
+    @Test
+    void truncatedMemoryMappedFileIsNotServed() throws Exception {
+        final WebClient client = WebClient.of(server.httpUri());
+        final Path file = tmpDir.resolve("truncated.txt");
+        Files.write(file, TEXT.getBytes(StandardCharsets.UTF_8));
+        assertThat(client.get("/mmap/truncated.txt").aggregate().join().contentUtf8()).isEqualTo(TEXT);
+
+        // Truncate the file in place. The stale mapping must not be served.
+        final String newText = TEXT.substring(0, 2048);
+        Files.write(file, newText.getBytes(StandardCharsets.UTF_8));
+        assertThat(client.get("/mmap/truncated.txt").aggregate().join().contentUtf8()).isEqualTo(newText);
+    }
+
+    private static AggregatedHttpResponse execute(WebClient client, RequestHeaders headers) {
+        return client.execute(headers).aggregate().join();
+    }
+
+    private static RequestHeaders gzipRequest(String path) {
+        return RequestHeaders.of(HttpMethod.GET, path, HttpHeaderNames.ACCEPT_ENCODING, "gzip");
+    }
+
+    private static String gunzip(byte[] compressed) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+}
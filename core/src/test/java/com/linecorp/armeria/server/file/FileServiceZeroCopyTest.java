@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.internal.common.FileRegionHttpData;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+class FileServiceZeroCopyTest {
+
+    @TempDir
+    static Path tmpDir;
+
+    private static byte[] content;
+
+    private static final Queue<HttpData> servedData = new LinkedTransferQueue<>();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.serviceUnder("/zero-copy/",
+                            FileService.builder(tmpDir)
+                                       .zeroCopy(true)
+                                       .build()
+                                       .decorate((delegate, ctx, req) -> {
+                                           return delegate.serve(ctx, req).peekData(servedData::add);
+                                       }));
+        }
+    };
+
+    @BeforeAll
+    static void createFiles() throws Exception {
+        // Larger than the default maxCacheEntrySizeBytes so that the file is not cached.
+        content = new byte[1024 * 1024 + 17];
+        ThreadLocalRandom.current().nextBytes(content);
+        Files.write(tmpDir.resolve("large.bin"), content);
+        Files.write(tmpDir.resolve("small.txt"), "hello".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @BeforeEach
+    void clearServedData() {
+        servedData.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SessionProtocol.class, names = { "H1C", "H2C" })
+    void largeFile(SessionProtocol protocol) {
+        final WebClient client = WebClient.of(server.uri(protocol));
+        final AggregatedHttpResponse res = client.get("/zero-copy/large.bin").aggregate().join();
+        assertThat(res.status()).isEqualTo(HttpStatus.OK);
+        assertThat(res.headers().contentLength()).isEqualTo(content.length);
+        assertThat(res.content().array()).isEqualTo(content);
+
+        if (protocol == SessionProtocol.H1C) {
+            // The file is split into the regions as small as the chunks of a streamed file.
+            assertThat(servedData).hasSize((content.length + 8191) / 8192);
+            assertThat(servedData).allMatch(FileRegionHttpData.class::isInstance)
+                                  .allMatch(data -> data.length() <= 8192);
+        } else {
+            assertThat(servedData).noneMatch(FileRegionHttpData.class::isInstance);
+        }
+    }
+
+    @Test
+    void cachedFileIsNotZeroCopied() {
+        final WebClient client = WebClient.of(server.uri(SessionProtocol.H1C));
+        final AggregatedHttpResponse res = client.get("/zero-copy/small.txt").aggregate().join();
+        assertThat(res.contentUtf8()).isEqualTo("hello");
+        assertThat(servedData).noneMatch(FileRegionHttpData.class::isInstance);
+    }
+
+    @Test
+    void fileRegionHttpDataFallsBackToReadingFile() {
+        final FileRegionHttpData data =
+                new FileRegionHttpData(tmpDir.resolve("large.bin").toFile(), 3, 5, true);
+        assertThat(data.length()).isEqualTo(5);
+        assertThat(data.isEndOfStream()).isTrue();
+        assertThat(data.array()).containsExactly(content[3], content[4], content[5], content[6], content[7]);
+        assertThat(data.withEndOfStream(false).isEndOfStream()).isFalse();
+    }
+
+    @Test
+    void fileRegionIsNotUsedForUnsupportedChannel() {
+        assertThat(FileRegionHttpData.isSupported(new NioSocketChannel())).isTrue();
+        assertThat(FileRegionHttpData.isSupported(new EmbeddedChannel())).isFalse();
+        assertThat(FileRegionHttpData.isSupported(null)).isFalse();
+    }
+}
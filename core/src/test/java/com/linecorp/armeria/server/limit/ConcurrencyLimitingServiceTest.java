@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.limit.AdaptiveLimit;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+class ConcurrencyLimitingServiceTest {
+
+    private static final FixedLimit limit = new FixedLimit();
+    private static final List<CompletableFuture<HttpResponse>> pendingResponses = new ArrayList<>();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.service("glob:/**", (ctx, req) -> {
+                final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+                synchronized (pendingResponses) {
+                    pendingResponses.add(future);
+                }
+                return HttpResponse.from(future);
+            });
+            sb.decorator(ConcurrencyLimitingService.builder(() -> limit)
+                                                   .partition("critical", 0.5,
+                                                              ctx -> ctx.path().startsWith("/critical"))
+                                                   .newDecorator());
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        limit.limit = 2;
+        limit.numSamples.set(0);
+    }
+
+    @Test
+    void rejectOverLimit() {
+        final WebClient client = WebClient.of(server.httpUri());
+        final CompletableFuture<AggregatedHttpResponse> res1 = client.get("/foo").aggregate();
+        final CompletableFuture<AggregatedHttpResponse> res2 = client.get("/bar").aggregate();
+        awaitPendingResponses(2);
+
+        assertThat(client.get("/baz").aggregate().join().status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        // The critical partition is guaranteed a half of the limit.
+        final CompletableFuture<AggregatedHttpResponse> res3 = client.get("/critical").aggregate();
+        awaitPendingResponses(3);
+        assertThat(client.get("/critical").aggregate().join().status())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        completePendingResponses();
+        assertThat(res1.join().status()).isEqualTo(HttpStatus.OK);
+        assertThat(res2.join().status()).isEqualTo(HttpStatus.OK);
+        assertThat(res3.join().status()).isEqualTo(HttpStatus.OK);
+        await().untilAsserted(() -> assertThat(limit.numSamples).hasValue(3));
+
+        // Accepted again once the in-flight requests are done.
+        final CompletableFuture<AggregatedHttpResponse> res4 = client.get("/foo").aggregate();
+        awaitPendingResponses(1);
+        completePendingResponses();
+        assertThat(res4.join().status()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void newLimitForEachDecoratedService() {
+        final AtomicInteger numCreatedLimits = new AtomicInteger();
+        final Function<? super HttpService, ConcurrencyLimitingService> decorator =
+                ConcurrencyLimitingService.newDecorator(() -> {
+                    numCreatedLimits.incrementAndGet();
+                    return AdaptiveLimit.aimd();
+                });
+        final HttpService service = (ctx, req) -> HttpResponse.of(HttpStatus.OK);
+        decorator.apply(service);
+        decorator.apply(service);
+        assertThat(numCreatedLimits).hasValue(2);
+    }
+
+    private static void awaitPendingResponses(int expected) {
+        await().untilAsserted(() -> {
+            synchronized (pendingResponses) {
+                assertThat(pendingResponses).hasSize(expected);
+            }
+        });
+    }
+
+    private static void completePendingResponses() {
+        synchronized (pendingResponses) {
+            pendingResponses.forEach(f -> f.complete(HttpResponse.of(HttpStatus.OK)));
+            pendingResponses.clear();
+        }
+    }
+
+    private static final class FixedLimit implements AdaptiveLimit {
+
+        volatile int limit;
+        final AtomicInteger numSamples = new AtomicInteger();
+
+        @Override
+        public int limit() {
+            return limit;
+        }
+
+        @Override
+        public void onSample(long rttNanos, int inFlight, boolean dropped) {
+            numSamples.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.io.ByteStreams;
+
+import com.linecorp.armeria.client.InvalidResponseHeadersException;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.client.websocket.WebSocketClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.SessionProtocol;
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.stream.DefaultStreamMessage;
+import com.linecorp.armeria.common.stream.StreamMessage;
+import com.linecorp.armeria.common.websocket.WebSocketFrame;
+import com.linecorp.armeria.common.websocket.WebSocketFrameType;
+import com.linecorp.armeria.internal.common.websocket.WebSocketFrameEncoder;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.netty.buffer.ByteBufAllocator;
+
+class WebSocketServiceTest {
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) {
+            sb.service("/echo", WebSocketService.of((ctx, in) -> in.map(frame -> {
+                if (frame.type() == WebSocketFrameType.PING) {
+                    return WebSocketFrame.ofPong(frame.array());
+                }
+                return frame;
+            })));
+            sb.service("/small", WebSocketService.builder((ctx, in) -> in)
+                                                 .maxFramePayloadLength(16)
+                                                 .build());
+            sb.service("/deflate", WebSocketService.builder((ctx, in) -> in)
+                                                   .perMessageDeflate(true)
+                                                   .build());
+        }
+    };
+
+    @Test
+    void echo() {
+        final WebSocketClient client = WebSocketClient.of(WebClient.of(server.uri(SessionProtocol.H2C)));
+        final DefaultStreamMessage<WebSocketFrame> out = new DefaultStreamMessage<>();
+        final StreamMessage<WebSocketFrame> in = client.connect("/echo", out);
+
+        final byte[] medium = new byte[300];
+        final byte[] large = new byte[65536];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        out.write(WebSocketFrame.ofText("Hello, "));
+        out.write(WebSocketFrame.ofText("world!", false));
+        out.write(WebSocketFrame.ofPing(new byte[] { 1, 2, 3 }));
+        out.write(WebSocketFrame.ofContinuation(medium, true));
+        out.write(WebSocketFrame.ofBinary(large));
+        out.write(WebSocketFrame.ofClose(WebSocketFrame.NORMAL_CLOSURE, "bye"));
+        out.close();
+
+        final List<WebSocketFrame> frames = in.collect().join();
+        assertThat(frames).containsExactly(WebSocketFrame.ofText("Hello, "),
+                                           WebSocketFrame.ofText("world!", false),
+                                           WebSocketFrame.ofPong(new byte[] { 1, 2, 3 }),
+                                           WebSocketFrame.ofContinuation(medium, true),
+                                           WebSocketFrame.ofBinary(large),
+                                           WebSocketFrame.ofClose(WebSocketFrame.NORMAL_CLOSURE, "bye"));
+        assertThat(frames.get(5).closeCode()).isEqualTo(WebSocketFrame.NORMAL_CLOSURE);
+        assertThat(frames.get(5).closeReason()).isEqualTo("bye");
+    }
+
+    @Test
+    void tooLargeFrame() {
+        final WebSocketClient client = WebSocketClient.of(WebClient.of(server.uri(SessionProtocol.H2C)));
+        final DefaultStreamMessage<WebSocketFrame> out = new DefaultStreamMessage<>();
+        final StreamMessage<WebSocketFrame> in = client.connect("/small", out);
+        out.write(WebSocketFrame.ofBinary(new byte[17]));
+        final List<WebSocketFrame> frames = in.collect().join();
+        assertThat(frames).hasSize(1);
+        assertThat(frames.get(0).closeCode()).isEqualTo(WebSocketFrame.MESSAGE_TOO_BIG);
+    }
+
+    @Test
+    void invalidUtf8Text() {
+        final WebSocketClient client = WebSocketClient.of(WebClient.of(server.uri(SessionProtocol.H2C)));
+        final DefaultStreamMessage<WebSocketFrame> out = new DefaultStreamMessage<>();
+        final StreamMessage<WebSocketFrame> in = client.connect("/echo", out);
+        out.write(WebSocketFrame.ofText(new byte[] { (byte) 0xFF }, true));
+        final List<WebSocketFrame> frames = in.collect().join();
+        assertThat(frames).hasSize(1);
+        assertThat(frames.get(0).closeCode()).isEqualTo(WebSocketFrame.INVALID_FRAME_PAYLOAD_DATA);
+    }
+
+    @Test
+    void rejectUnknownPath() {
+        final WebSocketClient client = WebSocketClient.of(WebClient.of(server.uri(SessionProtocol.H2C)));
+        final StreamMessage<WebSocketFrame> in = client.connect("/unknown", StreamMessage.of());
+        assertThatThrownBy(() -> in.collect().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(InvalidResponseHeadersException.class);
+    }
+
+    @Test
+    void rejectNonWebSocketRequest() {
+        final AggregatedHttpResponse res = WebClient.of(server.uri(SessionProtocol.H1C))
+                                                    .get("/echo")
+                                                    .aggregate()
+                                                    .join();
+        assertThat(res.status()).isSameAs(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void http1Upgrade() throws Exception {
+        try (Socket s = new Socket("127.0.0.1", server.httpPort())) {
+            s.setSoTimeout(10000);
+            final InputStream in = s.getInputStream();
+            final OutputStream out = s.getOutputStream();
+            out.write(handshake("/echo", null));
+
+            final String headers = readHeaders(in);
+            assertThat(headers).startsWith("http/1.1 101 switching protocols\r\n")
+                               .contains("\r\nconnection: upgrade\r\n")
+                               .contains("\r\nupgrade: websocket\r\n")
+                               .contains("\r\nsec-websocket-accept: s3pplmbitxaq9kygzzhzrbk+xoo=\r\n");
+
+            out.write(encode(WebSocketFrame.ofText("Hello, "), true));
+            out.write(encode(WebSocketFrame.ofPing(new byte[] { 1, 2, 3 }), true));
+            final byte[] expected = concat(encode(WebSocketFrame.ofText("Hello, "), false),
+                                           encode(WebSocketFrame.ofPong(new byte[] { 1, 2, 3 }), false));
+            final byte[] actual = new byte[expected.length];
+            ByteStreams.readFully(in, actual);
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void http1UpgradeWithPerMessageDeflate() throws Exception {
+        try (Socket s = new Socket("127.0.0.1", server.httpPort())) {
+            s.setSoTimeout(10000);
+            s.getOutputStream().write(handshake("/deflate", "permessage-deflate; client_max_window_bits"));
+            assertThat(readHeaders(s.getInputStream()))
+                    .startsWith("http/1.1 101 switching protocols\r\n")
+                    .contains("\r\nsec-websocket-extensions: permessage-deflate\r\n");
+        }
+    }
+
+    @Test
+    void http1UpgradeWithoutKey() throws Exception {
+        try (Socket s = new Socket("127.0.0.1", server.httpPort())) {
+            s.setSoTimeout(10000);
+            final String req = "GET /echo HTTP/1.1\r\n" +
+                               "Host: 127.0.0.1\r\n" +
+                               "Upgrade: websocket\r\n" +
+                               "Connection: Upgrade\r\n" +
+                               "Sec-WebSocket-Version: 13\r\n\r\n";
+            s.getOutputStream().write(req.getBytes(StandardCharsets.US_ASCII));
+            assertThat(readHeaders(s.getInputStream())).startsWith("http/1.1 400 bad request\r\n");
+        }
+    }
+
+    @Test
+    void echoWithPerMessageDeflate() {
+        final WebSocketClient client = WebSocketClient.builder(WebClient.of(server.uri(SessionProtocol.H2C)))
+                                                      .perMessageDeflate(true)
+                                                      .build();
+        final DefaultStreamMessage<WebSocketFrame> out = new DefaultStreamMessage<>();
+        final StreamMessage<WebSocketFrame> in = client.connect("/deflate", out);
+
+        final byte[] large = new byte[65536];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i % 7);
+        }
+        out.write(WebSocketFrame.ofText("Hello, "));
+        out.write(WebSocketFrame.ofText("Hello, "));
+        out.write(WebSocketFrame.ofBinary(large, false));
+        out.write(WebSocketFrame.ofPing(new byte[] { 1, 2, 3 }));
+        out.write(WebSocketFrame.ofContinuation(new byte[0], true));
+        out.write(WebSocketFrame.ofText(""));
+        out.close();
+
+        assertThat(in.collect().join()).containsExactly(WebSocketFrame.ofText("Hello, "),
+                                                        WebSocketFrame.ofText("Hello, "),
+                                                        WebSocketFrame.ofBinary(large, false),
+                                                        WebSocketFrame.ofPing(new byte[] { 1, 2, 3 }),
+                                                        WebSocketFrame.ofContinuation(new byte[0], true),
+                                                        WebSocketFrame.ofText(""));
+    }
+
+    private static byte[] handshake(String path, @Nullable String extensions) {
+        return ("GET " + path + " HTTP/1.1\r\n" +
+                "Host: 127.0.0.1\r\n" +
+                "Upgrade: websocket\r\n" +
+                "Connection: Upgrade\r\n" +
+                "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n" +
+                (extensions != null ? "Sec-WebSocket-Extensions: " + extensions + "\r\n" : "") +
+                "Sec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads the response headers up to the empty line and returns them in lower case.
+     */
+    private static String readHeaders(InputStream in) throws Exception {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final byte[] end = { '\r', '\n', '\r', '\n' };
+        int matched = 0;
+        while (matched < end.length) {
+            final int b = in.read();
+            assertThat(b).isNotNegative();
+            buf.write(b);
+            matched = b == end[matched] ? matched + 1 : b == '\r' ? 1 : 0;
+        }
+        return new String(buf.toByteArray(), StandardCharsets.US_ASCII).toLowerCase();
+    }
+
+    private static byte[] encode(WebSocketFrame frame, boolean mask) {
+        final HttpData data = WebSocketFrameEncoder.encode(ByteBufAllocator.DEFAULT, frame, mask);
+        try {
+            return data.array();
+        } finally {
+            data.close();
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        final byte[] result = new byte[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -46,6 +46,7 @@
 
 package com.linecorp.armeria.common.grpc.protocol;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
@@ -94,6 +95,7 @@ public class ArmeriaMessageFramer implements AutoCloseable {
     private final boolean encodeBase64;
 
     private boolean messageCompression = true;
+    private int minCompressionSize;
 
     @Nullable
     private Compressor compressor;
@@ -130,33 +132,45 @@ public class ArmeriaMessageFramer implements AutoCloseable {
      */
     public HttpData writePayload(ByteBuf message, boolean webTrailers) {
         verifyNotClosed();
-        final boolean compressed = messageCompression && compressor != null;
+        return encode(frame(message, webTrailers), webTrailers);
+    }
+
+    /**
+     * Frames a payload message without encoding it into Base64, so that the frame can be written out
+     * more than once with {@link #writeFrame(ByteBuf)}.
+     *
+     * @param message the message to be framed. Ownership is taken by {@link ArmeriaMessageFramer}.
+     *
+     * @return a {@link ByteBuf} with the framed payload. Ownership is passed to caller.
+     */
+    public ByteBuf frameMessage(ByteBuf message) {
+        verifyNotClosed();
+        return frame(message, false);
+    }
+
+    /**
+     * Writes out a frame created by {@link #frameMessage(ByteBuf)}, possibly by another
+     * {@link ArmeriaMessageFramer}.
+     *
+     * @param frame the frame to be written out. Ownership is taken by {@link ArmeriaMessageFramer}.
+     *
+     * @return an {@link HttpData} with the framed payload. Ownership is passed to caller.
+     */
+    public HttpData writeFrame(ByteBuf frame) {
+        verifyNotClosed();
+        return encode(frame, false);
+    }
+
+    private ByteBuf frame(ByteBuf message, boolean webTrailers) {
         final int messageLength = message.readableBytes();
+        final boolean compressed = messageCompression && compressor != null &&
+                                   messageLength != 0 && messageLength >= minCompressionSize;
         try {
-            final ByteBuf buf;
-            if (messageLength != 0 && compressed) {
-                buf = writeCompressed(message, webTrailers);
+            if (compressed) {
+                return writeCompressed(message, webTrailers);
             } else {
-                buf = writeUncompressed(message, webTrailers);
+                return writeUncompressed(message, webTrailers);
             }
-
-            final ByteBuf maybeEncodedBuf;
-            if (encodeBase64) {
-                try {
-                    maybeEncodedBuf = Base64.encode(buf, false);
-                } finally {
-                    buf.release();
-                }
-                final int length = maybeEncodedBuf.readableBytes();
-                if (maxMessageLength >= 0 && length > maxMessageLength) {
-                    maybeEncodedBuf.release();
-                    throw newMessageTooLargeException(length);
-                }
-            } else {
-                maybeEncodedBuf = buf;
-            }
-
-            return HttpData.wrap(maybeEncodedBuf).withEndOfStream(webTrailers);
         } catch (ArmeriaStatusException e) {
             throw e;
         } catch (IOException | RuntimeException e) {
@@ -165,6 +179,28 @@ public class ArmeriaMessageFramer implements AutoCloseable {
         }
     }
 
+    private HttpData encode(ByteBuf buf, boolean webTrailers) {
+        final ByteBuf maybeEncodedBuf;
+        if (encodeBase64) {
+            try {
+                maybeEncodedBuf = Base64.encode(buf, false);
+            } catch (RuntimeException e) {
+                throw new ArmeriaStatusException(StatusCodes.INTERNAL, "Failed to frame message", e);
+            } finally {
+                buf.release();
+            }
+            final int length = maybeEncodedBuf.readableBytes();
+            if (maxMessageLength >= 0 && length > maxMessageLength) {
+                maybeEncodedBuf.release();
+                throw newMessageTooLargeException(length);
+            }
+        } else {
+            maybeEncodedBuf = buf;
+        }
+
+        return HttpData.wrap(maybeEncodedBuf).withEndOfStream(webTrailers);
+    }
+
     /**
      * Enables or disables message compression.
      *
@@ -181,6 +217,17 @@ public class ArmeriaMessageFramer implements AutoCloseable {
         this.compressor = compressor;
     }
 
+    /**
+     * Sets the minimum size of a message to compress. A message smaller than the specified size is
+     * written out uncompressed even if a {@link Compressor} is set, because compressing a tiny message
+     * usually costs more than it saves. {@code 0} is used by default.
+     */
+    public void setMinCompressionSize(int minCompressionSize) {
+        checkArgument(minCompressionSize >= 0,
+                      "minCompressionSize: %s (expected: >= 0)", minCompressionSize);
+        this.minCompressionSize = minCompressionSize;
+    }
+
     private ByteBuf writeCompressed(ByteBuf message, boolean webTrailers) throws IOException {
         assert compressor != null;
 
@@ -18,12 +18,15 @@ package com.linecorp.armeria.client.grpc;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.linecorp.armeria.client.grpc.GrpcClientOptions.CALL_CREDENTIALS;
+import static com.linecorp.armeria.client.grpc.GrpcClientOptions.COMPRESSION_POLICY_FACTORY;
 import static com.linecorp.armeria.client.grpc.GrpcClientOptions.COMPRESSOR;
 import static com.linecorp.armeria.client.grpc.GrpcClientOptions.DECOMPRESSOR_REGISTRY;
 import static com.linecorp.armeria.client.grpc.GrpcClientOptions.GRPC_CLIENT_STUB_FACTORY;
 import static com.linecorp.armeria.client.grpc.GrpcClientOptions.GRPC_JSON_MARSHALLER_FACTORY;
 import static com.linecorp.armeria.client.grpc.GrpcClientOptions.MAX_INBOUND_MESSAGE_SIZE_BYTES;
 import static com.linecorp.armeria.client.grpc.GrpcClientOptions.MAX_OUTBOUND_MESSAGE_SIZE_BYTES;
+import static com.linecorp.armeria.client.grpc.GrpcClientOptions.READINESS_HIGH_WATERMARK_BYTES;
+import static com.linecorp.armeria.client.grpc.GrpcClientOptions.READINESS_LOW_WATERMARK_BYTES;
 import static com.linecorp.armeria.client.grpc.GrpcClientOptions.UNSAFE_WRAP_RESPONSE_BUFFERS;
 import static java.util.Objects.requireNonNull;
 
@@ -64,6 +67,7 @@ import com.linecorp.armeria.common.auth.AuthToken;
 import com.linecorp.armeria.common.auth.BasicToken;
 import com.linecorp.armeria.common.auth.OAuth1aToken;
 import com.linecorp.armeria.common.auth.OAuth2Token;
+import com.linecorp.armeria.common.grpc.GrpcCompressionPolicy;
 import com.linecorp.armeria.common.grpc.GrpcJsonMarshaller;
 import com.linecorp.armeria.common.grpc.GrpcJsonMarshallerBuilder;
 import com.linecorp.armeria.common.grpc.GrpcSerializationFormats;
@@ -76,6 +80,7 @@ import io.grpc.ClientInterceptor;
 import io.grpc.Codec;
 import io.grpc.Compressor;
 import io.grpc.DecompressorRegistry;
+import io.grpc.MethodDescriptor;
 import io.grpc.ServiceDescriptor;
 
 /**
@@ -193,6 +198,31 @@ public final class GrpcClientBuilder extends AbstractClientOptionsBuilder {
         return option(MAX_INBOUND_MESSAGE_SIZE_BYTES.newValue(maxResponseMessageLength));
     }
 
+    /**
+     * Sets the watermarks, in bytes, which determine whether a streaming call is ready to send more request
+     * messages, i.e. {@code ClientCallStreamObserver.isReady()}. A call is not ready while the request
+     * messages which have not been written to the connection yet are as large as {@code highWatermark},
+     * and {@code onReady()} is invoked again when they shrink to {@code lowWatermark}. A request message
+     * is written to the connection only as fast as the HTTP/2 flow-control window of the stream allows,
+     * so a client which honors {@code isReady()} does not buffer more than about {@code highWatermark}
+     * bytes for a slow server.
+     *
+     * <p>The watermarks are {@code 0} by default, which means a call is ready only when all previous
+     * request messages have been written. Set them, e.g. to {@code 32768} and {@code 65536}, to let
+     * a client send small messages in batches.
+     *
+     * @see GrpcClientOptions#READINESS_LOW_WATERMARK_BYTES
+     * @see GrpcClientOptions#READINESS_HIGH_WATERMARK_BYTES
+     */
+    @UnstableApi
+    public GrpcClientBuilder readinessWatermarks(int lowWatermark, int highWatermark) {
+        checkArgument(lowWatermark >= 0, "lowWatermark: %s (expected: >= 0)", lowWatermark);
+        checkArgument(highWatermark >= lowWatermark, "highWatermark: %s (expected: >= lowWatermark(%s))",
+                      highWatermark, lowWatermark);
+        option(READINESS_LOW_WATERMARK_BYTES.newValue(lowWatermark));
+        return option(READINESS_HIGH_WATERMARK_BYTES.newValue(highWatermark));
+    }
+
     /**
      * Sets the {@link Compressor} to use when compressing messages. If not set, {@link Codec.Identity#NONE}
      * will be used by default.
@@ -206,6 +236,46 @@ public final class GrpcClientBuilder extends AbstractClientOptionsBuilder {
         return option(COMPRESSOR.newValue(compressor));
     }
 
+    /**
+     * Sets the {@link GrpcCompressionPolicy} applied to all methods. The {@link Compressor} of
+     * the {@link GrpcCompressionPolicy} overrides {@link #compressor(Compressor)}.
+     *
+     * @see #compressionPolicyFactory(Function)
+     */
+    @UnstableApi
+    public GrpcClientBuilder compressionPolicy(GrpcCompressionPolicy compressionPolicy) {
+        requireNonNull(compressionPolicy, "compressionPolicy");
+        return compressionPolicyFactory(unused -> compressionPolicy);
+    }
+
+    /**
+     * Sets the factory that creates the {@link GrpcCompressionPolicy} of a method. The {@link Compressor} of
+     * a {@link GrpcCompressionPolicy} overrides {@link #compressor(Compressor)}. For example, a client can
+     * compress only the large messages of a bulk upload method:
+     * <pre>{@code
+     * GrpcClients.builder(grpcServerUri)
+     *            .compressionPolicyFactory(method -> {
+     *                if (method == IngestServiceGrpc.getUploadMethod()) {
+     *                    return GrpcCompressionPolicy.builder()
+     *                                                .compressor(new Codec.Gzip())
+     *                                                .minMessageSize(1024)
+     *                                                .build();
+     *                }
+     *                return GrpcCompressionPolicy.of();
+     *            })
+     *            .build(IngestServiceStub.class);
+     * }</pre>
+     *
+     * <p>Note that it is only safe to use a {@link Compressor} if the server supports it.
+     */
+    @UnstableApi
+    public GrpcClientBuilder compressionPolicyFactory(
+            Function<? super MethodDescriptor<?, ?>, ? extends GrpcCompressionPolicy>
+                    compressionPolicyFactory) {
+        requireNonNull(compressionPolicyFactory, "compressionPolicyFactory");
+        return option(COMPRESSION_POLICY_FACTORY.newValue(compressionPolicyFactory));
+    }
+
     /**
      * Sets the {@link DecompressorRegistry} to use when decompressing messages. If not set, will use
      * the default, which supports gzip only.
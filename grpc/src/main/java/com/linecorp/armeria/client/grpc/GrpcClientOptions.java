@@ -29,6 +29,8 @@ import com.linecorp.armeria.client.ClientOption;
 import com.linecorp.armeria.client.ClientOptions;
 import com.linecorp.armeria.common.RequestContext;
 import com.linecorp.armeria.common.SerializationFormat;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.grpc.GrpcCompressionPolicy;
 import com.linecorp.armeria.common.grpc.GrpcJsonMarshaller;
 import com.linecorp.armeria.common.grpc.GrpcJsonMarshallerBuilder;
 import com.linecorp.armeria.common.grpc.GrpcSerializationFormats;
@@ -43,6 +45,7 @@ import io.grpc.ClientInterceptor;
 import io.grpc.Codec;
 import io.grpc.Compressor;
 import io.grpc.DecompressorRegistry;
+import io.grpc.MethodDescriptor;
 import io.grpc.ServiceDescriptor;
 
 /**
@@ -68,6 +71,27 @@ public final class GrpcClientOptions {
             ClientOption.define("GRPC_MAX_OUTBOUND_MESSAGE_SIZE_BYTES",
                                 ArmeriaMessageFramer.NO_MAX_OUTBOUND_MESSAGE_SIZE);
 
+    /**
+     * The size, in bytes, of the request messages which have not been written to the connection yet,
+     * at or below which {@code ClientCall.Listener.onReady()} is invoked again after a call became not ready.
+     * Capped at {@link #READINESS_HIGH_WATERMARK_BYTES}. The default value is {@code 0}.
+     */
+    @UnstableApi
+    public static final ClientOption<Integer> READINESS_LOW_WATERMARK_BYTES =
+            ClientOption.define("GRPC_READINESS_LOW_WATERMARK_BYTES", 0);
+
+    /**
+     * The size, in bytes, of the request messages which have not been written to the connection yet,
+     * at or above which a streaming call is not ready, i.e. {@code ClientCall.isReady()} returns
+     * {@code false}. A request message is written to the connection only as fast as the HTTP/2 flow-control
+     * window of the stream allows, so a client which honors {@code isReady()} does not buffer more than
+     * about this many bytes for a slow server. The default value is {@code 0}, which means a call is ready
+     * only when all previous request messages have been written.
+     */
+    @UnstableApi
+    public static final ClientOption<Integer> READINESS_HIGH_WATERMARK_BYTES =
+            ClientOption.define("GRPC_READINESS_HIGH_WATERMARK_BYTES", 0);
+
     /**
      * Enables unsafe retention of response buffers. Can improve performance when working with very large
      * (i.e., several megabytes) payloads.
@@ -150,6 +174,17 @@ public final class GrpcClientOptions {
     public static final ClientOption<Compressor> COMPRESSOR =
             ClientOption.define("GRPC_CLIENT_COMPRESSOR", Codec.Identity.NONE);
 
+    /**
+     * Sets the factory that creates the {@link GrpcCompressionPolicy} of a method. The {@link Compressor} of
+     * a {@link GrpcCompressionPolicy} overrides {@link #COMPRESSOR}. The factory is invoked once per method
+     * and its result is reused for the subsequent calls. If not set, {@link GrpcCompressionPolicy#of()}
+     * is used for all methods.
+     */
+    @UnstableApi
+    public static final ClientOption<Function<? super MethodDescriptor<?, ?>, ? extends GrpcCompressionPolicy>>
+            COMPRESSION_POLICY_FACTORY = ClientOption.define("GRPC_CLIENT_COMPRESSION_POLICY_FACTORY",
+                                                             unused -> GrpcCompressionPolicy.of());
+
     /**
      * Sets the {@link DecompressorRegistry} to use when decompressing messages. If not set, will use
      * the default, which supports gzip only.
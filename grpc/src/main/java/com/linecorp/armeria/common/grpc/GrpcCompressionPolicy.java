@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.grpc;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+import io.grpc.Compressor;
+import io.grpc.MethodDescriptor;
+
+/**
+ * Determines how the messages of a gRPC method are compressed. A {@link GrpcCompressionPolicy} is resolved
+ * once per {@link MethodDescriptor}, so that a method with small messages can skip compression while
+ * a method with large messages uses a stronger codec.
+ *
+ * <p>Note that the compression algorithm is negotiated per stream with the {@code "grpc-encoding"} header.
+ * Therefore, the {@link Compressor} of a policy applies to all messages of a call, and each message
+ * is only either compressed with it or sent as is, depending on {@link #minMessageSize()}.
+ */
+@UnstableApi
+public final class GrpcCompressionPolicy {
+
+    private static final GrpcCompressionPolicy DEFAULT = new GrpcCompressionPolicy(null, 0, false);
+
+    /**
+     * Returns the default {@link GrpcCompressionPolicy}, which does not override the {@link Compressor}
+     * configured elsewhere and compresses all messages.
+     */
+    public static GrpcCompressionPolicy of() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a new {@link GrpcCompressionPolicyBuilder}.
+     */
+    public static GrpcCompressionPolicyBuilder builder() {
+        return new GrpcCompressionPolicyBuilder();
+    }
+
+    @Nullable
+    private final Compressor compressor;
+    private final int minMessageSize;
+    private final boolean cacheCompressedMessages;
+
+    GrpcCompressionPolicy(@Nullable Compressor compressor, int minMessageSize,
+                          boolean cacheCompressedMessages) {
+        this.compressor = compressor;
+        this.minMessageSize = minMessageSize;
+        this.cacheCompressedMessages = cacheCompressedMessages;
+    }
+
+    /**
+     * Returns the {@link Compressor} used to compress the messages of a method, or {@code null} to use
+     * the {@link Compressor} configured elsewhere.
+     */
+    @Nullable
+    public Compressor compressor() {
+        return compressor;
+    }
+
+    /**
+     * Returns the minimum size of a serialized message to compress. A smaller message is sent uncompressed.
+     */
+    public int minMessageSize() {
+        return minMessageSize;
+    }
+
+    /**
+     * Returns whether the compressed frame of a response message is cached and reused when the same
+     * message instance is sent again.
+     */
+    public boolean cacheCompressedMessages() {
+        return cacheCompressedMessages;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GrpcCompressionPolicy)) {
+            return false;
+        }
+        final GrpcCompressionPolicy that = (GrpcCompressionPolicy) o;
+        return Objects.equals(compressor, that.compressor) &&
+               minMessageSize == that.minMessageSize &&
+               cacheCompressedMessages == that.cacheCompressedMessages;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(compressor, minMessageSize, cacheCompressedMessages);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues()
+                          .add("compressor", compressor != null ? compressor.getMessageEncoding() : null)
+                          .add("minMessageSize", minMessageSize)
+                          .add("cacheCompressedMessages", cacheCompressedMessages)
+                          .toString();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.grpc;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+import io.grpc.Compressor;
+
+/**
+ * A builder for creating a new {@link GrpcCompressionPolicy}.
+ */
+@UnstableApi
+public final class GrpcCompressionPolicyBuilder {
+
+    @Nullable
+    private Compressor compressor;
+    private int minMessageSize;
+    private boolean cacheCompressedMessages;
+
+    GrpcCompressionPolicyBuilder() {}
+
+    /**
+     * Sets the {@link Compressor} used to compress the messages of a method. If not set, the
+     * {@link Compressor} configured elsewhere, e.g. {@code GrpcClientBuilder.compressor(Compressor)}, is used.
+     * Note that a server sends compressed messages only when a client accepts the
+     * {@link Compressor#getMessageEncoding()} in its {@code "grpc-accept-encoding"} header.
+     */
+    public GrpcCompressionPolicyBuilder compressor(Compressor compressor) {
+        this.compressor = requireNonNull(compressor, "compressor");
+        return this;
+    }
+
+    /**
+     * Sets the minimum size of a serialized message to compress. A smaller message is sent uncompressed,
+     * because compressing a tiny message usually costs more CPU than the bytes it saves.
+     * {@code 0} is used by default, which means all messages are compressed.
+     */
+    public GrpcCompressionPolicyBuilder minMessageSize(int minMessageSize) {
+        checkArgument(minMessageSize >= 0, "minMessageSize: %s (expected: >= 0)", minMessageSize);
+        this.minMessageSize = minMessageSize;
+        return this;
+    }
+
+    /**
+     * Sets whether the frame of a response message is cached and reused when the same message instance is
+     * sent again, e.g. when a service broadcasts a message to many callers. A message is looked up by
+     * its identity rather than {@link Object#equals(Object)}, so a message must not be mutated once sent.
+     * The cached frames are held only as long as their messages are strongly reachable.
+     * This option is ignored by clients and for JSON serialization formats. {@code false} is used by default.
+     */
+    public GrpcCompressionPolicyBuilder cacheCompressedMessages(boolean cacheCompressedMessages) {
+        this.cacheCompressedMessages = cacheCompressedMessages;
+        return this;
+    }
+
+    /**
+     * Returns a newly-created {@link GrpcCompressionPolicy} based on the properties of this builder.
+     */
+    public GrpcCompressionPolicy build() {
+        return new GrpcCompressionPolicy(compressor, minMessageSize, cacheCompressedMessages);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.common.grpc;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.google.common.base.MoreObjects;
+
+import com.linecorp.armeria.common.annotation.UnstableApi;
+
+import io.grpc.Codec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
+
+/**
+ * A {@link Codec} which compresses and decompresses gRPC messages with
+ * <a href="https://facebook.github.io/zstd/">Zstandard</a>. Zstandard usually compresses as well as gzip
+ * while costing much less CPU. It is not registered to the default registries of gRPC, so
+ * register it to a {@link CompressorRegistry} and a {@link DecompressorRegistry} to use it:
+ * <pre>{@code
+ * CompressorRegistry compressorRegistry = CompressorRegistry.newEmptyInstance();
+ * compressorRegistry.register(ZstdCodec.of());
+ * DecompressorRegistry decompressorRegistry =
+ *         DecompressorRegistry.getDefaultInstance().with(ZstdCodec.of(), true);
+ *
+ * GrpcService.builder()
+ *            .compressorRegistry(compressorRegistry)
+ *            .decompressorRegistry(decompressorRegistry)
+ *            ...
+ * }</pre>
+ *
+ * <p>Note that this requires {@code com.github.luben:zstd-jni} to be in the classpath.
+ */
+@UnstableApi
+public final class ZstdCodec implements Codec {
+
+    /**
+     * The default compression level of Zstandard.
+     */
+    public static final int DEFAULT_LEVEL = 3;
+
+    private static final ZstdCodec DEFAULT = new ZstdCodec(DEFAULT_LEVEL);
+
+    /**
+     * Returns the {@link ZstdCodec} which compresses with {@value #DEFAULT_LEVEL} compression level.
+     */
+    public static ZstdCodec of() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a new {@link ZstdCodec} which compresses with the specified compression level.
+     *
+     * @param level the compression level, from {@code 1} (fastest) to {@code 22} (smallest).
+     */
+    public static ZstdCodec of(int level) {
+        checkArgument(level >= 1 && level <= 22, "level: %s (expected: 1 <= level <= 22)", level);
+        if (level == DEFAULT_LEVEL) {
+            return DEFAULT;
+        }
+        return new ZstdCodec(level);
+    }
+
+    private final int level;
+
+    private ZstdCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getMessageEncoding() {
+        return "zstd";
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+        return new ZstdOutputStream(os, level);
+    }
+
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+        return new ZstdInputStream(is);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("level", level)
+                          .toString();
+    }
+}
@@ -15,10 +15,13 @@
  */
 package com.linecorp.armeria.internal.client.grpc;
 
+import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.linecorp.armeria.internal.client.grpc.GrpcClientUtil.maxInboundMessageSizeBytes;
+import static java.util.Objects.requireNonNull;
 
 import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.linecorp.armeria.client.ClientBuilderParams;
 import com.linecorp.armeria.client.ClientOptions;
@@ -36,6 +39,7 @@ import com.linecorp.armeria.common.Scheme;
 import com.linecorp.armeria.common.SerializationFormat;
 import com.linecorp.armeria.common.SessionProtocol;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.grpc.GrpcCompressionPolicy;
 import com.linecorp.armeria.common.grpc.GrpcJsonMarshaller;
 import com.linecorp.armeria.common.logging.RequestLogProperty;
 import com.linecorp.armeria.common.util.SystemInfo;
@@ -68,6 +72,8 @@ final class ArmeriaChannel extends Channel implements ClientBuilderParams, Unwra
     private final GrpcJsonMarshaller jsonMarshaller;
     private final String advertisedEncodingsHeader;
     private final Map<MethodDescriptor<?, ?>, String> simpleMethodNames;
+    private final Map<MethodDescriptor<?, ?>, GrpcCompressionPolicy> compressionPolicies =
+            new ConcurrentHashMap<>();
 
     ArmeriaChannel(ClientBuilderParams params,
                    HttpClient httpClient,
@@ -105,7 +111,9 @@ final class ArmeriaChannel extends Channel implements ClientBuilderParams, Unwra
         final int maxOutboundMessageSizeBytes = options.get(GrpcClientOptions.MAX_OUTBOUND_MESSAGE_SIZE_BYTES);
         final int maxInboundMessageSizeBytes = maxInboundMessageSizeBytes(options);
         final boolean unsafeWrapResponseBuffers = options.get(GrpcClientOptions.UNSAFE_WRAP_RESPONSE_BUFFERS);
-        final Compressor compressor = options.get(GrpcClientOptions.COMPRESSOR);
+        final GrpcCompressionPolicy compressionPolicy = compressionPolicy(method, options);
+        final Compressor compressor = firstNonNull(compressionPolicy.compressor(),
+                                                   options.get(GrpcClientOptions.COMPRESSOR));
         final DecompressorRegistry decompressorRegistry = options.get(GrpcClientOptions.DECOMPRESSOR_REGISTRY);
 
         final HttpClient client;
@@ -137,6 +145,9 @@ final class ArmeriaChannel extends Channel implements ClientBuilderParams, Unwra
                 maxInboundMessageSizeBytes,
                 callOptions,
                 compressor,
+                compressionPolicy.minMessageSize(),
+                options.get(GrpcClientOptions.READINESS_LOW_WATERMARK_BYTES),
+                options.get(GrpcClientOptions.READINESS_HIGH_WATERMARK_BYTES),
                 CompressorRegistry.getDefaultInstance(),
                 decompressorRegistry,
                 serializationFormat,
@@ -145,6 +156,14 @@ final class ArmeriaChannel extends Channel implements ClientBuilderParams, Unwra
                 advertisedEncodingsHeader);
     }
 
+    private GrpcCompressionPolicy compressionPolicy(MethodDescriptor<?, ?> method, ClientOptions options) {
+        return compressionPolicies.computeIfAbsent(method, key -> {
+            final GrpcCompressionPolicy policy = options.get(GrpcClientOptions.COMPRESSION_POLICY_FACTORY)
+                                                        .apply(key);
+            return requireNonNull(policy, "compressionPolicyFactory.apply() returned null");
+        });
+    }
+
     @Override
     public String authority() {
         return params.uri().getAuthority();
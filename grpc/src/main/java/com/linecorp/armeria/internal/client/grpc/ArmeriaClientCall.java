@@ -28,7 +28,6 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.reactivestreams.Subscriber;
@@ -68,6 +67,7 @@ import com.linecorp.armeria.internal.common.grpc.GrpcMessageMarshaller;
 import com.linecorp.armeria.internal.common.grpc.GrpcStatus;
 import com.linecorp.armeria.internal.common.grpc.HttpStreamDeframer;
 import com.linecorp.armeria.internal.common.grpc.MetadataUtil;
+import com.linecorp.armeria.internal.common.grpc.PendingMessageTracker;
 import com.linecorp.armeria.internal.common.grpc.TimeoutHeaderUtil;
 import com.linecorp.armeria.internal.common.grpc.TransportStatusListener;
 import com.linecorp.armeria.unsafe.grpc.GrpcUnsafeBufferUtil;
@@ -97,10 +97,6 @@ final class ArmeriaClientCall<I, O> extends ClientCall<I, O>
 
     private static final Logger logger = LoggerFactory.getLogger(ArmeriaClientCall.class);
 
-    @SuppressWarnings("rawtypes")
-    private static final AtomicIntegerFieldUpdater<ArmeriaClientCall> pendingMessagesUpdater =
-            AtomicIntegerFieldUpdater.newUpdater(ArmeriaClientCall.class, "pendingMessages");
-
     @SuppressWarnings("rawtypes")
     private static final AtomicReferenceFieldUpdater<ArmeriaClientCall, Runnable>
             pendingTaskUpdater = AtomicReferenceFieldUpdater.newUpdater(
@@ -125,6 +121,7 @@ final class ArmeriaClientCall<I, O> extends ClientCall<I, O>
     private final int maxInboundMessageSizeBytes;
     private final boolean grpcWebText;
     private final Compressor compressor;
+    private final PendingMessageTracker pendingMessageTracker;
 
     private boolean endpointInitialized;
     @Nullable
@@ -141,7 +138,6 @@ final class ArmeriaClientCall<I, O> extends ClientCall<I, O>
     private boolean closed;
 
     private int pendingRequests;
-    private volatile int pendingMessages;
 
     ArmeriaClientCall(
             DefaultClientRequestContext ctx,
@@ -154,6 +150,9 @@ final class ArmeriaClientCall<I, O> extends ClientCall<I, O>
             int maxInboundMessageSizeBytes,
             CallOptions callOptions,
             Compressor compressor,
+            int minCompressionSize,
+            int readinessLowWatermark,
+            int readinessHighWatermark,
             CompressorRegistry compressorRegistry,
             DecompressorRegistry decompressorRegistry,
             SerializationFormat serializationFormat,
@@ -184,6 +183,8 @@ final class ArmeriaClientCall<I, O> extends ClientCall<I, O>
         }
 
         requestFramer = new ArmeriaMessageFramer(ctx.alloc(), maxOutboundMessageSizeBytes, grpcWebText);
+        requestFramer.setMinCompressionSize(minCompressionSize);
+        pendingMessageTracker = new PendingMessageTracker(readinessLowWatermark, readinessHighWatermark);
         marshaller = new GrpcMessageMarshaller<>(ctx.alloc(), serializationFormat, method, jsonMarshaller,
                                                  unsafeWrapResponseBuffers);
         executor = callOptions.getExecutor();
@@ -323,20 +324,20 @@ final class ArmeriaClientCall<I, O> extends ClientCall<I, O>
 
     @Override
     public void sendMessage(I message) {
-        pendingMessagesUpdater.incrementAndGet(this);
+        final int size = pendingMessageTracker.add(message);
         if (needsDirectInvocation()) {
-            doSendMessage(message);
+            doSendMessage(message, size);
         } else {
-            execute(() -> doSendMessage(message));
+            execute(() -> doSendMessage(message, size));
         }
     }
 
     @Override
     public boolean isReady() {
-        return pendingMessages == 0;
+        return pendingMessageTracker.isReady();
     }
 
-    private void doSendMessage(I message) {
+    private void doSendMessage(I message, int size) {
         final RequestLogAccess log = ctx.log();
         if (log.isComplete()) {
             // Completed already; no need to send anymore.
@@ -351,7 +352,7 @@ final class ArmeriaClientCall<I, O> extends ClientCall<I, O>
             final ByteBuf serialized = marshaller.serializeRequest(message);
             req.write(requestFramer.writePayload(serialized));
             req.whenConsumed().thenRun(() -> {
-                if (pendingMessagesUpdater.decrementAndGet(this) == 0) {
+                if (pendingMessageTracker.remove(size)) {
                     try (SafeCloseable ignored = ctx.push()) {
                         assert listener != null;
                         listener.onReady();
@@ -21,8 +21,13 @@ import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import com.google.common.io.ByteStreams;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -65,17 +70,17 @@ public final class GrpcMessageMarshaller<I, O> {
     private final Marshaller<O> responseMarshaller;
     private final MessageType requestType;
     private final MessageType responseType;
-    private final boolean unsafeWrapDeserializedBuffer;
+    private final boolean wrapDeserializedBuffer;
     private final boolean isProto;
 
     public GrpcMessageMarshaller(ByteBufAllocator alloc,
                                  SerializationFormat serializationFormat,
                                  MethodDescriptor<I, O> method,
                                  @Nullable GrpcJsonMarshaller jsonMarshaller,
-                                 boolean unsafeWrapDeserializedBuffer) {
+                                 boolean wrapDeserializedBuffer) {
         this.alloc = requireNonNull(alloc, "alloc");
         this.method = requireNonNull(method, "method");
-        this.unsafeWrapDeserializedBuffer = unsafeWrapDeserializedBuffer;
+        this.wrapDeserializedBuffer = wrapDeserializedBuffer;
         checkArgument(!GrpcSerializationFormats.isJson(serializationFormat) || jsonMarshaller != null,
                       "jsonMarshaller must be non-null when serializationFormat is JSON.");
         isProto = GrpcSerializationFormats.isProto(serializationFormat);
@@ -109,21 +114,26 @@ public final class GrpcMessageMarshaller<I, O> {
         InputStream messageStream = message.stream();
         final ByteBuf buf = message.buf();
         if (buf != null) {
+            final boolean wrap = wrapDeserializedBuffer && !grpcWebText;
+            boolean success = false;
             try {
                 switch (requestType) {
                     case PROTOBUF:
                         final PrototypeMarshaller<I> marshaller = (PrototypeMarshaller<I>) requestMarshaller;
                         // PrototypeMarshaller<I>.getMessagePrototype will always parse to I
                         @SuppressWarnings("unchecked")
-                        final I msg = (I) deserializeProto(marshaller, buf);
+                        final I msg = (I) deserializeProto(marshaller, buf, wrap);
+                        success = true;
                         return msg;
                     default:
                         // Fallback to using the method's stream marshaller.
                         messageStream = new ByteBufInputStream(buf.retain(), true);
+                        success = true;
                         break;
                 }
             } finally {
-                if (!unsafeWrapDeserializedBuffer || grpcWebText) {
+                // Do not release the wrapped buffer which is referenced by the deserialized message.
+                if (!wrap || !success) {
                     buf.release();
                 }
             }
@@ -161,6 +171,8 @@ public final class GrpcMessageMarshaller<I, O> {
         InputStream messageStream = message.stream();
         final ByteBuf buf = message.buf();
         if (buf != null) {
+            final boolean wrap = wrapDeserializedBuffer && !grpcWebText;
+            boolean success = false;
             try {
                 switch (responseType) {
                     case PROTOBUF:
@@ -168,15 +180,18 @@ public final class GrpcMessageMarshaller<I, O> {
                                 (PrototypeMarshaller<O>) method.getResponseMarshaller();
                         // PrototypeMarshaller<I>.getMessagePrototype will always parse to I
                         @SuppressWarnings("unchecked")
-                        final O msg = (O) deserializeProto(marshaller, buf);
+                        final O msg = (O) deserializeProto(marshaller, buf, wrap);
+                        success = true;
                         return msg;
                     default:
                         // Fallback to using the method's stream marshaller.
                         messageStream = new ByteBufInputStream(buf.retain(), true);
+                        success = true;
                         break;
                 }
             } finally {
-                if (!unsafeWrapDeserializedBuffer || grpcWebText) {
+                // Do not release the wrapped buffer which is referenced by the deserialized message.
+                if (!wrap || !success) {
                     buf.release();
                 }
             }
@@ -226,18 +241,23 @@ public final class GrpcMessageMarshaller<I, O> {
         }
     }
 
-    private <T> Message deserializeProto(PrototypeMarshaller<T> marshaller, ByteBuf buf) throws IOException {
+    private <T> Message deserializeProto(PrototypeMarshaller<T> marshaller, ByteBuf buf,
+                                         boolean wrap) throws IOException {
         final Message prototype = (Message) marshaller.getMessagePrototype();
         if (isProto) {
             if (!buf.isReadable()) {
                 return prototype.getDefaultInstanceForType();
             }
             final CodedInputStream stream;
-            if (unsafeWrapDeserializedBuffer) {
-                stream = UnsafeByteOperations.unsafeWrap(buf.nioBuffer()).newCodedInput();
+            if (wrap) {
+                stream = toByteString(buf).newCodedInput();
                 stream.enableAliasing(true);
-            } else {
+            } else if (buf.nioBufferCount() == 1) {
                 stream = CodedInputStream.newInstance(buf.nioBuffer());
+            } else {
+                // Read the components of a composite buffer in place rather than merging them
+                // into a new buffer, which is what ByteBuf.nioBuffer() does.
+                stream = CodedInputStream.newInstance(Arrays.asList(buf.nioBuffers()));
             }
             try {
                 final Message msg = prototype.getParserForType().parseFrom(stream);
@@ -259,6 +279,22 @@ public final class GrpcMessageMarshaller<I, O> {
         }
     }
 
+    /**
+     * Wraps the specified {@link ByteBuf} into a {@link ByteString} without copying.
+     * The components of a composite buffer are concatenated into a rope rather than being merged.
+     */
+    private static ByteString toByteString(ByteBuf buf) {
+        if (buf.nioBufferCount() == 1) {
+            return UnsafeByteOperations.unsafeWrap(buf.nioBuffer());
+        }
+        final ByteBuffer[] nioBuffers = buf.nioBuffers();
+        final List<ByteString> components = new ArrayList<>(nioBuffers.length);
+        for (ByteBuffer nioBuffer : nioBuffers) {
+            components.add(UnsafeByteOperations.unsafeWrap(nioBuffer));
+        }
+        return ByteString.copyFrom(components);
+    }
+
     private static MessageType marshallerType(Marshaller<?> marshaller) {
         return marshaller instanceof PrototypeMarshaller ? MessageType.PROTOBUF : MessageType.UNKNOWN;
     }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.grpc;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import com.google.common.base.MoreObjects;
+import com.google.protobuf.MessageLite;
+
+/**
+ * Tracks the messages which were sent by a gRPC call but have not been written to the transport yet,
+ * and tells whether the call is ready to send more messages.
+ *
+ * <p>A call is ready while the estimated size of its pending messages is less than the high watermark.
+ * Once a call is not ready, {@code onReady()} is invoked when the size drops to the low watermark,
+ * so that a sender resumes with a batch of messages rather than message by message. A call is always
+ * ready when no message is pending. Therefore, a call with the high watermark of {@code 0}, which is
+ * the default, sends messages one at a time.
+ *
+ * <p>Note that a message is written to the transport only after the previous message is written out to
+ * the connection within the HTTP/2 flow-control window of the stream, so the pending messages reflect
+ * how fast a peer actually reads them.
+ */
+public final class PendingMessageTracker {
+
+    /**
+     * The length of the header of a gRPC message frame.
+     */
+    private static final int HEADER_LENGTH = 5;
+
+    private static final AtomicIntegerFieldUpdater<PendingMessageTracker> pendingMessagesUpdater =
+            AtomicIntegerFieldUpdater.newUpdater(PendingMessageTracker.class, "pendingMessages");
+
+    private static final AtomicLongFieldUpdater<PendingMessageTracker> pendingBytesUpdater =
+            AtomicLongFieldUpdater.newUpdater(PendingMessageTracker.class, "pendingBytes");
+
+    private final int lowWatermark;
+    private final int highWatermark;
+
+    private volatile int pendingMessages;
+    private volatile long pendingBytes;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param lowWatermark the size of the pending messages, in bytes, at or below which
+     *                     {@code onReady()} is invoked. Capped at {@code highWatermark}.
+     * @param highWatermark the size of the pending messages, in bytes, at or above which
+     *                      a call is not ready.
+     */
+    public PendingMessageTracker(int lowWatermark, int highWatermark) {
+        checkArgument(lowWatermark >= 0, "lowWatermark: %s (expected: >= 0)", lowWatermark);
+        checkArgument(highWatermark >= 0, "highWatermark: %s (expected: >= 0)", highWatermark);
+        this.lowWatermark = Math.min(lowWatermark, highWatermark);
+        this.highWatermark = highWatermark;
+    }
+
+    /**
+     * Adds the specified message which is about to be sent.
+     *
+     * @return the estimated size of the message, which must be specified to {@link #remove(int)}
+     *         when the message is written to the transport.
+     */
+    public int add(Object message) {
+        final int size;
+        if (message instanceof MessageLite) {
+            // The serialized size is memoized by a message, so it is not computed again when serializing.
+            size = HEADER_LENGTH + ((MessageLite) message).getSerializedSize();
+        } else {
+            // The size is unknown; let the message fill the buffer so that it is sent alone.
+            size = Math.max(highWatermark, HEADER_LENGTH);
+        }
+        pendingMessagesUpdater.incrementAndGet(this);
+        pendingBytesUpdater.addAndGet(this, size);
+        return size;
+    }
+
+    /**
+     * Removes a message which has been written to the transport.
+     *
+     * @param size the size returned by {@link #add(Object)}
+     * @return {@code true} if a call became ready by this removal and thus {@code onReady()} needs to be
+     *         invoked.
+     */
+    public boolean remove(int size) {
+        final int messages = pendingMessagesUpdater.decrementAndGet(this);
+        final long bytes = pendingBytesUpdater.addAndGet(this, -size);
+        if (messages == 0) {
+            return true;
+        }
+        return bytes <= lowWatermark && bytes + size > lowWatermark;
+    }
+
+    /**
+     * Returns whether a call is ready to send more messages.
+     */
+    public boolean isReady() {
+        return pendingMessages == 0 || pendingBytes < highWatermark;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("lowWatermark", lowWatermark)
+                          .add("highWatermark", highWatermark)
+                          .add("pendingMessages", pendingMessages)
+                          .add("pendingBytes", pendingBytes)
+                          .toString();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.armeria.server.grpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.linecorp.armeria.common.RequestContext;
+import com.linecorp.armeria.common.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Holds the {@link ByteBuf}s which are aliased by the deserialized request messages of a call, and releases them
+ * when the {@link com.linecorp.armeria.common.logging.RequestLog} of the call is complete.
+ */
+final class AliasedBuffers {
+
+    @Nullable
+    private List<ByteBuf> buffers;
+    private boolean released;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param executor the {@link Executor} which delivers the deserialized messages to the application,
+     *                 if they are not delivered synchronously. The buffers are released via this
+     *                 {@link Executor} so that the messages queued in it are not affected.
+     */
+    AliasedBuffers(RequestContext ctx, @Nullable Executor executor) {
+        if (executor != null) {
+            ctx.log().whenComplete().thenRunAsync(this::release, executor);
+        } else {
+            ctx.log().whenComplete().thenRun(this::release);
+        }
+    }
+
+    /**
+     * Adds the specified {@link ByteBuf} which is released when the call is complete. The {@link ByteBuf}
+     * is released immediately if the call has been completed already.
+     */
+    void add(ByteBuf buf) {
+        synchronized (this) {
+            if (!released) {
+                if (buffers == null) {
+                    buffers = new ArrayList<>(4);
+                }
+                buffers.add(buf);
+                return;
+            }
+        }
+        buf.release();
+    }
+
+    private void release() {
+        final List<ByteBuf> buffers;
+        synchronized (this) {
+            released = true;
+            buffers = this.buffers;
+            this.buffers = null;
+        }
+        if (buffers != null) {
+            for (ByteBuf buf : buffers) {
+                buf.release();
+            }
+        }
+    }
+}
@@ -22,10 +22,10 @@ import static com.linecorp.armeria.internal.common.grpc.protocol.Base64DecoderUt
 import static com.linecorp.armeria.internal.common.grpc.protocol.GrpcTrailersUtil.serializeTrailersAsMessage;
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
 import java.util.Base64;
 import java.util.List;
 import java.util.concurrent.Executor;
-import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
@@ -37,6 +37,7 @@ import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.util.concurrent.MoreExecutors;
 
+import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpHeaders;
 import com.linecorp.armeria.common.HttpHeadersBuilder;
 import com.linecorp.armeria.common.HttpRequest;
@@ -45,6 +46,7 @@ import com.linecorp.armeria.common.RequestHeaders;
 import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.SerializationFormat;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.grpc.GrpcCompressionPolicy;
 import com.linecorp.armeria.common.grpc.GrpcJsonMarshaller;
 import com.linecorp.armeria.common.grpc.GrpcSerializationFormats;
 import com.linecorp.armeria.common.grpc.GrpcStatusFunction;
@@ -67,6 +69,7 @@ import com.linecorp.armeria.internal.common.grpc.GrpcMessageMarshaller;
 import com.linecorp.armeria.internal.common.grpc.GrpcStatus;
 import com.linecorp.armeria.internal.common.grpc.HttpStreamDeframer;
 import com.linecorp.armeria.internal.common.grpc.MetadataUtil;
+import com.linecorp.armeria.internal.common.grpc.PendingMessageTracker;
 import com.linecorp.armeria.internal.common.grpc.TransportStatusListener;
 import com.linecorp.armeria.internal.common.grpc.protocol.GrpcTrailersUtil;
 import com.linecorp.armeria.server.RequestTimeoutException;
@@ -88,6 +91,8 @@ import io.grpc.Status.Code;
 import io.grpc.StatusException;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.EventLoop;
 
 /**
@@ -99,10 +104,6 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
 
     private static final Logger logger = LoggerFactory.getLogger(ArmeriaServerCall.class);
 
-    @SuppressWarnings("rawtypes")
-    private static final AtomicIntegerFieldUpdater<ArmeriaServerCall> pendingMessagesUpdater =
-            AtomicIntegerFieldUpdater.newUpdater(ArmeriaServerCall.class, "pendingMessages");
-
     private static final Splitter ACCEPT_ENCODING_SPLITTER = Splitter.on(',').trimResults();
 
     private final MethodDescriptor<I, O> method;
@@ -117,7 +118,12 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
     private final SerializationFormat serializationFormat;
     private final GrpcMessageMarshaller<I, O> marshaller;
     private final boolean unsafeWrapRequestBuffers;
+    @Nullable
+    private final AliasedBuffers aliasedRequestBuffers;
+    @Nullable
+    private final CompressedMessageCache compressedMessageCache;
     private final ResponseHeaders defaultHeaders;
+    private final PendingMessageTracker pendingMessageTracker;
 
     @Nullable
     private final Executor blockingExecutor;
@@ -151,7 +157,6 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
     private boolean closeCalled;
 
     private int pendingRequests;
-    private volatile int pendingMessages;
 
     ArmeriaServerCall(HttpRequest req,
                       MethodDescriptor<I, O> method,
@@ -165,7 +170,12 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
                       SerializationFormat serializationFormat,
                       @Nullable GrpcJsonMarshaller jsonMarshaller,
                       boolean unsafeWrapRequestBuffers,
+                      boolean aliasRequestBuffers,
                       boolean useBlockingTaskExecutor,
+                      GrpcCompressionPolicy compressionPolicy,
+                      @Nullable CompressedMessageCache compressedMessageCache,
+                      int readinessLowWatermark,
+                      int readinessHighWatermark,
                       ResponseHeaders defaultHeaders,
                       @Nullable GrpcStatusFunction statusFunction) {
         requireNonNull(req, "req");
@@ -187,16 +197,25 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
         deframedRequest = req.decode(requestDeframer, alloc, byteBufConverter(alloc, grpcWebText));
         requestDeframer.setDeframedStreamMessage(deframedRequest);
         responseFramer = new ArmeriaMessageFramer(alloc, maxResponseMessageLength, grpcWebText);
+        responseFramer.setMinCompressionSize(compressionPolicy.minMessageSize());
+        // Overridden if a user calls setCompression() using a server interceptor.
+        compressor = compressionPolicy.compressor();
+        // The cache of a method is shared by all serialization formats, so only protobuf frames are cached.
+        this.compressedMessageCache = GrpcSerializationFormats.isProto(serializationFormat) ?
+                                      compressedMessageCache : null;
+        pendingMessageTracker = new PendingMessageTracker(readinessLowWatermark, readinessHighWatermark);
 
         this.res = requireNonNull(res, "res");
         this.compressorRegistry = requireNonNull(compressorRegistry, "compressorRegistry");
         clientAcceptEncoding =
                 Strings.emptyToNull(clientHeaders.get(GrpcHeaderNames.GRPC_ACCEPT_ENCODING));
         marshaller = new GrpcMessageMarshaller<>(alloc, serializationFormat, method, jsonMarshaller,
-                                                 unsafeWrapRequestBuffers);
+                                                 unsafeWrapRequestBuffers || aliasRequestBuffers);
         this.unsafeWrapRequestBuffers = unsafeWrapRequestBuffers;
         blockingExecutor = useBlockingTaskExecutor ?
                            MoreExecutors.newSequentialExecutor(ctx.blockingTaskExecutor()) : null;
+        aliasedRequestBuffers = !unsafeWrapRequestBuffers && aliasRequestBuffers ?
+                                new AliasedBuffers(ctx, blockingExecutor) : null;
         this.statusFunction = statusFunction;
 
         res.whenComplete().handle((unused, t) -> {
@@ -283,15 +302,15 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
 
     @Override
     public void sendMessage(O message) {
-        pendingMessagesUpdater.incrementAndGet(this);
+        final int size = pendingMessageTracker.add(message);
         if (ctx.eventLoop().inEventLoop()) {
-            doSendMessage(message);
+            doSendMessage(message, size);
         } else {
-            ctx.eventLoop().execute(() -> doSendMessage(message));
+            ctx.eventLoop().execute(() -> doSendMessage(message, size));
         }
     }
 
-    private void doSendMessage(O message) {
+    private void doSendMessage(O message, int size) {
         if (cancelled) {
             // call was already closed by a client or a timeout scheduler
             return;
@@ -309,11 +328,17 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
         }
 
         try {
-            if (res.tryWrite(responseFramer.writePayload(marshaller.serializeResponse(message)))) {
+            final HttpData frame;
+            if (compressedMessageCache != null) {
+                frame = writeCachedFrame(compressedMessageCache, message);
+            } else {
+                frame = responseFramer.writePayload(marshaller.serializeResponse(message));
+            }
+            if (res.tryWrite(frame)) {
                 if (!method.getType().serverSendsOneMessage()) {
                     // Invoke onReady() only when server can send multiple messages.
                     res.whenConsumed().thenRun(() -> {
-                        if (!closeCalled && pendingMessagesUpdater.decrementAndGet(this) == 0) {
+                        if (!closeCalled && pendingMessageTracker.remove(size)) {
                             if (blockingExecutor != null) {
                                 blockingExecutor.execute(this::invokeOnReady);
                             } else {
@@ -330,6 +355,24 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
         }
     }
 
+    private HttpData writeCachedFrame(CompressedMessageCache cache, O message) throws IOException {
+        // The compressor has been set to Identity.NONE by doSendHeaders() if compression is disabled.
+        assert compressor != null;
+        final String messageEncoding = messageCompression ? compressor.getMessageEncoding()
+                                                          : Identity.NONE.getMessageEncoding();
+        byte[] frame = cache.get(message, messageEncoding);
+        if (frame == null) {
+            final ByteBuf buf = responseFramer.frameMessage(marshaller.serializeResponse(message));
+            try {
+                frame = ByteBufUtil.getBytes(buf);
+            } finally {
+                buf.release();
+            }
+            cache.put(message, messageEncoding, frame);
+        }
+        return responseFramer.writeFrame(Unpooled.wrappedBuffer(frame));
+    }
+
     private void invokeOnReady() {
         try {
             if (listener != null) {
@@ -342,7 +385,7 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
 
     @Override
     public boolean isReady() {
-        return !closeCalled && pendingMessages == 0;
+        return !closeCalled && pendingMessageTracker.isReady();
     }
 
     @Override
@@ -516,8 +559,12 @@ final class ArmeriaServerCall<I, O> extends ServerCall<I, O>
                                                 null);
             }
 
-            if (unsafeWrapRequestBuffers && buf != null && !grpcWebText) {
-                GrpcUnsafeBufferUtil.storeBuffer(buf, request, ctx);
+            if (buf != null && !grpcWebText) {
+                if (unsafeWrapRequestBuffers) {
+                    GrpcUnsafeBufferUtil.storeBuffer(buf, request, ctx);
+                } else if (aliasedRequestBuffers != null) {
+                    aliasedRequestBuffers.add(buf);
+                }
             }
 
             if (blockingExecutor != null) {
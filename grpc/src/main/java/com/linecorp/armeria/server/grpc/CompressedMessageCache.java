@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.grpc;
+
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.MapMaker;
+
+import com.linecorp.armeria.common.annotation.Nullable;
+
+/**
+ * A cache of the frames of response messages, which allows a service to skip serializing and compressing
+ * a message that is sent to many callers. A message is looked up by its identity and is held weakly,
+ * so a frame is evicted as soon as its message becomes unreachable.
+ */
+final class CompressedMessageCache {
+
+    private final ConcurrentMap<Object, CachedFrame> frames = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Returns the frame of the specified message compressed with the specified message encoding,
+     * or {@code null} if not cached.
+     */
+    @Nullable
+    byte[] get(Object message, String messageEncoding) {
+        final CachedFrame cached = frames.get(message);
+        if (cached == null || !cached.messageEncoding.equals(messageEncoding)) {
+            return null;
+        }
+        return cached.frame;
+    }
+
+    /**
+     * Caches the frame of the specified message compressed with the specified message encoding.
+     * A message is usually sent with a single message encoding, so only the last frame is kept.
+     */
+    void put(Object message, String messageEncoding, byte[] frame) {
+        frames.put(message, new CachedFrame(messageEncoding, frame));
+    }
+
+    private static final class CachedFrame {
+        final String messageEncoding;
+        final byte[] frame;
+
+        CachedFrame(String messageEncoding, byte[] frame) {
+            this.messageEncoding = messageEncoding;
+            this.frame = frame;
+        }
+    }
+}
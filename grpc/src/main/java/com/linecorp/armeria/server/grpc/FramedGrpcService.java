@@ -44,6 +44,7 @@ import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.ResponseHeadersBuilder;
 import com.linecorp.armeria.common.SerializationFormat;
 import com.linecorp.armeria.common.annotation.Nullable;
+import com.linecorp.armeria.common.grpc.GrpcCompressionPolicy;
 import com.linecorp.armeria.common.grpc.GrpcJsonMarshaller;
 import com.linecorp.armeria.common.grpc.GrpcSerializationFormats;
 import com.linecorp.armeria.common.grpc.GrpcStatusFunction;
@@ -119,8 +120,13 @@ final class FramedGrpcService extends AbstractHttpService implements GrpcService
     private final int maxResponseMessageLength;
     private final boolean useBlockingTaskExecutor;
     private final boolean unsafeWrapRequestBuffers;
+    private final boolean aliasRequestBuffers;
     private final boolean useClientTimeoutHeader;
+    private final int readinessLowWatermark;
+    private final int readinessHighWatermark;
     private final String advertisedEncodingsHeader;
+    private final Map<MethodDescriptor<?, ?>, GrpcCompressionPolicy> compressionPolicies;
+    private final Map<MethodDescriptor<?, ?>, CompressedMessageCache> compressedMessageCaches;
 
     private final Map<SerializationFormat, ResponseHeaders> defaultHeaders;
 
@@ -138,8 +144,13 @@ final class FramedGrpcService extends AbstractHttpService implements GrpcService
                       int maxRequestMessageLength, int maxResponseMessageLength,
                       boolean useBlockingTaskExecutor,
                       boolean unsafeWrapRequestBuffers,
+                      boolean aliasRequestBuffers,
                       boolean useClientTimeoutHeader,
-                      boolean lookupMethodFromAttribute) {
+                      boolean lookupMethodFromAttribute,
+                      Function<? super MethodDescriptor<?, ?>, ? extends GrpcCompressionPolicy>
+                              compressionPolicyFactory,
+                      int readinessLowWatermark,
+                      int readinessHighWatermark) {
         this.registry = requireNonNull(registry, "registry");
         this.routes = requireNonNull(routes, "routes");
         this.decompressorRegistry = requireNonNull(decompressorRegistry, "decompressorRegistry");
@@ -153,7 +164,28 @@ final class FramedGrpcService extends AbstractHttpService implements GrpcService
         this.maxResponseMessageLength = maxResponseMessageLength;
         this.useBlockingTaskExecutor = useBlockingTaskExecutor;
         this.unsafeWrapRequestBuffers = unsafeWrapRequestBuffers;
+        this.aliasRequestBuffers = aliasRequestBuffers;
         this.lookupMethodFromAttribute = lookupMethodFromAttribute;
+        this.readinessLowWatermark = readinessLowWatermark;
+        this.readinessHighWatermark = readinessHighWatermark;
+
+        final ImmutableMap.Builder<MethodDescriptor<?, ?>, GrpcCompressionPolicy> compressionPolicies =
+                ImmutableMap.builder();
+        final ImmutableMap.Builder<MethodDescriptor<?, ?>, CompressedMessageCache> compressedMessageCaches =
+                ImmutableMap.builder();
+        registry.methods().values().stream()
+                .map(ServerMethodDefinition::getMethodDescriptor)
+                .distinct()
+                .forEach(method -> {
+                    final GrpcCompressionPolicy policy = compressionPolicyFactory.apply(method);
+                    requireNonNull(policy, "compressionPolicyFactory.apply() returned null");
+                    compressionPolicies.put(method, policy);
+                    if (policy.cacheCompressedMessages()) {
+                        compressedMessageCaches.put(method, new CompressedMessageCache());
+                    }
+                });
+        this.compressionPolicies = compressionPolicies.build();
+        this.compressedMessageCaches = compressedMessageCaches.build();
 
         advertisedEncodingsHeader = String.join(",", decompressorRegistry.getAdvertisedMessageEncodings());
 
@@ -268,7 +300,12 @@ final class FramedGrpcService extends AbstractHttpService implements GrpcService
                 serializationFormat,
                 jsonMarshallers.get(methodDescriptor.getServiceName()),
                 unsafeWrapRequestBuffers,
+                aliasRequestBuffers,
                 useBlockingTaskExecutor,
+                compressionPolicies.getOrDefault(methodDescriptor, GrpcCompressionPolicy.of()),
+                compressedMessageCaches.get(methodDescriptor),
+                readinessLowWatermark,
+                readinessHighWatermark,
                 defaultHeaders.get(serializationFormat),
                 statusFunction);
         final ServerCall.Listener<I> listener;
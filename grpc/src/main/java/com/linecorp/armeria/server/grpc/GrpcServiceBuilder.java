@@ -48,12 +48,14 @@ import com.linecorp.armeria.common.RequestContext;
 import com.linecorp.armeria.common.SerializationFormat;
 import com.linecorp.armeria.common.annotation.Nullable;
 import com.linecorp.armeria.common.annotation.UnstableApi;
+import com.linecorp.armeria.common.grpc.GrpcCompressionPolicy;
 import com.linecorp.armeria.common.grpc.GrpcJsonMarshaller;
 import com.linecorp.armeria.common.grpc.GrpcJsonMarshallerBuilder;
 import com.linecorp.armeria.common.grpc.GrpcSerializationFormats;
 import com.linecorp.armeria.common.grpc.GrpcStatusFunction;
 import com.linecorp.armeria.common.grpc.protocol.ArmeriaMessageDeframer;
 import com.linecorp.armeria.common.grpc.protocol.ArmeriaMessageFramer;
+import com.linecorp.armeria.common.logging.RequestLog;
 import com.linecorp.armeria.server.HttpService;
 import com.linecorp.armeria.server.HttpServiceWithRoutes;
 import com.linecorp.armeria.server.Route;
@@ -146,8 +148,17 @@ public final class GrpcServiceBuilder {
 
     private boolean unsafeWrapRequestBuffers;
 
+    private boolean aliasRequestBuffers;
+
     private boolean useClientTimeoutHeader = true;
 
+    private Function<? super MethodDescriptor<?, ?>, ? extends GrpcCompressionPolicy> compressionPolicyFactory =
+            unused -> GrpcCompressionPolicy.of();
+
+    private int readinessLowWatermark;
+
+    private int readinessHighWatermark;
+
     GrpcServiceBuilder() {}
 
     /**
@@ -359,6 +370,47 @@ public final class GrpcServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link GrpcCompressionPolicy} applied to all methods of the services.
+     * {@link GrpcCompressionPolicy#of()} is used by default.
+     *
+     * @see #compressionPolicyFactory(Function)
+     */
+    @UnstableApi
+    public GrpcServiceBuilder compressionPolicy(GrpcCompressionPolicy compressionPolicy) {
+        requireNonNull(compressionPolicy, "compressionPolicy");
+        return compressionPolicyFactory(unused -> compressionPolicy);
+    }
+
+    /**
+     * Sets the factory that creates the {@link GrpcCompressionPolicy} of each method of the services.
+     * The factory is invoked once per method when the {@link GrpcService} is built. For example,
+     * a method which broadcasts large messages to many callers can compress and cache them while
+     * the other methods send their small messages uncompressed:
+     * <pre>{@code
+     * GrpcService.builder()
+     *            .addService(new MyNotificationService())
+     *            .compressionPolicyFactory(method -> {
+     *                if (method == NotificationServiceGrpc.getSubscribeMethod()) {
+     *                    return GrpcCompressionPolicy.builder()
+     *                                                .compressor(new Codec.Gzip())
+     *                                                .minMessageSize(1024)
+     *                                                .cacheCompressedMessages(true)
+     *                                                .build();
+     *                }
+     *                return GrpcCompressionPolicy.of();
+     *            })
+     *            .build();
+     * }</pre>
+     */
+    @UnstableApi
+    public GrpcServiceBuilder compressionPolicyFactory(
+            Function<? super MethodDescriptor<?, ?>, ? extends GrpcCompressionPolicy>
+                    compressionPolicyFactory) {
+        this.compressionPolicyFactory = requireNonNull(compressionPolicyFactory, "compressionPolicyFactory");
+        return this;
+    }
+
     /**
      * Sets the {@link SerializationFormat}s supported by this server. If not set, defaults to support
      * all {@link GrpcSerializationFormats#values()}.
@@ -544,6 +596,48 @@ public final class GrpcServiceBuilder {
         return this;
     }
 
+    /**
+     * Sets whether the {@link ByteString}s in a protobuf request message reference sections of the buffer
+     * received from the client instead of having their own copies. Can improve performance when working
+     * with very large (i.e., several megabytes) payloads. This option is disabled by default.
+     *
+     * <p>Unlike {@link #unsafeWrapRequestBuffers(boolean)}, the buffers are released automatically when
+     * the call is complete, i.e. when the {@link RequestLog} of the call is complete. Therefore, a request
+     * message must not be accessed after the call is complete. Copy the {@link ByteString}s of
+     * the message if they need to outlive the call.
+     *
+     * <p>Note that this has no effect if {@link #unsafeWrapRequestBuffers(boolean)} is enabled, the payloads
+     * are compressed or the {@link SerializationFormat} is {@link GrpcSerializationFormats#PROTO_WEB_TEXT}.
+     */
+    @UnstableApi
+    public GrpcServiceBuilder aliasRequestBuffers(boolean aliasRequestBuffers) {
+        this.aliasRequestBuffers = aliasRequestBuffers;
+        return this;
+    }
+
+    /**
+     * Sets the watermarks, in bytes, which determine whether a streaming call is ready to send more response
+     * messages, i.e. {@code ServerCallStreamObserver.isReady()}. A call is not ready while the response
+     * messages which have not been written to the connection yet are as large as {@code highWatermark},
+     * and {@code onReady()} is invoked again when they shrink to {@code lowWatermark}. A response message
+     * is written to the connection only as fast as the HTTP/2 flow-control window of the stream allows,
+     * so a service which honors {@code isReady()} does not buffer more than about {@code highWatermark}
+     * bytes for a slow client.
+     *
+     * <p>The watermarks are {@code 0} by default, which means a call is ready only when all previous
+     * response messages have been written. Set them, e.g. to {@code 32768} and {@code 65536}, to let
+     * a service send small messages in batches.
+     */
+    @UnstableApi
+    public GrpcServiceBuilder readinessWatermarks(int lowWatermark, int highWatermark) {
+        checkArgument(lowWatermark >= 0, "lowWatermark: %s (expected: >= 0)", lowWatermark);
+        checkArgument(highWatermark >= lowWatermark, "highWatermark: %s (expected: >= lowWatermark(%s))",
+                      highWatermark, lowWatermark);
+        readinessLowWatermark = lowWatermark;
+        readinessHighWatermark = highWatermark;
+        return this;
+    }
+
     /**
      * Sets the factory that creates a {@link GrpcJsonMarshaller} that serializes and deserializes request or
      * response messages to and from JSON depending on the {@link SerializationFormat}. The returned
@@ -778,8 +872,12 @@ public final class GrpcServiceBuilder {
                 maxRequestMessageLength, maxResponseMessageLength,
                 useBlockingTaskExecutor,
                 unsafeWrapRequestBuffers,
+                aliasRequestBuffers,
                 useClientTimeoutHeader,
-                enableUnframedRequests || enableHttpJsonTranscoding);
+                enableUnframedRequests || enableHttpJsonTranscoding,
+                compressionPolicyFactory,
+                readinessLowWatermark,
+                readinessHighWatermark);
         if (enableUnframedRequests) {
             grpcService = new UnframedGrpcService(
                     grpcService, handlerRegistry,
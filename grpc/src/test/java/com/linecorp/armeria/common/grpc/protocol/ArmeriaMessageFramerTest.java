@@ -48,6 +48,7 @@ import com.linecorp.armeria.internal.common.grpc.protocol.StatusCodes;
 import io.grpc.Codec.Gzip;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.UnpooledByteBufAllocator;
 
 class ArmeriaMessageFramerTest {
@@ -113,6 +114,43 @@ class ArmeriaMessageFramerTest {
         }
     }
 
+    @Test
+    void smallerThanMinCompressionSizeNotCompressed() {
+        framer.setCompressor(ForwardingCompressor.forGrpc(new Gzip()));
+        framer.setMessageCompression(true);
+        final int messageLength = GrpcTestUtil.requestByteBuf().readableBytes();
+
+        framer.setMinCompressionSize(messageLength + 1);
+        try (HttpData framed = framer.writePayload(GrpcTestUtil.requestByteBuf())) {
+            assertThat(framed.array()).isEqualTo(GrpcTestUtil.uncompressedFrame(GrpcTestUtil.requestByteBuf()));
+        }
+
+        framer.setMinCompressionSize(messageLength);
+        try (HttpData framed = framer.writePayload(GrpcTestUtil.requestByteBuf())) {
+            assertThat(framed.array()).isEqualTo(GrpcTestUtil.compressedFrame(GrpcTestUtil.requestByteBuf()));
+        }
+    }
+
+    @Test
+    void encodeBase64_writeFrame() {
+        framer.setCompressor(ForwardingCompressor.forGrpc(new Gzip()));
+        framer.setMessageCompression(true);
+        final ByteBuf buf = GrpcTestUtil.requestByteBuf();
+        final ByteBuf frame = framer.frameMessage(buf);
+        assertThat(buf.refCnt()).isEqualTo(0);
+        assertThat(ByteBufUtil.getBytes(frame))
+                .isEqualTo(GrpcTestUtil.compressedFrame(GrpcTestUtil.requestByteBuf()));
+
+        // A frame can be written out more than once.
+        for (int i = 0; i < 2; i++) {
+            try (HttpData framed = framer.writeFrame(frame.retainedDuplicate())) {
+                assertThat(Base64.getDecoder().decode(framed.array()))
+                        .isEqualTo(GrpcTestUtil.compressedFrame(GrpcTestUtil.requestByteBuf()));
+            }
+        }
+        assertThat(frame.release()).isTrue();
+    }
+
     @Test
     void writeUncompressedTrailers() {
         final ByteBuf serialized = serializedTrailers();
@@ -17,6 +17,7 @@
 package com.linecorp.armeria.internal.common.grpc;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.ByteArrayInputStream;
 import java.util.stream.Stream;
@@ -33,9 +34,11 @@ import com.linecorp.armeria.grpc.testing.Messages.SimpleRequest;
 import com.linecorp.armeria.grpc.testing.Messages.SimpleResponse;
 import com.linecorp.armeria.grpc.testing.TestServiceGrpc;
 
+import io.grpc.StatusRuntimeException;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
 
 class GrpcMessageMarshallerTest {
 
@@ -105,6 +108,45 @@ class GrpcMessageMarshallerTest {
         buf.release();
     }
 
+    @ParameterizedTest
+    @MethodSource("jsonMarshallerArgs")
+    void deserializeRequest_compositeByteBuf(GrpcJsonMarshaller grpcJsonMarshaller) throws Exception {
+        for (boolean wrap : new boolean[] { false, true }) {
+            final GrpcMessageMarshaller<SimpleRequest, SimpleResponse> marshaller =
+                    new GrpcMessageMarshaller<>(ByteBufAllocator.DEFAULT,
+                                                GrpcSerializationFormats.PROTO,
+                                                TestServiceGrpc.getUnaryCallMethod(),
+                                                grpcJsonMarshaller,
+                                                wrap);
+            final ByteBuf buf = splitIntoComposite(GrpcTestUtil.REQUEST_MESSAGE.toByteArray());
+            final SimpleRequest request = marshaller.deserializeRequest(new DeframedMessage(buf, 0), false);
+            assertThat(request).isEqualTo(GrpcTestUtil.REQUEST_MESSAGE);
+            if (wrap) {
+                assertThat(buf.refCnt()).isEqualTo(1);
+                buf.release();
+            } else {
+                assertThat(buf.refCnt()).isEqualTo(0);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("jsonMarshallerArgs")
+    void deserializeRequest_releaseWrappedByteBufOnFailure(GrpcJsonMarshaller grpcJsonMarshaller) {
+        final GrpcMessageMarshaller<SimpleRequest, SimpleResponse> marshaller =
+                new GrpcMessageMarshaller<>(ByteBufAllocator.DEFAULT,
+                                            GrpcSerializationFormats.PROTO,
+                                            TestServiceGrpc.getUnaryCallMethod(),
+                                            grpcJsonMarshaller,
+                                            true);
+        final ByteBuf buf = ByteBufAllocator.DEFAULT.buffer(2);
+        // A truncated length-delimited field.
+        buf.writeByte(0x12).writeByte(0x10);
+        assertThatThrownBy(() -> marshaller.deserializeRequest(new DeframedMessage(buf, 0), false))
+                .isInstanceOf(StatusRuntimeException.class);
+        assertThat(buf.refCnt()).isEqualTo(0);
+    }
+
     @ParameterizedTest
     @MethodSource("messageMarshallerArgs")
     void deserializeRequest_stream(GrpcMessageMarshaller<SimpleRequest, SimpleResponse> marshaller)
@@ -163,4 +205,14 @@ class GrpcMessageMarshallerTest {
                 false);
         assertThat(response).isEqualTo(GrpcTestUtil.RESPONSE_MESSAGE);
     }
+
+    private static ByteBuf splitIntoComposite(byte[] bytes) {
+        final CompositeByteBuf composite = ByteBufAllocator.DEFAULT.compositeDirectBuffer();
+        final int half = bytes.length / 2;
+        composite.addComponent(true, ByteBufAllocator.DEFAULT.directBuffer().writeBytes(bytes, 0, half));
+        composite.addComponent(true, ByteBufAllocator.DEFAULT.directBuffer()
+                                                             .writeBytes(bytes, half, bytes.length - half));
+        assertThat(composite.nioBufferCount()).isEqualTo(2);
+        return composite;
+    }
 }
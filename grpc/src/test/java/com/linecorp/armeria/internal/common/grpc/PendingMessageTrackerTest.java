@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.internal.common.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+import com.google.protobuf.ByteString;
+
+import com.linecorp.armeria.grpc.testing.Messages.Payload;
+import com.linecorp.armeria.grpc.testing.Messages.SimpleRequest;
+
+class PendingMessageTrackerTest {
+
+    private static final SimpleRequest MESSAGE =
+            SimpleRequest.newBuilder()
+                         .setPayload(Payload.newBuilder()
+                                            .setBody(ByteString.copyFromUtf8(Strings.repeat("a", 95))))
+                         .build();
+
+    @Test
+    void oneMessageAtATimeByDefault() {
+        final PendingMessageTracker tracker = new PendingMessageTracker(0, 0);
+        assertThat(tracker.isReady()).isTrue();
+        final int size = tracker.add(MESSAGE);
+        assertThat(size).isEqualTo(5 + MESSAGE.getSerializedSize());
+        assertThat(tracker.isReady()).isFalse();
+        assertThat(tracker.remove(size)).isTrue();
+        assertThat(tracker.isReady()).isTrue();
+    }
+
+    @Test
+    void watermarks() {
+        final int size = 5 + MESSAGE.getSerializedSize();
+        final PendingMessageTracker tracker = new PendingMessageTracker(size, size * 3);
+        tracker.add(MESSAGE);
+        tracker.add(MESSAGE);
+        assertThat(tracker.isReady()).isTrue();
+        tracker.add(MESSAGE);
+        assertThat(tracker.isReady()).isFalse();
+
+        // Not notified until the pending messages shrink to the low watermark.
+        assertThat(tracker.remove(size)).isFalse();
+        assertThat(tracker.isReady()).isTrue();
+        assertThat(tracker.remove(size)).isTrue();
+        // Always notified when no message is pending.
+        assertThat(tracker.remove(size)).isTrue();
+    }
+
+    @Test
+    void messageOfUnknownSizeIsSentAlone() {
+        final PendingMessageTracker tracker = new PendingMessageTracker(1024, 4096);
+        final int size = tracker.add("not a protobuf message");
+        assertThat(size).isEqualTo(4096);
+        assertThat(tracker.isReady()).isFalse();
+        assertThat(tracker.remove(size)).isTrue();
+        assertThat(tracker.isReady()).isTrue();
+    }
+}
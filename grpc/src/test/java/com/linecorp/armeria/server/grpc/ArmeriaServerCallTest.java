@@ -54,6 +54,7 @@ import com.linecorp.armeria.common.HttpResponse;
 import com.linecorp.armeria.common.HttpResponseWriter;
 import com.linecorp.armeria.common.HttpStatus;
 import com.linecorp.armeria.common.ResponseHeaders;
+import com.linecorp.armeria.common.grpc.GrpcCompressionPolicy;
 import com.linecorp.armeria.common.grpc.GrpcSerializationFormats;
 import com.linecorp.armeria.common.grpc.protocol.DeframedMessage;
 import com.linecorp.armeria.common.util.EventLoopGroups;
@@ -295,6 +296,11 @@ class ArmeriaServerCallTest {
                         new DefaultJsonMarshaller(MessageMarshaller.builder().build()),
                         false,
                         false,
+                        false,
+                        GrpcCompressionPolicy.of(),
+                        null,
+                        0,
+                        0,
                         ResponseHeaders.builder(HttpStatus.OK)
                                        .contentType(GrpcSerializationFormats.PROTO.mediaType())
                                        .build(),
@@ -363,6 +369,11 @@ class ArmeriaServerCallTest {
                 new DefaultJsonMarshaller(MessageMarshaller.builder().build()),
                 unsafeWrapRequestBuffers,
                 false,
+                false,
+                GrpcCompressionPolicy.of(),
+                null,
+                0,
+                0,
                 ResponseHeaders.builder(HttpStatus.OK)
                                .contentType(GrpcSerializationFormats.PROTO.mediaType())
                                .build(),
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.base.Strings;
+import com.google.protobuf.ByteString;
+
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.client.grpc.GrpcClients;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.common.grpc.GrpcCompressionPolicy;
+import com.linecorp.armeria.common.grpc.ZstdCodec;
+import com.linecorp.armeria.common.grpc.protocol.GrpcHeaderNames;
+import com.linecorp.armeria.grpc.testing.Messages.Payload;
+import com.linecorp.armeria.grpc.testing.Messages.SimpleRequest;
+import com.linecorp.armeria.grpc.testing.Messages.SimpleResponse;
+import com.linecorp.armeria.grpc.testing.TestServiceGrpc;
+import com.linecorp.armeria.grpc.testing.TestServiceGrpc.TestServiceBlockingStub;
+import com.linecorp.armeria.grpc.testing.TestServiceGrpc.TestServiceImplBase;
+import com.linecorp.armeria.internal.common.grpc.GrpcTestUtil;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.testing.junit5.server.ServerExtension;
+
+import io.grpc.Codec.Gzip;
+import io.grpc.DecompressorRegistry;
+import io.grpc.stub.StreamObserver;
+
+class GrpcServiceCompressionPolicyTest {
+
+    private static final SimpleResponse SMALL_RESPONSE =
+            SimpleResponse.newBuilder()
+                          .setPayload(Payload.newBuilder().setBody(ByteString.copyFromUtf8("small")))
+                          .build();
+
+    private static final SimpleResponse LARGE_RESPONSE =
+            SimpleResponse.newBuilder()
+                          .setPayload(Payload.newBuilder()
+                                             .setBody(ByteString.copyFromUtf8(Strings.repeat("a", 4096))))
+                          .build();
+
+    @RegisterExtension
+    static final ServerExtension server = new ServerExtension() {
+        @Override
+        protected void configure(ServerBuilder sb) throws Exception {
+            sb.service(GrpcService.builder()
+                                  .addService(new TestServiceImplBase() {
+                                      @Override
+                                      public void unaryCall(SimpleRequest request,
+                                                            StreamObserver<SimpleResponse> responseObserver) {
+                                          final boolean large = request.getResponseSize() > 0;
+                                          responseObserver.onNext(large ? LARGE_RESPONSE : SMALL_RESPONSE);
+                                          responseObserver.onCompleted();
+                                      }
+                                  })
+                                  .decompressorRegistry(DecompressorRegistry.getDefaultInstance()
+                                                                            .with(ZstdCodec.of(), true))
+                                  .compressionPolicyFactory(method -> {
+                                      if (method == TestServiceGrpc.getUnaryCallMethod()) {
+                                          return GrpcCompressionPolicy.builder()
+                                                                      .compressor(new Gzip())
+                                                                      .minMessageSize(128)
+                                                                      .cacheCompressedMessages(true)
+                                                                      .build();
+                                      }
+                                      return GrpcCompressionPolicy.of();
+                                  })
+                                  .build());
+        }
+    };
+
+    @Test
+    void compressOnlyLargeMessages() {
+        final AggregatedHttpResponse small = unaryCall(SimpleRequest.getDefaultInstance());
+        assertThat(small.headers().get(GrpcHeaderNames.GRPC_ENCODING)).isEqualTo("gzip");
+        // Sent uncompressed because the message is smaller than minMessageSize.
+        assertThat(small.content().array()[0]).isEqualTo((byte) 0);
+
+        final AggregatedHttpResponse large = unaryCall(SimpleRequest.newBuilder().setResponseSize(1).build());
+        assertThat(large.headers().get(GrpcHeaderNames.GRPC_ENCODING)).isEqualTo("gzip");
+        final byte[] expected = GrpcTestUtil.compressedFrame(GrpcTestUtil.protoByteBuf(LARGE_RESPONSE));
+        assertThat(large.content().array()).startsWith(expected);
+
+        // The cached frame is sent to the next caller.
+        final AggregatedHttpResponse cached = unaryCall(SimpleRequest.newBuilder().setResponseSize(1).build());
+        assertThat(cached.content().array()).startsWith(expected);
+    }
+
+    @Test
+    void notCompressedIfNotAccepted() {
+        final AggregatedHttpResponse res = WebClient.of(server.httpUri()).execute(
+                RequestHeaders.of(HttpMethod.POST, TestServiceGrpc.getUnaryCallMethod().getFullMethodName(),
+                                  HttpHeaderNames.CONTENT_TYPE, "application/grpc-web"),
+                GrpcTestUtil.uncompressedFrame(
+                        GrpcTestUtil.protoByteBuf(SimpleRequest.newBuilder().setResponseSize(1).build())))
+                                                      .aggregate().join();
+        assertThat(res.headers().get(GrpcHeaderNames.GRPC_ENCODING)).isEqualTo("identity");
+        assertThat(res.content().array())
+                .startsWith(GrpcTestUtil.uncompressedFrame(GrpcTestUtil.protoByteBuf(LARGE_RESPONSE)));
+    }
+
+    @Test
+    void clientCompressionPolicy() {
+        final TestServiceBlockingStub client =
+                GrpcClients.builder(server.httpUri())
+                           .compressionPolicy(GrpcCompressionPolicy.builder()
+                                                                   .compressor(ZstdCodec.of())
+                                                                   .minMessageSize(16)
+                                                                   .build())
+                           .build(TestServiceBlockingStub.class);
+        final SimpleRequest request =
+                SimpleRequest.newBuilder()
+                             .setResponseSize(1)
+                             .setPayload(Payload.newBuilder()
+                                                .setBody(ByteString.copyFromUtf8(Strings.repeat("b", 1024))))
+                             .build();
+        assertThat(client.unaryCall(request)).isEqualTo(LARGE_RESPONSE);
+        assertThat(client.unaryCall(SimpleRequest.getDefaultInstance())).isEqualTo(SMALL_RESPONSE);
+    }
+
+    private static AggregatedHttpResponse unaryCall(SimpleRequest request) {
+        return WebClient.of(server.httpUri()).execute(
+                RequestHeaders.of(HttpMethod.POST, TestServiceGrpc.getUnaryCallMethod().getFullMethodName(),
+                                  HttpHeaderNames.CONTENT_TYPE, "application/grpc-web",
+                                  GrpcHeaderNames.GRPC_ACCEPT_ENCODING, "gzip"),
+                GrpcTestUtil.uncompressedFrame(GrpcTestUtil.protoByteBuf(request))).aggregate().join();
+    }
+}
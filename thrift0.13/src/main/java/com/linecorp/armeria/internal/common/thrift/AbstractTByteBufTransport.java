@@ -16,6 +16,7 @@
 
 package com.linecorp.armeria.internal.common.thrift;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 import org.apache.thrift.transport.TTransport;
@@ -24,13 +25,31 @@ import org.apache.thrift.transport.TTransportException;
 import com.linecorp.armeria.common.annotation.Nullable;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 
 abstract class AbstractTByteBufTransport extends TTransport {
 
     private final ByteBuf buf;
+    @Nullable
+    private final ByteBufAllocator chunkAlloc;
+    private final int chunkSize;
 
     protected AbstractTByteBufTransport(ByteBuf buf) {
         this.buf = requireNonNull(buf, "buf");
+        chunkAlloc = null;
+        chunkSize = 0;
+    }
+
+    /**
+     * Creates a new transport which writes into the specified {@link CompositeByteBuf} by appending
+     * the chunks of the specified size, so that the written bytes are never copied into a larger buffer.
+     */
+    protected AbstractTByteBufTransport(CompositeByteBuf buf, ByteBufAllocator chunkAlloc, int chunkSize) {
+        checkArgument(chunkSize > 0, "chunkSize: %s (expected: > 0)", chunkSize);
+        this.buf = requireNonNull(buf, "buf");
+        this.chunkAlloc = requireNonNull(chunkAlloc, "chunkAlloc");
+        this.chunkSize = chunkSize;
     }
 
     @Override
@@ -67,6 +86,15 @@ abstract class AbstractTByteBufTransport extends TTransport {
 
     @Override
     public void write(byte[] buf, int off, int len) {
+        if (chunkAlloc != null) {
+            final CompositeByteBuf composite = (CompositeByteBuf) this.buf;
+            while (composite.writableBytes() < len) {
+                final ByteBuf chunk = chunkAlloc.buffer(chunkSize, chunkSize);
+                // Make the whole chunk a part of the capacity of the composite buffer.
+                chunk.writerIndex(chunkSize);
+                composite.addComponent(false, chunk);
+            }
+        }
         this.buf.writeBytes(buf, off, len);
     }
 
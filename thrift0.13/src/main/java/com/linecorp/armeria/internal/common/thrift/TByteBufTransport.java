@@ -17,10 +17,16 @@
 package com.linecorp.armeria.internal.common.thrift;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 
 public final class TByteBufTransport extends AbstractTByteBufTransport {
 
     public TByteBufTransport(ByteBuf buf) {
         super(buf);
     }
+
+    public TByteBufTransport(CompositeByteBuf buf, ByteBufAllocator chunkAlloc, int chunkSize) {
+        super(buf, chunkAlloc, chunkSize);
+    }
 }
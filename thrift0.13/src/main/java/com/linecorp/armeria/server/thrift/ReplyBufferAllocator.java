@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.thrift;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.thrift.transport.TTransport;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.linecorp.armeria.internal.common.thrift.TByteBufTransport;
+import com.linecorp.armeria.internal.common.thrift.ThriftFunction;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+
+/**
+ * Allocates the {@link ByteBuf}s which the replies of a {@link THttpService} are serialized into.
+ * The size of the replies of each {@link ThriftFunction} is learned so that a reply is rarely copied into
+ * a larger buffer while it is serialized. A reply which is expected to be larger than {@link #CHUNK_SIZE}
+ * is serialized into a {@link CompositeByteBuf} which grows by appending fixed-size chunks instead.
+ */
+final class ReplyBufferAllocator {
+
+    @VisibleForTesting
+    static final int INITIAL_ESTIMATE = 128;
+
+    @VisibleForTesting
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Map<ThriftFunction, AtomicInteger> estimates = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the expected size of a reply of the specified {@link ThriftFunction}.
+     */
+    int estimate(ThriftFunction func) {
+        final AtomicInteger estimate = estimates.get(func);
+        return estimate != null ? estimate.get() : INITIAL_ESTIMATE;
+    }
+
+    /**
+     * Updates the expected size of a reply of the specified {@link ThriftFunction} with the size of
+     * the reply which has just been serialized. The estimate grows immediately so that the next reply of
+     * the same size does not need to be copied, but shrinks gradually so that a few small replies, such as
+     * exceptions, do not undo it.
+     */
+    void record(ThriftFunction func, int actualSize) {
+        AtomicInteger estimate = estimates.get(func);
+        if (estimate == null) {
+            estimate = estimates.computeIfAbsent(func, unused -> new AtomicInteger(INITIAL_ESTIMATE));
+        }
+
+        // A lost update between the concurrent replies is harmless because this is only a hint.
+        final int oldEstimate = estimate.get();
+        if (actualSize > oldEstimate) {
+            estimate.set(actualSize);
+        } else if (actualSize < oldEstimate >>> 1) {
+            estimate.set(Math.max(INITIAL_ESTIMATE, oldEstimate - ((oldEstimate - actualSize) >>> 3)));
+        }
+    }
+
+    /**
+     * Returns a new {@link ByteBuf} for a reply whose size is expected to be {@code estimatedSize}.
+     */
+    static ByteBuf allocate(ByteBufAllocator alloc, int estimatedSize) {
+        if (estimatedSize > CHUNK_SIZE) {
+            return alloc.compositeBuffer(Integer.MAX_VALUE);
+        }
+        return alloc.buffer(Math.max(estimatedSize, INITIAL_ESTIMATE));
+    }
+
+    /**
+     * Returns a new {@link TTransport} which writes into the specified {@link ByteBuf} returned by
+     * {@link #allocate(ByteBufAllocator, int)}.
+     */
+    static TTransport newTransport(ByteBufAllocator alloc, ByteBuf buf) {
+        if (buf instanceof CompositeByteBuf) {
+            return new TByteBufTransport((CompositeByteBuf) buf, alloc, CHUNK_SIZE);
+        }
+        return new TByteBufTransport(buf);
+    }
+}
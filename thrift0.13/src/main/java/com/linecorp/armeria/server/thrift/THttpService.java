@@ -74,6 +74,8 @@ import com.linecorp.armeria.server.Service;
 import com.linecorp.armeria.server.ServiceRequestContext;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 
 /**
  * An {@link HttpService} that handles a Thrift call.
@@ -85,6 +87,12 @@ public final class THttpService extends DecoratingService<RpcRequest, RpcRespons
 
     private static final Logger logger = LoggerFactory.getLogger(THttpService.class);
 
+    /**
+     * The approximate size of a serialized {@link TApplicationException} excluding its method name and
+     * message, which is used for estimating the size of the buffer to encode it into.
+     */
+    private static final int EXCEPTION_OVERHEAD = 64;
+
     private static final String PROTOCOL_NOT_SUPPORTED = "Specified content-type not supported";
 
     private static final String ACCEPT_THRIFT_PROTOCOL_MUST_MATCH_CONTENT_TYPE =
@@ -266,6 +274,7 @@ public final class THttpService extends DecoratingService<RpcRequest, RpcRespons
     private final Set<SerializationFormat> supportedSerializationFormats;
     private final BiFunction<? super ServiceRequestContext, ? super Throwable, ? extends RpcResponse>
             exceptionHandler;
+    private final ReplyBufferAllocator replyBufferAllocator = new ReplyBufferAllocator();
 
     THttpService(RpcService delegate, SerializationFormat defaultSerializationFormat,
                  Set<SerializationFormat> supportedSerializationFormats,
@@ -564,14 +573,14 @@ public final class THttpService extends DecoratingService<RpcRequest, RpcRespons
         return RpcRequest.of(serviceType, method, list);
     }
 
-    private static void handleSuccess(
+    private void handleSuccess(
             ServiceRequestContext ctx, RpcResponse rpcRes, CompletableFuture<HttpResponse> httpRes,
             SerializationFormat serializationFormat, int seqId, ThriftFunction func, Object returnValue) {
 
         final TBase<?, ?> wrappedResult = func.newResult();
         func.setSuccess(wrappedResult, returnValue);
         respond(serializationFormat,
-                encodeSuccess(ctx, rpcRes, serializationFormat, func.name(), seqId, wrappedResult),
+                encodeSuccess(ctx, rpcRes, serializationFormat, func, seqId, wrappedResult),
                 httpRes);
     }
 
@@ -605,7 +614,7 @@ public final class THttpService extends DecoratingService<RpcRequest, RpcRespons
         return res;
     }
 
-    private static void handleException(
+    private void handleException(
             ServiceRequestContext ctx, RpcResponse rpcRes, CompletableFuture<HttpResponse> httpRes,
             SerializationFormat serializationFormat, int seqId, ThriftFunction func, Throwable cause) {
 
@@ -622,7 +631,7 @@ public final class THttpService extends DecoratingService<RpcRequest, RpcRespons
         final TBase<?, ?> result = func.newResult();
         final HttpData content;
         if (func.setException(result, cause)) {
-            content = encodeSuccess(ctx, rpcRes, serializationFormat, func.name(), seqId, result);
+            content = encodeSuccess(ctx, rpcRes, serializationFormat, func, seqId, result);
         } else {
             content = encodeException(ctx, rpcRes, serializationFormat, seqId, func.name(), cause);
         }
@@ -644,22 +653,24 @@ public final class THttpService extends DecoratingService<RpcRequest, RpcRespons
         res.complete(HttpResponse.of(HttpStatus.OK, serializationFormat.mediaType(), content));
     }
 
-    private static HttpData encodeSuccess(ServiceRequestContext ctx,
-                                          RpcResponse reply,
-                                          SerializationFormat serializationFormat,
-                                          String methodName, int seqId,
-                                          TBase<?, ?> result) {
+    private HttpData encodeSuccess(ServiceRequestContext ctx,
+                                   RpcResponse reply,
+                                   SerializationFormat serializationFormat,
+                                   ThriftFunction func, int seqId,
+                                   TBase<?, ?> result) {
 
-        final ByteBuf buf = ctx.alloc().buffer(128);
+        final ByteBufAllocator alloc = ctx.alloc();
+        final ByteBuf buf = ReplyBufferAllocator.allocate(alloc, replyBufferAllocator.estimate(func));
         boolean success = false;
         try {
-            final TTransport transport = new TByteBufTransport(buf);
+            final TTransport transport = ReplyBufferAllocator.newTransport(alloc, buf);
             final TProtocol outProto = ThriftSerializationFormats.protocolFactory(serializationFormat)
                                                                  .getProtocol(transport);
-            final TMessage header = new TMessage(methodName, TMessageType.REPLY, seqId);
+            final TMessage header = new TMessage(func.name(), TMessageType.REPLY, seqId);
             outProto.writeMessageBegin(header);
             result.write(outProto);
             outProto.writeMessageEnd();
+            replyBufferAllocator.record(func, buf.readableBytes());
 
             ctx.logBuilder().responseContent(reply, new ThriftReply(header, result));
 
@@ -698,10 +709,15 @@ public final class THttpService extends DecoratingService<RpcRequest, RpcRespons
             appException.initCause(cause);
         }
 
-        final ByteBuf buf = ctx.alloc().buffer(128);
+        // An exception is encoded rarely, so its size is estimated from its message instead of learned.
+        final String message = appException.getMessage();
+        final int estimatedSize = EXCEPTION_OVERHEAD + ByteBufUtil.utf8Bytes(methodName) +
+                                  (message != null ? ByteBufUtil.utf8Bytes(message) : 0);
+        final ByteBufAllocator alloc = ctx.alloc();
+        final ByteBuf buf = ReplyBufferAllocator.allocate(alloc, estimatedSize);
         boolean success = false;
         try {
-            final TTransport transport = new TByteBufTransport(buf);
+            final TTransport transport = ReplyBufferAllocator.newTransport(alloc, buf);
             final TProtocol outProto = ThriftSerializationFormats.protocolFactory(serializationFormat)
                                                                  .getProtocol(transport);
             final TMessage header = new TMessage(methodName, TMessageType.EXCEPTION, seqId);
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.linecorp.armeria.server.thrift;
+
+import static com.linecorp.armeria.server.thrift.ReplyBufferAllocator.CHUNK_SIZE;
+import static com.linecorp.armeria.server.thrift.ReplyBufferAllocator.INITIAL_ESTIMATE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.thrift.transport.TTransport;
+import org.junit.jupiter.api.Test;
+
+import com.linecorp.armeria.internal.common.thrift.ThriftFunction;
+import com.linecorp.armeria.internal.common.thrift.ThriftServiceMetadata;
+import com.linecorp.armeria.service.test.thrift.main.HelloService;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+
+class ReplyBufferAllocatorTest {
+
+    private static final ThriftFunction HELLO =
+            new ThriftServiceMetadata(HelloService.AsyncIface.class).function("hello");
+
+    @Test
+    void growsImmediatelyAndShrinksGradually() {
+        final ReplyBufferAllocator allocator = new ReplyBufferAllocator();
+        assertThat(allocator.estimate(HELLO)).isEqualTo(INITIAL_ESTIMATE);
+
+        allocator.record(HELLO, 100_000);
+        assertThat(allocator.estimate(HELLO)).isEqualTo(100_000);
+
+        // Not shrunk by a reply which is not much smaller.
+        allocator.record(HELLO, 60_000);
+        assertThat(allocator.estimate(HELLO)).isEqualTo(100_000);
+
+        allocator.record(HELLO, 20_000);
+        assertThat(allocator.estimate(HELLO)).isEqualTo(90_000);
+
+        for (int i = 0; i < 100; i++) {
+            allocator.record(HELLO, 0);
+        }
+        assertThat(allocator.estimate(HELLO)).isEqualTo(INITIAL_ESTIMATE);
+    }
+
+    @Test
+    void smallReplyIsWrittenIntoContiguousBuffer() {
+        final ByteBuf buf = ReplyBufferAllocator.allocate(ByteBufAllocator.DEFAULT, 1000);
+        try {
+            assertThat(buf).isNotInstanceOf(CompositeByteBuf.class);
+            assertThat(buf.capacity()).isGreaterThanOrEqualTo(1000);
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Test
+    void largeReplyIsWrittenIntoChunks() throws Exception {
+        final ByteBuf buf = ReplyBufferAllocator.allocate(ByteBufAllocator.DEFAULT, CHUNK_SIZE + 1);
+        try {
+            assertThat(buf).isInstanceOf(CompositeByteBuf.class);
+            final TTransport transport = ReplyBufferAllocator.newTransport(ByteBufAllocator.DEFAULT, buf);
+
+            final byte[] data = new byte[CHUNK_SIZE / 2 + 1];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) i;
+            }
+            for (int i = 0; i < 5; i++) {
+                transport.write(data);
+            }
+
+            final CompositeByteBuf composite = (CompositeByteBuf) buf;
+            assertThat(composite.readableBytes()).isEqualTo(data.length * 5);
+            assertThat(composite.numComponents()).isEqualTo(3);
+            for (int i = 0; i < composite.numComponents(); i++) {
+                assertThat(composite.internalComponent(i).capacity()).isEqualTo(CHUNK_SIZE);
+            }
+            for (int i = 0; i < 5; i++) {
+                final byte[] actual = new byte[data.length];
+                composite.readBytes(actual);
+                assertThat(actual).isEqualTo(data);
+            }
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -21,6 +21,8 @@ import org.apache.thrift.transport.TTransportException;
 import com.linecorp.armeria.common.annotation.Nullable;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 
 public final class TByteBufTransport extends AbstractTByteBufTransport {
 
@@ -28,6 +30,10 @@ public final class TByteBufTransport extends AbstractTByteBufTransport {
         super(buf);
     }
 
+    public TByteBufTransport(CompositeByteBuf buf, ByteBufAllocator chunkAlloc, int chunkSize) {
+        super(buf, chunkAlloc, chunkSize);
+    }
+
     @Nullable
     @Override
     public TConfiguration getConfiguration() {